@@ -0,0 +1,98 @@
+package com.baoyubo.iec104.benchmark;
+
+import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.manager.ControlManager;
+import com.baoyubo.iec104.model.Message;
+import com.baoyubo.iec104.model.MessageVSQ;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基准测试 消息构建工具
+ *
+ * @author yubo.bao
+ * @date 2026/10/17 14:20
+ */
+public final class BenchmarkMessages {
+
+    /**
+     * 遥测参数 (信息对象地址从 firstInfoAddress 开始连续自增)
+     *
+     * @param firstInfoAddress 首个信息对象地址
+     * @param pointCount       点数
+     * @return 遥测参数
+     */
+    public static Map<Integer, Object> telemetryParams(int firstInfoAddress, int pointCount) {
+        Map<Integer, Object> params = new LinkedHashMap<>();
+        for (int i = 0; i < pointCount; i++) {
+            params.put(firstInfoAddress + i, (float) (i * 0.5));
+        }
+        return params;
+    }
+
+
+    /**
+     * 遥信参数 (信息对象地址从 firstInfoAddress 开始连续自增)
+     *
+     * @param firstInfoAddress 首个信息对象地址
+     * @param pointCount       点数
+     * @return 遥信参数
+     */
+    public static Map<Integer, Object> harunobuParams(int firstInfoAddress, int pointCount) {
+        Map<Integer, Object> params = new LinkedHashMap<>();
+        for (int i = 0; i < pointCount; i++) {
+            params.put(firstInfoAddress + i, i & 1);
+        }
+        return params;
+    }
+
+
+    /**
+     * 填充I帧控制域 (模拟 CommonDataHandler)
+     *
+     * @param message    message
+     * @param controlMgr controlMgr
+     * @return message
+     */
+    public static Message withIControl(Message message, ControlManager controlMgr) {
+        message.setControl(MessageFactory.commonBuildIControl(controlMgr));
+        return message;
+    }
+
+
+    /**
+     * 按类型标识构建消息 (I帧, 未填充控制域)
+     *
+     * @param typeId     类型标识: M_SP_NA (单点遥信), M_ME_NC (短浮点遥测), C_DC_NA (双点遥控), C_CS_NA (时钟同步)
+     * @param continuous 信息对象地址是否连续 (VSQ 的 SQ 位)
+     * @param pointCount 点数 (C_CS_NA 固定为1)
+     * @return message
+     */
+    public static Message message(String typeId, boolean continuous, int pointCount) {
+        Message message;
+        switch (typeId) {
+            case "M_SP_NA":
+                message = MessageFactory.buildServerHarunobuMessage(false, harunobuParams(1000, pointCount));
+                break;
+            case "M_ME_NC":
+                message = MessageFactory.buildServerTelemetryMessage(false, telemetryParams(1000, pointCount));
+                break;
+            case "C_DC_NA":
+                message = MessageFactory.buildClientRemoteControlSelectMessage(harunobuParams(1000, pointCount));
+                break;
+            case "C_CS_NA":
+                message = MessageFactory.buildClientTimeSyncMessage(new Date(1_700_000_000_000L));
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的类型标识: " + typeId);
+        }
+        message.getAsdu().setVsq(new MessageVSQ(continuous, message.getAsdu().getMessageInfoList().size()));
+        return message;
+    }
+
+
+    private BenchmarkMessages() {
+    }
+}
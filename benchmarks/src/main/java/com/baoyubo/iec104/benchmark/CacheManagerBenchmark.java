@@ -0,0 +1,97 @@
+package com.baoyubo.iec104.benchmark;
+
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.manager.CacheManager;
+import com.baoyubo.iec104.model.Message;
+import com.baoyubo.iec104.model.MessageControl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息缓存基准测试: 按发送窗口 add/removeLess, 序列号持续跨越 32767 -> 0 回绕
+ * <p>
+ * 每次调用发送一帧, 未确认数量达到 window 时 确认 ackBatch 帧 (模拟对方的S帧)
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 20:30
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheManagerBenchmark {
+
+    /**
+     * 发送窗口 (未确认的最大数量k)
+     */
+    @Param({"12", "256"})
+    private int window;
+
+    /**
+     * 每次确认的数量w
+     */
+    @Param({"1", "8"})
+    private int ackBatch;
+
+    /**
+     * 所有序列号对应的消息 (预先创建, 测量时不分配)
+     */
+    private Message[] messages;
+
+    private CacheManager cacheMgr;
+
+    private int sendSequenceNum;
+
+    private int ackSequenceNum;
+
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messages = new Message[Constants.SEQUENCE_NUM_MAX + 1];
+        for (int i = 0; i < messages.length; i++) {
+            MessageControl control = new MessageControl();
+            control.setSendSequenceNum((short) i);
+            Message message = new Message();
+            message.setControl(control);
+            messages[i] = message;
+        }
+        cacheMgr = new CacheManager();
+
+        // 从回绕前开始
+        sendSequenceNum = Constants.SEQUENCE_NUM_MAX - window;
+        ackSequenceNum = sendSequenceNum;
+    }
+
+
+    @Benchmark
+    public int addAndAck() {
+        cacheMgr.add(messages[sendSequenceNum]);
+        sendSequenceNum = next(sendSequenceNum, 1);
+
+        if (cacheMgr.size() >= window) {
+            ackSequenceNum = next(ackSequenceNum, ackBatch);
+            cacheMgr.removeLess((short) ackSequenceNum);
+        }
+        return cacheMgr.size();
+    }
+
+
+    private static int next(int sequenceNum, int increment) {
+        return (sequenceNum + increment) % (Constants.SEQUENCE_NUM_MAX + 1);
+    }
+
+}
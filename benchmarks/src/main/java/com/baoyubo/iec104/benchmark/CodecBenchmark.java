@@ -0,0 +1,123 @@
+package com.baoyubo.iec104.benchmark;
+
+import com.baoyubo.iec104.handler.DataDecoder;
+import com.baoyubo.iec104.handler.DataEncoder;
+import com.baoyubo.iec104.manager.ControlManager;
+import com.baoyubo.iec104.model.Message;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCounted;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编解码基准测试: DataEncoder 编码、DataDecoder 解码 (Message / 只读视图) 及往返
+ * <p>
+ * 按类型标识 (M_SP_NA、M_ME_NC、C_DC_NA、C_CS_NA) 及 VSQ 的 SQ 位 (连续/非连续) 组合; 使用 -prof gc 对比每帧的分配量
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 20:30
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"M_SP_NA", "M_ME_NC", "C_DC_NA", "C_CS_NA"})
+    private String typeId;
+
+    @Param({"false", "true"})
+    private boolean continuous;
+
+    /**
+     * 每个APDU中的点数 (C_CS_NA 固定为1)
+     */
+    @Param({"16"})
+    private int pointCount;
+
+    private Message message;
+
+    /**
+     * 已编码的一帧报文 (解码时使用 retainedDuplicate)
+     */
+    private ByteBuf frame;
+
+    private EmbeddedChannel encodeChannel;
+
+    private EmbeddedChannel decodeChannel;
+
+    private EmbeddedChannel flyweightDecodeChannel;
+
+
+    @Setup(Level.Trial)
+    public void setup() {
+        message = BenchmarkMessages.withIControl(BenchmarkMessages.message(typeId, continuous, pointCount), new ControlManager("Benchmark"));
+        encodeChannel = new EmbeddedChannel(new DataEncoder("Benchmark"));
+        decodeChannel = new EmbeddedChannel(new DataDecoder("Benchmark", false));
+        flyweightDecodeChannel = new EmbeddedChannel(new DataDecoder("Benchmark", true));
+
+        encodeChannel.writeAndFlush(message);
+        frame = encodeChannel.readOutbound();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        frame.release();
+        encodeChannel.finishAndReleaseAll();
+        decodeChannel.finishAndReleaseAll();
+        flyweightDecodeChannel.finishAndReleaseAll();
+    }
+
+
+    @Benchmark
+    public int encode() {
+        encodeChannel.writeAndFlush(message);
+        ByteBuf encoded = encodeChannel.readOutbound();
+        int length = encoded.readableBytes();
+        encoded.release();
+        return length;
+    }
+
+
+    @Benchmark
+    public Object decode() {
+        decodeChannel.writeInbound(frame.retainedDuplicate());
+        return decodeChannel.readInbound();
+    }
+
+
+    @Benchmark
+    public int decodeFlyweight() {
+        flyweightDecodeChannel.writeInbound(frame.retainedDuplicate());
+        ReferenceCounted view = flyweightDecodeChannel.readInbound();
+        int refCnt = view.refCnt();
+        view.release();
+        return refCnt;
+    }
+
+
+    @Benchmark
+    public Object roundTrip() {
+        encodeChannel.writeAndFlush(message);
+        decodeChannel.writeInbound(encodeChannel.<ByteBuf>readOutbound());
+        return decodeChannel.readInbound();
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.baoyubo.iec104.benchmark;
+
+import com.baoyubo.iec104.util.ByteUtil;
+import com.baoyubo.iec104.util.Cp56Time2aCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CP56Time2a 时标 编解码基准测试 (ByteUtil 对比 Cp56Time2aCodec), 使用 -prof gc 对比每次转换的分配量
+ * <p>
+ * codecEncodeBurst 模拟 SOE 批量时标 (同一天内连续的时标, 命中日期缓存)
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 20:30
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Cp56TimeBenchmark {
+
+    private Date date;
+
+    private byte[] cp56Time;
+
+    private final Cp56Time2aCodec codec = Cp56Time2aCodec.DEFAULT;
+
+    private ByteBuf encodeBuf;
+
+    private ByteBuf decodeBuf;
+
+    private long epochMillis;
+
+
+    @Setup(Level.Trial)
+    public void setup() {
+        date = new Date(1_700_000_000_123L);
+        cp56Time = ByteUtil.dateToCP56TimeByteArray(date);
+        encodeBuf = Unpooled.buffer(Cp56Time2aCodec.LENGTH);
+        decodeBuf = Unpooled.wrappedBuffer(cp56Time);
+        epochMillis = date.getTime();
+    }
+
+
+    @Benchmark
+    public byte[] dateToCP56Time() {
+        return ByteUtil.dateToCP56TimeByteArray(date);
+    }
+
+
+    @Benchmark
+    public Date cp56TimeToDate() {
+        return ByteUtil.cp56TimeByteArrayToDate(cp56Time);
+    }
+
+
+    @Benchmark
+    public ByteBuf codecEncode() {
+        encodeBuf.clear();
+        codec.write(encodeBuf, epochMillis);
+        return encodeBuf;
+    }
+
+
+    @Benchmark
+    public long codecDecode() {
+        return codec.get(decodeBuf, 0);
+    }
+
+
+    @Benchmark
+    public ByteBuf codecEncodeBurst() {
+        // 每次调用时标前进 1ms
+        encodeBuf.clear();
+        codec.write(encodeBuf, epochMillis++);
+        return encodeBuf;
+    }
+
+}
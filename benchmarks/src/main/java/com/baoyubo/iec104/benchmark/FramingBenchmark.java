@@ -0,0 +1,149 @@
+package com.baoyubo.iec104.benchmark;
+
+import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.handler.DataEncoder;
+import com.baoyubo.iec104.handler.LengthAndHeaderPrepender;
+import com.baoyubo.iec104.manager.ControlManager;
+import com.baoyubo.iec104.model.Message;
+import com.baoyubo.iec104.model.MessageASDU;
+import com.baoyubo.iec104.model.MessageInfo;
+import com.baoyubo.iec104.util.ByteUtil;
+import com.baoyubo.iec104.util.Iec104ByteUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分帧基准测试: 单缓冲区编码 (DataEncoder) 对比 原三缓冲区路径 (字节数组编码 + LengthAndHeaderPrepender)
+ * <p>
+ * 得分单位为 每秒APDU数 (单个 channel), 目标区间为 10k ~ 100k APDUs/s; 使用 -prof gc 对比每个APDU的分配量
+ *
+ * @author yubo.bao
+ * @date 2026/10/17 14:20
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FramingBenchmark {
+
+    /**
+     * 每个APDU中的遥测点数 (SQ=0 短浮点数 每个信息对象8字节, 最多30个: APDU长度 4 + 6 + 30 * 8 = 250, 不超过253)
+     */
+    @Param({"1", "16", "30"})
+    private int pointCount;
+
+    private Message message;
+
+    private EmbeddedChannel singleBufferChannel;
+
+    private EmbeddedChannel legacyChannel;
+
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("deprecation")
+    public void setup() {
+        message = BenchmarkMessages.withIControl(
+                MessageFactory.buildServerTelemetryMessage(false, BenchmarkMessages.telemetryParams(1000, pointCount)),
+                new ControlManager("Benchmark"));
+        singleBufferChannel = new EmbeddedChannel(new DataEncoder("Benchmark"));
+        legacyChannel = new EmbeddedChannel(new LengthAndHeaderPrepender(), new LegacyByteArrayEncoder());
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        singleBufferChannel.finishAndReleaseAll();
+        legacyChannel.finishAndReleaseAll();
+    }
+
+
+    @Benchmark
+    public int singleBuffer() {
+        return writeAndDrain(singleBufferChannel);
+    }
+
+
+    @Benchmark
+    public int legacyThreeBuffers() {
+        return writeAndDrain(legacyChannel);
+    }
+
+
+    /**
+     * 写出一个APDU并释放所有出站缓冲区
+     *
+     * @return 出站缓冲区个数
+     */
+    private int writeAndDrain(EmbeddedChannel channel) {
+        channel.writeAndFlush(message);
+        int buffers = 0;
+        Object outbound;
+        while ((outbound = channel.readOutbound()) != null) {
+            buffers++;
+            ReferenceCountUtil.release(outbound);
+        }
+        return buffers;
+    }
+
+
+    /**
+     * 原编码路径 (ByteArrayOutputStream 编码 控制域 + ASDU, 由 LengthAndHeaderPrepender 填充 启动字符、APDU长度)
+     */
+    static final class LegacyByteArrayEncoder extends MessageToByteEncoder<Message> {
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, Message message, ByteBuf byteBuf) throws Exception {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            if (FrameTypeEnum.I_FRAME == message.getFrameType()) {
+                bytes.write(Iec104ByteUtil.iControlToByteArray(message.getControl().getSendSequenceNum(), message.getControl().getReceiveSequenceNum()));
+                bytes.write(encodeASDU(message.getAsdu()));
+            }
+            byteBuf.writeBytes(bytes.toByteArray());
+        }
+
+        private byte[] encodeASDU(MessageASDU asdu) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bytes.write(asdu.getTypeIdentifier().getValue());
+            bytes.write(Iec104ByteUtil.vsqToByteArray(asdu.getVsq()));
+            bytes.write(Iec104ByteUtil.reasonToByteArray(asdu.getTransferReason()));
+            bytes.write(Iec104ByteUtil.commonAddressToByteArrays(asdu.getCommonAddress()));
+            for (MessageInfo info : asdu.getMessageInfoList()) {
+                bytes.write(Iec104ByteUtil.infoAddressToByteArray(info.getInfoAddress()));
+                if (info.getInfoValue() != null) {
+                    bytes.write(info.getInfoValue());
+                }
+                if (info.getQualifier() != null) {
+                    bytes.write(info.getQualifier().getValue());
+                }
+                if (info.getTimeScale() != null) {
+                    bytes.write(ByteUtil.dateToCP56TimeByteArray(info.getTimeScale()));
+                }
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+}
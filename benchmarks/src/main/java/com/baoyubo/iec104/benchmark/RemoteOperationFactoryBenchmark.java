@@ -0,0 +1,75 @@
+package com.baoyubo.iec104.benchmark;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.factory.RemoteOperationFactory;
+import com.baoyubo.iec104.model.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 协议模型 与 业务模型 转换基准测试 (RemoteOperationFactory / MessageFactory), 使用 -prof gc 对比每次转换的分配量
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 20:30
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RemoteOperationFactoryBenchmark {
+
+    /**
+     * 每个APDU中的点数
+     */
+    @Param({"1", "16", "40"})
+    private int pointCount;
+
+    private Message telemetryMessage;
+
+    private Message harunobuMessage;
+
+    private RemoteOperation telemetryOperation;
+
+
+    @Setup(Level.Trial)
+    public void setup() {
+        telemetryMessage = MessageFactory.buildServerTelemetryMessage(false, BenchmarkMessages.telemetryParams(1000, pointCount));
+        harunobuMessage = MessageFactory.buildServerHarunobuMessage(false, BenchmarkMessages.harunobuParams(1000, pointCount));
+        telemetryOperation = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.TELEMETRY, telemetryMessage);
+    }
+
+
+    @Benchmark
+    public RemoteOperation telemetryToRemoteOperation() {
+        return RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.TELEMETRY, telemetryMessage);
+    }
+
+
+    @Benchmark
+    public RemoteOperation harunobuToRemoteOperation() {
+        return RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.HARUNOBU, harunobuMessage);
+    }
+
+
+    @Benchmark
+    public Message remoteOperationToTelemetry() {
+        return MessageFactory.buildServerMessageByRemoteOperation(telemetryOperation);
+    }
+
+}
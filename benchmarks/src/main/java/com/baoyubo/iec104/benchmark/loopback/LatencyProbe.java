@@ -0,0 +1,158 @@
+package com.baoyubo.iec104.benchmark.loopback;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.RemoteOperation;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 端到端时延探针: 推送时打点, 客户端业务收到时记录时延
+ * <pre>
+ * 1. 序号写入第一个遥测点 (信息对象地址 SEQUENCE_ADDRESS) 的值, 短浮点数可精确表示 [0, 2^24) 的整数
+ * 2. 推送时间按 序号 存入环形数组, 客户端按报文中的序号取回推送时间 (不依赖连接、不依赖到达顺序)
+ * 3. 多个客户端线程并发记录, 使用 HdrHistogram Recorder (单位微秒)
+ * 4. 测量开始后, 序号在测量起点之前的消息 (预热阶段推送、测量阶段才到达) 不计入统计 (按 2^24 取模比较先后)
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 21:00
+ */
+public class LatencyProbe implements Consumer<RemoteOperation> {
+
+    /**
+     * 序号所在的信息对象地址
+     */
+    public static final int SEQUENCE_ADDRESS = 0x4001;
+
+    /**
+     * 序号取值范围 (短浮点数可精确表示的整数)
+     */
+    private static final int SEQUENCE_MASK = (1 << 24) - 1;
+
+    /**
+     * 取模比较先后的半区间
+     */
+    private static final int SEQUENCE_HALF = 1 << 23;
+
+    /**
+     * 推送时间环形数组大小 (需大于在途消息数)
+     */
+    private static final int RING_SIZE = 1 << 20;
+
+    /**
+     * 序号 -> 推送时间 (纳秒)
+     */
+    private final AtomicLongArray pushNanos = new AtomicLongArray(RING_SIZE);
+
+    /**
+     * 时延记录 (微秒, 自动扩展范围)
+     */
+    private final Recorder recorder = new Recorder(3);
+
+    /**
+     * 收到的遥测消息数
+     */
+    private final LongAdder receivedCount = new LongAdder();
+
+    /**
+     * 每条消息的遥测点数量 (包含序号点)
+     */
+    private final int pointCount;
+
+    /**
+     * 测量起点序号
+     */
+    private volatile int measureFrom;
+
+
+    /**
+     * 构造函数
+     *
+     * @param pointCount 每条消息的遥测点数量 (包含序号点)
+     */
+    public LatencyProbe(int pointCount) {
+        this.pointCount = Math.max(pointCount, 1);
+    }
+
+
+    /**
+     * 构建第 sequence 条遥测消息, 并记录推送时间 (推送前调用)
+     *
+     * @param sequence 推送序号
+     * @return 远程操控 (遥测)
+     */
+    public RemoteOperation stamp(long sequence) {
+        int seq = (int) (sequence & SEQUENCE_MASK);
+        Map<Integer, Object> params = new HashMap<>(pointCount * 2);
+        params.put(SEQUENCE_ADDRESS, (float) seq);
+        for (int i = 1; i < pointCount; i++) {
+            params.put(SEQUENCE_ADDRESS + i, i * 0.5f);
+        }
+        RemoteOperation remoteOperation = new RemoteOperation();
+        remoteOperation.setOperateType(RemoteOperateTypeEnum.TELEMETRY);
+        remoteOperation.setParams(params);
+
+        pushNanos.set(seq & (RING_SIZE - 1), System.nanoTime());
+        return remoteOperation;
+    }
+
+
+    /**
+     * 客户端业务处理: 只统计 突发遥测
+     */
+    @Override
+    public void accept(RemoteOperation remoteOperation) {
+        if (remoteOperation.getOperateType() != RemoteOperateTypeEnum.TELEMETRY || remoteOperation.getParams() == null) {
+            return;
+        }
+        Object value = remoteOperation.getParams().get(SEQUENCE_ADDRESS);
+        if (!(value instanceof Number)) {
+            return;
+        }
+        long now = System.nanoTime();
+        int seq = ((Number) value).intValue();
+        if (((seq - measureFrom) & SEQUENCE_MASK) >= SEQUENCE_HALF) {
+            return;
+        }
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(now - pushNanos.get(seq & (RING_SIZE - 1)));
+        recorder.recordValue(Math.max(latencyMicros, 0));
+        receivedCount.increment();
+    }
+
+
+    /**
+     * 已收到的遥测消息数
+     */
+    public long getReceivedCount() {
+        return receivedCount.sum();
+    }
+
+
+    /**
+     * 开始测量: 清零, 此后只统计序号不小于 nextSequence 的消息 (预热结束时调用)
+     *
+     * @param nextSequence 下一条推送的序号
+     */
+    public void startMeasure(long nextSequence) {
+        measureFrom = (int) (nextSequence & SEQUENCE_MASK);
+        recorder.reset();
+        receivedCount.reset();
+    }
+
+
+    /**
+     * 取出 上次清零/取出 以来的时延分布
+     *
+     * @return 时延分布 (微秒)
+     */
+    public Histogram takeHistogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+}
@@ -0,0 +1,300 @@
+package com.baoyubo.iec104.benchmark.loopback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.baoyubo.business.impl.Iec104ServerBiz;
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.client.Iec104ClientPool;
+import com.baoyubo.iec104.config.ClientConfig;
+import com.baoyubo.iec104.config.ClientPoolConfig;
+import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.handler.ClientDataHandler;
+import com.baoyubo.iec104.handler.CommonDataHandler;
+import com.baoyubo.iec104.handler.DataDecoder;
+import com.baoyubo.iec104.handler.DataEncoder;
+import com.baoyubo.iec104.handler.ServerDataHandler;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.HdrHistogram.Histogram;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 环回端到端 吞吐量/时延 压测
+ * <pre>
+ * 服务端按固定速率推送突发遥测, N 个客户端接收, 统计 消息数/秒、字节数/秒、p50/p99/p999 时延 (HdrHistogram)
+ * 时延: ServerBiz.pushData 调用前 -> 客户端业务数据消费者 (即 ClientBiz.handleData) 调用时
+ * (Iec104ClientBiz 以 host:port 作为子站标识, 同一端口只能连接一次, 因此直接使用连接池并以 LatencyProbe 作为业务数据消费者)
+ *
+ * 模式 (-Dmode):
+ * 1. tcp      : Iec104ServerBiz + 客户端连接池 (N 个子站), 经过 localhost TCP (完整的 Netty 线程模型及系统调用)
+ * 2. embedded : 每个客户端一对 EmbeddedChannel (服务端/客户端完整 pipeline), 单线程搬运字节, 只测量 CPU 开销
+ *
+ * 参数 (系统属性):
+ * -Dmode=tcp  -Dclients=4  -Drate=10000 (每秒推送消息数, 0 为不限速)  -Dpoints=8 (每条消息的遥测点数)
+ * -Dwarmup=5  -Dduration=30 (秒)  -Dport=2404
+ *
+ * 运行:
+ * java -cp target/benchmarks.jar -Dmode=tcp -Dclients=8 -Drate=20000 com.baoyubo.iec104.benchmark.loopback.LoopbackHarness
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 21:00
+ */
+public class LoopbackHarness {
+
+    /**
+     * 推送结束后 等待客户端收完的最长时间 (秒)
+     */
+    private static final int DRAIN_SECONDS = 10;
+
+    private final String mode = System.getProperty("mode", "tcp");
+
+    private final int clients = Integer.getInteger("clients", 4);
+
+    private final int rate = Integer.getInteger("rate", 10000);
+
+    private final int points = Integer.getInteger("points", 8);
+
+    private final int warmupSeconds = Integer.getInteger("warmup", 5);
+
+    private final int durationSeconds = Integer.getInteger("duration", 30);
+
+    private final int port = Integer.getInteger("port", 2404);
+
+    private final LatencyProbe probe = new LatencyProbe(points);
+
+    /**
+     * 推送序号
+     */
+    private long sequence;
+
+    /**
+     * 测量阶段 推送消息数
+     */
+    private long pushedCount;
+
+    /**
+     * 测量阶段 开始/结束 时间 (纳秒)
+     */
+    private long measureStartNanos;
+
+    private long measureEndNanos;
+
+
+    public static void main(String[] args) throws Exception {
+        quietLogging();
+        new LoopbackHarness().run();
+    }
+
+
+    /**
+     * 压测期间 协议栈日志只保留 WARN 及以上 (INFO 日志会序列化每条消息, 严重影响结果)
+     */
+    private static void quietLogging() {
+        org.slf4j.Logger root = LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        if (root instanceof Logger) {
+            ((Logger) root).setLevel(Level.WARN);
+        }
+    }
+
+
+    private void run() throws Exception {
+        System.out.printf("mode=%s, clients=%d, rate=%d msg/s, points=%d, warmup=%ds, duration=%ds%n",
+                mode, clients, rate, points, warmupSeconds, durationSeconds);
+        if ("tcp".equalsIgnoreCase(mode)) {
+            runTcp();
+        } else if ("embedded".equalsIgnoreCase(mode)) {
+            runEmbedded();
+        } else {
+            throw new RuntimeException("不支持的模式: " + mode);
+        }
+    }
+
+
+    /**
+     * localhost TCP 模式
+     */
+    private void runTcp() throws InterruptedException {
+        Iec104ServerBiz serverBiz = new Iec104ServerBiz();
+        serverBiz.startServer(port);
+        Iec104ClientPool clientPool = new Iec104ClientPool(new ClientPoolConfig());
+        try {
+            for (int i = 0; i < clients; i++) {
+                ClientConfig config = new ClientConfig();
+                config.setRemoteHost("127.0.0.1");
+                config.setRemotePort(port);
+                clientPool.add("loopback-" + i, config, probe);
+            }
+            awaitConnections(serverBiz);
+
+            long frameBytes = frameBytes();
+            drive(() -> serverBiz.pushData(probe.stamp(sequence++)), () -> {
+            });
+            report(frameBytes);
+        } finally {
+            clientPool.close();
+            serverBiz.closeServer();
+        }
+    }
+
+
+    /**
+     * 等待所有客户端连接并启动链路
+     */
+    private void awaitConnections(Iec104ServerBiz serverBiz) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (serverBiz.getConnections().size() < clients) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new RuntimeException("客户端连接超时, 已连接 " + serverBiz.getConnections().size() + "/" + clients);
+            }
+            Thread.sleep(50);
+        }
+        // 启动链路 及 启动确认
+        Thread.sleep(500);
+    }
+
+
+    /**
+     * 单条消息的 APDU 字节数 (TCP 模式按此估算字节吞吐量)
+     */
+    private long frameBytes() {
+        EmbeddedChannel channel = new EmbeddedChannel(new DataEncoder("压测"), new CommonDataHandler("压测"));
+        channel.writeOutbound(MessageFactory.buildServerMessageByRemoteOperation(probe.stamp(0)));
+        ByteBuf byteBuf = channel.readOutbound();
+        long bytes = byteBuf.readableBytes();
+        byteBuf.release();
+        channel.finishAndReleaseAll();
+        return bytes;
+    }
+
+
+    /**
+     * EmbeddedChannel 模式 (单线程, 不经过 Socket)
+     */
+    private void runEmbedded() {
+        EmbeddedChannel[] serverChannels = new EmbeddedChannel[clients];
+        EmbeddedChannel[] clientChannels = new EmbeddedChannel[clients];
+        for (int i = 0; i < clients; i++) {
+            serverChannels[i] = new EmbeddedChannel(new LengthFieldBasedFrameDecoder(255, 1, 1, 0, 0),
+                    new DataEncoder("服务端"), new DataDecoder("服务端"), new CommonDataHandler("服务端"), new ServerDataHandler(operation -> {
+            }));
+            clientChannels[i] = new EmbeddedChannel(new LengthFieldBasedFrameDecoder(255, 1, 1, 0, 0),
+                    new DataEncoder("客户端"), new DataDecoder("客户端"), new CommonDataHandler("客户端"), new ClientDataHandler(probe));
+        }
+        long[] transferredBytes = new long[1];
+        Runnable pump = () -> {
+            for (int i = 0; i < clients; i++) {
+                transferredBytes[0] += transfer(serverChannels[i], clientChannels[i]);
+            }
+        };
+        // 启动链路 及 启动确认
+        pump.run();
+
+        drive(() -> {
+            RemoteOperation remoteOperation = probe.stamp(sequence++);
+            for (EmbeddedChannel serverChannel : serverChannels) {
+                serverChannel.writeAndFlush(MessageFactory.buildServerMessageByRemoteOperation(remoteOperation));
+            }
+            pump.run();
+        }, () -> transferredBytes[0] = 0);
+        report(transferredBytes[0] / Math.max(probe.getReceivedCount(), 1));
+
+        for (int i = 0; i < clients; i++) {
+            serverChannels[i].finishAndReleaseAll();
+            clientChannels[i].finishAndReleaseAll();
+        }
+    }
+
+
+    /**
+     * 两个 EmbeddedChannel 之间互相搬运字节, 直到双方都没有待发送的数据
+     *
+     * @return 服务端 -> 客户端 的字节数
+     */
+    private static long transfer(EmbeddedChannel server, EmbeddedChannel client) {
+        long bytes = 0;
+        boolean moved = true;
+        while (moved) {
+            server.runPendingTasks();
+            client.runPendingTasks();
+            moved = false;
+            ByteBuf byteBuf;
+            while ((byteBuf = server.readOutbound()) != null) {
+                bytes += byteBuf.readableBytes();
+                client.writeInbound(byteBuf);
+                moved = true;
+            }
+            while ((byteBuf = client.readOutbound()) != null) {
+                server.writeInbound(byteBuf);
+                moved = true;
+            }
+        }
+        return bytes;
+    }
+
+
+    /**
+     * 按速率推送: 预热 -> 清零 -> 测量 -> 等待客户端收完
+     *
+     * @param push           推送一条消息
+     * @param onMeasureStart 测量开始时的回调
+     */
+    private void drive(Runnable push, Runnable onMeasureStart) {
+        pushFor(push, warmupSeconds);
+        probe.startMeasure(sequence);
+        onMeasureStart.run();
+
+        measureStartNanos = System.nanoTime();
+        pushedCount = pushFor(push, durationSeconds);
+
+        long expected = pushedCount * clients;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_SECONDS);
+        while (probe.getReceivedCount() < expected && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        measureEndNanos = System.nanoTime();
+    }
+
+
+    /**
+     * 在指定时间内按速率推送 (rate <= 0 时不限速)
+     *
+     * @return 推送消息数
+     */
+    private long pushFor(Runnable push, int seconds) {
+        long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long count = 0;
+        for (long now = start; now < end; now = System.nanoTime()) {
+            long next = start + count * intervalNanos;
+            if (next > now) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            push.run();
+            count++;
+        }
+        return count;
+    }
+
+
+    private void report(long frameBytes) {
+        Histogram histogram = probe.takeHistogram();
+        long received = probe.getReceivedCount();
+        double seconds = (measureEndNanos - measureStartNanos) / 1e9;
+
+        System.out.printf(Locale.ROOT, "pushed   : %d msg x %d clients, received %d (%.2f%%)%n",
+                pushedCount, clients, received, pushedCount == 0 ? 0 : received * 100.0 / (pushedCount * clients));
+        System.out.printf(Locale.ROOT, "throughput: %.0f msg/s, %.0f bytes/s (%d bytes/msg)%n",
+                received / seconds, received * frameBytes / seconds, frameBytes);
+        System.out.printf(Locale.ROOT, "latency(us): p50=%d, p99=%d, p999=%d, max=%d, mean=%.1f%n",
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue(), histogram.getMean());
+    }
+
+}
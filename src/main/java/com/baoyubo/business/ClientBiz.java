@@ -1,6 +1,10 @@
 package com.baoyubo.business;
 
 import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.client.ClientPoolStats;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+
+import java.util.List;
 
 /**
  * 客户端 自定义业务处理
@@ -11,7 +15,7 @@ import com.baoyubo.business.model.RemoteOperation;
 public interface ClientBiz {
 
     /**
-     * 启动客户端
+     * 启动客户端 (子站标识为 remoteHost:remotePort, 已存在时先关闭原有连接)
      *
      * @param remoteHost 远程主机地址
      * @param remotePort 远程端口
@@ -19,17 +23,61 @@ public interface ClientBiz {
     void startClient(String remoteHost, int remotePort);
 
     /**
-     * 关闭客户端
+     * 关闭所有客户端
      */
     void closeClient();
 
     /**
-     * 推送远程操控数据
+     * 关闭指定客户端
+     *
+     * @param stationId 子站标识 (remoteHost:remotePort)
+     */
+    void closeClient(String stationId);
+
+    /**
+     * 推送远程操控数据 (所有已连接的子站)
      *
      * @param remoteOperation 远程操控
      */
     void pushData(RemoteOperation remoteOperation);
 
+    /**
+     * 推送远程操控数据 到指定子站
+     *
+     * @param stationId       子站标识 (remoteHost:remotePort)
+     * @param remoteOperation 远程操控
+     */
+    void pushData(String stationId, RemoteOperation remoteOperation);
+
+    /**
+     * 批量推送远程操控数据 (所有已连接的子站, 每个子站只 flush 一次)
+     *
+     * @param remoteOperations 远程操控列表
+     */
+    void pushBatchData(List<RemoteOperation> remoteOperations);
+
+    /**
+     * 批量推送远程操控数据 到指定子站
+     *
+     * @param stationId        子站标识 (remoteHost:remotePort)
+     * @param remoteOperations 远程操控列表
+     */
+    void pushBatchData(String stationId, List<RemoteOperation> remoteOperations);
+
+    /**
+     * 获取客户端连接池 统计数据
+     *
+     * @return ClientPoolStats
+     */
+    ClientPoolStats getStats();
+
+    /**
+     * 获取所有子站的协议统计
+     *
+     * @return 统计快照列表
+     */
+    List<ProtocolMetricsSnapshot> getMetrics();
+
     /**
      * 处理远程操控数据
      *
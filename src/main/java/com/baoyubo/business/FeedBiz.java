@@ -0,0 +1,47 @@
+package com.baoyubo.business;
+
+import com.baoyubo.business.model.FeedFilter;
+import com.baoyubo.business.model.RemoteOperation;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * 实时数据推送 (Server-Sent Events)
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:00
+ */
+public interface FeedBiz {
+
+    /**
+     * 数据来源: 客户端收到的数据
+     */
+    String SOURCE_CLIENT = "client";
+
+    /**
+     * 数据来源: 服务端收到的数据
+     */
+    String SOURCE_SERVER = "server";
+
+    /**
+     * 订阅实时数据
+     *
+     * @param filter 过滤条件
+     * @return ResponseBodyEmitter (写出已编码为 SSE 格式的文本)
+     */
+    ResponseBodyEmitter subscribe(FeedFilter filter);
+
+    /**
+     * 发布收到的远程操控数据 (按信息对象拆分为事件, 每个事件只编码一次, 推送给所有匹配的订阅者)
+     *
+     * @param source          数据来源 (client / server)
+     * @param remoteOperation 远程操控
+     */
+    void publish(String source, RemoteOperation remoteOperation);
+
+    /**
+     * 当前订阅者数量
+     *
+     * @return 订阅者数量
+     */
+    int getSubscriberCount();
+}
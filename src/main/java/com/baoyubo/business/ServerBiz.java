@@ -1,6 +1,10 @@
 package com.baoyubo.business;
 
 import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+import com.baoyubo.iec104.model.TelemetryBatch;
+
+import java.util.List;
 
 /**
  * 服务端 自定义业务处理
@@ -29,6 +33,59 @@ public interface ServerBiz {
      */
     void pushData(RemoteOperation remoteOperation);
 
+    /**
+     * 推送远程操控数据 到指定连接
+     *
+     * @param remoteAddress   远程地址 (host:port)
+     * @param remoteOperation 远程操控
+     */
+    void pushData(String remoteAddress, RemoteOperation remoteOperation);
+
+    /**
+     * 推送远程操控数据 到绑定了指定公共地址的所有连接
+     *
+     * @param commonAddress   公共地址
+     * @param remoteOperation 远程操控
+     */
+    void pushGroupData(short commonAddress, RemoteOperation remoteOperation);
+
+    /**
+     * 批量推送 遥信/遥测
+     *
+     * @param batches 批次列表
+     */
+    void pushBatchData(List<TelemetryBatch> batches);
+
+    /**
+     * 批量推送 遥信/遥测 到指定连接
+     *
+     * @param remoteAddress 远程地址 (host:port)
+     * @param batches       批次列表
+     */
+    void pushBatchData(String remoteAddress, List<TelemetryBatch> batches);
+
+    /**
+     * 批量推送 遥信/遥测 到绑定了指定公共地址的所有连接
+     *
+     * @param commonAddress 公共地址
+     * @param batches       批次列表
+     */
+    void pushGroupBatchData(short commonAddress, List<TelemetryBatch> batches);
+
+    /**
+     * 获取所有连接的 远程地址
+     *
+     * @return 远程地址列表 (host:port)
+     */
+    List<String> getConnections();
+
+    /**
+     * 获取协议统计 (按对端主机)
+     *
+     * @return 统计快照列表
+     */
+    List<ProtocolMetricsSnapshot> getMetrics();
+
     /**
      * 处理远程操控数据
      *
@@ -0,0 +1,139 @@
+package com.baoyubo.business.impl;
+
+import com.baoyubo.business.model.FeedFilter;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 实时数据推送 订阅者
+ * <pre>
+ * 1. 待发送事件按 键 合并 (同一信息对象只保留最新值, 位置不变), 较慢的订阅者不会无限堆积
+ * 2. 待发送事件超过 MAX_PENDING_EVENTS 时 丢弃最旧的事件
+ * 3. 发送在推送线程池中执行, 一次发送所有待发送事件 (不阻塞 IO 线程 / 业务线程)
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:00
+ */
+class FeedSubscriber implements Runnable {
+
+    /**
+     * 每个订阅者 最多待发送的事件数
+     */
+    static final int MAX_PENDING_EVENTS = 10000;
+
+    private static final MediaType TEXT_PLAIN = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    private final ResponseBodyEmitter emitter;
+
+    private final FeedFilter filter;
+
+    /**
+     * 待发送事件 (键 -> 已编码的 SSE 事件, 访问需加锁)
+     */
+    private final LinkedHashMap<Long, String> pending = new LinkedHashMap<>();
+
+    /**
+     * 是否已提交到推送线程池 (访问需加锁)
+     */
+    private boolean scheduled;
+
+    private volatile boolean closed;
+
+    private long conflatedCount;
+
+    private long droppedCount;
+
+
+    FeedSubscriber(ResponseBodyEmitter emitter, FeedFilter filter) {
+        this.emitter = emitter;
+        this.filter = filter;
+    }
+
+
+    FeedFilter getFilter() {
+        return filter;
+    }
+
+    ResponseBodyEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+
+    /**
+     * 写入待发送事件
+     *
+     * @param key   键 (相同的键合并)
+     * @param frame 已编码的 SSE 事件
+     * @return 是否需要提交到推送线程池
+     */
+    synchronized boolean offer(long key, String frame) {
+        if (closed) {
+            return false;
+        }
+        if (pending.put(key, frame) != null) {
+            conflatedCount++;
+        } else if (pending.size() > MAX_PENDING_EVENTS) {
+            Iterator<String> iterator = pending.values().iterator();
+            iterator.next();
+            iterator.remove();
+            droppedCount++;
+        }
+        if (scheduled) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+
+
+    /**
+     * 推送线程: 发送所有待发送事件
+     */
+    @Override
+    public void run() {
+        for (; ; ) {
+            StringBuilder text = new StringBuilder();
+            synchronized (this) {
+                if (pending.isEmpty() || closed) {
+                    scheduled = false;
+                    return;
+                }
+                for (String frame : pending.values()) {
+                    text.append(frame);
+                }
+                pending.clear();
+            }
+            try {
+                // 已编码为 SSE 格式的文本 原样写出
+                emitter.send(text.toString(), TEXT_PLAIN);
+            } catch (IOException | IllegalStateException e) {
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+
+    synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    synchronized long getConflatedCount() {
+        return conflatedCount;
+    }
+
+    synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+}
@@ -1,11 +1,18 @@
 package com.baoyubo.business.impl;
 
+import com.baoyubo.business.FeedBiz;
 import com.baoyubo.business.ClientBiz;
 import com.baoyubo.business.model.RemoteOperation;
 import com.baoyubo.iec104.client.ClientChannel;
-import com.baoyubo.iec104.client.Iec104ClientChannel;
+import com.baoyubo.iec104.client.ClientPoolStats;
+import com.baoyubo.iec104.client.Iec104ClientPool;
 import com.baoyubo.iec104.config.ClientConfig;
+import com.baoyubo.iec104.config.ClientPoolConfig;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
 import com.baoyubo.iec104.util.JsonUtil;
+import java.util.List;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -22,12 +29,18 @@ public class Iec104ClientBiz implements ClientBiz {
     private static final Logger LOGGER = LoggerFactory.getLogger(Iec104ClientBiz.class);
 
     /**
-     * 客户端 Channel
+     * 实时数据推送 (非 Spring 环境下未注入, 为 null)
      */
-    private ClientChannel clientChannel;
+    @Resource
+    private FeedBiz feedBiz;
 
     /**
-     * 启动客户端
+     * 客户端连接池 (所有子站共享一个 EventLoopGroup)
+     */
+    private final Iec104ClientPool clientPool = new Iec104ClientPool(new ClientPoolConfig());
+
+    /**
+     * 启动客户端 (子站标识为 remoteHost:remotePort, 已存在时先关闭原有连接)
      *
      * @param remoteHost 远程主机地址
      * @param remotePort 远程端口
@@ -38,27 +51,107 @@ public class Iec104ClientBiz implements ClientBiz {
         config.setRemoteHost(remoteHost);
         config.setRemotePort(remotePort);
 
-        this.clientChannel = new Iec104ClientChannel(config, this::handleData);
+        this.clientPool.add(remoteHost + ":" + remotePort, config, this::handleData);
     }
 
     /**
-     * 关闭客户端
+     * 关闭所有客户端
      */
     @Override
     public void closeClient() {
-        if (this.clientChannel != null) {
-            this.clientChannel.closeClient();
+        for (String stationId : this.clientPool.getStationIds()) {
+            this.clientPool.remove(stationId);
         }
     }
 
     /**
-     * 推送远程操控数据
+     * 关闭指定客户端
+     *
+     * @param stationId 子站标识 (remoteHost:remotePort)
+     */
+    @Override
+    public void closeClient(String stationId) {
+        this.clientPool.remove(stationId);
+    }
+
+    /**
+     * 推送远程操控数据 (所有已连接的子站)
      *
      * @param remoteOperation 远程操控
      */
     @Override
     public void pushData(RemoteOperation remoteOperation) {
-        this.clientChannel.push(remoteOperation);
+        for (String stationId : this.clientPool.getStationIds()) {
+            ClientChannel clientChannel = this.clientPool.get(stationId);
+            if (clientChannel != null && clientChannel.isActive()) {
+                clientChannel.push(remoteOperation);
+            }
+        }
+    }
+
+    /**
+     * 推送远程操控数据 到指定子站
+     *
+     * @param stationId       子站标识 (remoteHost:remotePort)
+     * @param remoteOperation 远程操控
+     */
+    @Override
+    public void pushData(String stationId, RemoteOperation remoteOperation) {
+        ClientChannel clientChannel = this.clientPool.get(stationId);
+        if (clientChannel == null) {
+            throw new RuntimeException("子站不存在: " + stationId);
+        }
+        clientChannel.push(remoteOperation);
+    }
+
+    /**
+     * 批量推送远程操控数据 (所有已连接的子站, 每个子站只 flush 一次)
+     *
+     * @param remoteOperations 远程操控列表
+     */
+    @Override
+    public void pushBatchData(List<RemoteOperation> remoteOperations) {
+        for (String stationId : this.clientPool.getStationIds()) {
+            ClientChannel clientChannel = this.clientPool.get(stationId);
+            if (clientChannel != null && clientChannel.isActive()) {
+                clientChannel.push(remoteOperations);
+            }
+        }
+    }
+
+    /**
+     * 批量推送远程操控数据 到指定子站
+     *
+     * @param stationId        子站标识 (remoteHost:remotePort)
+     * @param remoteOperations 远程操控列表
+     */
+    @Override
+    public void pushBatchData(String stationId, List<RemoteOperation> remoteOperations) {
+        ClientChannel clientChannel = this.clientPool.get(stationId);
+        if (clientChannel == null) {
+            throw new RuntimeException("子站不存在: " + stationId);
+        }
+        clientChannel.push(remoteOperations);
+    }
+
+    /**
+     * 获取客户端连接池 统计数据
+     *
+     * @return ClientPoolStats
+     */
+    @Override
+    public ClientPoolStats getStats() {
+        return this.clientPool.getStats();
+    }
+
+    /**
+     * 获取所有子站的协议统计
+     *
+     * @return 统计快照列表
+     */
+    @Override
+    public List<ProtocolMetricsSnapshot> getMetrics() {
+        return this.clientPool.getMetrics();
     }
 
     /**
@@ -68,7 +161,18 @@ public class Iec104ClientBiz implements ClientBiz {
      */
     @Override
     public void handleData(RemoteOperation remoteOperation) {
-        LOGGER.info("[客户端-业务处理] 收到客户端数据，开始处理...  数据 = {}", JsonUtil.toJsonString(remoteOperation));
+        LOGGER.info("[客户端-业务处理] 收到客户端数据，开始处理...  数据 = {}", JsonUtil.lazyJson(remoteOperation));
         // todo 业务自定义数据处理逻辑
+        if (this.feedBiz != null) {
+            this.feedBiz.publish(FeedBiz.SOURCE_CLIENT, remoteOperation);
+        }
+    }
+
+    /**
+     * 关闭客户端连接池
+     */
+    @PreDestroy
+    public void destroy() {
+        this.clientPool.close();
     }
 }
@@ -0,0 +1,233 @@
+package com.baoyubo.business.impl;
+
+import com.baoyubo.business.FeedBiz;
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.FeedEvent;
+import com.baoyubo.business.model.FeedFilter;
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.util.JsonUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实时数据推送 (Server-Sent Events)
+ * <pre>
+ * 1. 收到的远程操控按信息对象拆分为事件, 事件只编码一次 (第一个匹配的订阅者触发), 所有匹配的订阅者共享
+ * 2. 遥信/遥测 同一信息对象的事件在订阅者待发送队列中合并, 只保留最新值; 遥控结果、总召唤结束、连接关闭 不合并
+ * 3. 发送在推送线程池中执行, 不阻塞 IO 线程 / 业务线程
+ * 4. 定时发送心跳注释, 及时发现已断开的订阅者
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:00
+ */
+@Service
+public class Iec104FeedBiz implements FeedBiz {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec104FeedBiz.class);
+
+    /**
+     * 推送线程数
+     */
+    private static final int FEED_THREADS = 2;
+
+    /**
+     * 心跳间隔 (秒)
+     */
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private static final String HEARTBEAT_FRAME = ":heartbeat\n\n";
+
+    /**
+     * 心跳的键 (未发送的心跳只保留一个)
+     */
+    private static final long HEARTBEAT_KEY = Long.MIN_VALUE;
+
+    private final List<FeedSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(FEED_THREADS, new DefaultThreadFactory("iec104-feed", true));
+
+    /**
+     * 不合并事件的键 (负数递减, 与信息对象的键不会重复)
+     */
+    private final AtomicLong uniqueKey = new AtomicLong();
+
+
+    public Iec104FeedBiz() {
+        executor.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+
+    /**
+     * 订阅实时数据
+     *
+     * @param filter 过滤条件
+     * @return ResponseBodyEmitter (写出已编码为 SSE 格式的文本)
+     */
+    @Override
+    public ResponseBodyEmitter subscribe(FeedFilter filter) {
+        // 超时时间为 0: 不超时, 由客户端断开或发送失败时移除
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        FeedSubscriber subscriber = new FeedSubscriber(emitter, filter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        LOGGER.info("[实时数据推送] 新增订阅, 订阅数 = {}, 过滤条件 = {}", subscribers.size(), JsonUtil.lazyJson(filter));
+        return emitter;
+    }
+
+
+    private void remove(FeedSubscriber subscriber) {
+        subscriber.close();
+        if (subscribers.remove(subscriber)) {
+            LOGGER.info("[实时数据推送] 取消订阅, 订阅数 = {}, 合并 = {}, 丢弃 = {}", subscribers.size(), subscriber.getConflatedCount(), subscriber.getDroppedCount());
+        }
+    }
+
+
+    /**
+     * 发布收到的远程操控数据
+     *
+     * @param source          数据来源 (client / server)
+     * @param remoteOperation 远程操控
+     */
+    @Override
+    public void publish(String source, RemoteOperation remoteOperation) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        RemoteOperateTypeEnum operateType = remoteOperation.getOperateType();
+        boolean anyMatched = false;
+        for (FeedSubscriber subscriber : subscribers) {
+            anyMatched |= subscriber.getFilter().matchesOperation(source, operateType);
+        }
+        if (!anyMatched) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Short commonAddress = remoteOperation.getCommonAddress();
+        Map<Integer, Object> params = remoteOperation.getParams();
+        if (params == null || params.isEmpty()) {
+            publish(source, operateType, commonAddress, null, null, now, uniqueKey.decrementAndGet());
+            return;
+        }
+        boolean conflatable = isConflatable(operateType);
+        for (Map.Entry<Integer, Object> entry : params.entrySet()) {
+            long key = conflatable ? pointKey(source, operateType, commonAddress, entry.getKey()) : uniqueKey.decrementAndGet();
+            publish(source, operateType, commonAddress, entry.getKey(), entry.getValue(), now, key);
+        }
+    }
+
+
+    /**
+     * 发布一个事件: 第一个匹配的订阅者触发编码, 之后的订阅者共享编码结果
+     */
+    private void publish(String source, RemoteOperateTypeEnum operateType, Short commonAddress, Integer infoAddress, Object value, long timestamp, long key) {
+        String frame = null;
+        for (FeedSubscriber subscriber : subscribers) {
+            FeedFilter filter = subscriber.getFilter();
+            if (!filter.matchesOperation(source, operateType) || !filter.matchesAddress(commonAddress, infoAddress)) {
+                continue;
+            }
+            if (frame == null) {
+                frame = encode(source, operateType, commonAddress, infoAddress, value, timestamp);
+            }
+            if (subscriber.offer(key, frame)) {
+                execute(subscriber);
+            }
+        }
+    }
+
+
+    /**
+     * 编码为 SSE 事件 (事件名为远程操控类型, 数据为 JSON)
+     */
+    private static String encode(String source, RemoteOperateTypeEnum operateType, Short commonAddress, Integer infoAddress, Object value, long timestamp) {
+        FeedEvent event = new FeedEvent();
+        event.setSource(source);
+        event.setOperateType(operateType.getType());
+        event.setCommonAddress(commonAddress);
+        event.setInfoAddress(infoAddress);
+        event.setValue(value);
+        event.setTimestamp(timestamp);
+        return "event:" + operateType.getType() + "\ndata:" + JsonUtil.toJsonString(event) + "\n\n";
+    }
+
+
+    /**
+     * 遥信/遥测 可以合并 (只关心最新值)
+     */
+    private static boolean isConflatable(RemoteOperateTypeEnum operateType) {
+        return RemoteOperateTypeEnum.HARUNOBU == operateType || RemoteOperateTypeEnum.TELEMETRY == operateType
+                || RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU == operateType || RemoteOperateTypeEnum.GENERAL_CALL_TELEMETRY == operateType;
+    }
+
+
+    /**
+     * 信息对象的键: 数据来源(1位) | 遥信/遥测(1位) | 公共地址(16位) | 信息对象地址(24位)
+     */
+    private static long pointKey(String source, RemoteOperateTypeEnum operateType, Short commonAddress, int infoAddress) {
+        boolean isHarunobu = RemoteOperateTypeEnum.HARUNOBU == operateType || RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU == operateType;
+        return (SOURCE_SERVER.equals(source) ? 1L : 0L) << 41
+                | (isHarunobu ? 1L : 0L) << 40
+                | (commonAddress == null ? 0L : (commonAddress & 0xFFFFL)) << 24
+                | (infoAddress & 0xFFFFFFL);
+    }
+
+
+    private void heartbeat() {
+        for (FeedSubscriber subscriber : subscribers) {
+            if (subscriber.offer(HEARTBEAT_KEY, HEARTBEAT_FRAME)) {
+                execute(subscriber);
+            }
+        }
+    }
+
+
+    private void execute(FeedSubscriber subscriber) {
+        try {
+            executor.execute(subscriber);
+        } catch (RejectedExecutionException e) {
+            subscriber.close();
+        }
+    }
+
+
+    /**
+     * 当前订阅者数量
+     *
+     * @return 订阅者数量
+     */
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+
+    /**
+     * 关闭所有订阅
+     */
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+        for (FeedSubscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.getEmitter().complete();
+        }
+        subscribers.clear();
+    }
+}
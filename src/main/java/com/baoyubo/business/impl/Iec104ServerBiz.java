@@ -1,11 +1,17 @@
 package com.baoyubo.business.impl;
 
+import com.baoyubo.business.FeedBiz;
 import com.baoyubo.business.ServerBiz;
 import com.baoyubo.business.model.RemoteOperation;
 import com.baoyubo.iec104.config.ServerConfig;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+import com.baoyubo.iec104.model.TelemetryBatch;
 import com.baoyubo.iec104.server.Iec104ServerChannel;
 import com.baoyubo.iec104.server.ServerChannel;
 import com.baoyubo.iec104.util.JsonUtil;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -21,6 +27,12 @@ public class Iec104ServerBiz implements ServerBiz {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Iec104ServerBiz.class);
 
+    /**
+     * 实时数据推送 (非 Spring 环境下未注入, 为 null)
+     */
+    @Resource
+    private FeedBiz feedBiz;
+
     /**
      * 服务端 Channel
      */
@@ -59,6 +71,80 @@ public class Iec104ServerBiz implements ServerBiz {
         this.serverChannel.push(remoteOperation);
     }
 
+    /**
+     * 推送远程操控数据 到指定连接
+     *
+     * @param remoteAddress   远程地址 (host:port)
+     * @param remoteOperation 远程操控
+     */
+    @Override
+    public void pushData(String remoteAddress, RemoteOperation remoteOperation) {
+        this.serverChannel.push(remoteAddress, remoteOperation);
+    }
+
+    /**
+     * 推送远程操控数据 到绑定了指定公共地址的所有连接
+     *
+     * @param commonAddress   公共地址
+     * @param remoteOperation 远程操控
+     */
+    @Override
+    public void pushGroupData(short commonAddress, RemoteOperation remoteOperation) {
+        this.serverChannel.pushGroup(commonAddress, remoteOperation);
+    }
+
+    /**
+     * 批量推送 遥信/遥测
+     *
+     * @param batches 批次列表
+     */
+    @Override
+    public void pushBatchData(List<TelemetryBatch> batches) {
+        this.serverChannel.pushBatch(batches);
+    }
+
+    /**
+     * 批量推送 遥信/遥测 到指定连接
+     *
+     * @param remoteAddress 远程地址 (host:port)
+     * @param batches       批次列表
+     */
+    @Override
+    public void pushBatchData(String remoteAddress, List<TelemetryBatch> batches) {
+        this.serverChannel.pushBatch(remoteAddress, batches);
+    }
+
+    /**
+     * 批量推送 遥信/遥测 到绑定了指定公共地址的所有连接
+     *
+     * @param commonAddress 公共地址
+     * @param batches       批次列表
+     */
+    @Override
+    public void pushGroupBatchData(short commonAddress, List<TelemetryBatch> batches) {
+        this.serverChannel.pushGroupBatch(commonAddress, batches);
+    }
+
+    /**
+     * 获取所有连接的 远程地址
+     *
+     * @return 远程地址列表 (host:port)
+     */
+    @Override
+    public List<String> getConnections() {
+        return this.serverChannel == null ? Collections.emptyList() : this.serverChannel.getRemoteAddresses();
+    }
+
+    /**
+     * 获取协议统计 (按对端主机)
+     *
+     * @return 统计快照列表
+     */
+    @Override
+    public List<ProtocolMetricsSnapshot> getMetrics() {
+        return this.serverChannel == null ? Collections.emptyList() : this.serverChannel.getMetrics();
+    }
+
     /**
      * 处理远程操控数据
      *
@@ -66,8 +152,10 @@ public class Iec104ServerBiz implements ServerBiz {
      */
     @Override
     public void handleData(RemoteOperation remoteOperation) {
-        LOGGER.info("[服务端-业务处理] 收到服务端数据，开始处理...  数据 = {}", JsonUtil.toJsonString(remoteOperation));
+        LOGGER.info("[服务端-业务处理] 收到服务端数据，开始处理...  数据 = {}", JsonUtil.lazyJson(remoteOperation));
         // todo 业务自定义数据处理逻辑
-
+        if (this.feedBiz != null) {
+            this.feedBiz.publish(FeedBiz.SOURCE_SERVER, remoteOperation);
+        }
     }
 }
@@ -0,0 +1,44 @@
+package com.baoyubo.business.model;
+
+import lombok.Data;
+
+/**
+ * 实时数据推送 事件 (业务模型, 每个信息对象一个事件)
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:00
+ */
+@Data
+public class FeedEvent {
+
+    /**
+     * 数据来源 (client / server)
+     */
+    private String source;
+
+    /**
+     * 远程操控类型 (RemoteOperateTypeEnum.type)
+     */
+    private String operateType;
+
+    /**
+     * 公共地址 (可为空)
+     */
+    private Short commonAddress;
+
+    /**
+     * 信息对象地址 (无业务参数的通知为空, 如: 总召唤结束、连接关闭)
+     */
+    private Integer infoAddress;
+
+    /**
+     * 信息对象值 (遥信/遥控 为整数, 遥测 为浮点数)
+     */
+    private Object value;
+
+    /**
+     * 收到数据的时间 (毫秒时间戳)
+     */
+    private long timestamp;
+
+}
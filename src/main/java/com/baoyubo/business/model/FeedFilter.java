@@ -0,0 +1,73 @@
+package com.baoyubo.business.model;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * 实时数据推送 订阅过滤条件 (条件为空表示不过滤)
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:00
+ */
+@Data
+public class FeedFilter {
+
+    /**
+     * 数据来源 (client / server)
+     */
+    private String source;
+
+    /**
+     * 公共地址 (不带公共地址的通知 不按公共地址过滤)
+     */
+    private Short commonAddress;
+
+    /**
+     * 信息对象地址 下限 (包含)
+     */
+    private Integer infoAddressFrom;
+
+    /**
+     * 信息对象地址 上限 (包含)
+     */
+    private Integer infoAddressTo;
+
+    /**
+     * 远程操控类型
+     */
+    private Set<RemoteOperateTypeEnum> operateTypes;
+
+
+    /**
+     * 远程操控类型 是否匹配 (按远程操控过滤, 不匹配时不再逐个信息对象判断)
+     *
+     * @param source      数据来源
+     * @param operateType 远程操控类型
+     * @return boolean
+     */
+    public boolean matchesOperation(String source, RemoteOperateTypeEnum operateType) {
+        return (this.source == null || this.source.equals(source))
+                && (operateTypes == null || operateTypes.isEmpty() || operateTypes.contains(operateType));
+    }
+
+
+    /**
+     * 公共地址、信息对象地址 是否匹配
+     *
+     * @param commonAddress 公共地址 (可为空)
+     * @param infoAddress   信息对象地址 (可为空)
+     * @return boolean
+     */
+    public boolean matchesAddress(Short commonAddress, Integer infoAddress) {
+        if (this.commonAddress != null && commonAddress != null && !this.commonAddress.equals(commonAddress)) {
+            return false;
+        }
+        if (infoAddress == null) {
+            return true;
+        }
+        return (infoAddressFrom == null || infoAddress >= infoAddressFrom) && (infoAddressTo == null || infoAddress <= infoAddressTo);
+    }
+
+}
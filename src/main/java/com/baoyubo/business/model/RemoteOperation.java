@@ -28,4 +28,9 @@ public class RemoteOperation {
      */
     private Map<Integer, Object> params;
 
+    /**
+     * 公共地址 (收到的数据为 ASDU 的公共地址, 连接关闭等无 ASDU 的通知为空; 推送时不使用)
+     */
+    private Short commonAddress;
+
 }
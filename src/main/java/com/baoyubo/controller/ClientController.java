@@ -3,8 +3,9 @@ package com.baoyubo.controller;
 import com.baoyubo.business.ClientBiz;
 import com.baoyubo.business.enums.RemoteOperateTypeEnum;
 import com.baoyubo.business.model.RemoteOperation;
-import java.util.HashMap;
-import java.util.Map;
+import com.baoyubo.iec104.client.ClientPoolStats;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+import java.util.List;
 import javax.annotation.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
@@ -44,40 +45,98 @@ public class ClientController {
 
     /**
      * 关闭客户端
+     *
+     * @param stationId 子站标识 remoteHost:remotePort (可选, 为空时关闭所有客户端)
      */
     @RequestMapping(value = "/iec104/client/close", method = RequestMethod.POST)
-    public ResponseEntity<Object> close() {
-        clientBiz.closeClient();
+    public ResponseEntity<Object> close(
+        @RequestParam(value = "station_id", required = false) String stationId
+    ) {
+        if (stationId != null) {
+            clientBiz.closeClient(stationId);
+        } else {
+            clientBiz.closeClient();
+        }
         return ResponseEntity.ok().build();
     }
 
 
+    /**
+     * 获取客户端连接池 统计数据
+     */
+    @RequestMapping(value = "/iec104/client/stats", method = RequestMethod.GET)
+    public ResponseEntity<ClientPoolStats> stats() {
+        return ResponseEntity.ok(clientBiz.getStats());
+    }
+
+
+    /**
+     * 获取所有子站的协议统计
+     */
+    @RequestMapping(value = "/iec104/client/metrics", method = RequestMethod.GET)
+    public ResponseEntity<List<ProtocolMetricsSnapshot>> metrics() {
+        return ResponseEntity.ok(clientBiz.getMetrics());
+    }
+
+
     /**
      * 推送远程操控数据
      *
+     * @param stationId       子站标识 remoteHost:remotePort (可选, 为空时推送到所有已连接的子站)
      * @param remoteOperation 远程操控
      */
     @RequestMapping(value = "/iec104/client/push", method = RequestMethod.POST)
-    public ResponseEntity<Object> push(@RequestBody RemoteOperation remoteOperation) {
-
-        // 防止数据类型转换异常
-        if (!CollectionUtils.isEmpty(remoteOperation.getParams())) {
-            Map<Integer, Object> params = new HashMap<>();
-            remoteOperation.getParams().forEach((k, v) -> {
-                if (RemoteOperateTypeEnum.REMOTE_CONTROL == remoteOperation.getOperateType()
-                    || RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU == remoteOperation.getOperateType()
-                    || RemoteOperateTypeEnum.HARUNOBU == remoteOperation.getOperateType()
-                ) {
-                    params.put(k, v);
-                } else {
-                    params.put(k, ((Double) v).floatValue());
-                }
-            });
-            remoteOperation.setParams(params);
+    public ResponseEntity<Object> push(
+        @RequestParam(value = "station_id", required = false) String stationId,
+        @RequestBody RemoteOperation remoteOperation
+    ) {
+
+        normalizeParams(remoteOperation);
+
+        if (stationId != null) {
+            clientBiz.pushData(stationId, remoteOperation);
+        } else {
+            clientBiz.pushData(remoteOperation);
         }
+        return ResponseEntity.ok().build();
+    }
+
+
+    /**
+     * 批量推送远程操控数据 (每个子站全部写入后只 flush 一次)
+     *
+     * @param stationId        子站标识 remoteHost:remotePort (可选, 为空时推送到所有已连接的子站)
+     * @param remoteOperations 远程操控列表
+     */
+    @RequestMapping(value = "/iec104/client/push/batch", method = RequestMethod.POST)
+    public ResponseEntity<Object> pushBatch(
+        @RequestParam(value = "station_id", required = false) String stationId,
+        @RequestBody List<RemoteOperation> remoteOperations
+    ) {
+        remoteOperations.forEach(this::normalizeParams);
 
-        clientBiz.pushData(remoteOperation);
+        if (stationId != null) {
+            clientBiz.pushBatchData(stationId, remoteOperations);
+        } else {
+            clientBiz.pushBatchData(remoteOperations);
+        }
         return ResponseEntity.ok().build();
     }
 
+
+    /**
+     * 防止数据类型转换异常 (JSON 数字为 Integer/Double, 遥测统一转换为 Float, 原地替换不复制 Map)
+     *
+     * @param remoteOperation 远程操控
+     */
+    private void normalizeParams(RemoteOperation remoteOperation) {
+        if (!CollectionUtils.isEmpty(remoteOperation.getParams())
+            && RemoteOperateTypeEnum.REMOTE_CONTROL != remoteOperation.getOperateType()
+            && RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU != remoteOperation.getOperateType()
+            && RemoteOperateTypeEnum.HARUNOBU != remoteOperation.getOperateType()
+        ) {
+            remoteOperation.getParams().replaceAll((k, v) -> ((Number) v).floatValue());
+        }
+    }
+
 }
@@ -0,0 +1,60 @@
+package com.baoyubo.controller;
+
+import com.baoyubo.business.FeedBiz;
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.FeedFilter;
+import java.util.EnumSet;
+import java.util.List;
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * 实时数据推送 API (Server-Sent Events)
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:00
+ */
+@RestController
+public class FeedController {
+
+    @Resource
+    private FeedBiz feedBiz;
+
+    /**
+     * 订阅实时数据 (事件名为远程操控类型, 数据为 JSON, 每个信息对象一个事件)
+     *
+     * @param source          数据来源 client / server (可选)
+     * @param commonAddress   公共地址 (可选)
+     * @param infoAddressFrom 信息对象地址 下限, 包含 (可选)
+     * @param infoAddressTo   信息对象地址 上限, 包含 (可选)
+     * @param operateTypes    远程操控类型 (枚举名, 如 TELEMETRY), 多个用逗号分隔 (可选)
+     */
+    @RequestMapping(value = "/iec104/feed", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseBodyEmitter subscribe(
+        @RequestParam(value = "source", required = false) String source,
+        @RequestParam(value = "commonAddress", required = false) Short commonAddress,
+        @RequestParam(value = "ioaFrom", required = false) Integer infoAddressFrom,
+        @RequestParam(value = "ioaTo", required = false) Integer infoAddressTo,
+        @RequestParam(value = "type", required = false) List<RemoteOperateTypeEnum> operateTypes,
+        HttpServletResponse response
+    ) {
+        // ResponseBodyEmitter 不设置响应类型, 事件文本已按 SSE 格式编码
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        FeedFilter filter = new FeedFilter();
+        filter.setSource(source);
+        filter.setCommonAddress(commonAddress);
+        filter.setInfoAddressFrom(infoAddressFrom);
+        filter.setInfoAddressTo(infoAddressTo);
+        filter.setOperateTypes(CollectionUtils.isEmpty(operateTypes) ? null : EnumSet.copyOf(operateTypes));
+        return feedBiz.subscribe(filter);
+    }
+
+}
@@ -3,8 +3,11 @@ package com.baoyubo.controller;
 import com.baoyubo.business.ServerBiz;
 import com.baoyubo.business.enums.RemoteOperateTypeEnum;
 import com.baoyubo.business.model.RemoteOperation;
-import java.util.HashMap;
-import java.util.Map;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+import com.baoyubo.iec104.model.TelemetryBatch;
+import com.baoyubo.iec104.util.PushBatchParser;
+import java.io.InputStream;
+import java.util.List;
 import javax.annotation.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
@@ -51,30 +54,84 @@ public class ServerController {
 
 
     /**
-     * 推送远程操控数据
+     * 获取所有连接
+     */
+    @RequestMapping(value = "/iec104/server/connections", method = RequestMethod.GET)
+    public ResponseEntity<List<String>> connections() {
+        return ResponseEntity.ok(serverBiz.getConnections());
+    }
+
+
+    /**
+     * 获取协议统计 (按对端主机)
+     */
+    @RequestMapping(value = "/iec104/server/metrics", method = RequestMethod.GET)
+    public ResponseEntity<List<ProtocolMetricsSnapshot>> metrics() {
+        return ResponseEntity.ok(serverBiz.getMetrics());
+    }
+
+
+    /**
+     * 推送远程操控数据 (默认广播到所有连接)
      *
+     * @param remoteAddress   远程地址 host:port (可选, 推送到指定连接)
+     * @param commonAddress   公共地址 (可选, 推送到绑定了该公共地址的连接)
      * @param remoteOperation 远程操控
      */
     @RequestMapping(value = "/iec104/server/push", method = RequestMethod.POST)
-    public ResponseEntity<Object> push(@RequestBody RemoteOperation remoteOperation) {
-
-        // 防止数据类型转换异常
-        if (!CollectionUtils.isEmpty(remoteOperation.getParams())) {
-            Map<Integer, Object> params = new HashMap<>();
-            remoteOperation.getParams().forEach((k, v) -> {
-                if (RemoteOperateTypeEnum.REMOTE_CONTROL == remoteOperation.getOperateType()
-                        || RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU == remoteOperation.getOperateType()
-                        || RemoteOperateTypeEnum.HARUNOBU == remoteOperation.getOperateType()
-                ) {
-                    params.put(k, (v));
-                } else {
-                    params.put(k, ((Double) v).floatValue());
-                }
-            });
-            remoteOperation.setParams(params);
+    public ResponseEntity<Object> push(
+        @RequestParam(value = "remoteAddress", required = false) String remoteAddress,
+        @RequestParam(value = "commonAddress", required = false) Short commonAddress,
+        @RequestBody RemoteOperation remoteOperation
+    ) {
+
+        // 防止数据类型转换异常 (JSON 数字为 Integer/Double, 遥测统一转换为 Float, 原地替换不复制 Map)
+        if (!CollectionUtils.isEmpty(remoteOperation.getParams())
+                && RemoteOperateTypeEnum.REMOTE_CONTROL != remoteOperation.getOperateType()
+                && RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU != remoteOperation.getOperateType()
+                && RemoteOperateTypeEnum.HARUNOBU != remoteOperation.getOperateType()
+        ) {
+            remoteOperation.getParams().replaceAll((k, v) -> ((Number) v).floatValue());
         }
 
-        serverBiz.pushData(remoteOperation);
+        if (remoteAddress != null) {
+            serverBiz.pushData(remoteAddress, remoteOperation);
+        } else if (commonAddress != null) {
+            serverBiz.pushGroupData(commonAddress, remoteOperation);
+        } else {
+            serverBiz.pushData(remoteOperation);
+        }
+        return ResponseEntity.ok().build();
+    }
+
+
+    /**
+     * 批量推送 遥信/遥测 (默认广播到所有连接, 所有数据打包后只 flush 一次)
+     * <p>
+     * 请求体为远程操控数组, 支持 params 及 列式 (ioa[], value[]) 两种写法, 格式见 PushBatchParser
+     *
+     * @param remoteAddress 远程地址 host:port (可选, 推送到指定连接)
+     * @param commonAddress 公共地址 (可选, 推送到绑定了该公共地址的连接)
+     * @param body          请求体 (流式解析)
+     */
+    @RequestMapping(value = "/iec104/server/push/batch", method = RequestMethod.POST)
+    public ResponseEntity<Object> pushBatch(
+        @RequestParam(value = "remoteAddress", required = false) String remoteAddress,
+        @RequestParam(value = "commonAddress", required = false) Short commonAddress,
+        InputStream body
+    ) {
+        List<TelemetryBatch> batches = PushBatchParser.parse(body);
+        if (batches.isEmpty()) {
+            return ResponseEntity.ok().build();
+        }
+
+        if (remoteAddress != null) {
+            serverBiz.pushBatchData(remoteAddress, batches);
+        } else if (commonAddress != null) {
+            serverBiz.pushGroupBatchData(commonAddress, batches);
+        } else {
+            serverBiz.pushBatchData(batches);
+        }
         return ResponseEntity.ok().build();
     }
 
@@ -1,6 +1,10 @@
 package com.baoyubo.iec104.client;
 
 import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.manager.LatestValueManager;
+import com.baoyubo.iec104.metrics.ProtocolMetrics;
+
+import java.util.List;
 
 /**
  * 客户端 Channel
@@ -20,6 +24,34 @@ public interface ClientChannel {
      */
     void push(RemoteOperation remoteOperation);
 
+    /**
+     * 批量推送远程操控 (全部写入后只 flush 一次)
+     *
+     * @param remoteOperations 远程操控列表
+     */
+    void push(List<RemoteOperation> remoteOperations);
+
+    /**
+     * 最新值表 (读取子站 遥测/遥信 的完整最新值, 不需要等待总召唤)
+     *
+     * @return 最新值表 (未开启时为 null)
+     */
+    LatestValueManager getLatestValueManager();
+
+    /**
+     * 协议统计 (同一客户端的多次连接累计)
+     *
+     * @return 协议统计 (未开启时为 null)
+     */
+    ProtocolMetrics getMetrics();
+
+    /**
+     * 连接是否可用
+     *
+     * @return boolean
+     */
+    boolean isActive();
+
     /**
      * 主动关闭客户端
      */
@@ -0,0 +1,39 @@
+package com.baoyubo.iec104.client;
+
+import lombok.Data;
+
+/**
+ * 客户端连接池 统计数据
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 15:02
+ */
+@Data
+public class ClientPoolStats {
+
+    /**
+     * 子站总数
+     */
+    private int stationCount;
+
+    /**
+     * 可用连接数
+     */
+    private int activeCount;
+
+    /**
+     * 等待连接数 (错峰连接尚未发起)
+     */
+    private int pendingCount;
+
+    /**
+     * 累计连接成功次数
+     */
+    private long connectSuccessCount;
+
+    /**
+     * 累计连接失败次数
+     */
+    private long connectFailureCount;
+
+}
@@ -2,28 +2,39 @@ package com.baoyubo.iec104.client;
 
 import com.baoyubo.business.model.RemoteOperation;
 import com.baoyubo.iec104.config.ClientConfig;
+import com.baoyubo.iec104.dispatch.OrderedDispatcher;
 import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.factory.TransportFactory;
 import com.baoyubo.iec104.handler.ClientDataHandler;
 import com.baoyubo.iec104.handler.CommonDataHandler;
 import com.baoyubo.iec104.handler.DataDecoder;
 import com.baoyubo.iec104.handler.DataEncoder;
-import com.baoyubo.iec104.handler.LengthAndHeaderPrepender;
+import com.baoyubo.iec104.handler.FrameTraceHandler;
+import com.baoyubo.iec104.handler.MetricsHandler;
+import com.baoyubo.iec104.manager.LatestValueManager;
+import com.baoyubo.iec104.manager.ResumeManager;
+import com.baoyubo.iec104.metrics.ProtocolMetrics;
 import com.baoyubo.iec104.model.Message;
+import com.baoyubo.iec104.sink.TelemetrySink;
+import com.baoyubo.iec104.util.Cp56Time2aCodec;
 import com.baoyubo.iec104.util.JsonUtil;
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
-import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -36,10 +47,62 @@ public class Iec104ClientChannel implements ClientChannel {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Iec104ClientChannel.class);
 
+    /**
+     * 关闭时 等待业务分发处理完已接收数据的最长时间 (毫秒)
+     */
+    private static final long DISPATCH_CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * 客户端配置
+     */
+    private final ClientConfig config;
+
     /**
      * 客户端数据处理
      */
-    private ClientDataHandler clientDataHandler;
+    private final ClientDataHandler clientDataHandler;
+
+    /**
+     * EventLoopGroup
+     */
+    private final EventLoopGroup eventLoopGroup;
+
+    /**
+     * 是否共享 EventLoopGroup (共享时关闭客户端不会关闭 EventLoopGroup)
+     */
+    private final boolean sharedEventLoopGroup;
+
+    /**
+     * 会话恢复管理 (同一客户端的多次连接共享)
+     */
+    private final ResumeManager resumeManager;
+
+    /**
+     * 最新值表 (未开启时为 null, 重连后保留)
+     */
+    private final LatestValueManager latestValueManager;
+
+    /**
+     * 业务分发 (未开启时为 null)
+     */
+    private final OrderedDispatcher dispatcher;
+
+    /**
+     * 是否共享业务分发 (共享时关闭客户端不会关闭业务分发)
+     */
+    private final boolean sharedDispatcher;
+
+    /**
+     * 协议统计 (未开启时为 null, 重连后累计)
+     */
+    private final ProtocolMetrics metrics;
+
+    private final Bootstrap bootstrap;
+
+    /**
+     * 连接 Channel
+     */
+    private volatile Channel channel;
 
 
     /**
@@ -49,59 +112,183 @@ public class Iec104ClientChannel implements ClientChannel {
      * @param dataConsumer 客户端数据消费者
      */
     public Iec104ClientChannel(ClientConfig config, Consumer<RemoteOperation> dataConsumer) {
-        this.clientDataHandler = initIEC104Client(config, dataConsumer);
+        this(config, dataConsumer, null);
     }
 
 
     /**
-     * 初始化客户端
+     * 客户端构造函数
+     *
+     * @param config        客户端配置
+     * @param dataConsumer  客户端数据消费者
+     * @param telemetrySink 遥测/遥信 数据接收器 (为空时 遥测/遥信 交给客户端数据消费者)
+     */
+    public Iec104ClientChannel(ClientConfig config, Consumer<RemoteOperation> dataConsumer, TelemetrySink telemetrySink) {
+        this(config, dataConsumer, telemetrySink, TransportFactory.newEventLoopGroup(config.getTransport(), 1), false, newDispatcher(config), false);
+        connect();
+    }
+
+
+    /**
+     * 客户端构造函数 (共享 EventLoopGroup 及业务分发, 不会自动连接, 需要调用 connect())
      *
-     * @param config          客户端配置
-     * @param bizDataConsumer 客户端业务数据消费者
-     * @return 客户端连接句柄
+     * @param config         客户端配置 (业务分发参数不生效)
+     * @param dataConsumer   客户端数据消费者
+     * @param telemetrySink  遥测/遥信 数据接收器 (为空时 遥测/遥信 交给客户端数据消费者)
+     * @param eventLoopGroup 共享的 EventLoopGroup
+     * @param dispatcher     共享的业务分发 (为空时在 IO 线程直接调用业务)
      */
-    private ClientDataHandler initIEC104Client(ClientConfig config, Consumer<RemoteOperation> bizDataConsumer) {
+    public Iec104ClientChannel(ClientConfig config, Consumer<RemoteOperation> dataConsumer, TelemetrySink telemetrySink, EventLoopGroup eventLoopGroup,
+                               OrderedDispatcher dispatcher) {
+        this(config, dataConsumer, telemetrySink, eventLoopGroup, true, dispatcher, true);
+    }
+
+
+    private Iec104ClientChannel(ClientConfig config, Consumer<RemoteOperation> dataConsumer, TelemetrySink telemetrySink,
+                                EventLoopGroup eventLoopGroup, boolean sharedEventLoopGroup, OrderedDispatcher dispatcher, boolean sharedDispatcher) {
+        this.config = config;
+        this.eventLoopGroup = eventLoopGroup;
+        this.sharedEventLoopGroup = sharedEventLoopGroup;
+        this.latestValueManager = config.isLatestValue()
+                ? new LatestValueManager(config.getDeadbandAbsolute(), config.getDeadbandPercent(), config.isReportQualityChange()) : null;
+        this.dispatcher = dispatcher;
+        this.sharedDispatcher = sharedDispatcher;
+        this.clientDataHandler = new ClientDataHandler(dataConsumer, telemetrySink, latestValueManager, dispatcher);
+        this.resumeManager = new ResumeManager(config.getResumePolicy(), config.getResumeExpireSeconds());
+        this.metrics = config.isMetrics() ? new ProtocolMetrics(config.getRemoteHost() + ":" + config.getRemotePort()) : null;
+        this.bootstrap = initIEC104Client(config, clientDataHandler, resumeManager, metrics, eventLoopGroup);
+    }
+
 
-        // 客户端数据处理
-        ClientDataHandler clientDataHandler = new ClientDataHandler(bizDataConsumer);
+    /**
+     * 独立客户端的业务分发 (未开启时为 null)
+     */
+    private static OrderedDispatcher newDispatcher(ClientConfig config) {
+        return config.getDispatchWorkers() > 0
+                ? new OrderedDispatcher("客户端", "iec104-client-dispatch", config.getDispatchWorkers(), config.getDispatchQueueSize(), config.getDispatchOverflowPolicy()) : null;
+    }
 
-        EventLoopGroup bossGroup = new NioEventLoopGroup();
+
+    /**
+     * 初始化客户端
+     *
+     * @param config            客户端配置
+     * @param clientDataHandler 客户端数据处理
+     * @param resumeManager     会话恢复管理
+     * @param metrics           协议统计 (未开启时为 null)
+     * @param eventLoopGroup    EventLoopGroup
+     * @return Bootstrap
+     */
+    private static Bootstrap initIEC104Client(ClientConfig config, ClientDataHandler clientDataHandler, ResumeManager resumeManager, ProtocolMetrics metrics,
+                                              EventLoopGroup eventLoopGroup) {
+        Cp56Time2aCodec timeCodec = Cp56Time2aCodec.of(config.getTimeZone(), config.isSummerTimeBit(), config.isDiscardInvalidTime());
         Bootstrap bootstrap = new Bootstrap()
-                .group(bossGroup)
-                .channel(NioSocketChannel.class)
+                .group(eventLoopGroup)
+                .channel(TransportFactory.socketChannelClass(eventLoopGroup))
                 .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeout() * 1000)
+                .option(ChannelOption.TCP_NODELAY, config.isTcpNoDelay())
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()))
                 .handler(new ChannelInitializer<SocketChannel>() {
                     @Override
                     protected void initChannel(SocketChannel ch) throws Exception {
                         ch.pipeline().addLast(new LoggingHandler(LogLevel.DEBUG));
+                        if (metrics != null) {
+                            ch.pipeline().addLast(new MetricsHandler(metrics));
+                        }
                         ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(255, 1, 1, 0, 0));
-                        ch.pipeline().addLast(new LengthAndHeaderPrepender());
-                        ch.pipeline().addLast(new IdleStateHandler(config.getChannelTestDuration(), 0, 0));
-                        ch.pipeline().addLast(new DataEncoder("客户端"));
-                        ch.pipeline().addLast(new DataDecoder("客户端"));
-                        ch.pipeline().addLast(new CommonDataHandler("客户端"));
+                        if (config.getFrameTraceSampleRate() > 0 || config.getFrameTraceRingSize() > 0) {
+                            ch.pipeline().addLast(new FrameTraceHandler("客户端", config.getFrameTraceSampleRate(), config.getFrameTraceRingSize()));
+                        }
+                        ch.pipeline().addLast(new DataEncoder("客户端", timeCodec));
+                        ch.pipeline().addLast(new DataDecoder("客户端", config.isFlyweightDecode(), timeCodec));
+                        ch.pipeline().addLast(new CommonDataHandler("客户端", config.getK(), config.getW(), config.getAckDelayMillis(), config.getAckTimeout(), config.getChannelTestDuration(), resumeManager, metrics));
                         ch.pipeline().addLast(clientDataHandler);
                     }
                 });
-        bootstrap.connect(config.getRemoteHost(), config.getRemotePort());
+        if (config.getSoRcvBuf() > 0) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, config.getSoRcvBuf());
+        }
+        if (config.getSoSndBuf() > 0) {
+            bootstrap.option(ChannelOption.SO_SNDBUF, config.getSoSndBuf());
+        }
+        return bootstrap;
+    }
+
 
-        return clientDataHandler;
+    /**
+     * 连接远程主机
+     *
+     * @return ChannelFuture
+     */
+    public ChannelFuture connect() {
+        ChannelFuture future = bootstrap.connect(config.getRemoteHost(), config.getRemotePort());
+        this.channel = future.channel();
+        return future;
     }
 
 
     @Override
     public void push(RemoteOperation remoteOperation) {
-        LOGGER.info("[客户端-推送远程操控] {} , RemoteOperation : {}", remoteOperation.getOperateType().getDescription(), JsonUtil.toJsonString(remoteOperation));
+        LOGGER.info("[客户端-推送远程操控] {} , RemoteOperation : {}", remoteOperation.getOperateType().getDescription(), JsonUtil.lazyJson(remoteOperation));
 
         Message message = MessageFactory.buildClientMessageByRemoteOperation(remoteOperation);
-        LOGGER.debug("[客户端-推送远程操控] {} , Message : {}", remoteOperation.getOperateType().getDescription(), JsonUtil.toJsonString(message));
+        LOGGER.debug("[客户端-推送远程操控] {} , Message : {}", remoteOperation.getOperateType().getDescription(), JsonUtil.lazyJson(message));
 
         this.clientDataHandler.getCtx().writeAndFlush(message);
     }
 
 
+    @Override
+    public void push(List<RemoteOperation> remoteOperations) {
+        LOGGER.info("[客户端-批量推送远程操控] 远程操控数 = {}", remoteOperations.size());
+
+        ChannelHandlerContext ctx = this.clientDataHandler.getCtx();
+        for (RemoteOperation remoteOperation : remoteOperations) {
+            Message message = MessageFactory.buildClientMessageByRemoteOperation(remoteOperation);
+            LOGGER.debug("[客户端-批量推送远程操控] {} , Message : {}", remoteOperation.getOperateType().getDescription(), JsonUtil.lazyJson(message));
+            ctx.write(message);
+        }
+        ctx.flush();
+    }
+
+
+    @Override
+    public LatestValueManager getLatestValueManager() {
+        return latestValueManager;
+    }
+
+
+    @Override
+    public ProtocolMetrics getMetrics() {
+        return metrics;
+    }
+
+
+    @Override
+    public boolean isActive() {
+        Channel ch = this.channel;
+        return ch != null && ch.isActive();
+    }
+
+
     @Override
     public void closeClient() {
-        this.clientDataHandler.getCtx().close();
+        // 连接关闭通知写入分发通道后 关闭并移除所有分发通道
+        clientDataHandler.close();
+        Channel ch = this.channel;
+        ChannelFuture closeFuture = ch == null ? null : ch.close();
+        // 共享的业务分发由连接池关闭
+        if (dispatcher != null && !sharedDispatcher) {
+            if (closeFuture != null) {
+                // 连接关闭通知写入分发通道后 再关闭业务分发 (不阻塞调用线程)
+                closeFuture.addListener(future -> GlobalEventExecutor.INSTANCE.execute(() -> dispatcher.close(DISPATCH_CLOSE_TIMEOUT_MILLIS)));
+            } else {
+                dispatcher.close(0);
+            }
+        }
+        if (!sharedEventLoopGroup) {
+            eventLoopGroup.shutdownGracefully();
+        }
     }
 }
@@ -0,0 +1,288 @@
+package com.baoyubo.iec104.client;
+
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.config.ClientConfig;
+import com.baoyubo.iec104.config.ClientPoolConfig;
+import com.baoyubo.iec104.dispatch.OrderedDispatcher;
+import com.baoyubo.iec104.factory.TransportFactory;
+import com.baoyubo.iec104.metrics.ProtocolMetrics;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+import com.baoyubo.iec104.sink.TelemetrySink;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * IEC104协议 客户端连接池 (一个JVM连接多个子站)
+ * <pre>
+ * 1. 所有子站连接共享同一个 EventLoopGroup, 线程数与子站数量无关 (子站的 ClientConfig.transport 不生效, 以连接池配置为准)
+ * 2. 错峰连接: 相邻两个子站的连接时间至少间隔 connectIntervalMillis, 避免同时发起大量连接
+ * 3. 按 子站标识 获取连接句柄, 并提供汇总统计数据
+ * 4. 业务分发: 所有子站共享一个工作线程池 (子站的 ClientConfig.dispatch* 不生效, 以连接池配置为准)
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 15:02
+ */
+public class Iec104ClientPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec104ClientPool.class);
+
+    /**
+     * 关闭时 等待业务分发处理完已接收数据的最长时间 (毫秒)
+     */
+    private static final long DISPATCH_CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * 连接池配置
+     */
+    private final ClientPoolConfig poolConfig;
+
+    /**
+     * 共享 EventLoopGroup
+     */
+    private final EventLoopGroup eventLoopGroup;
+
+    /**
+     * 共享业务分发 (所有子站共享工作线程池, 未开启时为 null)
+     */
+    @Getter
+    private final OrderedDispatcher dispatcher;
+
+    /**
+     * 子站标识 -> 子站
+     */
+    private final Map<String, Station> stations = new ConcurrentHashMap<>();
+
+    /**
+     * 下一次允许发起连接的时间 (毫秒时间戳)
+     */
+    private final AtomicLong nextConnectTime = new AtomicLong();
+
+    /**
+     * 累计连接成功次数
+     */
+    private final LongAdder connectSuccessCount = new LongAdder();
+
+    /**
+     * 累计连接失败次数
+     */
+    private final LongAdder connectFailureCount = new LongAdder();
+
+
+    /**
+     * 构造函数
+     *
+     * @param poolConfig 连接池配置
+     */
+    public Iec104ClientPool(ClientPoolConfig poolConfig) {
+        this.poolConfig = poolConfig;
+        this.eventLoopGroup = TransportFactory.newEventLoopGroup(poolConfig.getTransport(), poolConfig.getEventLoopThreads());
+        this.dispatcher = poolConfig.getDispatchWorkers() > 0
+                ? new OrderedDispatcher("客户端连接池", "iec104-client-dispatch", poolConfig.getDispatchWorkers(), poolConfig.getDispatchQueueSize(),
+                poolConfig.getDispatchOverflowPolicy()) : null;
+    }
+
+
+    /**
+     * 添加子站 (错峰连接)
+     *
+     * @param stationId    子站标识
+     * @param config       客户端配置
+     * @param dataConsumer 客户端数据消费者
+     * @return 子站连接句柄
+     */
+    public ClientChannel add(String stationId, ClientConfig config, Consumer<RemoteOperation> dataConsumer) {
+        return add(stationId, config, dataConsumer, null);
+    }
+
+
+    /**
+     * 添加子站 (错峰连接), 子站标识已存在时先关闭原有连接
+     *
+     * @param stationId     子站标识
+     * @param config        客户端配置
+     * @param dataConsumer  客户端数据消费者
+     * @param telemetrySink 遥测/遥信 数据接收器
+     * @return 子站连接句柄
+     */
+    public ClientChannel add(String stationId, ClientConfig config, Consumer<RemoteOperation> dataConsumer, TelemetrySink telemetrySink) {
+        remove(stationId);
+
+        Iec104ClientChannel clientChannel = new Iec104ClientChannel(config, dataConsumer, telemetrySink, eventLoopGroup, dispatcher);
+        Station station = new Station(clientChannel);
+        stations.put(stationId, station);
+
+        long delay = reserveConnectDelay();
+        station.connectTask = eventLoopGroup.schedule(() -> connect(stationId, station), delay, TimeUnit.MILLISECONDS);
+        LOGGER.info("[客户端连接池-添加子站] {} {}:{}, {}ms 后发起连接", stationId, config.getRemoteHost(), config.getRemotePort(), delay);
+
+        return clientChannel;
+    }
+
+
+    /**
+     * 预留连接时间, 返回距离现在的延迟 (单位毫秒)
+     */
+    private long reserveConnectDelay() {
+        long now = System.currentTimeMillis();
+        long interval = poolConfig.getConnectIntervalMillis();
+        long connectTime = nextConnectTime.getAndAccumulate(now, (prev, curr) -> Math.max(prev, curr) + interval);
+        return Math.max(connectTime - now, 0);
+    }
+
+
+    /**
+     * 发起连接
+     */
+    private void connect(String stationId, Station station) {
+        if (stations.get(stationId) != station) {
+            return;
+        }
+        station.clientChannel.connect().addListener(future -> {
+            if (future.isSuccess()) {
+                connectSuccessCount.increment();
+                return;
+            }
+            connectFailureCount.increment();
+            LOGGER.warn("[客户端连接池-连接失败] {} : {}", stationId, future.cause() == null ? null : future.cause().getMessage());
+        });
+    }
+
+
+    /**
+     * 获取子站连接句柄
+     *
+     * @param stationId 子站标识
+     * @return 子站连接句柄, 不存在时返回 null
+     */
+    public ClientChannel get(String stationId) {
+        Station station = stations.get(stationId);
+        return station == null ? null : station.clientChannel;
+    }
+
+
+    /**
+     * 移除子站 (关闭连接)
+     *
+     * @param stationId 子站标识
+     */
+    public void remove(String stationId) {
+        Station station = stations.remove(stationId);
+        if (station == null) {
+            return;
+        }
+        ScheduledFuture<?> connectTask = station.connectTask;
+        if (connectTask != null && !connectTask.isDone()) {
+            connectTask.cancel(false);
+        }
+        station.clientChannel.closeClient();
+        LOGGER.info("[客户端连接池-移除子站] {}", stationId);
+    }
+
+
+    /**
+     * 获取所有子站标识
+     *
+     * @return 子站标识列表
+     */
+    public List<String> getStationIds() {
+        return new ArrayList<>(stations.keySet());
+    }
+
+
+    /**
+     * 获取汇总统计数据
+     *
+     * @return ClientPoolStats
+     */
+    public ClientPoolStats getStats() {
+        int activeCount = 0;
+        int pendingCount = 0;
+        for (Station station : stations.values()) {
+            if (station.clientChannel.isActive()) {
+                activeCount++;
+            } else if (station.connectTask != null && !station.connectTask.isDone()) {
+                pendingCount++;
+            }
+        }
+
+        ClientPoolStats stats = new ClientPoolStats();
+        stats.setStationCount(stations.size());
+        stats.setActiveCount(activeCount);
+        stats.setPendingCount(pendingCount);
+        stats.setConnectSuccessCount(connectSuccessCount.sum());
+        stats.setConnectFailureCount(connectFailureCount.sum());
+        return stats;
+    }
+
+
+    /**
+     * 获取所有子站的协议统计 (标签为子站标识, 未开启统计的子站不返回)
+     *
+     * @return 统计快照列表 (按子站标识排序)
+     */
+    public List<ProtocolMetricsSnapshot> getMetrics() {
+        List<ProtocolMetricsSnapshot> snapshots = new ArrayList<>(stations.size());
+        for (Map.Entry<String, Station> entry : stations.entrySet()) {
+            ProtocolMetrics metrics = entry.getValue().clientChannel.getMetrics();
+            if (metrics != null) {
+                ProtocolMetricsSnapshot snapshot = metrics.snapshot();
+                snapshot.setTag(entry.getKey());
+                snapshots.add(snapshot);
+            }
+        }
+        snapshots.sort(Comparator.comparing(ProtocolMetricsSnapshot::getTag));
+        return snapshots;
+    }
+
+
+    /**
+     * 关闭连接池 (关闭所有子站连接、共享 EventLoopGroup 及共享业务分发)
+     */
+    public void close() {
+        for (String stationId : getStationIds()) {
+            remove(stationId);
+        }
+        Future<?> terminationFuture = eventLoopGroup.shutdownGracefully();
+        if (dispatcher != null) {
+            // EventLoopGroup 关闭后不会再写入业务数据 (连接关闭通知已写入分发通道), 再关闭业务分发 (不阻塞调用线程)
+            terminationFuture.addListener(future -> GlobalEventExecutor.INSTANCE.execute(() -> dispatcher.close(DISPATCH_CLOSE_TIMEOUT_MILLIS)));
+        }
+    }
+
+
+    /**
+     * 子站
+     */
+    private static final class Station {
+
+        /**
+         * 子站连接句柄
+         */
+        private final Iec104ClientChannel clientChannel;
+
+        /**
+         * 错峰连接任务
+         */
+        private volatile ScheduledFuture<?> connectTask;
+
+        private Station(Iec104ClientChannel clientChannel) {
+            this.clientChannel = clientChannel;
+        }
+    }
+
+}
@@ -1,5 +1,8 @@
 package com.baoyubo.iec104.config;
 
+import com.baoyubo.iec104.enums.OverflowPolicyEnum;
+import com.baoyubo.iec104.enums.ResumePolicyEnum;
+import com.baoyubo.iec104.enums.TransportEnum;
 import lombok.Data;
 
 /**
@@ -26,4 +29,142 @@ public class ClientConfig {
      */
     private int channelTestDuration = 30;
 
+    /**
+     * 未被确认的I帧最大数量k (默认12: 达到后I帧在本地排队, Channel.isWritable() 为 false, 收到确认后继续发送)
+     */
+    private int k = 12;
+
+    /**
+     * 接收I帧后的确认阈值w (默认8: 每收到 w 个I帧回复一个S帧)
+     */
+    private int w = 8;
+
+    /**
+     * 接收I帧后的确认延时t2 (单位毫秒, 默认200ms: 未达到 w 时, 延时到期后回复S帧)
+     */
+    private int ackDelayMillis = 200;
+
+    /**
+     * 发送I帧或U帧命令后 等待确认的超时时间t1 (单位秒, 默认15s: 超时关闭连接)
+     */
+    private int ackTimeout = 15;
+
+    /**
+     * 会话恢复策略 (默认 NONE: 连接断开后丢弃未确认的I帧; RESEND: 同一对端重新连接并启动链路后重新发送)
+     */
+    private ResumePolicyEnum resumePolicy = ResumePolicyEnum.NONE;
+
+    /**
+     * 会话恢复 有效期 (单位秒, 默认60s: 超过有效期未重新连接则丢弃)
+     */
+    private int resumeExpireSeconds = 60;
+
+    /**
+     * 建立连接的超时时间t0 (单位秒, 默认30s)
+     */
+    private int connectTimeout = 30;
+
+    /**
+     * 是否开启 只读视图解码模式 (默认关闭)
+     * <p>
+     * 开启后解码器输出 MessageView, S帧及校验失败的I帧不会构建 Message
+     */
+    private boolean flyweightDecode = false;
+
+    /**
+     * 时标 CP56Time2a 时区 (默认为空: 使用系统默认时区)
+     */
+    private String timeZone;
+
+    /**
+     * 时标 编码时是否设置夏令时标志SU (默认关闭)
+     */
+    private boolean summerTimeBit = false;
+
+    /**
+     * 时标 解码时是否丢弃无效时标 (IV标志 或 字段越界, 丢弃后时标为空; 默认关闭: 忽略IV标志, 越界字段顺延)
+     */
+    private boolean discardInvalidTime = false;
+
+    /**
+     * 报文跟踪 采样率 (每 N 帧输出一帧原始报文日志, 默认0: 不输出)
+     */
+    private int frameTraceSampleRate = 0;
+
+    /**
+     * 报文跟踪 环形缓存大小 (保留最近 N 帧原始报文, 连接异常时输出到日志, 默认64, 0: 不缓存)
+     */
+    private int frameTraceRingSize = 64;
+
+    /**
+     * 网络传输实现 (默认 AUTO: Linux 下优先使用 io_uring/epoll, 否则使用 NIO)
+     */
+    private TransportEnum transport = TransportEnum.AUTO;
+
+    /**
+     * TCP_NODELAY (默认开启: 关闭 Nagle 算法, IEC104 报文小且对时延敏感)
+     */
+    private boolean tcpNoDelay = true;
+
+    /**
+     * SO_RCVBUF 接收缓冲区大小 (单位字节, 默认0: 使用系统默认值)
+     */
+    private int soRcvBuf = 0;
+
+    /**
+     * SO_SNDBUF 发送缓冲区大小 (单位字节, 默认0: 使用系统默认值)
+     */
+    private int soSndBuf = 0;
+
+    /**
+     * 写缓冲区 低水位线 (单位字节, 默认32KB)
+     */
+    private int writeBufferLowWaterMark = 32 * 1024;
+
+    /**
+     * 写缓冲区 高水位线 (单位字节, 默认64KB: 超过后 Channel.isWritable() 为 false)
+     */
+    private int writeBufferHighWaterMark = 64 * 1024;
+
+    /**
+     * 最新值表 (默认关闭; 开启后 遥测/遥信 按死区过滤, 只有发生变化的数据才通知业务, 可随时读取完整的最新值)
+     */
+    private boolean latestValue = false;
+
+    /**
+     * 遥测 绝对死区 (默认0: 值不同即为变化)
+     */
+    private double deadbandAbsolute = 0;
+
+    /**
+     * 遥测 百分比死区 (相对上次通知业务的值, 单位%, 默认0; 与绝对死区同时配置时取较大者)
+     */
+    private double deadbandPercent = 0;
+
+    /**
+     * 品质描述符变化 是否视为变化 (默认开启)
+     */
+    private boolean reportQualityChange = true;
+
+    /**
+     * 业务分发 工作线程数 (默认0: 在 IO 线程直接调用业务; 大于0时 业务数据按 子站 + 公共地址 有序转交给工作线程池)
+     * <p>
+     * 只对独立客户端生效, 连接池中的子站共享连接池的业务分发 (ClientPoolConfig)
+     */
+    private int dispatchWorkers = 0;
+
+    /**
+     * 业务分发 每个通道的队列容量 (默认1024)
+     */
+    private int dispatchQueueSize = 1024;
+
+    /**
+     * 业务分发 队列已满时的溢出策略 (默认阻塞; 阻塞时同一 EventLoop 上的所有连接都会停顿)
+     */
+    private OverflowPolicyEnum dispatchOverflowPolicy = OverflowPolicyEnum.BLOCK;
+
+    /**
+     * 协议统计 (默认开启: 每个子站统计 I/S/U帧、字节数、序列号校验失败、消息缓存深度、测试帧往返时延、I帧确认时延)
+     */
+    private boolean metrics = true;
 }
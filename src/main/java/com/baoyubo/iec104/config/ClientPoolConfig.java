@@ -0,0 +1,46 @@
+package com.baoyubo.iec104.config;
+
+import com.baoyubo.iec104.enums.OverflowPolicyEnum;
+import com.baoyubo.iec104.enums.TransportEnum;
+import lombok.Data;
+
+/**
+ * 客户端连接池配置
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 15:02
+ */
+@Data
+public class ClientPoolConfig {
+
+    /**
+     * 共享 EventLoopGroup 线程数 (默认0: 使用 Netty 默认值, CPU核数 * 2)
+     */
+    private int eventLoopThreads = 0;
+
+    /**
+     * 共享 EventLoopGroup 网络传输实现 (默认 AUTO: Linux 下优先使用 io_uring/epoll, 否则使用 NIO)
+     */
+    private TransportEnum transport = TransportEnum.AUTO;
+
+    /**
+     * 错峰连接 时间间隔 (单位毫秒, 默认20ms: 相邻两个子站的连接时间至少间隔20ms, 避免同时发起大量连接)
+     */
+    private long connectIntervalMillis = 20;
+
+    /**
+     * 共享业务分发 工作线程数 (默认0: 在 IO 线程直接调用业务; 大于0时 所有子站共享一个工作线程池, 子站配置中的业务分发参数不再生效)
+     */
+    private int dispatchWorkers = 0;
+
+    /**
+     * 共享业务分发 每个通道的队列容量 (默认1024)
+     */
+    private int dispatchQueueSize = 1024;
+
+    /**
+     * 共享业务分发 队列已满时的溢出策略 (默认阻塞; 阻塞时同一 EventLoop 上的所有连接都会停顿)
+     */
+    private OverflowPolicyEnum dispatchOverflowPolicy = OverflowPolicyEnum.BLOCK;
+
+}
@@ -1,7 +1,12 @@
 package com.baoyubo.iec104.config;
 
+import com.baoyubo.iec104.enums.OverflowPolicyEnum;
+import com.baoyubo.iec104.enums.ResumePolicyEnum;
+import com.baoyubo.iec104.enums.TransportEnum;
 import lombok.Data;
 
+import java.util.Map;
+
 /**
  * 服务端配置
  *
@@ -21,4 +26,158 @@ public class ServerConfig {
      */
     private int channelTestDuration = 30;
 
+    /**
+     * 未被确认的I帧最大数量k (默认12: 达到后I帧在本地排队, Channel.isWritable() 为 false, 收到确认后继续发送)
+     */
+    private int k = 12;
+
+    /**
+     * 接收I帧后的确认阈值w (默认8: 每收到 w 个I帧回复一个S帧)
+     */
+    private int w = 8;
+
+    /**
+     * 接收I帧后的确认延时t2 (单位毫秒, 默认200ms: 未达到 w 时, 延时到期后回复S帧)
+     */
+    private int ackDelayMillis = 200;
+
+    /**
+     * 发送I帧或U帧命令后 等待确认的超时时间t1 (单位秒, 默认15s: 超时关闭连接)
+     */
+    private int ackTimeout = 15;
+
+    /**
+     * 会话恢复策略 (默认 NONE: 连接断开后丢弃未确认的I帧; RESEND: 同一对端重新连接并启动链路后重新发送)
+     */
+    private ResumePolicyEnum resumePolicy = ResumePolicyEnum.NONE;
+
+    /**
+     * 会话恢复 有效期 (单位秒, 默认60s: 超过有效期未重新连接则丢弃)
+     */
+    private int resumeExpireSeconds = 60;
+
+    /**
+     * 会话恢复 对端 (对端地址 host:port 或 host -> 对端标识, 默认为空: 所有连接都不恢复)
+     * <p>
+     * 只有配置的对端才会恢复, 未配置的主站不会收到其他主站的消息; 按 host 配置表示该主机只有一个主站,
+     * 同一主机 (或同一 NAT 后) 的多个主站需绑定本地端口 按 host:port 分别配置
+     */
+    private Map<String, String> resumePeers;
+
+    /**
+     * 是否开启 只读视图解码模式 (默认关闭)
+     * <p>
+     * 开启后解码器输出 MessageView, S帧及校验失败的I帧不会构建 Message
+     */
+    private boolean flyweightDecode = false;
+
+    /**
+     * 时标 CP56Time2a 时区 (默认为空: 使用系统默认时区)
+     */
+    private String timeZone;
+
+    /**
+     * 时标 编码时是否设置夏令时标志SU (默认关闭)
+     */
+    private boolean summerTimeBit = false;
+
+    /**
+     * 时标 解码时是否丢弃无效时标 (IV标志 或 字段越界, 丢弃后时标为空; 默认关闭: 忽略IV标志, 越界字段顺延)
+     */
+    private boolean discardInvalidTime = false;
+
+    /**
+     * 报文跟踪 采样率 (每 N 帧输出一帧原始报文日志, 默认0: 不输出)
+     */
+    private int frameTraceSampleRate = 0;
+
+    /**
+     * 报文跟踪 环形缓存大小 (保留最近 N 帧原始报文, 连接异常时输出到日志, 默认64, 0: 不缓存)
+     */
+    private int frameTraceRingSize = 64;
+
+    /**
+     * 网络传输实现 (默认 AUTO: Linux 下优先使用 io_uring/epoll, 否则使用 NIO)
+     */
+    private TransportEnum transport = TransportEnum.AUTO;
+
+    /**
+     * TCP_NODELAY (默认开启: 关闭 Nagle 算法, IEC104 报文小且对时延敏感)
+     */
+    private boolean tcpNoDelay = true;
+
+    /**
+     * SO_RCVBUF 接收缓冲区大小 (单位字节, 默认0: 使用系统默认值)
+     */
+    private int soRcvBuf = 0;
+
+    /**
+     * SO_SNDBUF 发送缓冲区大小 (单位字节, 默认0: 使用系统默认值)
+     */
+    private int soSndBuf = 0;
+
+    /**
+     * 写缓冲区 低水位线 (单位字节, 默认32KB)
+     */
+    private int writeBufferLowWaterMark = 32 * 1024;
+
+    /**
+     * 写缓冲区 高水位线 (单位字节, 默认64KB: 超过后 Channel.isWritable() 为 false)
+     */
+    private int writeBufferHighWaterMark = 64 * 1024;
+
+    /**
+     * SO_BACKLOG 等待连接队列大小 (默认128)
+     */
+    private int soBacklog = 128;
+
+    /**
+     * IO线程数 (默认0: 使用 Netty 默认值, CPU核数 * 2)
+     */
+    private int ioThreads = 0;
+
+    /**
+     * 事件日志目录 (默认为空: 不记录; 记录广播、分组推送的突发(自发)数据, 用于主站断线或进程重启后重放)
+     */
+    private String journalDir;
+
+    /**
+     * 事件日志 分段文件大小 (单位字节, 默认16MB)
+     */
+    private int journalSegmentSize = 16 * 1024 * 1024;
+
+    /**
+     * 事件日志 保留时间 (单位小时, 默认24小时)
+     */
+    private int journalRetentionHours = 24;
+
+    /**
+     * 过程映像 (默认关闭: 总召唤交由业务推送; 开启后 推送的遥信/遥测 保存在映像中, 总召唤、分组召唤、读命令 直接由映像响应)
+     */
+    private boolean pointImage = false;
+
+    /**
+     * 业务分发 工作线程数 (默认0: 在 IO 线程直接调用业务; 大于0时 业务数据按 连接 + 公共地址 有序转交给工作线程池)
+     */
+    private int dispatchWorkers = 0;
+
+    /**
+     * 业务分发 每个通道的队列容量 (默认1024)
+     */
+    private int dispatchQueueSize = 1024;
+
+    /**
+     * 业务分发 队列已满时的溢出策略 (默认阻塞; 阻塞时同一 EventLoop 上的所有连接都会停顿)
+     */
+    private OverflowPolicyEnum dispatchOverflowPolicy = OverflowPolicyEnum.BLOCK;
+
+    /**
+     * 协议统计 (默认开启: 按对端主机统计 I/S/U帧、字节数、序列号校验失败、消息缓存深度、测试帧往返时延、I帧确认时延)
+     */
+    private boolean metrics = true;
+
+    /**
+     * 协议统计 对端主机数量上限 (默认1024, 超出的主机统一计入 other)
+     */
+    private int metricsMaxTags = 1024;
 }
@@ -2,6 +2,7 @@ package com.baoyubo.iec104.constant;
 
 import com.baoyubo.iec104.manager.ControlManager;
 import com.baoyubo.iec104.manager.CacheManager;
+import com.baoyubo.iec104.manager.FrameTraceManager;
 import io.netty.util.AttributeKey;
 
 
@@ -23,13 +24,27 @@ public class Constants {
     public static final int APDU_LENGTH_FIELD_LEN = 1;
     // 控制域 字段长度
     public static final int CONTROL_FIELD_LEN = 4;
+    // APDU长度 最大值 (控制域 + ASDU)
+    public static final int APDU_MAX_LEN = 253;
+    // ASDU头部 字段长度 (类型标识符TI + 可变结构限定词VSQ + 传输原因COT + 公共地址)
+    public static final int ASDU_HEADER_FIELD_LEN = 6;
+    // 信息对象地址 字段长度
+    public static final int INFO_ADDRESS_FIELD_LEN = 3;
+    // 信息数据列表 最大个数 (VSQ 低7位)
+    public static final int MESSAGE_INFO_LIST_MAX_SIZE = 127;
     // 信息数据-时标 字段长度
     public static final byte MESSAGE_INFO_TIME_SCALE_FIELD_LEN = 7;
+    // 信息数据-时标 CP24Time2a 字段长度
+    public static final byte MESSAGE_INFO_CP24_TIME_SCALE_FIELD_LEN = 3;
+    // 信息数据-相对时间 CP16Time2a 字段长度
+    public static final byte MESSAGE_INFO_ELAPSED_TIME_FIELD_LEN = 2;
 
     // 信息地址 0
     public static final int INFO_ADDRESS_0 = 0;
     // IEC104协议 默认的 公共地址
     public static final short DEFAULT_COMMON_ADDRESS = 0;
+    // IEC104协议 广播的 公共地址 (0xFFFF)
+    public static final short BROADCAST_COMMON_ADDRESS = (short) 0xFFFF;
 
 
     // SE 遥控选择标志: 1-选择
@@ -52,5 +67,7 @@ public class Constants {
     public static final AttributeKey<ControlManager> CONTROL_MANAGER = AttributeKey.newInstance("ControlManager");
     // Netty变量: 消息缓存管理
     public static final AttributeKey<CacheManager> CACHE_MANAGER = AttributeKey.newInstance("CacheManager");
+    // Netty变量: 报文跟踪管理
+    public static final AttributeKey<FrameTraceManager> FRAME_TRACE_MANAGER = AttributeKey.newInstance("FrameTraceManager");
 
 }
@@ -0,0 +1,303 @@
+package com.baoyubo.iec104.dispatch;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.enums.OverflowPolicyEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 业务分发通道 (同一通道的数据按写入顺序交给业务, 不同通道在工作线程池中并行)
+ * <pre>
+ * 1. 正常情况: IO 线程写入无锁环形缓冲区, 通道未被调度时提交到工作线程池, 同一时刻最多一个工作线程处理该通道
+ * 2. 环形缓冲区已满 (BLOCK 策略除外): 写入通道内的溢出队列 (加锁), 溢出队列不为空时后续数据也写入溢出队列, 保证顺序
+ *    工作线程取完环形缓冲区后 再取溢出队列
+ * 3. 溢出队列达到容量: 丢弃其中最旧的 遥信/遥测 数据; COALESCE 策略先尝试与最新一条同类型数据合并
+ * 4. 工作线程每处理 BATCH_SIZE 条数据 重新排队一次, 避免一个繁忙的通道占用工作线程
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 00:00
+ */
+public class DispatchLane implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DispatchLane.class);
+
+    /**
+     * 每次调度最多处理的数据条数
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * BLOCK 策略 等待空位时的休眠时间 (纳秒)
+     */
+    private static final long BLOCK_PARK_NANOS = 50_000L;
+
+    private final OrderedDispatcher dispatcher;
+
+    /**
+     * 业务数据消费者
+     */
+    private final Consumer<RemoteOperation> consumer;
+
+    private final RingBuffer<DispatchTask> ringBuffer;
+
+    /**
+     * 溢出队列 (访问需加锁)
+     */
+    private final ArrayDeque<DispatchTask> backlog = new ArrayDeque<>();
+
+    /**
+     * 溢出队列长度 (IO 线程无锁判断是否可以直接写入环形缓冲区)
+     */
+    private volatile int backlogSize;
+
+    /**
+     * 是否已提交到工作线程池
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+
+    DispatchLane(OrderedDispatcher dispatcher, Consumer<RemoteOperation> consumer) {
+        this.dispatcher = dispatcher;
+        this.consumer = consumer;
+        this.ringBuffer = new RingBuffer<>(dispatcher.getLaneCapacity());
+    }
+
+
+    /**
+     * 写入业务数据
+     *
+     * @param remoteOperation 远程操控
+     */
+    public void offer(RemoteOperation remoteOperation) {
+        offer(remoteOperation, null);
+    }
+
+
+    /**
+     * 写入业务数据
+     *
+     * @param remoteOperation 远程操控
+     * @param afterAccept     业务处理完毕后的回调 (在工作线程执行, 可为空)
+     */
+    public void offer(RemoteOperation remoteOperation, Runnable afterAccept) {
+        offer(new DispatchTask(remoteOperation, afterAccept));
+    }
+
+
+    /**
+     * 写入任务 (与业务数据按同一顺序在工作线程执行, 不会被丢弃或合并)
+     *
+     * @param task 任务
+     */
+    public void execute(Runnable task) {
+        offer(new DispatchTask(null, task));
+    }
+
+
+    private void offer(DispatchTask task) {
+        if (backlogSize == 0 && ringBuffer.offer(task)) {
+            dispatcher.onEnqueued();
+        } else if (OverflowPolicyEnum.BLOCK == dispatcher.getOverflowPolicy()) {
+            offerBlocking(task);
+        } else {
+            synchronized (this) {
+                if (backlog.isEmpty() && ringBuffer.offer(task)) {
+                    dispatcher.onEnqueued();
+                } else {
+                    overflow(task);
+                }
+                backlogSize = backlog.size();
+            }
+        }
+        schedule();
+    }
+
+
+    /**
+     * BLOCK 策略: 等待工作线程处理出空位
+     * <p>
+     * 注意: 调用线程通常是 Netty EventLoop, 等待期间该 EventLoop 上所有连接的收发、协议定时器都会停顿,
+     * 业务长时间跟不上时 对端可能因 t1 超时断开连接; 不能接受时请使用 DROP_OLDEST / COALESCE
+     */
+    private void offerBlocking(DispatchTask task) {
+        dispatcher.onBlocked();
+        while (!ringBuffer.offer(task)) {
+            if (dispatcher.isClosed()) {
+                LOGGER.warn("[{}-业务分发] 分发已关闭, 丢弃数据: {}", dispatcher.getName(), task.type());
+                return;
+            }
+            schedule();
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        dispatcher.onEnqueued();
+    }
+
+
+    /**
+     * 环形缓冲区已满: 写入溢出队列 (已加锁)
+     */
+    private void overflow(DispatchTask task) {
+        if (OverflowPolicyEnum.COALESCE == dispatcher.getOverflowPolicy() && task.isData()) {
+            DispatchTask last = backlog.peekLast();
+            if (last != null && last.isData() && last.remoteOperation.getOperateType() == task.remoteOperation.getOperateType()) {
+                last.merge(task.remoteOperation);
+                dispatcher.onCoalesced();
+                return;
+            }
+        }
+        if (backlog.size() >= ringBuffer.capacity()) {
+            Iterator<DispatchTask> iterator = backlog.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isData()) {
+                    iterator.remove();
+                    dispatcher.onDropped();
+                    break;
+                }
+            }
+        }
+        backlog.addLast(task);
+        dispatcher.onEnqueued();
+    }
+
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this);
+        }
+    }
+
+
+    /**
+     * 工作线程: 按顺序交给业务
+     */
+    @Override
+    public void run() {
+        int processed = 0;
+        for (; ; ) {
+            DispatchTask task = ringBuffer.poll();
+            if (task == null && backlogSize > 0) {
+                synchronized (this) {
+                    task = backlog.pollFirst();
+                    backlogSize = backlog.size();
+                }
+            }
+            if (task == null) {
+                scheduled.set(false);
+                // 释放调度权之后又有新数据写入, 且没有其他线程接手
+                if (getQueueDepth() == 0 || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            dispatcher.onDequeued();
+            deliver(task);
+            if (++processed >= BATCH_SIZE) {
+                dispatcher.execute(this);
+                return;
+            }
+        }
+    }
+
+
+    private void deliver(DispatchTask task) {
+        try {
+            if (task.remoteOperation != null) {
+                consumer.accept(task.remoteOperation);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("[{}-业务分发] 业务处理异常: {}", dispatcher.getName(), task.type(), e);
+        }
+        if (task.afterAccept == null) {
+            return;
+        }
+        // 回调 / 任务异常同样不能中断通道的调度
+        try {
+            task.afterAccept.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("[{}-业务分发] 回调处理异常: {}", dispatcher.getName(), task.type(), e);
+        }
+    }
+
+
+    /**
+     * 待处理的数据条数 (环形缓冲区 + 溢出队列)
+     */
+    public int getQueueDepth() {
+        return ringBuffer.size() + backlogSize;
+    }
+
+
+    /**
+     * 关闭通道 (已写入的数据仍会交给业务)
+     */
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            dispatcher.onLaneClosed();
+        }
+    }
+
+
+    /**
+     * 分发任务
+     */
+    private static final class DispatchTask {
+
+        /**
+         * 远程操控 (为空时 只执行 afterAccept)
+         */
+        private final RemoteOperation remoteOperation;
+
+        private final Runnable afterAccept;
+
+        /**
+         * 参数是否已复制 (合并前复制一次, 不修改业务侧可能共享的 Map)
+         */
+        private boolean paramsCopied;
+
+        private DispatchTask(RemoteOperation remoteOperation, Runnable afterAccept) {
+            this.remoteOperation = remoteOperation;
+            this.afterAccept = afterAccept;
+        }
+
+        /**
+         * 是否为可以丢弃/合并的 遥信/遥测 数据
+         */
+        private boolean isData() {
+            if (afterAccept != null || remoteOperation == null || remoteOperation.getParams() == null) {
+                return false;
+            }
+            RemoteOperateTypeEnum operateType = remoteOperation.getOperateType();
+            return RemoteOperateTypeEnum.HARUNOBU == operateType || RemoteOperateTypeEnum.TELEMETRY == operateType
+                    || RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU == operateType || RemoteOperateTypeEnum.GENERAL_CALL_TELEMETRY == operateType;
+        }
+
+        /**
+         * 远程操控类型 (用于日志)
+         */
+        private Object type() {
+            return remoteOperation == null ? "TASK" : remoteOperation.getOperateType();
+        }
+
+        /**
+         * 合并较新的数据 (同一信息对象地址 保留较新的值)
+         */
+        private void merge(RemoteOperation newer) {
+            if (!paramsCopied) {
+                remoteOperation.setParams(new HashMap<>(remoteOperation.getParams()));
+                paramsCopied = true;
+            }
+            remoteOperation.getParams().putAll(newer.getParams());
+        }
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.baoyubo.iec104.dispatch;
+
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.enums.OverflowPolicyEnum;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 业务分发 (将解码后的业务数据从 IO 线程转交给工作线程池)
+ * <pre>
+ * 1. 业务处理较慢 (日志序列化、写库) 时不再阻塞 IO 线程, 同一 EventLoop 上其他连接的收发及协议定时器不受影响
+ * 2. 每个 连接 + 公共地址 一个分发通道 (DispatchLane), 通道内按顺序处理, 通道之间并行
+ * 3. 每个通道一个有界无锁环形缓冲区, 已满时按 溢出策略 处理
+ * 4. 统计: 队列深度、已处理、丢弃、合并、阻塞 次数
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 00:00
+ */
+public class OrderedDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderedDispatcher.class);
+
+    /**
+     * 名称 (用于日志)
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * 每个通道的环形缓冲区容量
+     */
+    @Getter
+    private final int laneCapacity;
+
+    /**
+     * 溢出策略
+     */
+    @Getter
+    private final OverflowPolicyEnum overflowPolicy;
+
+    private final ExecutorService executor;
+
+    /**
+     * 所有通道 待处理的数据条数
+     */
+    private final LongAdder queueDepth = new LongAdder();
+
+    private final LongAdder deliveredCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder coalescedCount = new LongAdder();
+
+    private final LongAdder blockedCount = new LongAdder();
+
+    private final AtomicInteger laneCount = new AtomicInteger();
+
+    @Getter
+    private volatile boolean closed;
+
+
+    /**
+     * 构造函数
+     *
+     * @param name           名称 (用于日志)
+     * @param threadName     工作线程名前缀
+     * @param workers        工作线程数
+     * @param laneCapacity   每个通道的环形缓冲区容量
+     * @param overflowPolicy 溢出策略
+     */
+    public OrderedDispatcher(String name, String threadName, int workers, int laneCapacity, OverflowPolicyEnum overflowPolicy) {
+        if (workers <= 0 || laneCapacity <= 0) {
+            throw new RuntimeException("业务分发 工作线程数、队列容量 必须大于0");
+        }
+        this.name = name;
+        this.laneCapacity = laneCapacity;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicyEnum.BLOCK : overflowPolicy;
+        this.executor = Executors.newFixedThreadPool(workers, new DefaultThreadFactory(threadName, true));
+    }
+
+
+    /**
+     * 创建分发通道
+     *
+     * @param consumer 业务数据消费者
+     * @return 分发通道
+     */
+    public DispatchLane newLane(Consumer<RemoteOperation> consumer) {
+        laneCount.incrementAndGet();
+        return new DispatchLane(this, consumer);
+    }
+
+
+    void execute(DispatchLane lane) {
+        try {
+            executor.execute(lane);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("[{}-业务分发] 分发已关闭, 未处理的数据将被丢弃", name);
+        }
+    }
+
+    void onEnqueued() {
+        queueDepth.increment();
+    }
+
+    void onDequeued() {
+        queueDepth.decrement();
+        deliveredCount.increment();
+    }
+
+    void onDropped() {
+        queueDepth.decrement();
+        droppedCount.increment();
+    }
+
+    void onCoalesced() {
+        coalescedCount.increment();
+    }
+
+    void onBlocked() {
+        blockedCount.increment();
+    }
+
+    void onLaneClosed() {
+        laneCount.decrementAndGet();
+    }
+
+
+    /**
+     * 所有通道 待处理的数据条数
+     */
+    public long getQueueDepth() {
+        return queueDepth.sum();
+    }
+
+    /**
+     * 已交给业务的数据条数
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.sum();
+    }
+
+    /**
+     * 溢出丢弃的数据条数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 溢出合并的数据条数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * 环形缓冲区已满 IO 线程阻塞等待的次数
+     */
+    public long getBlockedCount() {
+        return blockedCount.sum();
+    }
+
+    /**
+     * 未关闭的通道数
+     */
+    public int getLaneCount() {
+        return laneCount.get();
+    }
+
+
+    /**
+     * 关闭: 等待已写入的数据处理完毕 (最多等待 timeoutMillis)
+     *
+     * @param timeoutMillis 最长等待时间 (毫秒)
+     */
+    public void close(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        closed = true;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("[{}-业务分发] 已关闭, 未处理 = {}, 已处理 = {}, 丢弃 = {}, 合并 = {}", name, getQueueDepth(), getDeliveredCount(), getDroppedCount(), getCoalescedCount());
+    }
+
+}
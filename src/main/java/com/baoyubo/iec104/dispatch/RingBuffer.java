@@ -0,0 +1,127 @@
+package com.baoyubo.iec104.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区 (多生产者/多消费者)
+ * <pre>
+ * 1. 容量为2的幂, 每个槽位带序号 (与 Disruptor 相同的思路): 槽位序号等于写入位置时可写, 等于写入位置+1 时可读
+ * 2. 生产者/消费者 只通过 CAS 竞争各自的游标, 写入元素后再发布槽位序号, 不加锁
+ * 3. 已满时 offer 立即返回 false, 由调用方决定 阻塞/丢弃/合并
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 00:00
+ */
+public final class RingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * 槽位序号
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * 下一个写入位置
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取位置
+     */
+    private final AtomicLong head = new AtomicLong();
+
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 容量 (向上取整为2的幂)
+     */
+    public RingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+
+    /**
+     * 写入元素
+     *
+     * @param element 元素
+     * @return 是否写入成功 (已满返回 false)
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        for (; ; ) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+
+    /**
+     * 读取并移除最旧的元素
+     *
+     * @return 元素 (为空返回 null)
+     */
+    public E poll() {
+        long position = head.get();
+        for (; ; ) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+
+    /**
+     * 元素个数 (并发读写时为近似值)
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+}
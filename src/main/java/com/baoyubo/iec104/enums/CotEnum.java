@@ -55,7 +55,16 @@ public enum CotEnum {
     /**
      * interrogated by general interrogation 响应召唤命令
      */
-    INTROGEN(0x14, "响应站召唤");
+    INTROGEN(0x14, "响应站召唤"),
+    /**
+     * unknown information object address 未知的信息对象地址 (否定确认, 与 P/N 位一起使用)
+     */
+    UNKNOWN_INFO_ADDRESS(0x2F, "未知的信息对象地址");
+
+    /**
+     * 传输原因 P/N 位 (否定确认)
+     */
+    public static final short NEGATIVE_BIT = 0x40;
 
     private final short code;
     private final String name;
@@ -0,0 +1,229 @@
+package com.baoyubo.iec104.enums;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.Getter;
+
+/**
+ * IEC101/104协议 信息元素类型 (信息对象值的编码格式)
+ * <pre>
+ * 每种类型标识符TI 对应一种信息元素类型, 信息对象值统一按下标从 ByteBuf 读取为 double, 不创建对象:
+ * 1. SIQ/DIQ/SEP 等信息元素 自带品质位, 通过 getQuality 读取
+ * 2. 独立的品质描述符 QDS/QDP、时标 由 TypeIdentifierEnum 描述, 不属于信息元素
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 22:30
+ */
+@Getter
+public enum InfoElementTypeEnum {
+
+    /**
+     * 无信息对象值
+     */
+    NONE(0) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return 0;
+        }
+    },
+
+    /**
+     * 原始字节 (命令、限定词等, 不做解析)
+     */
+    RAW_BYTE(1) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getUnsignedByte(index);
+        }
+    },
+
+    /**
+     * 带品质描述词的单点信息 SIQ (SPI 第0位, 品质 高4位)
+     */
+    SIQ(1) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getByte(index) & 0x01;
+        }
+
+        @Override
+        public byte getQuality(ByteBuf byteBuf, int index) {
+            return (byte) (byteBuf.getByte(index) & 0xF0);
+        }
+    },
+
+    /**
+     * 带品质描述词的双点信息 DIQ (DPI 低2位, 品质 高4位)
+     */
+    DIQ(1) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getByte(index) & 0x03;
+        }
+
+        @Override
+        public byte getQuality(ByteBuf byteBuf, int index) {
+            return (byte) (byteBuf.getByte(index) & 0xF0);
+        }
+    },
+
+    /**
+     * 带瞬变状态指示的值 VTI (低7位 有符号整数 -64..63, 最高位为瞬变状态)
+     */
+    VTI(1) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return (byte) (byteBuf.getByte(index) << 1) >> 1;
+        }
+    },
+
+    /**
+     * 二进制状态信息 BSI (32位比特串, 按无符号整数读取)
+     */
+    BSI(4) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getUnsignedIntLE(index);
+        }
+    },
+
+    /**
+     * 归一化值 NVA (-1 .. 1-2^-15)
+     */
+    NVA(2) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getShortLE(index) / 32768.0;
+        }
+    },
+
+    /**
+     * 标度化值 SVA (16位有符号整数)
+     */
+    SVA(2) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getShortLE(index);
+        }
+    },
+
+    /**
+     * 短浮点数 IEEE STD 754
+     */
+    SHORT_FLOAT(4) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getFloatLE(index);
+        }
+    },
+
+    /**
+     * 二进制计数器读数 BCR (32位有符号计数值 + 1字节 顺序号/CY/CA/IV)
+     */
+    BCR(5) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getIntLE(index);
+        }
+
+        @Override
+        public byte getQuality(ByteBuf byteBuf, int index) {
+            return (byte) (byteBuf.getByte(index + 4) & 0xE0);
+        }
+    },
+
+    /**
+     * 继电保护设备单个事件 SEP (事件状态 低2位, 品质 高5位)
+     */
+    SEP(1) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getByte(index) & 0x03;
+        }
+
+        @Override
+        public byte getQuality(ByteBuf byteBuf, int index) {
+            return (byte) (byteBuf.getByte(index) & 0xF8);
+        }
+    },
+
+    /**
+     * 继电保护设备启动事件 SPE (低6位)
+     */
+    SPE(1) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getByte(index) & 0x3F;
+        }
+    },
+
+    /**
+     * 继电保护设备输出电路信息 OCI (低4位)
+     */
+    OCI(1) {
+        @Override
+        public double getValue(ByteBuf byteBuf, int index) {
+            return byteBuf.getByte(index) & 0x0F;
+        }
+    },
+    ;
+
+    /**
+     * 信息对象值所占字节长度
+     */
+    private final int length;
+
+    /**
+     * InfoElementTypeEnum
+     *
+     * @param length 信息对象值所占字节长度
+     */
+    InfoElementTypeEnum(int length) {
+        this.length = length;
+    }
+
+
+    /**
+     * 读取信息对象值 (不移动读指针)
+     *
+     * @param byteBuf byteBuf
+     * @param index   信息对象值起始下标
+     * @return 信息对象值
+     */
+    public abstract double getValue(ByteBuf byteBuf, int index);
+
+
+    /**
+     * 读取信息元素自带的品质位 (不移动读指针, 不带品质位的类型返回0)
+     *
+     * @param byteBuf byteBuf
+     * @param index   信息对象值起始下标
+     * @return 品质位
+     */
+    public byte getQuality(ByteBuf byteBuf, int index) {
+        return 0;
+    }
+
+
+    /**
+     * 读取信息对象值
+     *
+     * @param infoValue 信息对象值字节数组
+     * @return 信息对象值
+     */
+    public double getValue(byte[] infoValue) {
+        return getValue(Unpooled.wrappedBuffer(infoValue), 0);
+    }
+
+
+    /**
+     * 读取信息元素自带的品质位
+     *
+     * @param infoValue 信息对象值字节数组
+     * @return 品质位
+     */
+    public byte getQuality(byte[] infoValue) {
+        return getQuality(Unpooled.wrappedBuffer(infoValue), 0);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.baoyubo.iec104.enums;
+
+/**
+ * 业务分发队列 溢出策略 (分发通道的环形缓冲区已满时 如何处理新数据)
+ * <p>
+ * 总召唤、总召唤结束、遥控、连接关闭 等控制类数据 不会被丢弃或合并
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 00:00
+ */
+public enum OverflowPolicyEnum {
+
+    /**
+     * 阻塞: 等待业务线程处理出空位 (会阻塞 IO 线程, 产生背压)
+     * <p>
+     * 等待期间 同一 EventLoop 上所有连接的收发、协议定时器都会停顿, 业务长时间跟不上时 对端可能因 t1 超时断开
+     */
+    BLOCK,
+
+    /**
+     * 丢弃最旧: 溢出队列也满时 丢弃其中最旧的 遥信/遥测 数据
+     */
+    DROP_OLDEST,
+
+    /**
+     * 合并: 与溢出队列中最新一条同类型的 遥信/遥测 数据合并 (同一信息对象地址只保留最新值), 无法合并且溢出队列已满时 丢弃最旧
+     */
+    COALESCE;
+
+}
@@ -0,0 +1,31 @@
+package com.baoyubo.iec104.enums;
+
+/**
+ * IEC104协议 定时器 (t0 为建立连接超时, 由 Bootstrap 的 CONNECT_TIMEOUT_MILLIS 实现)
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 17:05
+ */
+public enum ProtocolTimerEnum {
+
+    /**
+     * t1: 发送I帧后等待确认的超时时间, 超时关闭连接
+     */
+    T1_I_FRAME,
+
+    /**
+     * t1: 发送U帧 (启动、停止、测试命令) 后等待确认的超时时间, 超时关闭连接
+     */
+    T1_U_FRAME,
+
+    /**
+     * t2: 接收I帧后, 未达到 w 时延时回复S帧的时间
+     */
+    T2,
+
+    /**
+     * t3: 长时间未收到报文时, 发送测试帧的时间
+     */
+    T3;
+
+}
@@ -2,9 +2,6 @@ package com.baoyubo.iec104.enums;
 
 import lombok.Getter;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * IEC104协议 限定词/描述符 (占1个字节)
  *
@@ -43,11 +40,14 @@ public enum QualifiersEnum {
     }
 
 
-    private static final Map<Byte, QualifiersEnum> VALUE_MAP = new HashMap<>();
+    /**
+     * 值 -> 限定词/描述符 (256 项查找表, 下标为无符号值, 未定义的为 null)
+     */
+    private static final QualifiersEnum[] VALUE_TABLE = new QualifiersEnum[256];
 
     static {
         for (QualifiersEnum qualifiersEnum : values()) {
-            VALUE_MAP.put(qualifiersEnum.getValue(), qualifiersEnum);
+            VALUE_TABLE[qualifiersEnum.getValue() & 0xFF] = qualifiersEnum;
         }
     }
 
@@ -59,7 +59,7 @@ public enum QualifiersEnum {
      * @return 限定词/描述符
      */
     public static QualifiersEnum ofValue(byte value) {
-        return VALUE_MAP.get(value);
+        return VALUE_TABLE[value & 0xFF];
     }
 
 }
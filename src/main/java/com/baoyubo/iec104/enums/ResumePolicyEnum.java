@@ -0,0 +1,21 @@
+package com.baoyubo.iec104.enums;
+
+/**
+ * 会话恢复策略 (连接断开时 已发送未确认、本地排队的I帧如何处理)
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 18:20
+ */
+public enum ResumePolicyEnum {
+
+    /**
+     * 不恢复: 连接断开后丢弃
+     */
+    NONE,
+
+    /**
+     * 重发: 同一对端重新连接并启动链路后, 按原顺序重新发送 (使用新连接的序列号)
+     */
+    RESEND;
+
+}
@@ -0,0 +1,31 @@
+package com.baoyubo.iec104.enums;
+
+/**
+ * 网络传输实现
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 16:10
+ */
+public enum TransportEnum {
+
+    /**
+     * 自动选择: io_uring > epoll > NIO (按可用性依次降级)
+     */
+    AUTO,
+
+    /**
+     * Java NIO (所有平台可用)
+     */
+    NIO,
+
+    /**
+     * Linux epoll (不可用时降级为 NIO)
+     */
+    EPOLL,
+
+    /**
+     * Linux io_uring (需要引入 netty-incubator-transport-native-io_uring, 不可用时降级为 epoll/NIO)
+     */
+    IO_URING;
+
+}
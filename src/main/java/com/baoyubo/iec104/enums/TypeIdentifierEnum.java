@@ -1,10 +1,8 @@
 package com.baoyubo.iec104.enums;
 
+import com.baoyubo.iec104.constant.Constants;
 import lombok.Getter;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * IEC104协议 类型标识符TI (占1个字节)
  *
@@ -17,89 +15,287 @@ public enum TypeIdentifierEnum {
     /**
      * 初始化结束
      */
-    INIT_END(70, 0x46, 1),
+    INIT_END(70, 0x46, InfoElementTypeEnum.RAW_BYTE, 0),
 
     /**
      * 召唤命令
      */
-    GENERAL_CALL(100, 0x64, 0),
+    GENERAL_CALL(100, 0x64, InfoElementTypeEnum.NONE, Flags.QUALIFIER),
+
+    /**
+     * 读命令 (只有信息对象地址, 子站以 请求或者被请求 回复该信息对象的当前值)
+     */
+    READ(102, 0x66, InfoElementTypeEnum.NONE, 0),
 
     /**
      * 时钟同步
      */
-    TIME_SYNCHRONIZATION(103, 0x67, 0),
+    TIME_SYNCHRONIZATION(103, 0x67, InfoElementTypeEnum.NONE, Flags.TIME_SCALE),
 
     /**
      * 单点遥信
      */
-    ONE_POINT_HARUNOBU(1, 0x01, 1),
+    ONE_POINT_HARUNOBU(1, 0x01, InfoElementTypeEnum.SIQ, Flags.HARUNOBU),
+
+    /**
+     * 单点遥信带时标 CP24Time2a
+     */
+    ONE_POINT_CP24_TIME_HARUNOBU(2, 0x02, InfoElementTypeEnum.SIQ, Flags.HARUNOBU | Flags.CP24_TIME_SCALE),
 
     /**
      * 单点遥信带时标
      */
-    ONE_POINT_TIME_HARUNOBU(30, 0x1E, 1),
+    ONE_POINT_TIME_HARUNOBU(30, 0x1E, InfoElementTypeEnum.SIQ, Flags.HARUNOBU | Flags.TIME_SCALE),
 
     /**
      * 双点遥信
      */
-    TWO_POINT_HARUNOBU(3, 0x03, 1),
+    TWO_POINT_HARUNOBU(3, 0x03, InfoElementTypeEnum.DIQ, Flags.HARUNOBU),
+
+    /**
+     * 双点遥信带时标 CP24Time2a
+     */
+    TWO_POINT_CP24_TIME_HARUNOBU(4, 0x04, InfoElementTypeEnum.DIQ, Flags.HARUNOBU | Flags.CP24_TIME_SCALE),
 
     /**
      * 双点遥信带时标
      */
-    TWO_POINT_TIME_HARUNOBU(31, 0x1F, 1),
+    TWO_POINT_TIME_HARUNOBU(31, 0x1F, InfoElementTypeEnum.DIQ, Flags.HARUNOBU | Flags.TIME_SCALE),
+
+    /**
+     * 成组单点遥信 带变位检出 (16位状态 + 16位变位检出)
+     */
+    PACKED_ONE_POINT_HARUNOBU(20, 0x14, InfoElementTypeEnum.BSI, Flags.BITSTRING | Flags.QUALIFIER),
+
+    /**
+     * 步位置信息
+     */
+    STEP_POSITION(5, 0x05, InfoElementTypeEnum.VTI, Flags.STEP | Flags.QUALIFIER),
+
+    /**
+     * 步位置信息带时标 CP24Time2a
+     */
+    STEP_POSITION_CP24_TIME(6, 0x06, InfoElementTypeEnum.VTI, Flags.STEP | Flags.QUALIFIER | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 步位置信息带时标
+     */
+    STEP_POSITION_TIME(32, 0x20, InfoElementTypeEnum.VTI, Flags.STEP | Flags.QUALIFIER | Flags.TIME_SCALE),
+
+    /**
+     * 32比特串
+     */
+    BITSTRING(7, 0x07, InfoElementTypeEnum.BSI, Flags.BITSTRING | Flags.QUALIFIER),
+
+    /**
+     * 32比特串带时标 CP24Time2a
+     */
+    BITSTRING_CP24_TIME(8, 0x08, InfoElementTypeEnum.BSI, Flags.BITSTRING | Flags.QUALIFIER | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 32比特串带时标
+     */
+    BITSTRING_TIME(33, 0x21, InfoElementTypeEnum.BSI, Flags.BITSTRING | Flags.QUALIFIER | Flags.TIME_SCALE),
 
     /**
      * 测量值 归一化值 遥测
      */
-    NORMALIZED_TELEMETRY(9, 0x09, 2),
+    NORMALIZED_TELEMETRY(9, 0x09, InfoElementTypeEnum.NVA, Flags.TELEMETRY | Flags.QUALIFIER),
+
+    /**
+     * 测量值 归一化值 遥测带时标 CP24Time2a
+     */
+    NORMALIZED_CP24_TIME_TELEMETRY(10, 0x0A, InfoElementTypeEnum.NVA, Flags.TELEMETRY | Flags.QUALIFIER | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 测量值 归一化值 遥测带时标
+     */
+    NORMALIZED_TIME_TELEMETRY(34, 0x22, InfoElementTypeEnum.NVA, Flags.TELEMETRY | Flags.QUALIFIER | Flags.TIME_SCALE),
+
+    /**
+     * 测量值 归一化值 遥测 不带品质描述词
+     */
+    NORMALIZED_NO_QUALITY_TELEMETRY(21, 0x15, InfoElementTypeEnum.NVA, Flags.TELEMETRY),
 
     /**
      * 测量值 标度化值 遥测
      */
-    SCALED_TELEMETRY(11, 0x0B, 2),
+    SCALED_TELEMETRY(11, 0x0B, InfoElementTypeEnum.SVA, Flags.TELEMETRY | Flags.QUALIFIER),
+
+    /**
+     * 测量值 标度化值 遥测带时标 CP24Time2a
+     */
+    SCALED_CP24_TIME_TELEMETRY(12, 0x0C, InfoElementTypeEnum.SVA, Flags.TELEMETRY | Flags.QUALIFIER | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 测量值 标度化值 遥测带时标
+     */
+    SCALED_TIME_TELEMETRY(35, 0x23, InfoElementTypeEnum.SVA, Flags.TELEMETRY | Flags.QUALIFIER | Flags.TIME_SCALE),
 
     /**
      * 测量值 短浮点数 遥测
      */
-    SHORT_FLOAT_POINT_TELEMETRY(13, 0x0D, 4),
+    SHORT_FLOAT_POINT_TELEMETRY(13, 0x0D, InfoElementTypeEnum.SHORT_FLOAT, Flags.TELEMETRY | Flags.QUALIFIER),
+
+    /**
+     * 测量值 短浮点数 遥测带时标 CP24Time2a
+     */
+    SHORT_FLOAT_POINT_CP24_TIME_TELEMETRY(14, 0x0E, InfoElementTypeEnum.SHORT_FLOAT, Flags.TELEMETRY | Flags.QUALIFIER | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 测量值 短浮点数 遥测带时标
+     */
+    SHORT_FLOAT_POINT_TIME_TELEMETRY(36, 0x24, InfoElementTypeEnum.SHORT_FLOAT, Flags.TELEMETRY | Flags.QUALIFIER | Flags.TIME_SCALE),
+
+    /**
+     * 累计量 电能脉冲
+     */
+    INTEGRATED_TOTALS(15, 0x0F, InfoElementTypeEnum.BCR, Flags.COUNTER),
+
+    /**
+     * 累计量 电能脉冲带时标 CP24Time2a
+     */
+    INTEGRATED_TOTALS_CP24_TIME(16, 0x10, InfoElementTypeEnum.BCR, Flags.COUNTER | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 累计量 电能脉冲带时标
+     */
+    INTEGRATED_TOTALS_TIME(37, 0x25, InfoElementTypeEnum.BCR, Flags.COUNTER | Flags.TIME_SCALE),
+
+    /**
+     * 继电保护设备事件带时标 CP24Time2a
+     */
+    PROTECTION_EVENT_CP24_TIME(17, 0x11, InfoElementTypeEnum.SEP, Flags.PROTECTION | Flags.ELAPSED_TIME | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 继电保护设备事件带时标
+     */
+    PROTECTION_EVENT_TIME(38, 0x26, InfoElementTypeEnum.SEP, Flags.PROTECTION | Flags.ELAPSED_TIME | Flags.TIME_SCALE),
+
+    /**
+     * 继电保护设备成组启动事件带时标 CP24Time2a
+     */
+    PROTECTION_START_EVENTS_CP24_TIME(18, 0x12, InfoElementTypeEnum.SPE,
+            Flags.PROTECTION | Flags.QUALIFIER | Flags.ELAPSED_TIME | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 继电保护设备成组启动事件带时标
+     */
+    PROTECTION_START_EVENTS_TIME(39, 0x27, InfoElementTypeEnum.SPE, Flags.PROTECTION | Flags.QUALIFIER | Flags.ELAPSED_TIME | Flags.TIME_SCALE),
+
+    /**
+     * 继电保护设备成组输出电路信息带时标 CP24Time2a
+     */
+    PROTECTION_OUTPUT_CIRCUIT_CP24_TIME(19, 0x13, InfoElementTypeEnum.OCI,
+            Flags.PROTECTION | Flags.QUALIFIER | Flags.ELAPSED_TIME | Flags.CP24_TIME_SCALE),
+
+    /**
+     * 继电保护设备成组输出电路信息带时标
+     */
+    PROTECTION_OUTPUT_CIRCUIT_TIME(40, 0x28, InfoElementTypeEnum.OCI, Flags.PROTECTION | Flags.QUALIFIER | Flags.ELAPSED_TIME | Flags.TIME_SCALE),
 
     /**
      * 单点遥控
      */
-    ONE_POINT_REMOTE_CONTROL(45, 0x2D, 1),
+    ONE_POINT_REMOTE_CONTROL(45, 0x2D, InfoElementTypeEnum.RAW_BYTE, Flags.REMOTE_CONTROL),
 
     /**
      * 双点遥控
      */
-    TWO_POINT_REMOTE_CONTROL(46, 0x2E, 1),
+    TWO_POINT_REMOTE_CONTROL(46, 0x2E, InfoElementTypeEnum.RAW_BYTE, Flags.REMOTE_CONTROL),
     ;
 
     private final byte value;
 
     private final byte valueHex;
 
+    /**
+     * 信息元素类型 (信息对象值的编码格式)
+     */
+    private final InfoElementTypeEnum elementType;
+
+    /**
+     * 信息数据值所占用字节长度
+     */
     private final int messageInfoValueLength;
 
+    /**
+     * 时标所占字节长度 (无时标 0, CP24Time2a 3, CP56Time2a 7)
+     */
+    private final int messageInfoTimeScaleLength;
+
+    /**
+     * 单个信息数据所占字节长度 (信息对象值 + 品质描述符 + 相对时间 + 时标, 不包含信息对象地址)
+     */
+    private final int messageInfoElementLength;
+
+    /**
+     * 描述标志 (分类 及 包含的字段, 见 Flags)
+     */
+    private final int flags;
+
     /**
      * TypeIdentifierEnum
      *
-     * @param value                  十进制数值
-     * @param valueHex               十六进制数值
-     * @param messageInfoValueLength 信息数据值所占用字节长度
+     * @param value       十进制数值
+     * @param valueHex    十六进制数值
+     * @param elementType 信息元素类型
+     * @param flags       描述标志
      */
-    TypeIdentifierEnum(int value, int valueHex, int messageInfoValueLength) {
+    TypeIdentifierEnum(int value, int valueHex, InfoElementTypeEnum elementType, int flags) {
         this.value = (byte) value;
         this.valueHex = (byte) valueHex;
-        this.messageInfoValueLength = messageInfoValueLength;
+        this.elementType = elementType;
+        this.messageInfoValueLength = elementType.getLength();
+        this.flags = flags;
+        this.messageInfoTimeScaleLength = (flags & Flags.TIME_SCALE) != 0 ? Constants.MESSAGE_INFO_TIME_SCALE_FIELD_LEN
+                : (flags & Flags.CP24_TIME_SCALE) != 0 ? Constants.MESSAGE_INFO_CP24_TIME_SCALE_FIELD_LEN : 0;
+        this.messageInfoElementLength = messageInfoValueLength
+                + ((flags & Flags.QUALIFIER) != 0 ? 1 : 0)
+                + ((flags & Flags.ELAPSED_TIME) != 0 ? Constants.MESSAGE_INFO_ELAPSED_TIME_FIELD_LEN : 0)
+                + messageInfoTimeScaleLength;
+    }
+
+
+    /**
+     * 描述标志 (新增类型标识时只需声明对应标志, 判断方法均查表)
+     */
+    private static final class Flags {
+        // 遥测
+        private static final int TELEMETRY = 1;
+        // 遥信
+        private static final int HARUNOBU = 1 << 1;
+        // 遥控
+        private static final int REMOTE_CONTROL = 1 << 2;
+        // 信息数据包含 品质描述符/限定词
+        private static final int QUALIFIER = 1 << 3;
+        // 信息数据包含 时标 CP56Time2a
+        private static final int TIME_SCALE = 1 << 4;
+        // 信息数据包含 时标 CP24Time2a (只有 分钟内毫秒数 及 分钟)
+        private static final int CP24_TIME_SCALE = 1 << 5;
+        // 信息数据包含 相对时间 CP16Time2a (继电保护 动作时间/持续时间)
+        private static final int ELAPSED_TIME = 1 << 6;
+        // 累计量
+        private static final int COUNTER = 1 << 7;
+        // 步位置
+        private static final int STEP = 1 << 8;
+        // 比特串
+        private static final int BITSTRING = 1 << 9;
+        // 继电保护事件
+        private static final int PROTECTION = 1 << 10;
+        // 监视方向过程信息
+        private static final int MONITOR = TELEMETRY | HARUNOBU | COUNTER | STEP | BITSTRING | PROTECTION;
     }
 
 
-    private static final Map<Byte, TypeIdentifierEnum> VALUE_MAP = new HashMap<>();
+    /**
+     * 值 -> 类型标识符 (256 项查找表, 下标为无符号值, 未定义的为 null)
+     */
+    private static final TypeIdentifierEnum[] VALUE_TABLE = new TypeIdentifierEnum[256];
 
     static {
-        for (TypeIdentifierEnum qualifiersEnum : values()) {
-            VALUE_MAP.put(qualifiersEnum.getValue(), qualifiersEnum);
+        for (TypeIdentifierEnum typeIdentifier : values()) {
+            VALUE_TABLE[typeIdentifier.getValue() & 0xFF] = typeIdentifier;
         }
     }
 
@@ -108,10 +304,10 @@ public enum TypeIdentifierEnum {
      * 通过值获取对应的 类型标识符TI枚举
      *
      * @param value 值
-     * @return 类型标识符TI枚举
+     * @return 类型标识符TI枚举, 未定义时返回 null
      */
     public static TypeIdentifierEnum ofValue(byte value) {
-        return VALUE_MAP.get(value);
+        return VALUE_TABLE[value & 0xFF];
     }
 
 
@@ -122,9 +318,7 @@ public enum TypeIdentifierEnum {
      * @return boolean
      */
     public static boolean isTelemetry(TypeIdentifierEnum typeIdentifier) {
-        return TypeIdentifierEnum.NORMALIZED_TELEMETRY == typeIdentifier
-                || TypeIdentifierEnum.SCALED_TELEMETRY == typeIdentifier
-                || TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY == typeIdentifier;
+        return typeIdentifier != null && (typeIdentifier.flags & Flags.TELEMETRY) != 0;
     }
 
 
@@ -135,10 +329,40 @@ public enum TypeIdentifierEnum {
      * @return boolean
      */
     public static boolean isHarunobu(TypeIdentifierEnum typeIdentifier) {
-        return TypeIdentifierEnum.ONE_POINT_HARUNOBU == typeIdentifier
-                || TypeIdentifierEnum.ONE_POINT_TIME_HARUNOBU == typeIdentifier
-                || TypeIdentifierEnum.TWO_POINT_HARUNOBU == typeIdentifier
-                || TypeIdentifierEnum.TWO_POINT_TIME_HARUNOBU == typeIdentifier;
+        return typeIdentifier != null && (typeIdentifier.flags & Flags.HARUNOBU) != 0;
+    }
+
+
+    /**
+     * 判断是否为累计量
+     *
+     * @param typeIdentifier 类型标识符TI枚举
+     * @return boolean
+     */
+    public static boolean isCounter(TypeIdentifierEnum typeIdentifier) {
+        return typeIdentifier != null && (typeIdentifier.flags & Flags.COUNTER) != 0;
+    }
+
+
+    /**
+     * 判断是否为继电保护事件
+     *
+     * @param typeIdentifier 类型标识符TI枚举
+     * @return boolean
+     */
+    public static boolean isProtection(TypeIdentifierEnum typeIdentifier) {
+        return typeIdentifier != null && (typeIdentifier.flags & Flags.PROTECTION) != 0;
+    }
+
+
+    /**
+     * 判断是否为监视方向过程信息 (遥信、遥测、步位置、比特串、累计量、继电保护事件)
+     *
+     * @param typeIdentifier 类型标识符TI枚举
+     * @return boolean
+     */
+    public static boolean isMonitor(TypeIdentifierEnum typeIdentifier) {
+        return typeIdentifier != null && (typeIdentifier.flags & Flags.MONITOR) != 0;
     }
 
 
@@ -149,8 +373,7 @@ public enum TypeIdentifierEnum {
      * @return boolean
      */
     public static boolean isRemoteControl(TypeIdentifierEnum typeIdentifier) {
-        return TypeIdentifierEnum.ONE_POINT_REMOTE_CONTROL == typeIdentifier
-                || TypeIdentifierEnum.TWO_POINT_REMOTE_CONTROL == typeIdentifier;
+        return typeIdentifier != null && (typeIdentifier.flags & Flags.REMOTE_CONTROL) != 0;
     }
 
 
@@ -161,7 +384,7 @@ public enum TypeIdentifierEnum {
      * @return boolean
      */
     public static boolean hasMessageInfoValue(TypeIdentifierEnum typeIdentifier) {
-        return typeIdentifier.messageInfoValueLength > 0;
+        return typeIdentifier != null && typeIdentifier.messageInfoValueLength > 0;
     }
 
 
@@ -172,21 +395,29 @@ public enum TypeIdentifierEnum {
      * @return boolean
      */
     public static boolean hasMessageInfoQualifier(TypeIdentifierEnum typeIdentifier) {
-        return TypeIdentifierEnum.GENERAL_CALL == typeIdentifier
-                || isTelemetry(typeIdentifier);
+        return typeIdentifier != null && (typeIdentifier.flags & Flags.QUALIFIER) != 0;
+    }
+
+
+    /**
+     * MessageInfo 是否包含 相对时间 字段 (CP16Time2a, 占2个字节)
+     *
+     * @param typeIdentifier 类型标识符TI枚举
+     * @return boolean
+     */
+    public static boolean hasMessageInfoElapsedTime(TypeIdentifierEnum typeIdentifier) {
+        return typeIdentifier != null && (typeIdentifier.flags & Flags.ELAPSED_TIME) != 0;
     }
 
 
     /**
-     * MessageInfo 是否包含 时标 字段
+     * MessageInfo 是否包含 时标 字段 (CP56Time2a 或 CP24Time2a)
      *
      * @param typeIdentifier 类型标识符TI枚举
      * @return boolean
      */
     public static boolean hasMessageInfoTimeScale(TypeIdentifierEnum typeIdentifier) {
-        return TypeIdentifierEnum.TIME_SYNCHRONIZATION == typeIdentifier
-                || TypeIdentifierEnum.ONE_POINT_TIME_HARUNOBU == typeIdentifier
-                || TypeIdentifierEnum.TWO_POINT_TIME_HARUNOBU == typeIdentifier;
+        return typeIdentifier != null && typeIdentifier.messageInfoTimeScaleLength > 0;
     }
 
 }
@@ -2,9 +2,6 @@ package com.baoyubo.iec104.enums;
 
 import lombok.Getter;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * IEC104协议 U帧类型 固定只有下面6种数据（占4个字节，低位在前）
  *
@@ -53,11 +50,14 @@ public enum UControlEnum {
     }
 
 
-    private static final Map<Byte, UControlEnum> VALUE_MAP = new HashMap<>();
+    /**
+     * 控制域首字节 -> U帧类型 (256 项查找表, 下标为无符号值, 未定义的为 null)
+     */
+    private static final UControlEnum[] VALUE_TABLE = new UControlEnum[256];
 
     static {
         for (UControlEnum uControlEnum : values()) {
-            VALUE_MAP.put(uControlEnum.getControlBytes()[0], uControlEnum);
+            VALUE_TABLE[uControlEnum.getControlBytes()[0] & 0xFF] = uControlEnum;
         }
     }
 
@@ -69,7 +69,18 @@ public enum UControlEnum {
      * @return 类型标识符TI枚举
      */
     public static UControlEnum ofBytes(byte[] controlBytes) {
-        return VALUE_MAP.get(controlBytes[0]);
+        return VALUE_TABLE[controlBytes[0] & 0xFF];
+    }
+
+
+    /**
+     * 通过控制域首字节获取对应的U帧类型
+     *
+     * @param firstControlByte 控制域首字节
+     * @return U帧类型
+     */
+    public static UControlEnum ofByte(byte firstControlByte) {
+        return VALUE_TABLE[firstControlByte & 0xFF];
     }
 
 }
@@ -11,6 +11,7 @@ import static com.baoyubo.iec104.enums.CotEnum.SPONT;
 import com.baoyubo.business.enums.RemoteOperateTypeEnum;
 import com.baoyubo.business.model.RemoteOperation;
 import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.enums.CotEnum;
 import com.baoyubo.iec104.enums.FrameTypeEnum;
 import com.baoyubo.iec104.enums.QualifiersEnum;
 import com.baoyubo.iec104.enums.TypeIdentifierEnum;
@@ -21,14 +22,20 @@ import com.baoyubo.iec104.model.MessageASDU;
 import com.baoyubo.iec104.model.MessageControl;
 import com.baoyubo.iec104.model.MessageInfo;
 import com.baoyubo.iec104.model.MessageVSQ;
+import com.baoyubo.iec104.model.TelemetryBatch;
 import com.baoyubo.iec104.util.ByteUtil;
 import com.baoyubo.iec104.util.Iec104ByteUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
 
 /**
  * IEC104协议消息 构建工厂
@@ -38,6 +45,17 @@ import java.util.Map;
  */
 public final class MessageFactory {
 
+    /**
+     * 单个ASDU中 信息数据列表 最大字节长度 (APDU最大长度 - 控制域 - ASDU头部)
+     */
+    private static final int ASDU_MAX_INFO_LEN = Constants.APDU_MAX_LEN - Constants.CONTROL_FIELD_LEN - Constants.ASDU_HEADER_FIELD_LEN;
+
+    /**
+     * 按 SQ=1 单独打包的 最小连续信息数据个数
+     * (单独一条消息额外占用 APCI + ASDU头部 + 首个信息对象地址 共15字节, 每个信息数据省去3字节地址, 连续6个以上才多于额外开销)
+     */
+    private static final int MIN_CONTINUOUS_SIZE = 6;
+
     /**
      * 根据 客户端业务推送的远程操控 构建 IEC104协议消息 (业务模型 -> 协议模型)
      * <p>
@@ -91,6 +109,31 @@ public final class MessageFactory {
     }
 
 
+    /**
+     * 根据 服务端业务推送的远程操控 构建 IEC104协议消息, 遥信/遥测 按APDU长度限制打包为多条消息 (业务模型 -> 协议模型)
+     * <p>
+     * 信息对象地址连续的部分使用 SQ=1 (只写入首个信息对象地址), 其余使用 SQ=0, 每条消息尽量填满 APDU
+     *
+     * @param remoteOperation 远程操控
+     * @return IEC104协议消息列表
+     */
+    public static List<Message> buildServerMessagesByRemoteOperation(RemoteOperation remoteOperation) {
+        RemoteOperateTypeEnum operateType = remoteOperation.getOperateType();
+        switch (operateType) {
+            case GENERAL_CALL_HARUNOBU:
+                return buildServerHarunobuMessages(true, remoteOperation.getParams());
+            case HARUNOBU:
+                return buildServerHarunobuMessages(false, remoteOperation.getParams());
+            case GENERAL_CALL_TELEMETRY:
+                return buildServerTelemetryMessages(true, remoteOperation.getParams());
+            case TELEMETRY:
+                return buildServerTelemetryMessages(false, remoteOperation.getParams());
+            default:
+                return Collections.singletonList(buildServerMessageByRemoteOperation(remoteOperation));
+        }
+    }
+
+
     /**
      * 客户端 初始化-启动链路 (U帧)
      *
@@ -175,16 +218,34 @@ public final class MessageFactory {
      * @return IEC104协议消息
      */
     public static Message buildServerGeneralCallReplyMessage() {
+        return buildServerGeneralCallMessage(ACTCON.getCode(), Constants.DEFAULT_COMMON_ADDRESS, QualifiersEnum.GENERAL_CALL_QUALIFIER.getValue());
+    }
+
+
+    /**
+     * 服务端 总召唤(含分组召唤) 确认/结束 (I帧)
+     *
+     * @param transferReason 传输原因COT (激活确认/激活终止)
+     * @param commonAddress  公共地址
+     * @param qoi            召唤限定词QOI (20 站召唤, 21..36 第1..16组召唤)
+     * @return IEC104协议消息
+     */
+    public static Message buildServerGeneralCallMessage(short transferReason, short commonAddress, byte qoi) {
 
         MessageInfo messageInfo = new MessageInfo();
         messageInfo.setInfoAddress(Constants.INFO_ADDRESS_0);
-        messageInfo.setQualifier(QualifiersEnum.GENERAL_CALL_QUALIFIER);
+        QualifiersEnum qualifier = QualifiersEnum.ofValue(qoi);
+        if (qualifier != null) {
+            messageInfo.setQualifier(qualifier);
+        } else {
+            messageInfo.setQualifierValue(qoi);
+        }
 
         MessageASDU asdu = new MessageASDU();
         asdu.setTypeIdentifier(TypeIdentifierEnum.GENERAL_CALL);
         asdu.setVsq(new MessageVSQ(false, 1));
-        asdu.setTransferReason(ACTCON.getCode());
-        asdu.setCommonAddress(Constants.DEFAULT_COMMON_ADDRESS);
+        asdu.setTransferReason(transferReason);
+        asdu.setCommonAddress(commonAddress);
         asdu.setMessageInfoList(Collections.singletonList(messageInfo));
 
         return getIFrameMessage(asdu);
@@ -250,23 +311,232 @@ public final class MessageFactory {
     }
 
 
+    /**
+     * 服务端 遥信 (I帧, 按APDU长度限制打包为多条消息)
+     *
+     * @param isGeneralCall 是否为总召唤
+     * @param params        参数信息，值为整数类型, 占用1字节 (0-关， 1-开)
+     * @return IEC104协议消息列表
+     */
+    public static List<Message> buildServerHarunobuMessages(boolean isGeneralCall, Map<Integer, Object> params) {
+        return packServerMessages(TypeIdentifierEnum.ONE_POINT_HARUNOBU, isGeneralCall ? INTROGEN.getCode() : SPONT.getCode(), params, (infoAddr, value) -> {
+            MessageInfo messageInfo = new MessageInfo();
+            messageInfo.setInfoAddress(infoAddr);
+            messageInfo.setInfoValue(new byte[]{Integer.valueOf((int) value).byteValue()});
+            return messageInfo;
+        });
+    }
+
+
+    /**
+     * 服务端 遥测 (I帧, 按APDU长度限制打包为多条消息)
+     *
+     * @param isGeneralCall 是否为总召唤
+     * @param params        参数信息，值为浮点类型, 占用4字节
+     * @return IEC104协议消息列表
+     */
+    public static List<Message> buildServerTelemetryMessages(boolean isGeneralCall, Map<Integer, Object> params) {
+        return packServerMessages(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, isGeneralCall ? INTROGEN.getCode() : SPONT.getCode(), params, (infoAddr, value) -> {
+            MessageInfo messageInfo = new MessageInfo();
+            messageInfo.setInfoAddress(infoAddr);
+            messageInfo.setInfoValue(ByteUtil.floatToByteArray((float) value));
+            messageInfo.setQualifier(QualifiersEnum.TELEMETRY_QUALIFIER);
+            return messageInfo;
+        });
+    }
+
+
+    /**
+     * 服务端 过程映像快照 (I帧, 总召唤/分组召唤/读命令 响应, 按APDU长度限制打包为多条消息)
+     * <p>
+     * 批次需按 类型标识符、信息对象地址 排序, 类型标识符相同的连续行打包在一起, 传输原因及公共地址取批次的值
+     *
+     * @param batch 过程映像快照
+     * @return IEC104协议消息列表
+     */
+    public static List<Message> buildServerPointMessages(TelemetryBatch batch) {
+        List<Message> messages = new ArrayList<>();
+        int start = 0;
+        while (start < batch.getSize()) {
+            start = buildServerPointMessages(batch, start, messages);
+        }
+        return messages;
+    }
+
+
+    /**
+     * 服务端 过程映像快照 从 start 行开始 类型标识符相同的连续行 (I帧, 按APDU长度限制打包为多条消息, 用于按需分段构建响应)
+     *
+     * @param batch    过程映像快照 (需排序)
+     * @param start    起始行
+     * @param messages 打包的消息追加到此列表
+     * @return 下一段的起始行
+     */
+    public static int buildServerPointMessages(TelemetryBatch batch, int start, Collection<Message> messages) {
+        TypeIdentifierEnum typeIdentifier = batch.getTypeIdentifier(start);
+        int end = start + 1;
+        while (end < batch.getSize() && batch.getTypeIdentifier(end) == typeIdentifier) {
+            end++;
+        }
+        messages.addAll(packServerMessages(typeIdentifier, batch.getTransferReason(), batch.getCommonAddress(), start, end, batch::getInfoAddress,
+                index -> buildPointMessageInfo(typeIdentifier, batch.getInfoAddress(index), batch.getValue(index), batch.getQuality(index))));
+        return end;
+    }
+
+
+    /**
+     * 过程映像中的信息对象 -> 信息数据
+     * <p>
+     * 品质描述符: 单点/双点 与值合并为1个字节 (SIQ/DIQ), 测量值 为单独的 QDS
+     */
+    private static MessageInfo buildPointMessageInfo(TypeIdentifierEnum typeIdentifier, int infoAddress, double value, byte quality) {
+        MessageInfo messageInfo = new MessageInfo();
+        messageInfo.setInfoAddress(infoAddress);
+        switch (typeIdentifier.getElementType()) {
+            case SIQ:
+                // 值只取 SPI 位, 不能覆盖品质描述位 (BL/SB/NT/IV)
+                messageInfo.setInfoValue(new byte[]{(byte) ((int) value & 0x01 | quality)});
+                return messageInfo;
+            case DIQ:
+                // 值只取 DPI 2位, 不能覆盖品质描述位 (BL/SB/NT/IV)
+                messageInfo.setInfoValue(new byte[]{(byte) ((int) value & 0x03 | quality)});
+                return messageInfo;
+            case SHORT_FLOAT:
+                messageInfo.setInfoValue(ByteUtil.floatToByteArray((float) value));
+                break;
+            case SVA:
+                messageInfo.setInfoValue(ByteUtil.shortToByteArray((short) value));
+                break;
+            case NVA:
+                messageInfo.setInfoValue(ByteUtil.shortToByteArray((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value * 32768)))));
+                break;
+            default:
+                throw new RuntimeException("过程映像不支持的类型标识符: " + typeIdentifier);
+        }
+        if (quality == 0) {
+            messageInfo.setQualifier(QualifiersEnum.TELEMETRY_QUALIFIER);
+        } else {
+            messageInfo.setQualifierValue(quality);
+        }
+        return messageInfo;
+    }
+
+
+    /**
+     * 按APDU长度限制打包 信息数据
+     *
+     * @param typeIdentifier 类型标识符TI
+     * @param transferReason 传输原因COT
+     * @param params         参数信息
+     * @param infoBuilder    (信息对象地址, 值) -> 信息数据
+     * @return IEC104协议消息列表
+     */
+    private static List<Message> packServerMessages(TypeIdentifierEnum typeIdentifier, short transferReason, Map<Integer, Object> params,
+                                                    BiFunction<Integer, Object, MessageInfo> infoBuilder) {
+        int[] infoAddresses = new int[params.size()];
+        int count = 0;
+        for (Integer infoAddress : params.keySet()) {
+            infoAddresses[count++] = infoAddress;
+        }
+        Arrays.sort(infoAddresses);
+
+        return packServerMessages(typeIdentifier, transferReason, Constants.DEFAULT_COMMON_ADDRESS, 0, count, index -> infoAddresses[index],
+                index -> infoBuilder.apply(infoAddresses[index], params.get(infoAddresses[index])));
+    }
+
+
+    /**
+     * 按APDU长度限制打包 信息数据 (按下标访问, 信息对象地址需升序)
+     * <pre>
+     * 1. 查找信息对象地址的连续区间, 长度不小于 MIN_CONTINUOUS_SIZE 的区间单独打包为 SQ=1 (省去后续每个信息对象地址3字节)
+     * 2. 较短的区间合并打包为 SQ=0
+     * 3. 每条消息的 信息数据个数 不超过 VSQ 上限 127, APDU长度 不超过 253
+     *
+     * @param typeIdentifier 类型标识符TI
+     * @param transferReason 传输原因COT
+     * @param commonAddress  公共地址
+     * @param from           起始下标 (包含)
+     * @param to             结束下标 (不包含)
+     * @param addressOf      下标 -> 信息对象地址
+     * @param infoBuilder    下标 -> 信息数据
+     * @return IEC104协议消息列表
+     */
+    private static List<Message> packServerMessages(TypeIdentifierEnum typeIdentifier, short transferReason, short commonAddress, int from, int to,
+                                                    IntUnaryOperator addressOf, IntFunction<MessageInfo> infoBuilder) {
+        int elementLength = typeIdentifier.getMessageInfoElementLength();
+        int maxContinuousSize = Math.min(Constants.MESSAGE_INFO_LIST_MAX_SIZE, (ASDU_MAX_INFO_LEN - Constants.INFO_ADDRESS_FIELD_LEN) / elementLength);
+        int maxDiscreteSize = Math.min(Constants.MESSAGE_INFO_LIST_MAX_SIZE, ASDU_MAX_INFO_LEN / (Constants.INFO_ADDRESS_FIELD_LEN + elementLength));
+
+        List<Message> messages = new ArrayList<>((to - from) / maxDiscreteSize + 1);
+        List<MessageInfo> discrete = new ArrayList<>(Math.min(to - from, maxDiscreteSize));
+        int start = from;
+        while (start < to) {
+            int end = start + 1;
+            while (end < to && addressOf.applyAsInt(end) == addressOf.applyAsInt(end - 1) + 1) {
+                end++;
+            }
+            // 连续区间: 按 SQ=1 拆分, 剩余不足 MIN_CONTINUOUS_SIZE 的部分按 SQ=0 打包
+            while (end - start >= MIN_CONTINUOUS_SIZE) {
+                int size = Math.min(end - start, maxContinuousSize);
+                List<MessageInfo> continuous = new ArrayList<>(size);
+                for (int i = start; i < start + size; i++) {
+                    continuous.add(infoBuilder.apply(i));
+                }
+                messages.add(buildServerPackedMessage(typeIdentifier, transferReason, commonAddress, true, continuous));
+                start += size;
+            }
+            for (int i = start; i < end; i++) {
+                discrete.add(infoBuilder.apply(i));
+                if (discrete.size() == maxDiscreteSize) {
+                    messages.add(buildServerPackedMessage(typeIdentifier, transferReason, commonAddress, false, discrete));
+                    discrete = new ArrayList<>(maxDiscreteSize);
+                }
+            }
+            start = end;
+        }
+        if (!discrete.isEmpty()) {
+            messages.add(buildServerPackedMessage(typeIdentifier, transferReason, commonAddress, false, discrete));
+        }
+        return messages;
+    }
+
+
+    private static Message buildServerPackedMessage(TypeIdentifierEnum typeIdentifier, short transferReason, short commonAddress, boolean isContinuous,
+                                                    List<MessageInfo> messageInfoList) {
+        MessageASDU asdu = new MessageASDU();
+        asdu.setTypeIdentifier(typeIdentifier);
+        asdu.setVsq(new MessageVSQ(isContinuous, messageInfoList.size()));
+        asdu.setTransferReason(transferReason);
+        asdu.setCommonAddress(commonAddress);
+        asdu.setMessageInfoList(messageInfoList);
+        return getIFrameMessage(asdu);
+    }
+
+
     /**
      * 服务端 总召唤-结束 (I帧)
      *
      * @return IEC104协议消息
      */
     public static Message buildServerGeneralCallEndMessage() {
+        return buildServerGeneralCallMessage(ACTTERM.getCode(), Constants.DEFAULT_COMMON_ADDRESS, QualifiersEnum.GENERAL_CALL_QUALIFIER.getValue());
+    }
 
-        MessageInfo messageInfo = new MessageInfo();
-        messageInfo.setInfoAddress(Constants.INFO_ADDRESS_0);
-        messageInfo.setQualifier(QualifiersEnum.GENERAL_CALL_QUALIFIER);
+
+    /**
+     * 服务端 读命令-否定确认 (I帧, 镜像读命令, 传输原因为 未知的信息对象地址 并置 P/N 位)
+     *
+     * @param receivedMessage 接收到的消息 (读命令)
+     * @return IEC104协议消息
+     */
+    public static Message buildServerReadNegativeReplyMessage(Message receivedMessage) {
 
         MessageASDU asdu = new MessageASDU();
-        asdu.setTypeIdentifier(TypeIdentifierEnum.GENERAL_CALL);
-        asdu.setVsq(new MessageVSQ(false, 1));
-        asdu.setTransferReason(ACTTERM.getCode());
-        asdu.setCommonAddress(Constants.DEFAULT_COMMON_ADDRESS);
-        asdu.setMessageInfoList(Collections.singletonList(messageInfo));
+        asdu.setTypeIdentifier(receivedMessage.getAsdu().getTypeIdentifier());
+        asdu.setVsq(receivedMessage.getAsdu().getVsq());
+        asdu.setTransferReason((short) (CotEnum.UNKNOWN_INFO_ADDRESS.getCode() | CotEnum.NEGATIVE_BIT));
+        asdu.setCommonAddress(receivedMessage.getAsdu().getCommonAddress());
+        asdu.setMessageInfoList(receivedMessage.getAsdu().getMessageInfoList());
 
         return getIFrameMessage(asdu);
     }
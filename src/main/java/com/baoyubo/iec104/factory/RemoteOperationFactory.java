@@ -2,8 +2,8 @@ package com.baoyubo.iec104.factory;
 
 import com.baoyubo.business.enums.RemoteOperateTypeEnum;
 import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.enums.InfoElementTypeEnum;
 import com.baoyubo.iec104.model.Message;
-import com.baoyubo.iec104.util.ByteUtil;
 import com.baoyubo.iec104.util.Iec104ByteUtil;
 
 import java.util.HashMap;
@@ -26,22 +26,31 @@ public class RemoteOperationFactory {
      * @return 远程操控
      */
     public static RemoteOperation buildRemoteOperationByMessage(RemoteOperateTypeEnum operateTypeEnum, Message receivedMessage) {
+        RemoteOperation remoteOperation;
         switch (operateTypeEnum) {
             case GENERAL_CALL:
             case GENERAL_CALL_END:
             case CLOSE:
-                return buildRemoteOperation(operateTypeEnum);
+                remoteOperation = buildRemoteOperation(operateTypeEnum);
+                break;
             case HARUNOBU:
             case GENERAL_CALL_HARUNOBU:
-                return buildRemoteOperationHarunobu(operateTypeEnum, receivedMessage);
+                remoteOperation = buildRemoteOperationHarunobu(operateTypeEnum, receivedMessage);
+                break;
             case TELEMETRY:
             case GENERAL_CALL_TELEMETRY:
-                return buildRemoteOperationTelemetry(operateTypeEnum, receivedMessage);
+                remoteOperation = buildRemoteOperationTelemetry(operateTypeEnum, receivedMessage);
+                break;
             case REMOTE_CONTROL:
-                return buildRemoteOperationRemoteControl(operateTypeEnum, receivedMessage);
+                remoteOperation = buildRemoteOperationRemoteControl(operateTypeEnum, receivedMessage);
+                break;
             default:
                 throw new RuntimeException("不支持");
         }
+        if (receivedMessage != null && receivedMessage.getAsdu() != null) {
+            remoteOperation.setCommonAddress(receivedMessage.getAsdu().getCommonAddress());
+        }
+        return remoteOperation;
     }
 
 
@@ -90,11 +99,12 @@ public class RemoteOperationFactory {
      */
     private static RemoteOperation buildRemoteOperationTelemetry(RemoteOperateTypeEnum operateTypeEnum, Message receivedMessage) {
 
-        // 遥信：Object 为短浮点型
+        // 遥测：Object 为短浮点型
         Map<Integer, Object> params = new HashMap<>();
+        InfoElementTypeEnum elementType = receivedMessage.getAsdu().getTypeIdentifier().getElementType();
         receivedMessage.getAsdu().getMessageInfoList().forEach(messageInfo -> {
-            // 遥信的值为4字节浮点型
-            params.put(messageInfo.getInfoAddress(), (float) ByteUtil.byteArrayToFloat(messageInfo.getInfoValue()));
+            // 遥测的值按信息元素类型解析 (归一化值、标度化值、短浮点数、累计量 等)
+            params.put(messageInfo.getInfoAddress(), (float) elementType.getValue(messageInfo.getInfoValue()));
         });
 
         RemoteOperation remoteOperation = new RemoteOperation();
@@ -0,0 +1,167 @@
+package com.baoyubo.iec104.factory;
+
+import com.baoyubo.iec104.enums.TransportEnum;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 网络传输 构建工厂 (EventLoopGroup、Channel类型)
+ * <pre>
+ * 1. epoll: netty-all 已包含, Linux 下可用
+ * 2. io_uring: 通过反射加载 netty-incubator-transport-native-io_uring, 未引入依赖时视为不可用
+ * 3. 指定的传输实现不可用时自动降级: io_uring -> epoll -> NIO
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 16:10
+ */
+public final class TransportFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransportFactory.class);
+
+    private static final String IO_URING_PACKAGE = "io.netty.incubator.channel.uring.";
+
+    /**
+     * io_uring 是否可用
+     */
+    private static final boolean IO_URING_AVAILABLE = ioUringAvailable();
+
+
+    /**
+     * 解析实际使用的传输实现 (不可用时降级)
+     *
+     * @param transport 期望的传输实现
+     * @return 实际使用的传输实现 (不会返回 AUTO)
+     */
+    public static TransportEnum resolve(TransportEnum transport) {
+        TransportEnum expected = transport == null ? TransportEnum.AUTO : transport;
+        switch (expected) {
+            case NIO:
+                return TransportEnum.NIO;
+            case EPOLL:
+                if (Epoll.isAvailable()) {
+                    return TransportEnum.EPOLL;
+                }
+                break;
+            case IO_URING:
+            case AUTO:
+            default:
+                if (IO_URING_AVAILABLE) {
+                    return TransportEnum.IO_URING;
+                }
+                if (Epoll.isAvailable()) {
+                    if (expected == TransportEnum.IO_URING) {
+                        LOGGER.warn("[网络传输-降级] {} 不可用, 降级为 {}", expected, TransportEnum.EPOLL);
+                    }
+                    return TransportEnum.EPOLL;
+                }
+                break;
+        }
+        if (expected != TransportEnum.AUTO) {
+            LOGGER.warn("[网络传输-降级] {} 不可用, 降级为 {}", expected, TransportEnum.NIO);
+        }
+        return TransportEnum.NIO;
+    }
+
+
+    /**
+     * 创建 EventLoopGroup
+     *
+     * @param transport 期望的传输实现
+     * @param threads   线程数 (0: 使用 Netty 默认值)
+     * @return EventLoopGroup
+     */
+    public static EventLoopGroup newEventLoopGroup(TransportEnum transport, int threads) {
+        TransportEnum actual = resolve(transport);
+        LOGGER.info("[网络传输] 创建 EventLoopGroup, 传输实现 = {}, 线程数 = {}", actual, threads);
+        switch (actual) {
+            case IO_URING:
+                return newInstance(IO_URING_PACKAGE + "IOUringEventLoopGroup", threads);
+            case EPOLL:
+                return new EpollEventLoopGroup(threads);
+            default:
+                return new NioEventLoopGroup(threads);
+        }
+    }
+
+
+    /**
+     * 获取与 EventLoopGroup 匹配的 客户端 Channel 类型
+     *
+     * @param eventLoopGroup EventLoopGroup
+     * @return Channel 类型
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends SocketChannel> socketChannelClass(EventLoopGroup eventLoopGroup) {
+        if (eventLoopGroup instanceof EpollEventLoopGroup) {
+            return EpollSocketChannel.class;
+        }
+        if (isIoUring(eventLoopGroup)) {
+            return (Class<? extends SocketChannel>) loadClass(IO_URING_PACKAGE + "IOUringSocketChannel");
+        }
+        return NioSocketChannel.class;
+    }
+
+
+    /**
+     * 获取与 EventLoopGroup 匹配的 服务端 Channel 类型
+     *
+     * @param eventLoopGroup EventLoopGroup
+     * @return Channel 类型
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends ServerSocketChannel> serverSocketChannelClass(EventLoopGroup eventLoopGroup) {
+        if (eventLoopGroup instanceof EpollEventLoopGroup) {
+            return EpollServerSocketChannel.class;
+        }
+        if (isIoUring(eventLoopGroup)) {
+            return (Class<? extends ServerSocketChannel>) loadClass(IO_URING_PACKAGE + "IOUringServerSocketChannel");
+        }
+        return NioServerSocketChannel.class;
+    }
+
+
+    private static boolean isIoUring(EventLoopGroup eventLoopGroup) {
+        return eventLoopGroup.getClass().getName().startsWith(IO_URING_PACKAGE);
+    }
+
+
+    private static boolean ioUringAvailable() {
+        try {
+            return (Boolean) loadClass(IO_URING_PACKAGE + "IOUring").getMethod("isAvailable").invoke(null);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+
+    private static Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, true, TransportFactory.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("网络传输实现不存在: " + className, e);
+        }
+    }
+
+
+    private static EventLoopGroup newInstance(String className, int threads) {
+        try {
+            return (EventLoopGroup) loadClass(className).getConstructor(int.class).newInstance(threads);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("创建 EventLoopGroup 失败: " + className, e);
+        }
+    }
+
+
+    private TransportFactory() {
+    }
+}
@@ -11,19 +11,28 @@ import static com.baoyubo.iec104.enums.CotEnum.SPONT;
 import com.baoyubo.business.enums.RemoteOperateTypeEnum;
 import com.baoyubo.business.model.RemoteOperation;
 import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.dispatch.DispatchLane;
+import com.baoyubo.iec104.dispatch.OrderedDispatcher;
 import com.baoyubo.iec104.enums.FrameTypeEnum;
 import com.baoyubo.iec104.enums.QualifiersEnum;
 import com.baoyubo.iec104.enums.TypeIdentifierEnum;
 import com.baoyubo.iec104.enums.UControlEnum;
 import com.baoyubo.iec104.factory.MessageFactory;
 import com.baoyubo.iec104.factory.RemoteOperationFactory;
+import com.baoyubo.iec104.manager.LatestValueManager;
 import com.baoyubo.iec104.model.Message;
 import com.baoyubo.iec104.model.MessageASDU;
+import com.baoyubo.iec104.model.MessageView;
+import com.baoyubo.iec104.model.TelemetryBatch;
+import com.baoyubo.iec104.sink.RemoteOperationTelemetrySink;
+import com.baoyubo.iec104.sink.TelemetrySink;
 import com.baoyubo.iec104.util.Iec104ByteUtil;
 import com.baoyubo.iec104.util.JsonUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import lombok.Getter;
 import org.slf4j.Logger;
@@ -35,7 +44,7 @@ import org.slf4j.LoggerFactory;
  * @author yubo.bao
  * @date 2023/7/3 17:57
  */
-public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
+public class ClientDataHandler extends SimpleChannelInboundHandler<Object> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClientDataHandler.class);
 
@@ -50,6 +59,41 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
      */
     private final Consumer<RemoteOperation> bizDataConsumer;
 
+    /**
+     * 遥测/遥信 数据接收器 (为空时 遥测/遥信 转换为 RemoteOperation 交给业务数据消费者)
+     */
+    private final TelemetrySink telemetrySink;
+
+    /**
+     * 最新值表 (为空时 每条 遥测/遥信 都通知业务)
+     */
+    private final LatestValueManager latestValueMgr;
+
+    /**
+     * 业务分发 (为空时在 IO 线程直接调用业务)
+     */
+    private final OrderedDispatcher dispatcher;
+
+    /**
+     * 公共地址 -> 业务分发通道 (重连后保留, 同一子站的数据始终按顺序处理; 关闭客户端后关闭并移除)
+     */
+    private final Map<Short, DispatchLane> dispatchLanes = new ConcurrentHashMap<>();
+
+    /**
+     * 客户端是否已关闭 (不再重连, 连接关闭后关闭业务分发通道)
+     */
+    private volatile boolean closed;
+
+    /**
+     * 最近一次通知业务时的公共地址 (连接关闭通知使用同一通道, 排在已有数据之后)
+     */
+    private volatile short lastCommonAddress = Constants.DEFAULT_COMMON_ADDRESS;
+
+    /**
+     * 遥测/遥信 批次数据 (重复使用)
+     */
+    private final TelemetryBatch telemetryBatch = new TelemetryBatch();
+
 
     /**
      * 构造函数
@@ -57,7 +101,47 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
      * @param bizDataConsumer 业务数据消费者
      */
     public ClientDataHandler(Consumer<RemoteOperation> bizDataConsumer) {
+        this(bizDataConsumer, null);
+    }
+
+
+    /**
+     * 构造函数
+     *
+     * @param bizDataConsumer 业务数据消费者
+     * @param telemetrySink   遥测/遥信 数据接收器
+     */
+    public ClientDataHandler(Consumer<RemoteOperation> bizDataConsumer, TelemetrySink telemetrySink) {
+        this(bizDataConsumer, telemetrySink, null);
+    }
+
+
+    /**
+     * 构造函数
+     *
+     * @param bizDataConsumer 业务数据消费者
+     * @param telemetrySink   遥测/遥信 数据接收器
+     * @param latestValueMgr  最新值表 (只通知发生变化的 遥测/遥信)
+     */
+    public ClientDataHandler(Consumer<RemoteOperation> bizDataConsumer, TelemetrySink telemetrySink, LatestValueManager latestValueMgr) {
+        this(bizDataConsumer, telemetrySink, latestValueMgr, null);
+    }
+
+
+    /**
+     * 构造函数
+     *
+     * @param bizDataConsumer 业务数据消费者
+     * @param telemetrySink   遥测/遥信 数据接收器 (配置业务分发时 复制批次后与其他业务数据按同一顺序在工作线程调用)
+     * @param latestValueMgr  最新值表 (只通知发生变化的 遥测/遥信)
+     * @param dispatcher      业务分发 (为空时在 IO 线程直接调用业务)
+     */
+    public ClientDataHandler(Consumer<RemoteOperation> bizDataConsumer, TelemetrySink telemetrySink, LatestValueManager latestValueMgr,
+                             OrderedDispatcher dispatcher) {
         this.bizDataConsumer = bizDataConsumer;
+        this.telemetrySink = telemetrySink;
+        this.latestValueMgr = latestValueMgr;
+        this.dispatcher = dispatcher;
     }
 
     @Override
@@ -78,14 +162,111 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
         LOGGER.info("[客户端-关闭连接]");
         // 通知客户端业务：连接关闭
         RemoteOperation remoteOperate = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.CLOSE, null);
-        bizDataConsumer.accept(remoteOperate);
+        dispatch(lastCommonAddress, remoteOperate);
+        if (closed) {
+            closeDispatchLanes();
+        }
+    }
+
+
+    /**
+     * 关闭客户端: 连接关闭通知写入分发通道后 关闭并移除所有分发通道
+     */
+    public void close() {
+        closed = true;
+        ChannelHandlerContext context = this.ctx;
+        if (context == null) {
+            closeDispatchLanes();
+            return;
+        }
+        // 连接仍然活跃时 由 channelInactive 关闭 (排在连接关闭通知之后)
+        context.executor().execute(() -> {
+            if (!context.channel().isActive()) {
+                closeDispatchLanes();
+            }
+        });
+    }
+
+
+    private void closeDispatchLanes() {
+        dispatchLanes.values().forEach(DispatchLane::close);
+        dispatchLanes.clear();
+    }
+
+
+    /**
+     * 通知业务: 未配置业务分发时直接调用, 否则按公共地址写入分发通道 (同一公共地址按顺序处理)
+     *
+     * @param commonAddress   公共地址
+     * @param remoteOperation 远程操控
+     */
+    private void dispatch(short commonAddress, RemoteOperation remoteOperation) {
+        if (dispatcher == null) {
+            bizDataConsumer.accept(remoteOperation);
+            return;
+        }
+        lane(commonAddress).offer(remoteOperation);
+    }
+
+
+    /**
+     * 遥测/遥信 批次交给数据接收器: 未配置业务分发时直接调用, 否则复制批次后写入分发通道 (与其他业务数据按同一顺序处理)
+     */
+    private void acceptTelemetry() {
+        if (dispatcher == null) {
+            telemetrySink.accept(telemetryBatch);
+            return;
+        }
+        TelemetryBatch batch = telemetryBatch.copy();
+        lane(batch.getCommonAddress()).execute(() -> telemetrySink.accept(batch));
+    }
+
+
+    private DispatchLane lane(short commonAddress) {
+        lastCommonAddress = commonAddress;
+        return dispatchLanes.computeIfAbsent(commonAddress, address -> dispatcher.newLane(bizDataConsumer));
     }
 
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, Message message) {
+    protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof MessageView) {
+            channelReadView(ctx, (MessageView) msg);
+            return;
+        }
+        channelReadMessage(ctx, (Message) msg);
+    }
 
-        LOGGER.debug("[客户端-收到消息-处理开始] **********  Message : {}", JsonUtil.toJsonString(message));
+
+    /**
+     * 处理 只读视图: 遥测/遥信 直接交给数据接收器, 不构建 Message; 其他消息按需构建 Message
+     *
+     * @param ctx         ctx
+     * @param messageView messageView
+     */
+    private void channelReadView(ChannelHandlerContext ctx, MessageView messageView) {
+        if (telemetrySink != null && FrameTypeEnum.I_FRAME == messageView.getFrameType()
+            && TelemetryBatch.isSupported(messageView.getTypeIdentifier()) && isTelemetryTransferReason(messageView.getTransferReason())) {
+            LOGGER.debug("[客户端-收到消息-视图] 遥测/遥信数据, 类型标识符 = {}, 个数 = {}", messageView.getTypeIdentifier(), messageView.getMessageInfoListSize());
+            telemetryBatch.fill(messageView);
+            if (filterUnchanged()) {
+                acceptTelemetry();
+            }
+            return;
+        }
+        channelReadMessage(ctx, messageView.toMessage());
+    }
+
+
+    /**
+     * 处理 消息
+     *
+     * @param ctx     ctx
+     * @param message message
+     */
+    private void channelReadMessage(ChannelHandlerContext ctx, Message message) {
+
+        LOGGER.debug("[客户端-收到消息-处理开始] **********  Message : {}", JsonUtil.lazyJson(message));
 
         FrameTypeEnum frameTypeEnum = message.getFrameType();
         switch (frameTypeEnum) {
@@ -138,8 +319,8 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
             return;
         }
 
-        // 遥测
-        if (TypeIdentifierEnum.isTelemetry(typeIdentifierEnum)) {
+        // 遥测 (及 步位置、比特串、累计量、继电保护事件 等其他监视信息)
+        if (TypeIdentifierEnum.isMonitor(typeIdentifierEnum)) {
             handleIFrameTelemetryMessage(ctx, message);
             return;
         }
@@ -198,7 +379,7 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
         if (TypeIdentifierEnum.GENERAL_CALL == typeIdentifierEnum && ACTTERM.getCode() == asdu.getTransferReason()) {
             // 通知客户端业务：总召唤结束
             RemoteOperation remoteOperation = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.GENERAL_CALL_END, message);
-            bizDataConsumer.accept(remoteOperation);
+            dispatch(asdu.getCommonAddress(), remoteOperation);
 
             LOGGER.info("[客户端-收到I帧消息-总召唤] 总召唤-结束, 开始下发 时钟同步-命令");
             Message newMessage = MessageFactory.buildClientTimeSyncMessage(new Date());
@@ -254,8 +435,7 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
         if (TypeIdentifierEnum.isHarunobu(typeIdentifierEnum) && INTROGEN.getCode() == asdu.getTransferReason()) {
             LOGGER.info("[客户端-收到I帧消息-遥信数据] 总召唤-遥信数据");
             // 通知客户端业务：总召唤-遥信数据
-            RemoteOperation remoteOperation = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU, message);
-            bizDataConsumer.accept(remoteOperation);
+            dispatchTelemetry(RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU, message);
             return;
         }
 
@@ -263,8 +443,7 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
         if (TypeIdentifierEnum.isHarunobu(typeIdentifierEnum) && SPONT.getCode() == asdu.getTransferReason()) {
             LOGGER.info("[客户端-收到I帧消息-遥信数据] 遥信数据");
             // 通知客户端业务：总召唤-遥信数据
-            RemoteOperation remoteOperation = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.HARUNOBU, message);
-            bizDataConsumer.accept(remoteOperation);
+            dispatchTelemetry(RemoteOperateTypeEnum.HARUNOBU, message);
             return;
         }
 
@@ -284,20 +463,18 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
         TypeIdentifierEnum typeIdentifierEnum = asdu.getTypeIdentifier();
 
         // 总召唤-遥测数据
-        if (TypeIdentifierEnum.isTelemetry(typeIdentifierEnum) && INTROGEN.getCode() == asdu.getTransferReason()) {
+        if (TypeIdentifierEnum.isMonitor(typeIdentifierEnum) && INTROGEN.getCode() == asdu.getTransferReason()) {
             LOGGER.info("[客户端-收到I帧消息-遥测数据] 总召唤-遥测数据");
             // 通知客户端业务：总召唤-遥测数据
-            RemoteOperation remoteOperation = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.GENERAL_CALL_TELEMETRY, message);
-            bizDataConsumer.accept(remoteOperation);
+            dispatchTelemetry(RemoteOperateTypeEnum.GENERAL_CALL_TELEMETRY, message);
             return;
         }
 
         // 遥测数据
-        if (TypeIdentifierEnum.isTelemetry(typeIdentifierEnum) && SPONT.getCode() == asdu.getTransferReason()) {
+        if (TypeIdentifierEnum.isMonitor(typeIdentifierEnum) && SPONT.getCode() == asdu.getTransferReason()) {
             LOGGER.info("[客户端-收到I帧消息-遥测数据] 遥测数据");
             // 通知客户端业务：遥测数据
-            RemoteOperation remoteOperation = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.TELEMETRY, message);
-            bizDataConsumer.accept(remoteOperation);
+            dispatchTelemetry(RemoteOperateTypeEnum.TELEMETRY, message);
             return;
         }
 
@@ -305,6 +482,56 @@ public class ClientDataHandler extends SimpleChannelInboundHandler<Message> {
     }
 
 
+    /**
+     * 遥测/遥信 数据分发: 优先交给数据接收器, 否则转换为 RemoteOperation 交给业务数据消费者
+     *
+     * @param operateTypeEnum 远程操控类型
+     * @param message         message
+     */
+    private void dispatchTelemetry(RemoteOperateTypeEnum operateTypeEnum, Message message) {
+        if (telemetrySink != null || latestValueMgr != null) {
+            telemetryBatch.fill(message.getAsdu());
+            if (!filterUnchanged()) {
+                return;
+            }
+            if (telemetrySink != null) {
+                acceptTelemetry();
+            } else {
+                dispatch(message.getAsdu().getCommonAddress(), RemoteOperationTelemetrySink.toRemoteOperation(telemetryBatch));
+            }
+            return;
+        }
+        RemoteOperation remoteOperation = RemoteOperationFactory.buildRemoteOperationByMessage(operateTypeEnum, message);
+        dispatch(message.getAsdu().getCommonAddress(), remoteOperation);
+    }
+
+
+    /**
+     * 按最新值表过滤批次中未变化的数据 (未开启最新值表时不过滤)
+     *
+     * @return 是否还有需要通知业务的数据
+     */
+    private boolean filterUnchanged() {
+        if (latestValueMgr == null) {
+            return true;
+        }
+        int changed = latestValueMgr.filter(telemetryBatch, System.currentTimeMillis());
+        LOGGER.debug("[客户端-最新值表] 发生变化的数据个数 = {}", changed);
+        return changed > 0;
+    }
+
+
+    /**
+     * 是否为 遥测/遥信 需要通知业务的传输原因 (总召唤、突发)
+     *
+     * @param transferReason 传输原因
+     * @return boolean
+     */
+    private static boolean isTelemetryTransferReason(short transferReason) {
+        return INTROGEN.getCode() == transferReason || SPONT.getCode() == transferReason;
+    }
+
+
     /**
      * 处理 I帧消息 遥控
      *
@@ -3,22 +3,53 @@ package com.baoyubo.iec104.handler;
 
 import com.baoyubo.iec104.constant.Constants;
 import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.enums.ProtocolTimerEnum;
+import com.baoyubo.iec104.enums.ResumePolicyEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.enums.UControlEnum;
 import com.baoyubo.iec104.factory.MessageFactory;
 import com.baoyubo.iec104.manager.CacheManager;
 import com.baoyubo.iec104.manager.ControlManager;
+import com.baoyubo.iec104.manager.ProtocolTimerManager;
+import com.baoyubo.iec104.manager.ResumeManager;
+import com.baoyubo.iec104.metrics.ProtocolMetrics;
+import com.baoyubo.iec104.model.EncodedMessage;
 import com.baoyubo.iec104.model.Message;
 import com.baoyubo.iec104.model.MessageControl;
+import com.baoyubo.iec104.model.MessageView;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPromise;
-import io.netty.handler.timeout.IdleState;
-import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
 /**
  * 通用数据处理 (读、写)
+ * <pre>
+ * 流量控制 (k/w 窗口):
+ * 1. 发送: 未被确认的I帧达到 k 时, 后续I帧在本地排队, 同时 Channel.isWritable() 为 false; 收到确认后继续发送
+ * 2. 接收: 每收到 w 个I帧回复一个S帧, 未达到 w 时延时 t2 后回复; 本端发送的I帧同样携带确认
+ *
+ * 协议定时器 (ProtocolTimerManager):
+ * 1. t1: 发送I帧或U帧命令后, 超过 t1 未收到确认则关闭连接
+ * 2. t2: 接收I帧后延时回复S帧
+ * 3. t3: 超过 t3 未收到任何报文则发送测试帧
+ *
+ * 会话恢复 (ResumeManager, 策略为 RESEND 时):
+ * 连接断开时保存未确认的I帧, 同一对端重新连接并启动链路后 按原顺序一次性重新发送 (只刷新一次)
+ *
+ * 协议统计 (ProtocolMetrics, 为 null 时不统计):
+ * I/S/U帧收发数、序列号校验失败次数、消息缓存深度、测试帧往返时延、I帧确认时延
+ *
+ * 注意: 每个连接一个实例, 所有状态只在 channel 所属的 EventLoop 线程访问
  *
  * @author yubo.bao
  * @date 2023/7/3 17:57
@@ -27,19 +58,140 @@ public class CommonDataHandler extends ChannelDuplexHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CommonDataHandler.class);
 
+    /**
+     * 发送窗口 对应的用户自定义可写状态索引 (ChannelOutboundBuffer.setUserDefinedWritability)
+     */
+    private static final int WINDOW_WRITABILITY_INDEX = 1;
+
     /**
      * 名称
      */
     private final String name;
 
+    /**
+     * 未被确认的I帧最大数量k
+     */
+    private final int k;
+
+    /**
+     * 接收I帧后的确认阈值w
+     */
+    private final int w;
 
     /**
-     * 构造函数
+     * 接收I帧后的确认延时t2 (单位毫秒)
+     */
+    private final long ackDelayMillis;
+
+    /**
+     * 发送I帧或U帧命令后 等待确认的超时时间t1 (单位毫秒)
+     */
+    private final long ackTimeoutMillis;
+
+    /**
+     * 测试帧 时间间隔t3 (单位毫秒)
+     */
+    private final long channelTestMillis;
+
+    /**
+     * 发送窗口已满时 本地排队的I帧
+     */
+    private final Deque<PendingWrite> pendingWrites = new ArrayDeque<>();
+
+    /**
+     * 已接收但未确认的I帧数量
+     */
+    private int unackedReceiveCount;
+
+    /**
+     * 会话恢复管理 (为 null 时不恢复)
+     */
+    private final ResumeManager resumeMgr;
+
+    /**
+     * 协议定时器管理 (建立连接时创建)
+     */
+    private ProtocolTimerManager timerMgr;
+
+    /**
+     * 会话恢复的对端标识 (建立连接时获取, 为 null 时不恢复)
+     */
+    private String resumePeerId;
+
+    /**
+     * 协议统计 (为 null 时不统计)
+     */
+    private final ProtocolMetrics metrics;
+
+    /**
+     * I帧发送时间 (纳秒, 下标为 发送序列号 & sendNanosMask; 未确认的I帧最多 k 个, 不会相互覆盖)
+     */
+    private final long[] sendNanos;
+
+    private final int sendNanosMask;
+
+    /**
+     * 最近一次发送测试帧的时间 (纳秒, 0 表示没有等待确认的测试帧)
+     */
+    private long testSentNanos;
+
+
+    /**
+     * 构造函数 (k = 12, w = 8, t1 = 15s, t2 = 200ms, t3 = 30s)
      *
      * @param name 名称
      */
     public CommonDataHandler(String name) {
+        this(name, 12, 8, 200, 15, 30, null);
+    }
+
+
+    /**
+     * 构造函数
+     *
+     * @param name                名称
+     * @param k                   未被确认的I帧最大数量 (取值范围 [1, 缓存容量])
+     * @param w                   接收I帧后的确认阈值 (取值范围 [1, k])
+     * @param ackDelayMillis      接收I帧后的确认延时t2 (单位毫秒, 小于等于0时 每收到一个I帧立即确认)
+     * @param ackTimeout          发送I帧或U帧命令后 等待确认的超时时间t1 (单位秒, 小于等于0时 不检查)
+     * @param channelTestDuration 测试帧 时间间隔t3 (单位秒, 小于等于0时 不发送)
+     * @param resumeMgr           会话恢复管理 (为 null 时不恢复)
+     */
+    public CommonDataHandler(String name, int k, int w, long ackDelayMillis, int ackTimeout, int channelTestDuration, ResumeManager resumeMgr) {
+        this(name, k, w, ackDelayMillis, ackTimeout, channelTestDuration, resumeMgr, null);
+    }
+
+
+    /**
+     * 构造函数
+     *
+     * @param name                名称
+     * @param k                   未被确认的I帧最大数量 (取值范围 [1, 缓存容量])
+     * @param w                   接收I帧后的确认阈值 (取值范围 [1, k])
+     * @param ackDelayMillis      接收I帧后的确认延时t2 (单位毫秒, 小于等于0时 每收到一个I帧立即确认)
+     * @param ackTimeout          发送I帧或U帧命令后 等待确认的超时时间t1 (单位秒, 小于等于0时 不检查)
+     * @param channelTestDuration 测试帧 时间间隔t3 (单位秒, 小于等于0时 不发送)
+     * @param resumeMgr           会话恢复管理 (为 null 时不恢复)
+     * @param metrics             协议统计 (为 null 时不统计)
+     */
+    public CommonDataHandler(String name, int k, int w, long ackDelayMillis, int ackTimeout, int channelTestDuration, ResumeManager resumeMgr, ProtocolMetrics metrics) {
+        if (k < 1 || k > Constants.CACHE_CAPACITY) {
+            throw new RuntimeException("参数k取值范围为 [1, " + Constants.CACHE_CAPACITY + "], k = " + k);
+        }
+        if (w < 1 || w > k) {
+            throw new RuntimeException("参数w取值范围为 [1, k], w = " + w + ", k = " + k);
+        }
         this.name = name;
+        this.k = k;
+        this.w = w;
+        this.ackDelayMillis = ackDelayMillis;
+        this.ackTimeoutMillis = ackTimeout * 1000L;
+        this.channelTestMillis = channelTestDuration * 1000L;
+        this.resumeMgr = resumeMgr;
+        this.metrics = metrics;
+        int sendNanosSize = metrics == null ? 1 : Integer.highestOneBit(k * 2 - 1);
+        this.sendNanos = new long[sendNanosSize];
+        this.sendNanosMask = sendNanosSize - 1;
     }
 
 
@@ -50,6 +202,15 @@ public class CommonDataHandler extends ChannelDuplexHandler {
         ctx.channel().attr(Constants.CONTROL_MANAGER).set(new ControlManager(this.name));
         ctx.channel().attr(Constants.CACHE_MANAGER).set(new CacheManager());
 
+        resumePeerId = resumeMgr == null ? null : resumeMgr.identify(ctx.channel().remoteAddress());
+
+        // 协议定时器
+        timerMgr = new ProtocolTimerManager(ctx.executor(), timer -> onTimerExpired(ctx, timer));
+        timerMgr.start(ProtocolTimerEnum.T3, this.channelTestMillis);
+
+        if (metrics != null) {
+            metrics.onConnected();
+        }
 
         LOGGER.info("[{}-通用数据处理-建立连接]", this.name);
         ctx.fireChannelActive();
@@ -59,29 +220,64 @@ public class CommonDataHandler extends ChannelDuplexHandler {
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         LOGGER.info("[{}-通用数据处理-关闭连接]", this.name);
+        if (timerMgr != null) {
+            timerMgr.stopAll();
+        }
+        saveResumeMessages(ctx);
+        failPendingWrites(new ClosedChannelException());
+        if (metrics != null) {
+            // 归还本连接的消息缓存深度
+            CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+            if (cacheMgr != null) {
+                metrics.onCacheDepth(-cacheMgr.size());
+            }
+            metrics.onDisconnected();
+        }
         ctx.fireChannelInactive();
     }
 
 
-    @Override
-    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
-        if (evt instanceof IdleStateEvent) {
-            if (((IdleStateEvent) evt).state() == IdleState.READER_IDLE) {
+    /**
+     * 协议定时器超时 (EventLoop 线程)
+     *
+     * @param ctx   ctx
+     * @param timer 定时器
+     */
+    private void onTimerExpired(ChannelHandlerContext ctx, ProtocolTimerEnum timer) {
+        if (!ctx.channel().isActive()) {
+            return;
+        }
+        switch (timer) {
+            case T1_I_FRAME:
+            case T1_U_FRAME:
+                LOGGER.error("[{}-通用数据处理-超时] t1 超时未收到确认({}), 关闭连接", this.name, timer);
+                ctx.close();
+                return;
+            case T2:
+                if (unackedReceiveCount > 0) {
+                    writeSFrame(ctx, ctx.channel().attr(Constants.CONTROL_MANAGER).get());
+                }
+                return;
+            case T3:
                 LOGGER.info("[{}-通用数据处理-超时] 自动发送测试帧", this.name);
+                // 直接写出不经过本 Handler 的 write(): 在此启动t1, 超时未收到测试确认则关闭连接
+                timerMgr.startIfStopped(ProtocolTimerEnum.T1_U_FRAME, this.ackTimeoutMillis);
+                onUFrameOut(UControlEnum.TEST);
                 ctx.writeAndFlush(MessageFactory.buildTestMessage()).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+                timerMgr.start(ProtocolTimerEnum.T3, this.channelTestMillis);
                 return;
-            }
+            default:
         }
-        super.userEventTriggered(ctx, evt);
     }
 
 
     /**
      * 处理输出数据（写出的数据）
      * <p>
-     * I帧: 处理消息, 自动填充控制域
+     * I帧: 处理消息, 自动填充控制域 (发送窗口已满时在本地排队)
      * S帧: 不做处理
-     * U帧: 不做处理
+     * U帧: 命令帧 (启动、停止、测试) 启动t1定时器, 启动确认后 重新发送待恢复的I帧
+     * EncodedMessage: 同I帧, 控制域填充到当前连接独立的副本中
      *
      * @param ctx     ctx
      * @param msg     msg
@@ -91,36 +287,181 @@ public class CommonDataHandler extends ChannelDuplexHandler {
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
 
-        Message message = (Message) msg;
+        boolean iFrame = msg instanceof EncodedMessage || FrameTypeEnum.I_FRAME == ((Message) msg).getFrameType();
+        if (!iFrame) {
+            UControlEnum uControl = ((Message) msg).getControl().getUControl();
+            if (isUCommand(uControl)) {
+                timerMgr.startIfStopped(ProtocolTimerEnum.T1_U_FRAME, this.ackTimeoutMillis);
+            }
+            if (FrameTypeEnum.S_FRAME == ((Message) msg).getFrameType()) {
+                if (metrics != null) {
+                    metrics.onSFrameOut();
+                }
+            } else {
+                onUFrameOut(uControl);
+            }
+            // 将消息继续传递给下一个 Handler 继续处理
+            ctx.write(msg, promise);
 
-        // 只处理I帧消息
-        if (FrameTypeEnum.I_FRAME == message.getFrameType()) {
+            // 被控站: 回复启动确认后 数据传输开始
+            if (UControlEnum.START_REPLY == uControl) {
+                resendResumeMessages(ctx);
+            }
+            return;
+        }
 
-            // 协议控制管理
-            ControlManager controlMgr = ctx.channel().attr(Constants.CONTROL_MANAGER).get();
-            // 消息缓存管理
-            CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+        // 发送窗口已满 (或已有排队消息, 保证发送顺序): 本地排队, 等待确认
+        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+        if (!pendingWrites.isEmpty() || cacheMgr.size() >= this.k) {
+            pendingWrites.add(new PendingWrite(msg, promise));
+            if (pendingWrites.size() == 1) {
+                setWindowWritable(ctx, false);
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("[{}-通用数据处理-I帧数据输出] 发送窗口已满(k = {}), 本地排队数量 = {}", this.name, this.k, pendingWrites.size());
+            }
+            return;
+        }
+
+        writeIFrame(ctx, msg, promise);
+    }
+
+
+    /**
+     * 发送I帧 (发送窗口未满)
+     *
+     * @param ctx     ctx
+     * @param msg     Message 或 EncodedMessage
+     * @param promise promise
+     */
+    private void writeIFrame(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+
+        // I帧携带接收序列号, 同时确认了已接收的I帧
+        resetReceiveAck();
 
-            // 更新控制域序列号
-            MessageControl iControl = MessageFactory.commonBuildIControl(controlMgr);
-            message.setControl(iControl);
-            LOGGER.debug("[{}-通用数据处理-I帧数据输出] 发送I帧: 发送序列号 = {}, 接受序列号 = {}", this.name, iControl.getSendSequenceNum(), iControl.getReceiveSequenceNum());
+        // 等待对方确认
+        timerMgr.startIfStopped(ProtocolTimerEnum.T1_I_FRAME, this.ackTimeoutMillis);
 
-            // 缓存消息
-            cacheMgr.add(message);
+        if (msg instanceof EncodedMessage) {
+            writeEncodedMessage(ctx, (EncodedMessage) msg, promise);
+            return;
         }
 
+        Message message = (Message) msg;
+
+        // 协议控制管理
+        ControlManager controlMgr = ctx.channel().attr(Constants.CONTROL_MANAGER).get();
+        // 消息缓存管理
+        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+
+        // 更新控制域序列号
+        MessageControl iControl = MessageFactory.commonBuildIControl(controlMgr);
+        message.setControl(iControl);
+        LOGGER.debug("[{}-通用数据处理-I帧数据输出] 发送I帧: 发送序列号 = {}, 接受序列号 = {}", this.name, iControl.getSendSequenceNum(), iControl.getReceiveSequenceNum());
+
+        // 缓存消息
+        cacheMgr.add(message);
+        onIFrameOut(iControl.getSendSequenceNum(), typeIdentifierValue(message));
+
         // 将消息继续传递给下一个 Handler 继续处理
         ctx.write(message, promise);
     }
 
 
+    /**
+     * 发送本地排队的I帧 (收到确认后调用, 直到发送窗口再次占满)
+     *
+     * @param ctx ctx
+     */
+    private void writePendingMessages(ChannelHandlerContext ctx) {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+        int count = 0;
+        while (!pendingWrites.isEmpty() && cacheMgr.size() < this.k) {
+            PendingWrite pendingWrite = pendingWrites.poll();
+            writeIFrame(ctx, pendingWrite.msg, pendingWrite.promise);
+            count++;
+        }
+        if (pendingWrites.isEmpty()) {
+            setWindowWritable(ctx, true);
+        }
+        if (count > 0) {
+            ctx.flush();
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("[{}-通用数据处理-I帧数据输出] 发送排队I帧数量 = {}, 剩余排队数量 = {}", this.name, count, pendingWrites.size());
+        }
+    }
+
+
+    /**
+     * 释放本地排队的I帧 (连接关闭时调用)
+     *
+     * @param cause 失败原因
+     */
+    private void failPendingWrites(Throwable cause) {
+        PendingWrite pendingWrite;
+        while ((pendingWrite = pendingWrites.poll()) != null) {
+            ReferenceCountUtil.release(pendingWrite.msg);
+            pendingWrite.promise.tryFailure(cause);
+        }
+    }
+
+
+    /**
+     * 设置发送窗口的可写状态 (影响 Channel.isWritable())
+     *
+     * @param ctx      ctx
+     * @param writable 是否可写
+     */
+    private static void setWindowWritable(ChannelHandlerContext ctx, boolean writable) {
+        ChannelOutboundBuffer outboundBuffer = ctx.channel().unsafe().outboundBuffer();
+        if (outboundBuffer != null) {
+            outboundBuffer.setUserDefinedWritability(WINDOW_WRITABILITY_INDEX, writable);
+        }
+    }
+
+
+    /**
+     * 处理输出数据 已编码的I帧消息 (自动填充控制域, 缓存原始消息)
+     *
+     * @param ctx            ctx
+     * @param encodedMessage encodedMessage
+     * @param promise        promise
+     */
+    private void writeEncodedMessage(ChannelHandlerContext ctx, EncodedMessage encodedMessage, ChannelPromise promise) {
+
+        // 协议控制管理
+        ControlManager controlMgr = ctx.channel().attr(Constants.CONTROL_MANAGER).get();
+        // 消息缓存管理
+        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+
+        // 更新控制域序列号
+        MessageControl iControl = MessageFactory.commonBuildIControl(controlMgr);
+        encodedMessage.setControl(iControl);
+        LOGGER.debug("[{}-通用数据处理-I帧数据输出] 发送已编码I帧: 发送序列号 = {}, 接受序列号 = {}", this.name, iControl.getSendSequenceNum(), iControl.getReceiveSequenceNum());
+
+        // 缓存消息 (ASDU 与其他连接共享, 控制域独立)
+        Message message = copyIFrame(encodedMessage.getMessage());
+        message.setControl(iControl);
+        cacheMgr.add(message);
+        onIFrameOut(iControl.getSendSequenceNum(), typeIdentifierValue(message));
+
+        ctx.write(encodedMessage, promise);
+    }
+
+
     /**
      * 处理输入数据（读到的数据）
      * <p>
      * I帧: 校验消息，如果校验成功则传递给后续Handler继续处理，否则直接返回S帧
      * S帧: 处理消息，不会传递给后续Handler继续处理
      * U帧: 不做处理，直接传递给后续Handler继续处理
+     * <p>
+     * 如果收到的是 MessageView (只读视图解码模式), 由后续Handler按需构建 Message
      *
      * @param ctx ctx
      * @param msg msg
@@ -128,6 +469,15 @@ public class CommonDataHandler extends ChannelDuplexHandler {
      */
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+
+        // 收到任何报文: 延后t3 (只更新截止时间)
+        timerMgr.start(ProtocolTimerEnum.T3, this.channelTestMillis);
+
+        if (msg instanceof MessageView) {
+            channelReadView(ctx, (MessageView) msg);
+            return;
+        }
+
         Message message = (Message) msg;
         FrameTypeEnum frameTypeEnum = message.getFrameType();
         switch (frameTypeEnum) {
@@ -145,18 +495,75 @@ public class CommonDataHandler extends ChannelDuplexHandler {
     }
 
 
+    /**
+     * 处理输入数据 只读视图 (读到的数据)
+     * <p>
+     * 视图直接传递给后续Handler, 由后续Handler按需构建 Message
+     *
+     * @param ctx         ctx
+     * @param messageView messageView
+     */
+    private void channelReadView(ChannelHandlerContext ctx, MessageView messageView) {
+        FrameTypeEnum frameTypeEnum = messageView.getFrameType();
+        switch (frameTypeEnum) {
+            case I_FRAME:
+                if (metrics != null) {
+                    metrics.onIFrameIn(messageView.getTypeIdentifierValue());
+                }
+                if (checkIFrameSequence(ctx, messageView.getSendSequenceNum(), messageView.getReceiveSequenceNum())) {
+                    ctx.fireChannelRead(messageView);
+                } else {
+                    messageView.release();
+                }
+                return;
+            case S_FRAME:
+                if (metrics != null) {
+                    metrics.onSFrameIn();
+                }
+                handleSFrameAck(ctx, messageView.getReceiveSequenceNum());
+                messageView.release();
+                return;
+            case U_FRAME:
+                if (metrics != null) {
+                    metrics.onUFrameIn(messageView.getUControl());
+                }
+                handleUReply(ctx, messageView.getUControl());
+                ctx.fireChannelRead(messageView);
+                return;
+            default:
+                messageView.release();
+        }
+    }
+
+
     /**
      * [读处理] 处理I帧消息 (校验消息，如果校验成功则传递给后续Handler继续处理，否则直接返回S帧)
      */
     private void readHandleIFrameMessage(ChannelHandlerContext ctx, Message message) {
+        if (metrics != null) {
+            metrics.onIFrameIn(typeIdentifierValue(message));
+        }
+
+        // 如果校验成功，将消息继续传递给下一个 Handler 继续处理
+        if (checkIFrameSequence(ctx, message.getControl().getSendSequenceNum(), message.getControl().getReceiveSequenceNum())) {
+            ctx.fireChannelRead(message);
+        }
+    }
+
+
+    /**
+     * [读处理] 校验I帧序列号, 并按 w 自动回复S帧
+     *
+     * @param ctx                       ctx
+     * @param messageSendSequenceNum    消息的发送序列号
+     * @param messageReceiveSequenceNum 消息的接收序列号 (对本端已发送I帧的确认)
+     * @return 是否校验成功
+     */
+    private boolean checkIFrameSequence(ChannelHandlerContext ctx, short messageSendSequenceNum, short messageReceiveSequenceNum) {
 
         // 协议控制管理
         ControlManager controlMgr = ctx.channel().attr(Constants.CONTROL_MANAGER).get();
-        // 消息缓存管理
-        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
 
-        // 消息的发送序列号
-        short messageSendSequenceNum = message.getControl().getSendSequenceNum();
         // 当前的接收序列号
         short currReceiveSequenceNum = controlMgr.getReceiveSequenceNum();
 
@@ -167,25 +574,78 @@ public class CommonDataHandler extends ChannelDuplexHandler {
             // 此时接收序列号自增
             controlMgr.incrementReceiveSequenceNum();
 
-            // 清理缓存中 小于 当前最新序列号的消息
-            cacheMgr.removeLess(controlMgr.getReceiveSequenceNum());
+            // I帧的接收序列号 确认了本端已发送的I帧: 清理缓存中 小于 此序列号的消息
+            handleAck(ctx, messageReceiveSequenceNum);
+
+            // 每收到 w 个I帧回复一个S帧, 否则延时回复
+            if (++unackedReceiveCount >= this.w || this.ackDelayMillis <= 0) {
+                writeSFrame(ctx, controlMgr);
+            } else {
+                timerMgr.startIfStopped(ProtocolTimerEnum.T2, this.ackDelayMillis);
+            }
 
         }
         // 校验消息顺序失败：表示这个收到的消息是不符合预期的，可能为丢失报文或者重发场景，丢弃此消息
         else {
             LOGGER.error("[{}-通用数据处理-I帧数据接收] 校验序列号失败, 丢弃掉此消息. 当前的接收序列号 = {}, 收到消息中的发送序列号 = {}", this.name, currReceiveSequenceNum, messageSendSequenceNum);
+            if (metrics != null) {
+                metrics.onSequenceError();
+            }
+
+            // 立即回复S帧, 告知对方当前期望的序列号
+            writeSFrame(ctx, controlMgr);
         }
 
-        // 通用处理：收到一个I帧，系统自动回复一个S帧
+        return checkSuccess;
+    }
+
+
+    /**
+     * [读处理] 回复S帧 (确认所有已接收的I帧)
+     *
+     * @param ctx        ctx
+     * @param controlMgr 协议控制管理
+     */
+    private void writeSFrame(ChannelHandlerContext ctx, ControlManager controlMgr) {
+        resetReceiveAck();
         Message sFrameMessage = MessageFactory.commonBuildSFrameMessage(controlMgr);
+        if (metrics != null) {
+            metrics.onSFrameOut();
+        }
         ctx.writeAndFlush(sFrameMessage);
         LOGGER.debug("[{}-通用数据处理-I帧数据接收] 系统自动回复S帧 = {}", this.name, sFrameMessage.getControl().getReceiveSequenceNum());
+    }
 
-        // 如果校验成功，将消息继续传递给下一个 Handler 继续处理
-        if (checkSuccess) {
-            ctx.fireChannelRead(message);
+
+    /**
+     * 重置 已接收但未确认的I帧数量 (回复S帧或发送I帧时调用)
+     */
+    private void resetReceiveAck() {
+        unackedReceiveCount = 0;
+        timerMgr.stop(ProtocolTimerEnum.T2);
+    }
+
+
+    /**
+     * 处理对方的确认: 清理缓存中 小于 序列号的消息, 并发送本地排队的I帧
+     *
+     * @param ctx                      ctx
+     * @param exceptReceiveSequenceNum 对方的接收序列号
+     */
+    private void handleAck(ChannelHandlerContext ctx, short exceptReceiveSequenceNum) {
+        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+        int size = cacheMgr.size();
+        cacheMgr.removeLess(exceptReceiveSequenceNum);
+        onAcked(exceptReceiveSequenceNum, size - cacheMgr.size());
+
+        // 全部确认: 停止t1; 部分确认: 重置t1
+        if (cacheMgr.size() == 0) {
+            timerMgr.stop(ProtocolTimerEnum.T1_I_FRAME);
+        } else if (cacheMgr.size() < size) {
+            timerMgr.start(ProtocolTimerEnum.T1_I_FRAME, this.ackTimeoutMillis);
         }
 
+        writePendingMessages(ctx);
     }
 
 
@@ -193,26 +653,33 @@ public class CommonDataHandler extends ChannelDuplexHandler {
      * [读处理] 处理S帧消息 (不会继续传递给下一个 Handler 继续处理)
      */
     private void readHandleSFrameMessage(ChannelHandlerContext ctx, Message message) {
-
-        // 消息缓存管理
-        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+        if (metrics != null) {
+            metrics.onSFrameIn();
+        }
 
         // S帧消息的接受序列号（表示期望接收到的发送序列号），所以使用此值作为key去查找缓存
-        Short exceptReceiveSequenceNum = message.getControl().getReceiveSequenceNum();
+        handleSFrameAck(ctx, message.getControl().getReceiveSequenceNum());
+    }
 
-        // 清理缓存中 小于 序列号的消息
-        cacheMgr.removeLess(exceptReceiveSequenceNum);
-        LOGGER.debug("[{}-通用数据处理-S帧数据接收] 收到S帧 = {}, 清理后缓存 = {}", this.name, exceptReceiveSequenceNum, cacheMgr.getAllSendSequenceNum());
 
+    /**
+     * [读处理] 处理S帧确认
+     *
+     * @param ctx                      ctx
+     * @param exceptReceiveSequenceNum S帧消息的接受序列号
+     */
+    private void handleSFrameAck(ChannelHandlerContext ctx, short exceptReceiveSequenceNum) {
 
-//        // todo: 此处逻辑待定，先注释掉
-//        //获取缓存中 大于等于 序列号的消息重新发送
-//        List<Message> messagesToSend = cacheMgr.getGreaterEqual(exceptReceiveSequenceNum);
-//        for (Message m : messagesToSend) {
-//            LOGGER.debug("[{}-通用数据处理-S帧数据接收] 收到S帧 = {}, 缓存中存在大于等于序列号的消息，重新发送I帧: 发送序列号 = {}, 接受序列号 = {}", this.name, exceptReceiveSequenceNum, m.getControl().getSendSequenceNum(), m.getControl().getReceiveSequenceNum());
-//            ctx.writeAndFlush(m);
-//        }
+        // 消息缓存管理
+        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
 
+        // 清理缓存中 小于 序列号的消息, 并发送本地排队的I帧
+        handleAck(ctx, exceptReceiveSequenceNum);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("[{}-通用数据处理-S帧数据接收] 收到S帧 = {}, 清理后缓存 = {}", this.name, exceptReceiveSequenceNum, cacheMgr.getAllSendSequenceNum());
+        }
+
+        // 同一连接内不重发: 序列号错误时对方会关闭连接, 未确认的I帧在重新连接后由会话恢复重发
     }
 
 
@@ -220,8 +687,173 @@ public class CommonDataHandler extends ChannelDuplexHandler {
      * [读处理] 处理U帧消息
      */
     private void readHandleUFrameMessage(ChannelHandlerContext ctx, Message message) {
+        if (metrics != null) {
+            metrics.onUFrameIn(message.getControl().getUControl());
+        }
+        handleUReply(ctx, message.getControl().getUControl());
         // 将消息继续传递给下一个 Handler 继续处理
         ctx.fireChannelRead(message);
     }
 
+
+    /**
+     * [读处理] 收到U帧确认 (启动确认、停止确认、测试确认) 时停止t1定时器
+     *
+     * @param ctx      ctx
+     * @param uControl U帧类型
+     */
+    private void handleUReply(ChannelHandlerContext ctx, UControlEnum uControl) {
+        if (UControlEnum.START_REPLY == uControl || UControlEnum.STOP_REPLY == uControl || UControlEnum.TEST_REPLY == uControl) {
+            timerMgr.stop(ProtocolTimerEnum.T1_U_FRAME);
+        }
+
+        // 测试帧往返时延
+        if (metrics != null && UControlEnum.TEST_REPLY == uControl && testSentNanos != 0) {
+            metrics.getTestRoundTrip().record(System.nanoTime() - testSentNanos);
+            testSentNanos = 0;
+        }
+
+        // 控制站: 收到启动确认后 数据传输开始
+        if (UControlEnum.START_REPLY == uControl) {
+            resendResumeMessages(ctx);
+        }
+    }
+
+
+    /**
+     * [统计] 发送U帧 (测试帧记录发送时间)
+     */
+    private void onUFrameOut(UControlEnum uControl) {
+        if (metrics == null) {
+            return;
+        }
+        metrics.onUFrameOut(uControl);
+        if (UControlEnum.TEST == uControl) {
+            testSentNanos = System.nanoTime();
+        }
+    }
+
+
+    /**
+     * [统计] 发送I帧 (记录发送时间, 消息缓存深度 +1)
+     */
+    private void onIFrameOut(short sendSequenceNum, byte typeIdentifier) {
+        if (metrics == null) {
+            return;
+        }
+        metrics.onIFrameOut(typeIdentifier);
+        metrics.onCacheDepth(1);
+        sendNanos[sendSequenceNum & sendNanosMask] = System.nanoTime();
+    }
+
+
+    /**
+     * [统计] I帧被确认 (被确认的为 接收序列号 之前的 count 个I帧)
+     *
+     * @param exceptReceiveSequenceNum 对方的接收序列号
+     * @param count                    被确认的I帧数量
+     */
+    private void onAcked(short exceptReceiveSequenceNum, int count) {
+        if (metrics == null || count <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (int i = 1; i <= count; i++) {
+            int sendSequenceNum = (exceptReceiveSequenceNum - i) & Constants.SEQUENCE_NUM_MAX;
+            metrics.getAckLatency().record(now - sendNanos[sendSequenceNum & sendNanosMask]);
+        }
+        metrics.onCacheDepth(-count);
+    }
+
+
+    /**
+     * 是否为U帧命令 (启动、停止、测试), 需要对方确认
+     */
+    private static boolean isUCommand(UControlEnum uControl) {
+        return UControlEnum.START == uControl || UControlEnum.STOP == uControl || UControlEnum.TEST == uControl;
+    }
+
+
+    /**
+     * 保存待恢复的I帧: 已发送未确认 + 本地排队 (连接断开时调用)
+     *
+     * @param ctx ctx
+     */
+    private void saveResumeMessages(ChannelHandlerContext ctx) {
+        if (resumeMgr == null || resumeMgr.getPolicy() == ResumePolicyEnum.NONE) {
+            return;
+        }
+        CacheManager cacheMgr = ctx.channel().attr(Constants.CACHE_MANAGER).get();
+        if (cacheMgr == null) {
+            return;
+        }
+        List<Message> messages = cacheMgr.getAll();
+        for (PendingWrite pendingWrite : pendingWrites) {
+            // 已编码的I帧: 原始消息由所有连接共享, 保存当前连接独立的副本 (重新发送时会设置控制域并缓存)
+            messages.add(pendingWrite.msg instanceof EncodedMessage ? copyIFrame(((EncodedMessage) pendingWrite.msg).getMessage()) : (Message) pendingWrite.msg);
+        }
+        resumeMgr.save(resumePeerId, messages);
+    }
+
+
+    /**
+     * 重新发送待恢复的I帧 (启动链路后调用): 按原顺序写入, 超过发送窗口的部分本地排队, 只刷新一次
+     *
+     * @param ctx ctx
+     */
+    private void resendResumeMessages(ChannelHandlerContext ctx) {
+        if (resumeMgr == null || resumeMgr.getPolicy() == ResumePolicyEnum.NONE) {
+            return;
+        }
+        List<Message> messages = resumeMgr.take(resumePeerId);
+        if (messages.isEmpty()) {
+            return;
+        }
+        LOGGER.info("[{}-通用数据处理-会话恢复] 启动链路后 重新发送未确认的I帧数量 = {}", this.name, messages.size());
+        for (Message message : messages) {
+            try {
+                write(ctx, message, ctx.newPromise());
+            } catch (Exception e) {
+                LOGGER.error("[{}-通用数据处理-会话恢复] 重新发送I帧失败", this.name, e);
+            }
+        }
+        ctx.flush();
+    }
+
+
+    /**
+     * [统计] I帧的类型标识符 (未知的类型标识符解码为空, 记为 0 未定义)
+     */
+    private static byte typeIdentifierValue(Message message) {
+        TypeIdentifierEnum typeIdentifier = message.getAsdu().getTypeIdentifier();
+        return typeIdentifier == null ? 0 : typeIdentifier.getValue();
+    }
+
+
+    /**
+     * 当前连接独立的I帧副本 (ASDU 共享, 控制域独立)
+     */
+    private static Message copyIFrame(Message shared) {
+        Message message = new Message();
+        message.setFrameType(FrameTypeEnum.I_FRAME);
+        message.setAsdu(shared.getAsdu());
+        return message;
+    }
+
+
+    /**
+     * 本地排队的I帧
+     */
+    private static final class PendingWrite {
+
+        private final Object msg;
+
+        private final ChannelPromise promise;
+
+        private PendingWrite(Object msg, ChannelPromise promise) {
+            this.msg = msg;
+            this.promise = promise;
+        }
+    }
+
 }
@@ -10,16 +10,20 @@ import com.baoyubo.iec104.model.MessageASDU;
 import com.baoyubo.iec104.model.MessageControl;
 import com.baoyubo.iec104.model.MessageInfo;
 import com.baoyubo.iec104.model.MessageVSQ;
+import com.baoyubo.iec104.model.MessageView;
 import com.baoyubo.iec104.util.ByteUtil;
+import com.baoyubo.iec104.util.Cp56Time2aCodec;
 import com.baoyubo.iec104.util.Iec104ByteUtil;
 import com.baoyubo.iec104.util.JsonUtil;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -34,9 +38,31 @@ public class DataDecoder extends ByteToMessageDecoder {
 
     private final String name;
 
+    /**
+     * 是否开启 只读视图解码模式 (输出 MessageView, 不构建 Message)
+     */
+    private final boolean flyweight;
+
+    /**
+     * 时标 CP56Time2a 编解码
+     */
+    private final Cp56Time2aCodec timeCodec;
+
 
     public DataDecoder(String name) {
+        this(name, false);
+    }
+
+
+    public DataDecoder(String name, boolean flyweight) {
+        this(name, flyweight, Cp56Time2aCodec.DEFAULT);
+    }
+
+
+    public DataDecoder(String name, boolean flyweight, Cp56Time2aCodec timeCodec) {
         this.name = name;
+        this.flyweight = flyweight;
+        this.timeCodec = timeCodec;
     }
 
 
@@ -50,20 +76,26 @@ public class DataDecoder extends ByteToMessageDecoder {
 
         if (LOGGER.isDebugEnabled()) {
             // 将 ByteBuf 转换为 byte[]，并且不移动读指针
-            byte[] data = new byte[byteBuf.readableBytes()];
-            byteBuf.copy().readBytes(data);
-            LOGGER.debug("[{}-解码器] 准备执行消息解码, HexString : {}", name, ByteUtil.toHexString(data));
+            LOGGER.debug("[{}-解码器] 准备执行消息解码, HexString : {}", name, ByteUtil.toHexString(ByteBufUtil.getBytes(byteBuf)));
         }
 
 
         // 跳过 固定头字段 和 APDU长度字段
         byteBuf.skipBytes(Constants.HEADER_FIELD_LEN + Constants.APDU_LENGTH_FIELD_LEN);
 
+        // 只读视图解码模式: 直接引用 控制域 + ASDU 切片, 字段由后续Handler按需读取
+        if (flyweight) {
+            MessageView messageView = new MessageView(byteBuf.readRetainedSlice(byteBuf.readableBytes()), timeCodec);
+            list.add(messageView);
+            LOGGER.debug("[{}-解码器] 消息视图解码完成 {}", name, messageView);
+            return;
+        }
+
         // 解析字节报文
         Message message = decode(byteBuf);
         list.add(message);
 
-        LOGGER.debug("[{}-解码器] 消息解码完成 Message : {}", name, JsonUtil.toJsonString(message));
+        LOGGER.debug("[{}-解码器] 消息解码完成 Message : {}", name, JsonUtil.lazyJson(message));
     }
 
 
@@ -136,7 +168,8 @@ public class DataDecoder extends ByteToMessageDecoder {
         MessageASDU asdu = new MessageASDU();
 
         // 类型标识符TI (占1个字节)
-        TypeIdentifierEnum typeIdentifier = TypeIdentifierEnum.ofValue(byteBuf.readByte());
+        byte typeIdentifierValue = byteBuf.readByte();
+        TypeIdentifierEnum typeIdentifier = TypeIdentifierEnum.ofValue(typeIdentifierValue);
         asdu.setTypeIdentifier(typeIdentifier);
 
         // 可变结构限定词VSQ (占1个字节)
@@ -153,6 +186,18 @@ public class DataDecoder extends ByteToMessageDecoder {
         byteBuf.readBytes(commonAddressBytes);
         asdu.setCommonAddress(Iec104ByteUtil.byteArrayToCommonAddress(commonAddressBytes));
 
+        // 不支持的类型标识符: 无法确定信息数据长度, 跳过信息数据列表 (I帧序列号仍正常确认)
+        if (typeIdentifier == null) {
+            LOGGER.warn("[{}-解码器] 不支持的类型标识符 {}, 跳过 {} 字节信息数据", name, typeIdentifierValue & 0xFF, byteBuf.readableBytes());
+            byteBuf.skipBytes(byteBuf.readableBytes());
+            asdu.setMessageInfoList(new ArrayList<>(0));
+            return asdu;
+        }
+
+        // CP24Time2a 时标的参考时间 (同一个ASDU只取一次)
+        long referenceMillis = typeIdentifier.getMessageInfoTimeScaleLength() == Constants.MESSAGE_INFO_CP24_TIME_SCALE_FIELD_LEN
+                ? System.currentTimeMillis() : 0;
+
         // 信息数据列表 连续
         if (vsq.getIsContinuous()) {
 
@@ -165,7 +210,7 @@ public class DataDecoder extends ByteToMessageDecoder {
             List<MessageInfo> messageInfos = new ArrayList<>(messageInfoListSize);
 
             for (int i = 0; i < messageInfoListSize; i++) {
-                MessageInfo messageInfo = decodeMessageInfo(byteBuf, typeIdentifier, infoAddress++);
+                MessageInfo messageInfo = decodeMessageInfo(byteBuf, typeIdentifier, infoAddress++, referenceMillis);
                 messageInfos.add(messageInfo);
             }
             asdu.setMessageInfoList(messageInfos);
@@ -183,7 +228,7 @@ public class DataDecoder extends ByteToMessageDecoder {
                 byteBuf.readBytes(infoAddressBytes);
                 int infoAddress = Iec104ByteUtil.byteArrayToInfoAddress(infoAddressBytes);
 
-                MessageInfo messageInfo = decodeMessageInfo(byteBuf, typeIdentifier, infoAddress);
+                MessageInfo messageInfo = decodeMessageInfo(byteBuf, typeIdentifier, infoAddress, referenceMillis);
                 messageInfos.add(messageInfo);
             }
             asdu.setMessageInfoList(messageInfos);
@@ -196,19 +241,20 @@ public class DataDecoder extends ByteToMessageDecoder {
     /**
      * 执行 信息数据 解码
      *
-     * @param byteBuf        byteBuf
-     * @param typeIdentifier typeIdentifier
-     * @param infoAddress    infoAddress
+     * @param byteBuf         byteBuf
+     * @param typeIdentifier  typeIdentifier
+     * @param infoAddress     infoAddress
+     * @param referenceMillis CP24Time2a 时标的参考时间
      * @return MessageInfo
      */
-    private MessageInfo decodeMessageInfo(ByteBuf byteBuf, TypeIdentifierEnum typeIdentifier, int infoAddress) {
+    private MessageInfo decodeMessageInfo(ByteBuf byteBuf, TypeIdentifierEnum typeIdentifier, int infoAddress, long referenceMillis) {
 
         MessageInfo messageInfo = new MessageInfo();
 
         //  信息对象地址 (占3个字节)
         messageInfo.setInfoAddress(infoAddress);
 
-        // 信息对象值 (所占字节个数不固定 1、2、4)
+        // 信息对象值 (所占字节个数不固定 1、2、4、5)
         if (TypeIdentifierEnum.hasMessageInfoValue(typeIdentifier)) {
             byte[] infoValue = new byte[typeIdentifier.getMessageInfoValueLength()];
             byteBuf.readBytes(infoValue);
@@ -217,14 +263,28 @@ public class DataDecoder extends ByteToMessageDecoder {
 
         //  限定词/描述符 (占1个字节)
         if (TypeIdentifierEnum.hasMessageInfoQualifier(typeIdentifier)) {
-            messageInfo.setQualifier(QualifiersEnum.ofValue(byteBuf.readByte()));
+            // 未定义为枚举的取值 (如 品质描述词 QDS 置位) 保留原始值
+            byte qualifierValue = byteBuf.readByte();
+            QualifiersEnum qualifier = QualifiersEnum.ofValue(qualifierValue);
+            messageInfo.setQualifier(qualifier);
+            messageInfo.setQualifierValue(qualifier == null ? qualifierValue : null);
         }
 
-        // 时标 (占7个字节)
+        // 相对时间 CP16Time2a (占2个字节)
+        if (TypeIdentifierEnum.hasMessageInfoElapsedTime(typeIdentifier)) {
+            messageInfo.setElapsedTime(byteBuf.readUnsignedShortLE());
+        }
+
+        // 时标 (CP56Time2a 占7个字节, CP24Time2a 占3个字节, 丢弃的无效时标为空)
         if (TypeIdentifierEnum.hasMessageInfoTimeScale(typeIdentifier)) {
-            byte[] timeScaleBytes = new byte[Constants.MESSAGE_INFO_TIME_SCALE_FIELD_LEN];
-            byteBuf.readBytes(timeScaleBytes);
-            messageInfo.setTimeScale(ByteUtil.cp56TimeByteArrayToDate(timeScaleBytes));
+            long timeScale;
+            if (typeIdentifier.getMessageInfoTimeScaleLength() == Constants.MESSAGE_INFO_CP24_TIME_SCALE_FIELD_LEN) {
+                timeScale = timeCodec.getCp24(byteBuf, byteBuf.readerIndex(), referenceMillis);
+                byteBuf.skipBytes(Constants.MESSAGE_INFO_CP24_TIME_SCALE_FIELD_LEN);
+            } else {
+                timeScale = timeCodec.read(byteBuf);
+            }
+            messageInfo.setTimeScale(timeScale == Cp56Time2aCodec.INVALID_TIME ? null : new Date(timeScale));
         }
 
         return messageInfo;
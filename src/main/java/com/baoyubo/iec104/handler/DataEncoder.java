@@ -1,81 +1,171 @@
 package com.baoyubo.iec104.handler;
 
+import com.baoyubo.iec104.constant.Constants;
 import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.model.EncodedMessage;
 import com.baoyubo.iec104.model.Message;
 import com.baoyubo.iec104.model.MessageASDU;
 import com.baoyubo.iec104.model.MessageInfo;
 import com.baoyubo.iec104.util.ByteUtil;
+import com.baoyubo.iec104.util.Cp56Time2aCodec;
 import com.baoyubo.iec104.util.Iec104ByteUtil;
 import com.baoyubo.iec104.util.JsonUtil;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.List;
 
 /**
  * 编码器 (协议模型 -> 字节报文)
+ * <p>
+ * 预先计算 APDU 长度并一次性分配缓冲区, 启动字符、APDU长度、控制域、ASDU 直接写入同一个 ByteBuf (APDU长度回填)
+ * <p>
+ * 支持 Message 及 EncodedMessage (ASDU 已编码, 只写入 启动字符、APDU长度、控制域)
  *
  * @author yubo.bao
  * @date 2023/7/3 17:46
  */
-public class DataEncoder extends MessageToByteEncoder<Message> {
+public class DataEncoder extends MessageToByteEncoder<Object> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DataEncoder.class);
 
     private final String name;
 
+    /**
+     * 时标 CP56Time2a 编解码
+     */
+    private final Cp56Time2aCodec timeCodec;
+
 
     public DataEncoder(String name) {
+        this(name, Cp56Time2aCodec.DEFAULT);
+    }
+
+
+    public DataEncoder(String name, Cp56Time2aCodec timeCodec) {
         this.name = name;
+        this.timeCodec = timeCodec;
     }
 
 
     @Override
-    protected void encode(ChannelHandlerContext channelHandlerContext, Message message, ByteBuf byteBuf) throws Exception {
-        LOGGER.debug("[{}-编码器] 准备执行消息编码, Message : {}", name, JsonUtil.toJsonString(message));
+    public boolean acceptOutboundMessage(Object msg) {
+        return msg instanceof Message || msg instanceof EncodedMessage;
+    }
 
-        byte[] bytes = encode(message);
-        byteBuf.writeBytes(bytes);
 
-        LOGGER.debug("[{}-编码器] 消息编码完成并发送 HexString : {}", name, ByteUtil.toHexString(bytes));
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Object msg, boolean preferDirect) {
+        int apduLength = msg instanceof EncodedMessage
+                ? Constants.CONTROL_FIELD_LEN + ((EncodedMessage) msg).content().readableBytes()
+                : apduLength((Message) msg);
+        int capacity = Constants.HEADER_FIELD_LEN + Constants.APDU_LENGTH_FIELD_LEN + apduLength;
+        return preferDirect ? ctx.alloc().ioBuffer(capacity) : ctx.alloc().heapBuffer(capacity);
+    }
+
+
+    @Override
+    protected void encode(ChannelHandlerContext channelHandlerContext, Object msg, ByteBuf byteBuf) throws Exception {
+        int writerIndex = byteBuf.writerIndex();
+
+        if (msg instanceof EncodedMessage) {
+            LOGGER.debug("[{}-编码器] 准备执行消息编码, EncodedMessage : {}", name, msg);
+            encode((EncodedMessage) msg, byteBuf);
+        } else {
+            LOGGER.debug("[{}-编码器] 准备执行消息编码, Message : {}", name, JsonUtil.lazyJson(msg));
+            encode((Message) msg, byteBuf);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("[{}-编码器] 消息编码完成并发送 HexString : {}", name, ByteUtil.toHexString(ByteBufUtil.getBytes(byteBuf, writerIndex, byteBuf.writerIndex() - writerIndex)));
+        }
     }
 
 
     /**
-     * 执行编码
+     * 执行编码 已编码的I帧消息 (启动字符 + APDU长度 + 控制域 + 已编码的ASDU)
+     *
+     * @param encodedMessage encodedMessage
+     * @param byteBuf        byteBuf
+     */
+    private void encode(EncodedMessage encodedMessage, ByteBuf byteBuf) {
+        ByteBuf asduContent = encodedMessage.content();
+        int apduLength = Constants.CONTROL_FIELD_LEN + asduContent.readableBytes();
+        if (apduLength > Constants.APDU_MAX_LEN) {
+            throw new RuntimeException("APDU长度超出限制: " + apduLength);
+        }
+
+        byteBuf.writeByte(Constants.HEADER);
+        byteBuf.writeByte(apduLength);
+        byteBuf.writeShortLE(encodedMessage.getControl().getSendSequenceNum() << 1);
+        byteBuf.writeShortLE(encodedMessage.getControl().getReceiveSequenceNum() << 1);
+        byteBuf.writeBytes(asduContent, asduContent.readerIndex(), asduContent.readableBytes());
+    }
+
+
+    /**
+     * 执行编码 (启动字符 + APDU长度 + 控制域 + ASDU)
+     * <p>
+     * 先预留 启动字符、APDU长度 两个字节, 写完 控制域 + ASDU 后回填 APDU长度, 每个APDU只占用一个连续的 ByteBuf
      *
      * @param message message
-     * @return byte[]
-     * @throws IOException exp
+     * @param byteBuf byteBuf
      */
-    private byte[] encode(Message message) throws IOException {
+    private void encode(Message message, ByteBuf byteBuf) {
+
+        // 启动字符、APDU长度(预留, 写完后回填)
+        int startIndex = byteBuf.writerIndex();
+        byteBuf.writeByte(Constants.HEADER);
+        byteBuf.writeByte(0);
+
+        // 控制域 + ASDU
+        encodeAPDU(message, byteBuf);
+
+        // 回填 APDU长度
+        int apduLength = byteBuf.writerIndex() - startIndex - Constants.HEADER_FIELD_LEN - Constants.APDU_LENGTH_FIELD_LEN;
+        if (apduLength > Constants.APDU_MAX_LEN) {
+            byteBuf.writerIndex(startIndex);
+            throw new RuntimeException("APDU长度超出限制: " + apduLength);
+        }
+        byteBuf.setByte(startIndex + Constants.HEADER_FIELD_LEN, apduLength);
+    }
+
 
-        // 注意：启动字符、APDU长度 这两个字段会由 LengthAndHeaderPrepender 自动填充
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    /**
+     * 执行 APDU 编码 (控制域 + ASDU)
+     *
+     * @param message message
+     * @param byteBuf byteBuf
+     */
+    private void encodeAPDU(Message message, ByteBuf byteBuf) {
 
         FrameTypeEnum frameTypeEnum = message.getFrameType();
 
         // U帧 (控制域)
         if (FrameTypeEnum.U_FRAME == frameTypeEnum) {
-            bytes.write(message.getControl().getUControl().getControlBytes());
-            return bytes.toByteArray();
+            byteBuf.writeBytes(message.getControl().getUControl().getControlBytes());
+            return;
         }
 
         // S帧 (控制域)
         if (FrameTypeEnum.S_FRAME == frameTypeEnum) {
-            bytes.write(Iec104ByteUtil.sControlToByteArray(message.getControl().getReceiveSequenceNum()));
-            return bytes.toByteArray();
+            byteBuf.writeShortLE(0x01);
+            byteBuf.writeShortLE(message.getControl().getReceiveSequenceNum() << 1);
+            return;
         }
 
         // I帧 (控制域 + ASDU)
         if (FrameTypeEnum.I_FRAME == frameTypeEnum) {
-            bytes.write(Iec104ByteUtil.iControlToByteArray(message.getControl().getSendSequenceNum(), message.getControl().getReceiveSequenceNum()));
-            bytes.write(encodeASDU(message.getAsdu()));
-            return bytes.toByteArray();
+            byteBuf.writeShortLE(message.getControl().getSendSequenceNum() << 1);
+            byteBuf.writeShortLE(message.getControl().getReceiveSequenceNum() << 1);
+            encodeASDU(message.getAsdu(), byteBuf, timeCodec);
+            return;
         }
 
         throw new RuntimeException("异常数据");
@@ -85,75 +175,154 @@ public class DataEncoder extends MessageToByteEncoder<Message> {
     /**
      * 执行 ASDU 编码
      *
-     * @param asdu asdu
-     * @return byte[]
+     * @param asdu      asdu
+     * @param byteBuf   byteBuf
+     * @param timeCodec 时标编解码
      */
-    private byte[] encodeASDU(MessageASDU asdu) throws IOException {
+    private static void encodeASDU(MessageASDU asdu, ByteBuf byteBuf, Cp56Time2aCodec timeCodec) {
 
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TypeIdentifierEnum typeIdentifier = asdu.getTypeIdentifier();
 
         // 类型标识符TI
-        bytes.write(asdu.getTypeIdentifier().getValue());
+        byteBuf.writeByte(typeIdentifier.getValue());
 
         // 可变结构限定词VSQ
-        bytes.write(Iec104ByteUtil.vsqToByteArray(asdu.getVsq()));
+        byteBuf.writeByte(Iec104ByteUtil.vsqToByteArray(asdu.getVsq()));
 
         // 传输原因
-        bytes.write(Iec104ByteUtil.reasonToByteArray(asdu.getTransferReason()));
+        byteBuf.writeShortLE(asdu.getTransferReason());
 
         // 公共地址
-        bytes.write(Iec104ByteUtil.commonAddressToByteArrays(asdu.getCommonAddress()));
+        byteBuf.writeShortLE(asdu.getCommonAddress());
 
-        // 信息数据列表(连续)
+        List<MessageInfo> messageInfoList = asdu.getMessageInfoList();
+
+        // 信息数据列表(连续): 只写入第一个信息对象地址
         if (asdu.getVsq().getIsContinuous()) {
+            byteBuf.writeMediumLE(messageInfoList.get(0).getInfoAddress());
+            for (MessageInfo info : messageInfoList) {
+                encodeMessageInfo(typeIdentifier, info, byteBuf, timeCodec);
+            }
+        }
+        // 信息数据列表(不连续): 每个信息数据都写入信息对象地址
+        else {
+            for (MessageInfo info : messageInfoList) {
+                byteBuf.writeMediumLE(info.getInfoAddress());
+                encodeMessageInfo(typeIdentifier, info, byteBuf, timeCodec);
+            }
+        }
+    }
 
-            // 第一个信息对象地址
-            Integer firstInfoAddress = asdu.getMessageInfoList().get(0).getInfoAddress();
-            bytes.write(Iec104ByteUtil.infoAddressToByteArray(firstInfoAddress));
 
-            for (MessageInfo info : asdu.getMessageInfoList()) {
+    /**
+     * 执行 信息数据 编码 (不包含信息对象地址)
+     *
+     * @param typeIdentifier typeIdentifier
+     * @param info           info
+     * @param byteBuf        byteBuf
+     * @param timeCodec      时标编解码
+     */
+    private static void encodeMessageInfo(TypeIdentifierEnum typeIdentifier, MessageInfo info, ByteBuf byteBuf, Cp56Time2aCodec timeCodec) {
 
-                // 信息对象值
-                if (info.getInfoValue() != null) {
-                    bytes.write(info.getInfoValue());
-                }
+        // 信息对象值
+        if (TypeIdentifierEnum.hasMessageInfoValue(typeIdentifier)) {
+            byteBuf.writeBytes(info.getInfoValue(), 0, typeIdentifier.getMessageInfoValueLength());
+        }
 
-                // 品质描述符
-                if (info.getQualifier() != null) {
-                    bytes.write(info.getQualifier().getValue());
-                }
+        // 品质描述符 (优先取枚举, 其次取原始值)
+        if (TypeIdentifierEnum.hasMessageInfoQualifier(typeIdentifier)) {
+            if (info.getQualifier() != null) {
+                byteBuf.writeByte(info.getQualifier().getValue());
+            } else {
+                byteBuf.writeByte(info.getQualifierValue() == null ? 0 : info.getQualifierValue());
+            }
+        }
+
+        // 相对时间 CP16Time2a
+        if (TypeIdentifierEnum.hasMessageInfoElapsedTime(typeIdentifier)) {
+            byteBuf.writeShortLE(info.getElapsedTime() == null ? 0 : info.getElapsedTime());
+        }
 
-                // 时标
-                if (info.getTimeScale() != null) {
-                    bytes.write(ByteUtil.dateToCP56TimeByteArray(info.getTimeScale()));
+        // 时标 (为空时写入无效时标)
+        if (TypeIdentifierEnum.hasMessageInfoTimeScale(typeIdentifier)) {
+            boolean cp24 = typeIdentifier.getMessageInfoTimeScaleLength() == Constants.MESSAGE_INFO_CP24_TIME_SCALE_FIELD_LEN;
+            if (info.getTimeScale() == null) {
+                if (cp24) {
+                    timeCodec.writeInvalidCp24(byteBuf);
+                } else {
+                    timeCodec.writeInvalid(byteBuf);
                 }
+            } else if (cp24) {
+                timeCodec.writeCp24(byteBuf, info.getTimeScale().getTime());
+            } else {
+                timeCodec.write(byteBuf, info.getTimeScale().getTime());
             }
         }
-        // 信息数据列表(不连续)
-        else {
-            for (MessageInfo info : asdu.getMessageInfoList()) {
+    }
 
-                // 信息对象地址
-                bytes.write(Iec104ByteUtil.infoAddressToByteArray(info.getInfoAddress()));
 
-                // 信息对象值
-                if (info.getInfoValue() != null) {
-                    bytes.write(info.getInfoValue());
-                }
+    /**
+     * 只编码 ASDU (不包含 启动字符、APDU长度、控制域), 用于 EncodedMessage 一次编码、多次发送
+     *
+     * @param asdu      asdu
+     * @param allocator allocator
+     * @return ASDU 字节报文
+     */
+    public static ByteBuf encodeASDU(MessageASDU asdu, ByteBufAllocator allocator) {
+        return encodeASDU(asdu, allocator, Cp56Time2aCodec.DEFAULT);
+    }
 
-                // 品质描述符
-                if (info.getQualifier() != null) {
-                    bytes.write(info.getQualifier().getValue());
-                }
 
-                // 时标
-                if (info.getTimeScale() != null) {
-                    bytes.write(ByteUtil.dateToCP56TimeByteArray(info.getTimeScale()));
-                }
-            }
+    /**
+     * 只编码 ASDU (不包含 启动字符、APDU长度、控制域), 用于 EncodedMessage 一次编码、多次发送
+     *
+     * @param asdu      asdu
+     * @param allocator allocator
+     * @param timeCodec 时标编解码
+     * @return ASDU 字节报文
+     */
+    public static ByteBuf encodeASDU(MessageASDU asdu, ByteBufAllocator allocator, Cp56Time2aCodec timeCodec) {
+        int asduLength = asduLength(asdu);
+        if (Constants.CONTROL_FIELD_LEN + asduLength > Constants.APDU_MAX_LEN) {
+            throw new RuntimeException("APDU长度超出限制: " + (Constants.CONTROL_FIELD_LEN + asduLength));
+        }
+        ByteBuf byteBuf = allocator.buffer(asduLength);
+        encodeASDU(asdu, byteBuf, timeCodec);
+        return byteBuf;
+    }
+
+
+    /**
+     * 计算 APDU长度 (控制域 + ASDU, 不包含 启动字符、APDU长度 字段), 用于预分配缓冲区
+     *
+     * @param message message
+     * @return APDU长度
+     */
+    static int apduLength(Message message) {
+        if (FrameTypeEnum.I_FRAME != message.getFrameType()) {
+            return Constants.CONTROL_FIELD_LEN;
         }
+        return Constants.CONTROL_FIELD_LEN + asduLength(message.getAsdu());
+    }
+
+
+    /**
+     * 计算 ASDU长度
+     *
+     * @param asdu asdu
+     * @return ASDU长度
+     */
+    private static int asduLength(MessageASDU asdu) {
+        TypeIdentifierEnum typeIdentifier = asdu.getTypeIdentifier();
+        int size = asdu.getMessageInfoList().size();
+
+        int elementLength = typeIdentifier.getMessageInfoElementLength();
+
+        int messageInfoLength = asdu.getVsq().getIsContinuous()
+                ? Constants.INFO_ADDRESS_FIELD_LEN + size * elementLength
+                : size * (Constants.INFO_ADDRESS_FIELD_LEN + elementLength);
 
-        return bytes.toByteArray();
+        return Constants.ASDU_HEADER_FIELD_LEN + messageInfoLength;
     }
 
 }
@@ -0,0 +1,69 @@
+package com.baoyubo.iec104.handler;
+
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.manager.FrameTraceManager;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * 报文跟踪处理 (读、写)
+ * <p>
+ * 放在 LengthFieldBasedFrameDecoder 之后, 读写的都是完整的一帧原始报文
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 09:40
+ */
+public class FrameTraceHandler extends ChannelDuplexHandler {
+
+    /**
+     * 报文跟踪管理
+     */
+    private final FrameTraceManager frameTraceMgr;
+
+
+    /**
+     * 构造函数
+     *
+     * @param name       名称
+     * @param sampleRate 采样率 (每 N 帧输出一帧, 0 表示不输出)
+     * @param ringSize   环形缓存大小 (0 表示不缓存)
+     */
+    public FrameTraceHandler(String name, int sampleRate, int ringSize) {
+        this.frameTraceMgr = new FrameTraceManager(name, sampleRate, ringSize);
+    }
+
+
+    @Override
+    public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
+        ctx.channel().attr(Constants.FRAME_TRACE_MANAGER).set(frameTraceMgr);
+        ctx.fireChannelRegistered();
+    }
+
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf) {
+            frameTraceMgr.record((ByteBuf) msg, false);
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            frameTraceMgr.record((ByteBuf) msg, true);
+        }
+        ctx.write(msg, promise);
+    }
+
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        frameTraceMgr.dumpToLog("连接异常: " + cause.getMessage());
+        ctx.fireExceptionCaught(cause);
+    }
+
+}
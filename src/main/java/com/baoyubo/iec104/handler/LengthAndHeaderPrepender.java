@@ -12,7 +12,9 @@ import java.util.List;
  *
  * @author yubo.bao
  * @date 2023/7/3 13:34
+ * @deprecated DataEncoder 已直接写入启动字符、APDU长度, 不再需要加入 pipeline
  */
+@Deprecated
 public class LengthAndHeaderPrepender extends LengthFieldPrepender {
 
     public LengthAndHeaderPrepender() {
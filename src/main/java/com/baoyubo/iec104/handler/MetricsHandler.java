@@ -0,0 +1,60 @@
+package com.baoyubo.iec104.handler;
+
+import com.baoyubo.iec104.metrics.ProtocolMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * 流量统计处理 (读、写)
+ * <p>
+ * 放在 LengthFieldBasedFrameDecoder 之前, 统计的是 socket 实际收发的字节数
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:30
+ */
+public class MetricsHandler extends ChannelDuplexHandler {
+
+    /**
+     * 协议统计
+     */
+    private final ProtocolMetrics metrics;
+
+
+    /**
+     * 构造函数
+     *
+     * @param metrics 协议统计
+     */
+    public MetricsHandler(ProtocolMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        metrics.onBytesIn(readableBytes(msg));
+        ctx.fireChannelRead(msg);
+    }
+
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        metrics.onBytesOut(readableBytes(msg));
+        ctx.write(msg, promise);
+    }
+
+
+    private static int readableBytes(Object msg) {
+        if (msg instanceof ByteBuf) {
+            return ((ByteBuf) msg).readableBytes();
+        }
+        if (msg instanceof ByteBufHolder) {
+            return ((ByteBufHolder) msg).content().readableBytes();
+        }
+        return 0;
+    }
+
+}
@@ -2,19 +2,28 @@ package com.baoyubo.iec104.handler;
 
 
 import static com.baoyubo.iec104.enums.CotEnum.ACT;
+import static com.baoyubo.iec104.enums.CotEnum.ACTCON;
+import static com.baoyubo.iec104.enums.CotEnum.ACTTERM;
 import static com.baoyubo.iec104.enums.CotEnum.REQ;
 
 import com.baoyubo.business.enums.RemoteOperateTypeEnum;
 import com.baoyubo.business.model.RemoteOperation;
 import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.dispatch.DispatchLane;
+import com.baoyubo.iec104.dispatch.OrderedDispatcher;
 import com.baoyubo.iec104.enums.FrameTypeEnum;
 import com.baoyubo.iec104.enums.QualifiersEnum;
 import com.baoyubo.iec104.enums.TypeIdentifierEnum;
 import com.baoyubo.iec104.enums.UControlEnum;
 import com.baoyubo.iec104.factory.MessageFactory;
 import com.baoyubo.iec104.factory.RemoteOperationFactory;
+import com.baoyubo.iec104.manager.ConnectionManager;
+import com.baoyubo.iec104.manager.PointImageManager;
 import com.baoyubo.iec104.model.Message;
 import com.baoyubo.iec104.model.MessageASDU;
+import com.baoyubo.iec104.model.MessageInfo;
+import com.baoyubo.iec104.model.MessageView;
+import com.baoyubo.iec104.model.TelemetryBatch;
 import com.baoyubo.iec104.util.Iec104ByteUtil;
 import com.baoyubo.iec104.util.JsonUtil;
 import io.netty.channel.ChannelHandlerContext;
@@ -23,16 +32,20 @@ import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
 import java.util.function.Consumer;
 
 /**
- * 服务端 数据处理
+ * 服务端 数据处理 (每个连接一个实例)
  *
  * @author yubo.bao
  * @date 2023/7/3 17:57
  */
-public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
+public class ServerDataHandler extends SimpleChannelInboundHandler<Object> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ServerDataHandler.class);
 
@@ -47,13 +60,80 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
      */
     private final Consumer<RemoteOperation> bizDataConsumer;
 
+    /**
+     * 连接管理 (为空时不注册连接)
+     */
+    private final ConnectionManager connectionMgr;
+
+    /**
+     * 过程映像 (为空时 总召唤交由业务推送, 不支持读命令)
+     */
+    private final PointImageManager pointImageMgr;
+
+    /**
+     * 业务分发 (为空时在 IO 线程直接调用业务)
+     */
+    private final OrderedDispatcher dispatcher;
+
+    /**
+     * 公共地址 -> 业务分发通道 (每个连接一个实例, 只在 IO 线程访问)
+     */
+    private final Map<Short, DispatchLane> dispatchLanes = new HashMap<>();
+
+    /**
+     * 最近一次通知业务时的公共地址 (连接关闭通知使用同一通道, 排在已有数据之后)
+     */
+    private short lastCommonAddress = Constants.DEFAULT_COMMON_ADDRESS;
+
+    /**
+     * 进行中的 总召唤响应 (由过程映像按需构建, 按 Channel.isWritable() 分批写入, 可写后继续)
+     */
+    private final Queue<GeneralCallResponse> pendingGeneralCalls = new ArrayDeque<>();
+
     /**
      * 构造函数
      *
      * @param bizDataConsumer 业务数据消费者
      */
     public ServerDataHandler(Consumer<RemoteOperation> bizDataConsumer) {
+        this(bizDataConsumer, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param bizDataConsumer 业务数据消费者
+     * @param connectionMgr   连接管理
+     */
+    public ServerDataHandler(Consumer<RemoteOperation> bizDataConsumer, ConnectionManager connectionMgr) {
+        this(bizDataConsumer, connectionMgr, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param bizDataConsumer 业务数据消费者
+     * @param connectionMgr   连接管理
+     * @param pointImageMgr   过程映像
+     */
+    public ServerDataHandler(Consumer<RemoteOperation> bizDataConsumer, ConnectionManager connectionMgr, PointImageManager pointImageMgr) {
+        this(bizDataConsumer, connectionMgr, pointImageMgr, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param bizDataConsumer 业务数据消费者
+     * @param connectionMgr   连接管理
+     * @param pointImageMgr   过程映像
+     * @param dispatcher      业务分发 (为空时在 IO 线程直接调用业务)
+     */
+    public ServerDataHandler(Consumer<RemoteOperation> bizDataConsumer, ConnectionManager connectionMgr, PointImageManager pointImageMgr,
+                             OrderedDispatcher dispatcher) {
         this.bizDataConsumer = bizDataConsumer;
+        this.connectionMgr = connectionMgr;
+        this.pointImageMgr = pointImageMgr;
+        this.dispatcher = dispatcher;
     }
 
     @Override
@@ -64,7 +144,10 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) {
-        LOGGER.info("[服务端-建立连接]");
+        LOGGER.info("[服务端-建立连接] {}", ctx.channel().remoteAddress());
+        if (connectionMgr != null) {
+            connectionMgr.register(ctx.channel());
+        }
     }
 
     /**
@@ -72,19 +155,54 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
      */
     @Override
     public void channelInactive(ChannelHandlerContext ctx) {
-        LOGGER.info("[服务端-关闭连接]");
+        LOGGER.info("[服务端-关闭连接] {}", ctx.channel().remoteAddress());
+        pendingGeneralCalls.clear();
         //通知服务端业：连接关闭
         RemoteOperation remoteOperate = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.CLOSE, null);
-        bizDataConsumer.accept(remoteOperate);
+        dispatch(lastCommonAddress, remoteOperate, null);
+        dispatchLanes.values().forEach(DispatchLane::close);
+        dispatchLanes.clear();
+    }
+
+
+    /**
+     * 通知业务: 未配置业务分发时直接调用, 否则按公共地址写入分发通道 (同一公共地址按顺序处理)
+     *
+     * @param commonAddress   公共地址
+     * @param remoteOperation 远程操控
+     * @param afterAccept     业务处理完毕后的回调 (可为空)
+     */
+    private void dispatch(short commonAddress, RemoteOperation remoteOperation, Runnable afterAccept) {
+        if (dispatcher == null) {
+            bizDataConsumer.accept(remoteOperation);
+            if (afterAccept != null) {
+                afterAccept.run();
+            }
+            return;
+        }
+        lastCommonAddress = commonAddress;
+        dispatchLanes.computeIfAbsent(commonAddress, address -> dispatcher.newLane(bizDataConsumer)).offer(remoteOperation, afterAccept);
+    }
+
+    /**
+     * 可写状态变化: 恢复可写后 继续发送总召唤响应
+     */
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            writePendingGeneralCallMessages(ctx);
+        }
+        super.channelWritabilityChanged(ctx);
     }
 
     /**
-     * 服务端-收到消息
+     * 服务端-收到消息 (只读视图按需构建 Message)
      */
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, Message message) {
+    protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+        Message message = msg instanceof MessageView ? ((MessageView) msg).toMessage() : (Message) msg;
 
-        LOGGER.debug("[服务端-收到消息-处理开始] **********  Message : {}", JsonUtil.toJsonString(message));
+        LOGGER.debug("[服务端-收到消息-处理开始] **********  Message : {}", JsonUtil.lazyJson(message));
 
         FrameTypeEnum frameTypeEnum = message.getFrameType();
         switch (frameTypeEnum) {
@@ -113,12 +231,23 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
     private void handleIFrameMessage(ChannelHandlerContext ctx, Message message) {
         TypeIdentifierEnum typeIdentifierEnum = message.getAsdu().getTypeIdentifier();
 
+        // 连接绑定 主站访问的公共地址
+        if (connectionMgr != null) {
+            connectionMgr.bindCommonAddress(ctx.channel(), message.getAsdu().getCommonAddress());
+        }
+
         // 总召唤
         if (TypeIdentifierEnum.GENERAL_CALL == typeIdentifierEnum) {
             handleIFrameGeneralCallMessage(ctx, message);
             return;
         }
 
+        // 读命令
+        if (TypeIdentifierEnum.READ == typeIdentifierEnum) {
+            handleIFrameReadMessage(ctx, message);
+            return;
+        }
+
         // 时钟同步
         if (TypeIdentifierEnum.TIME_SYNCHRONIZATION == typeIdentifierEnum) {
             handleIFrameTimeSyncMessage(ctx, message);
@@ -145,7 +274,21 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
 
         MessageASDU asdu = message.getAsdu();
         TypeIdentifierEnum typeIdentifierEnum = asdu.getTypeIdentifier();
-        QualifiersEnum qualifiersEnum = asdu.getMessageInfoList().get(0).getQualifier();
+        MessageInfo messageInfo = asdu.getMessageInfoList().get(0);
+        QualifiersEnum qualifiersEnum = messageInfo.getQualifier();
+
+        // 总召唤-命令 (过程映像: 站召唤 及 分组召唤)
+        if (pointImageMgr != null && TypeIdentifierEnum.GENERAL_CALL == typeIdentifierEnum && ACT.getCode() == asdu.getTransferReason()) {
+            int qoi = qualifiersEnum != null ? qualifiersEnum.getValue() : messageInfo.getQualifierValue() == null ? 0 : messageInfo.getQualifierValue();
+            int group = qoi - QualifiersEnum.GENERAL_CALL_QUALIFIER.getValue();
+            if (group >= 0 && group <= PointImageManager.MAX_GROUP) {
+                LOGGER.info("[服务端-收到I帧消息-总召唤] 总召唤-命令 QOI = {}, 开始自动回复 总召唤-确认, 由过程映像响应", qoi);
+                ctx.write(MessageFactory.buildServerGeneralCallMessage(ACTCON.getCode(), asdu.getCommonAddress(), (byte) qoi));
+                pendingGeneralCalls.add(new GeneralCallResponse(asdu.getCommonAddress(), group, (byte) qoi));
+                writePendingGeneralCallMessages(ctx);
+                return;
+            }
+        }
 
         // 总召唤-命令
         if (TypeIdentifierEnum.GENERAL_CALL == typeIdentifierEnum && ACT.getCode() == asdu.getTransferReason() && QualifiersEnum.GENERAL_CALL_QUALIFIER == qualifiersEnum) {
@@ -158,7 +301,7 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
             // 2 总召唤-遥测
             // 3 总召唤-结束
             RemoteOperation remoteOperation = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.GENERAL_CALL, message);
-            bizDataConsumer.accept(remoteOperation);
+            dispatch(asdu.getCommonAddress(), remoteOperation, null);
             return;
         }
 
@@ -166,6 +309,58 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
     }
 
 
+    /**
+     * 发送进行中的总召唤响应: 写到 Channel 不可写 (发送窗口已满 或 写缓冲区超过高水位线) 为止, 剩余的在恢复可写后继续
+     *
+     * @param ctx ctx
+     */
+    private void writePendingGeneralCallMessages(ChannelHandlerContext ctx) {
+        GeneralCallResponse response = pendingGeneralCalls.peek();
+        if (response == null) {
+            return;
+        }
+        do {
+            Message message = response.next();
+            if (message == null) {
+                LOGGER.info("[服务端-收到I帧消息-总召唤] {} 过程映像响应完毕, 信息对象数 = {}", ctx.channel().remoteAddress(), response.pointCount);
+                pendingGeneralCalls.poll();
+                response = pendingGeneralCalls.peek();
+                continue;
+            }
+            ctx.write(message);
+        } while (response != null && ctx.channel().isWritable());
+        ctx.flush();
+    }
+
+
+    /**
+     * 处理 I帧消息 读命令 (由过程映像响应)
+     *
+     * @param ctx     ctx
+     * @param message message
+     */
+    private void handleIFrameReadMessage(ChannelHandlerContext ctx, Message message) {
+
+        MessageASDU asdu = message.getAsdu();
+
+        // 读命令
+        if (pointImageMgr != null && REQ.getCode() == asdu.getTransferReason()) {
+            int infoAddress = asdu.getMessageInfoList().get(0).getInfoAddress();
+            TelemetryBatch batch = new TelemetryBatch(1);
+            if (pointImageMgr.read(asdu.getCommonAddress(), infoAddress, batch)) {
+                LOGGER.info("[服务端-收到I帧消息-读命令] 信息对象地址 = {}, 由过程映像回复", infoAddress);
+                ctx.writeAndFlush(MessageFactory.buildServerPointMessages(batch).get(0));
+            } else {
+                LOGGER.info("[服务端-收到I帧消息-读命令] 信息对象地址 = {} 不存在, 回复 未知的信息对象地址", infoAddress);
+                ctx.writeAndFlush(MessageFactory.buildServerReadNegativeReplyMessage(message));
+            }
+            return;
+        }
+
+        LOGGER.warn("[服务端-收到I帧消息-读命令] 不支持处理的消息");
+    }
+
+
     /**
      * 处理 I帧消息 时钟同步
      *
@@ -229,13 +424,13 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
             Message newMessage = MessageFactory.buildServerRemoteControlExecuteReplyMessage(message);
             ctx.writeAndFlush(newMessage);
 
-            // 通知服务端业：遥控
+            // 通知服务端业：遥控 (业务处理完毕后 回复遥控执行-结束)
             RemoteOperation remoteOperation = RemoteOperationFactory.buildRemoteOperationByMessage(RemoteOperateTypeEnum.REMOTE_CONTROL, message);
-            bizDataConsumer.accept(remoteOperation);
-
-            LOGGER.info("[服务端-收到I帧消息-遥控数据] 遥控执行-命令, 业务处理完毕, 自动回复 遥控执行-结束");
             Message newMessage2 = MessageFactory.buildServerRemoteControlExecuteEndMessage(message);
-            ctx.writeAndFlush(newMessage2);
+            dispatch(asdu.getCommonAddress(), remoteOperation, () -> {
+                LOGGER.info("[服务端-收到I帧消息-遥控数据] 遥控执行-命令, 业务处理完毕, 自动回复 遥控执行-结束");
+                ctx.writeAndFlush(newMessage2);
+            });
             return;
         }
 
@@ -294,4 +489,80 @@ public class ServerDataHandler extends SimpleChannelInboundHandler<Message> {
         // CommonDataHandler 统一处理
     }
 
+    /**
+     * 由过程映像响应的 总召唤 (公共地址为广播地址时 依次响应每个公共地址)
+     * <pre>
+     * 1. 每次只对一个公共地址做快照, 每次只将一段类型标识符相同的信息对象打包为消息, 不预先构建全部响应
+     * 2. 所有公共地址发送完毕后 返回 总召唤-结束
+     */
+    private final class GeneralCallResponse {
+
+        private final short commonAddress;
+
+        private final short[] commonAddresses;
+
+        /**
+         * 召唤组 (0 为站召唤)
+         */
+        private final int group;
+
+        private final byte qoi;
+
+        /**
+         * 当前公共地址的快照
+         */
+        private final TelemetryBatch batch = new TelemetryBatch();
+
+        /**
+         * 当前公共地址的快照中 下一段的起始行
+         */
+        private int row;
+
+        /**
+         * 下一个公共地址的下标
+         */
+        private int addressIndex;
+
+        /**
+         * 已打包 待发送的消息
+         */
+        private final Queue<Message> messages = new ArrayDeque<>();
+
+        private boolean terminated;
+
+        private int pointCount;
+
+        private GeneralCallResponse(short commonAddress, int group, byte qoi) {
+            this.commonAddress = commonAddress;
+            this.commonAddresses = commonAddress == Constants.BROADCAST_COMMON_ADDRESS ? pointImageMgr.getCommonAddresses() : new short[]{commonAddress};
+            this.group = group;
+            this.qoi = qoi;
+        }
+
+        /**
+         * 下一条待发送的消息
+         *
+         * @return 消息, 总召唤-结束 已返回时为 null
+         */
+        private Message next() {
+            for (; ; ) {
+                Message message = messages.poll();
+                if (message != null) {
+                    return message;
+                }
+                if (row < batch.getSize()) {
+                    row = MessageFactory.buildServerPointMessages(batch, row, messages);
+                } else if (addressIndex < commonAddresses.length) {
+                    pointCount += pointImageMgr.snapshot(commonAddresses[addressIndex++], group, batch);
+                    row = 0;
+                } else if (!terminated) {
+                    terminated = true;
+                    return MessageFactory.buildServerGeneralCallMessage(ACTTERM.getCode(), commonAddress, qoi);
+                } else {
+                    return null;
+                }
+            }
+        }
+    }
+
 }
@@ -0,0 +1,289 @@
+package com.baoyubo.iec104.journal;
+
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 事件日志 (只追加, 分段文件 + 内存映射)
+ * <pre>
+ * 1. 记录已编码的 ASDU 字节报文、日志序列号 (从1开始, 重启后继续递增)、时间戳, 主站断线或进程重启后可按序列号重放
+ * 2. 分段文件固定大小, 写满后切换到下一个分段; 超过保留时间的分段回收复用 (不重新创建文件、不重新建立映射)
+ * 3. 重放: 按序列号定位分段及记录位置, ASDU 直接引用内存映射, 不做复制
+ *
+ * 注意: 写入依赖操作系统回写内存映射, 进程崩溃不丢数据; 需要防止掉电丢失时调用 flush()
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 19:30
+ */
+public class EventJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventJournal.class);
+
+    /**
+     * 最多保留的待复用分段数量
+     */
+    private static final int MAX_RECYCLED_SEGMENTS = 2;
+
+    /**
+     * 目录
+     */
+    private final File dir;
+
+    /**
+     * 分段文件大小 (单位字节)
+     */
+    private final int segmentSize;
+
+    /**
+     * 保留时间 (单位毫秒)
+     */
+    private final long retentionMillis;
+
+    /**
+     * 第一条记录的日志序列号 -> 分段
+     */
+    private final TreeMap<Long, JournalSegment> segments = new TreeMap<>();
+
+    /**
+     * 待复用的分段
+     */
+    private final Deque<JournalSegment> recycledSegments = new ArrayDeque<>();
+
+    /**
+     * 当前写入的分段
+     */
+    private JournalSegment current;
+
+    /**
+     * 下一条记录的日志序列号
+     */
+    private long nextSequence;
+
+
+    /**
+     * 构造函数 (打开目录中已有的分段文件, 继续追加)
+     *
+     * @param dir             目录
+     * @param segmentSize     分段文件大小 (单位字节)
+     * @param retentionMillis 保留时间 (单位毫秒)
+     */
+    public EventJournal(File dir, int segmentSize, long retentionMillis) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.retentionMillis = retentionMillis;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new RuntimeException("打开事件日志失败: " + dir, e);
+        }
+    }
+
+
+    private void open() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("创建目录失败: " + dir);
+        }
+        File[] files = dir.listFiles();
+        if (files == null) {
+            throw new IOException("读取目录失败: " + dir);
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.getName().endsWith(JournalSegment.SUFFIX)) {
+                JournalSegment segment = JournalSegment.open(file, segmentSize);
+                segments.put(segment.getBaseSequence(), segment);
+            } else if (file.getName().endsWith(JournalSegment.RECYCLED_SUFFIX)) {
+                recycle(JournalSegment.openRecycled(file, segmentSize));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            current = JournalSegment.create(dir, 1, segmentSize);
+            segments.put(current.getBaseSequence(), current);
+        } else {
+            current = segments.lastEntry().getValue();
+        }
+        nextSequence = current.getBaseSequence() + current.getCount();
+        LOGGER.info("[事件日志] 打开 {}, 分段数量 = {}, 第一条序列号 = {}, 下一条序列号 = {}", dir, segments.size(), getFirstSequence(), nextSequence);
+    }
+
+
+    /**
+     * 追加一条记录
+     *
+     * @param asdu      已编码的 ASDU 字节报文 (不移动读指针)
+     * @param timestamp 时间戳 (毫秒)
+     * @return 日志序列号
+     */
+    public synchronized long append(ByteBuf asdu, long timestamp) {
+        if (asdu.readableBytes() + JournalSegment.RECORD_HEADER_LEN > segmentSize) {
+            throw new RuntimeException("记录长度超过分段文件大小: " + asdu.readableBytes());
+        }
+        long sequence = nextSequence;
+        if (!current.append(sequence, timestamp, asdu)) {
+            roll();
+            current.append(sequence, timestamp, asdu);
+        }
+        nextSequence++;
+        return sequence;
+    }
+
+
+    /**
+     * 切换到下一个分段 (优先复用已回收的分段), 同时清理过期分段
+     */
+    private void roll() {
+        try {
+            expire(System.currentTimeMillis());
+            JournalSegment segment = recycledSegments.poll();
+            if (segment == null) {
+                segment = JournalSegment.create(dir, nextSequence, segmentSize);
+            } else {
+                segment.reuse(dir, nextSequence);
+            }
+            current = segment;
+            segments.put(nextSequence, segment);
+        } catch (IOException e) {
+            throw new RuntimeException("切换事件日志分段失败: " + dir, e);
+        }
+    }
+
+
+    /**
+     * 清理过期分段 (当前写入的分段不清理)
+     *
+     * @param now 当前时间 (毫秒)
+     * @return 清理的分段数量
+     * @throws IOException IOException
+     */
+    private int expire(long now) throws IOException {
+        int expired = 0;
+        while (segments.size() > 1) {
+            Map.Entry<Long, JournalSegment> first = segments.firstEntry();
+            JournalSegment segment = first.getValue();
+            if (segment == current || now - segment.getLastTimestamp() <= retentionMillis) {
+                break;
+            }
+            segments.remove(first.getKey());
+            segment.recycle();
+            recycle(segment);
+            expired++;
+        }
+        if (expired > 0) {
+            LOGGER.info("[事件日志] 清理过期分段数量 = {}, 第一条序列号 = {}", expired, getFirstSequence());
+        }
+        return expired;
+    }
+
+
+    private void recycle(JournalSegment segment) throws IOException {
+        if (recycledSegments.size() < MAX_RECYCLED_SEGMENTS) {
+            recycledSegments.add(segment);
+        } else {
+            segment.delete();
+        }
+    }
+
+
+    /**
+     * 清理过期分段
+     *
+     * @return 清理的分段数量
+     */
+    public synchronized int expire() {
+        try {
+            return expire(System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new RuntimeException("清理事件日志失败: " + dir, e);
+        }
+    }
+
+
+    /**
+     * 从指定序列号开始重放
+     *
+     * @param fromSequence 起始日志序列号 (小于第一条序列号时 从第一条开始)
+     * @param consumer     记录消费者 (ASDU 直接引用内存映射, 只在回调内有效)
+     * @return 重放的记录数量
+     */
+    public synchronized int replay(long fromSequence, RecordConsumer consumer) {
+        Long firstKey = segments.floorKey(fromSequence);
+        Map<Long, JournalSegment> tail = firstKey == null ? segments : segments.tailMap(firstKey, true);
+        int replayed = 0;
+        for (JournalSegment segment : tail.values()) {
+            int index = (int) Math.max(fromSequence - segment.getBaseSequence(), 0);
+            for (int i = index; i < segment.getCount(); i++) {
+                segment.read(i, consumer);
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+
+    /**
+     * 第一条记录的日志序列号 (没有记录时等于 nextSequence)
+     */
+    public synchronized long getFirstSequence() {
+        for (JournalSegment segment : segments.values()) {
+            if (segment.getCount() > 0) {
+                return segment.getBaseSequence();
+            }
+        }
+        return nextSequence;
+    }
+
+
+    /**
+     * 下一条记录的日志序列号
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+
+    /**
+     * 将内存映射中的修改刷新到磁盘
+     */
+    public synchronized void flush() {
+        current.force();
+    }
+
+
+    /**
+     * 关闭 (刷新到磁盘)
+     */
+    public synchronized void close() {
+        for (JournalSegment segment : segments.values()) {
+            segment.force();
+        }
+        LOGGER.info("[事件日志] 关闭 {}, 下一条序列号 = {}", dir, nextSequence);
+    }
+
+
+    /**
+     * 记录消费者
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+
+        /**
+         * 消费一条记录
+         *
+         * @param sequence  日志序列号
+         * @param timestamp 时间戳 (毫秒)
+         * @param asdu      ASDU字节报文 (直接引用内存映射, 只在回调内有效)
+         */
+        void accept(long sequence, long timestamp, ByteBuf asdu);
+    }
+
+}
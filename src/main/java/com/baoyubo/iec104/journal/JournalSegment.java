@@ -0,0 +1,286 @@
+package com.baoyubo.iec104.journal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * 事件日志 分段文件 (固定大小, 整个文件映射到内存)
+ * <pre>
+ * 记录格式: 数据长度(4字节) + 日志序列号(8字节) + 时间戳(8字节) + ASDU字节报文
+ * 1. 写入时先写 序列号、时间戳、数据, 最后写 数据长度 (数据长度即提交标记)
+ * 2. 打开已有文件时顺序扫描, 数据长度非法或序列号不连续即为结尾 (回收复用的文件中残留的旧记录序列号更小, 不会被误读)
+ * 3. 回收复用: 保留文件及内存映射, 只重命名文件并重置写入位置, 避免重新创建文件、建立映射
+ *
+ * 注意: 非线程安全, 由 EventJournal 加锁访问
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 19:30
+ */
+final class JournalSegment {
+
+    /**
+     * 文件后缀
+     */
+    static final String SUFFIX = ".journal";
+
+    /**
+     * 回收待复用的文件后缀
+     */
+    static final String RECYCLED_SUFFIX = ".recycled";
+
+    /**
+     * 记录头部长度: 数据长度(4字节) + 日志序列号(8字节) + 时间戳(8字节)
+     */
+    static final int RECORD_HEADER_LEN = 4 + 8 + 8;
+
+    /**
+     * 内存映射 (关闭文件后映射依然有效)
+     */
+    private final MappedByteBuffer buffer;
+
+    private File file;
+
+    /**
+     * 第一条记录的日志序列号
+     */
+    private long baseSequence;
+
+    /**
+     * 每条记录的起始位置 (按日志序列号顺序)
+     */
+    private int[] offsets = new int[1024];
+
+    /**
+     * 记录数量
+     */
+    private int count;
+
+    /**
+     * 写入位置
+     */
+    private int writePosition;
+
+    /**
+     * 最后一条记录的时间戳
+     */
+    private long lastTimestamp;
+
+
+    private JournalSegment(File file, int size) throws IOException {
+        this.file = file;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(size);
+            this.buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+
+    /**
+     * 创建新的分段文件
+     *
+     * @param dir          目录
+     * @param baseSequence 第一条记录的日志序列号
+     * @param size         文件大小
+     * @return 分段文件
+     * @throws IOException IOException
+     */
+    static JournalSegment create(File dir, long baseSequence, int size) throws IOException {
+        JournalSegment segment = new JournalSegment(new File(dir, fileName(baseSequence)), size);
+        segment.reset(baseSequence);
+        return segment;
+    }
+
+
+    /**
+     * 打开已有的分段文件, 顺序扫描恢复记录索引
+     *
+     * @param file 文件
+     * @param size 文件大小
+     * @return 分段文件
+     * @throws IOException IOException
+     */
+    static JournalSegment open(File file, int size) throws IOException {
+        String fileName = file.getName();
+        JournalSegment segment = new JournalSegment(file, size);
+        segment.baseSequence = Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+        segment.recover();
+        return segment;
+    }
+
+
+    /**
+     * 打开待复用的分段文件 (不读取记录, 复用时重置)
+     *
+     * @param file 文件
+     * @param size 文件大小
+     * @return 分段文件
+     * @throws IOException IOException
+     */
+    static JournalSegment openRecycled(File file, int size) throws IOException {
+        return new JournalSegment(file, size);
+    }
+
+
+    static String fileName(long baseSequence) {
+        return String.format("%020d", baseSequence) + SUFFIX;
+    }
+
+
+    private void recover() {
+        int position = 0;
+        while (position + RECORD_HEADER_LEN <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_LEN + length > buffer.capacity()
+                    || buffer.getLong(position + 4) != baseSequence + count) {
+                break;
+            }
+            addOffset(position);
+            lastTimestamp = buffer.getLong(position + 12);
+            position += RECORD_HEADER_LEN + length;
+        }
+        writePosition = position;
+    }
+
+
+    /**
+     * 重置为空文件 (新建或回收复用)
+     */
+    private void reset(long baseSequence) {
+        this.baseSequence = baseSequence;
+        this.count = 0;
+        this.writePosition = 0;
+        this.lastTimestamp = 0;
+        writeEndMark();
+    }
+
+
+    /**
+     * 回收复用: 重命名文件并重置为空文件
+     *
+     * @param dir          目录
+     * @param baseSequence 第一条记录的日志序列号
+     * @throws IOException IOException
+     */
+    void reuse(File dir, long baseSequence) throws IOException {
+        file = rename(new File(dir, fileName(baseSequence)));
+        reset(baseSequence);
+    }
+
+
+    /**
+     * 回收: 重命名为待复用文件 (重启后不会被当作有效记录读取)
+     *
+     * @throws IOException IOException
+     */
+    void recycle() throws IOException {
+        file = rename(new File(file.getParentFile(), file.getName() + RECYCLED_SUFFIX));
+    }
+
+
+    private File rename(File target) throws IOException {
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+
+    /**
+     * 追加一条记录
+     *
+     * @param sequence  日志序列号 (必须为 baseSequence + count)
+     * @param timestamp 时间戳
+     * @param asdu      ASDU字节报文 (不移动读指针)
+     * @return 剩余空间不足时返回 false
+     */
+    boolean append(long sequence, long timestamp, ByteBuf asdu) {
+        int length = asdu.readableBytes();
+        if (writePosition + RECORD_HEADER_LEN + length > buffer.capacity()) {
+            return false;
+        }
+        int position = writePosition;
+        buffer.putLong(position + 4, sequence);
+        buffer.putLong(position + 12, timestamp);
+        ByteBuffer target = buffer.duplicate();
+        target.position(position + RECORD_HEADER_LEN);
+        target.limit(position + RECORD_HEADER_LEN + length);
+        asdu.getBytes(asdu.readerIndex(), target);
+
+        writePosition = position + RECORD_HEADER_LEN + length;
+        writeEndMark();
+        buffer.putInt(position, length);
+
+        addOffset(position);
+        lastTimestamp = timestamp;
+        return true;
+    }
+
+
+    /**
+     * 结尾标记: 下一条记录的数据长度置0
+     */
+    private void writeEndMark() {
+        if (writePosition + 4 <= buffer.capacity()) {
+            buffer.putInt(writePosition, 0);
+        }
+    }
+
+
+    private void addOffset(int position) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count << 1);
+        }
+        offsets[count++] = position;
+    }
+
+
+    /**
+     * 读取一条记录
+     *
+     * @param index    记录下标 (日志序列号 - baseSequence)
+     * @param consumer 记录消费者 (ASDU 直接引用内存映射, 只在回调内有效)
+     */
+    void read(int index, EventJournal.RecordConsumer consumer) {
+        int position = offsets[index];
+        int length = buffer.getInt(position);
+        ByteBuffer source = buffer.duplicate();
+        source.position(position + RECORD_HEADER_LEN);
+        source.limit(position + RECORD_HEADER_LEN + length);
+        consumer.accept(buffer.getLong(position + 4), buffer.getLong(position + 12), Unpooled.wrappedBuffer(source));
+    }
+
+
+    /**
+     * 将内存映射中的修改刷新到磁盘
+     */
+    void force() {
+        buffer.force();
+    }
+
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+
+    long getBaseSequence() {
+        return baseSequence;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+}
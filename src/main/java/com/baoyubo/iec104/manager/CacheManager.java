@@ -2,14 +2,11 @@ package com.baoyubo.iec104.manager;
 
 import com.baoyubo.iec104.constant.Constants;
 import com.baoyubo.iec104.model.Message;
-import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * 消息缓存管理
@@ -21,15 +18,20 @@ import java.util.stream.Collectors;
  * 4. 最大值 远远大于 队列容量
  * 5. 收到的阈值序列号 范围一定是：大于等于队列头部值，小于等于对垒尾部值+1  (当前队列中所有元素值 和 队列尾部值+1)
  *
+ * 实现: 固定容量的环形数组 + 头部下标/元素个数
+ * 1. 队列中序列号连续, 序列号n 相对头部的偏移量 = (n - 头部序列号) mod (最大值 - 最小值 + 1), 直接算出数组下标
+ * 2. 序列号回绕 (最大值 -> 最小值) 由取模运算处理, 不需要特殊分支
+ * 3. removeLess 为 O(k), 按序列号查找为 O(1), 均不产生临时对象
+ *
  * @author yubo.bao
  * @date 2023/7/11 18:31
  */
 public class CacheManager {
 
     /**
-     * 有序链表 (队列)
+     * 环形数组 (队列)
      */
-    private final LinkedList<Message> cacheQueue;
+    private final Message[] ring;
 
     /**
      * 缓存大小
@@ -37,36 +39,50 @@ public class CacheManager {
     private final int cacheCapacity;
 
     /**
-     * 最大值（如果超过最大值，则自动重新从最小值重新开始）
+     * 最消值
      */
-    private final short maxValueNum;
+    private final short minValueNum;
 
     /**
-     * 最消值
+     * 序列号取值个数 (最大值 - 最小值 + 1)
      */
-    private final short minValueNum;
+    private final int sequenceRange;
+
+    /**
+     * 队列头部 数组下标
+     */
+    private int head;
+
+    /**
+     * 队列元素个数
+     */
+    private int size;
+
+    /**
+     * 队列头部 序列号
+     */
+    private short headSequenceNum;
 
 
     /**
      * 默认构造函数（默认缓存大小为256）
      */
     public CacheManager() {
-        this.cacheQueue = new LinkedList<>();
-        this.cacheCapacity = Constants.CACHE_CAPACITY;
-        this.maxValueNum = Constants.SEQUENCE_NUM_MAX;
-        this.minValueNum = Constants.SEQUENCE_NUM_MIN;
+        this(Constants.CACHE_CAPACITY, (short) Constants.SEQUENCE_NUM_MAX, (short) Constants.SEQUENCE_NUM_MIN);
     }
 
     /**
      * 构造函数
      *
      * @param cacheCapacity 缓存大小
+     * @param maxValueNum   最大值（如果超过最大值，则自动重新从最小值重新开始）
+     * @param minValueNum   最小值
      */
     public CacheManager(int cacheCapacity, short maxValueNum, short minValueNum) {
-        this.cacheQueue = new LinkedList<>();
+        this.ring = new Message[cacheCapacity];
         this.cacheCapacity = cacheCapacity;
-        this.maxValueNum = maxValueNum;
         this.minValueNum = minValueNum;
+        this.sequenceRange = maxValueNum - minValueNum + 1;
     }
 
     /**
@@ -75,61 +91,57 @@ public class CacheManager {
      * @return List
      */
     public List<Short> getAllSendSequenceNum() {
-        return cacheQueue.stream().map(i -> i.getControl().getSendSequenceNum()).collect(Collectors.toList());
+        List<Short> res = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            res.add(sequenceNumAt(i));
+        }
+        return res;
+    }
+
+    /**
+     * 缓存消息个数
+     */
+    public int size() {
+        return size;
     }
 
     /**
      * 清空缓存
      */
     public void clearAll() {
-        cacheQueue.clear();
+        removeFirst(size);
     }
 
 
     /**
-     * 添加缓存
+     * 添加缓存 (序列号需要与队列尾部连续, 否则先清空缓存)
      */
     public void add(Message message) {
-        cacheQueue.addLast(message);
-        if (cacheQueue.size() > this.cacheCapacity) {
-            cacheQueue.removeFirst();
+        short sendSequenceNum = message.getControl().getSendSequenceNum();
+        if (size > 0 && sendSequenceNum != sequenceNumAt(size)) {
+            clearAll();
+        }
+        if (size == 0) {
+            headSequenceNum = sendSequenceNum;
+        }
+        if (size == cacheCapacity) {
+            removeFirst(1);
         }
+        ring[index(size)] = message;
+        size++;
     }
 
     /**
      * 清除缓存中 小于n 的消息
      */
     public void removeLess(short n) {
-        if (CollectionUtils.isEmpty(cacheQueue)) {
-            return;
-        }
+        int offset = offsetOf(n);
 
-        // 大于尾部边界值特殊处理
+        // offset == size: n 为 队列尾部值+1, 全部清除
         // [32764, 32765, 32766, 32767]   <-- 0
-        short lastSendSequenceNum = cacheQueue.getLast().getControl().getSendSequenceNum();
-        if (lastSendSequenceNum == this.maxValueNum && n == this.minValueNum) {
-            cacheQueue.clear();
-            return;
-        }
-        // [32765, 32766, 32767, 0, 1]   <-- 2
-        if (lastSendSequenceNum < this.maxValueNum && n == lastSendSequenceNum + 1) {
-            cacheQueue.clear();
-            return;
-        }
-
-        // 通用处理: 从后往前遍历，找到对应的元素后，前面的元素一定小于它
-        // [32765, 32766, 32767, 0, 1]   <-- 0
-        boolean find = false;
-        Iterator<Message> iterator = cacheQueue.descendingIterator();
-        while (iterator.hasNext()) {
-            Message message = iterator.next();
-            if (n == message.getControl().getSendSequenceNum()) {
-                find = true;
-                continue;
-            }
-            if (find) {
-                iterator.remove();
-            }
+        // offset > size: n 不在队列范围内, 不做处理
+        if (offset <= size) {
+            removeFirst(offset);
         }
     }
 
@@ -138,34 +150,101 @@ public class CacheManager {
      * 获取除缓存中 大于等于n 的消息
      */
     public List<Message> getGreaterEqual(short n) {
-
-        if (CollectionUtils.isEmpty(cacheQueue)) {
+        int offset = offsetOf(n);
+        if (offset >= size) {
             return Collections.emptyList();
         }
+        List<Message> res = new ArrayList<>(size - offset);
+        forEachGreaterEqual(n, res::add);
+        return res;
+    }
 
-        // 大于尾部边界值特殊处理
-        // [32764, 32765, 32766, 32767]   <-- 0
-        short lastSendSequenceNum = cacheQueue.getLast().getControl().getSendSequenceNum();
-        if (lastSendSequenceNum == this.maxValueNum && n == this.minValueNum) {
-            return Collections.emptyList();
+
+    /**
+     * 获取缓存中所有消息 (按序列号顺序)
+     */
+    public List<Message> getAll() {
+        List<Message> res = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            res.add(ring[index(i)]);
         }
-        // [32765, 32766, 32767, 0, 1]   <-- 2
-        if (lastSendSequenceNum < this.maxValueNum && n == lastSendSequenceNum + 1) {
-            return Collections.emptyList();
+        return res;
+    }
+
+
+    /**
+     * 遍历缓存中 大于等于n 的消息 (按序列号顺序, 不产生临时集合)
+     *
+     * @param n        序列号
+     * @param consumer consumer
+     * @return 遍历的消息个数
+     */
+    public int forEachGreaterEqual(short n, Consumer<Message> consumer) {
+        int offset = offsetOf(n);
+        if (offset >= size) {
+            return 0;
+        }
+        for (int i = offset; i < size; i++) {
+            consumer.accept(ring[index(i)]);
         }
+        return size - offset;
+    }
+
 
-        // 通用处理: 从前往后历，找到对应的元素后，后面的元素一定大于它
-        // [32765, 32766, 32767, 0, 1]   <-- 0
-        List<Message> res = new ArrayList<>();
-        boolean find = false;
-        for (Message message : cacheQueue) {
-            if (n == message.getControl().getSendSequenceNum()) {
-                find = true;
-            }
-            if (find) {
-                res.add(message);
-            }
+    /**
+     * 根据 发送序列号 获取缓存消息
+     *
+     * @param n 序列号
+     * @return 缓存消息, 不存在时返回 null
+     */
+    public Message get(short n) {
+        int offset = offsetOf(n);
+        return offset < size ? ring[index(offset)] : null;
+    }
+
+
+    /**
+     * 序列号n 相对队列头部的偏移量 (队列为空时返回 Integer.MAX_VALUE)
+     */
+    private int offsetOf(short n) {
+        if (size == 0) {
+            return Integer.MAX_VALUE;
         }
-        return res;
+        return Math.floorMod(n - headSequenceNum, sequenceRange);
+    }
+
+
+    /**
+     * 队列中第 offset 个元素的序列号
+     */
+    private short sequenceNumAt(int offset) {
+        return (short) (minValueNum + Math.floorMod(headSequenceNum - minValueNum + offset, sequenceRange));
+    }
+
+
+    /**
+     * 队列中第 offset 个元素的数组下标
+     */
+    private int index(int offset) {
+        int i = head + offset;
+        return i >= cacheCapacity ? i - cacheCapacity : i;
+    }
+
+
+    /**
+     * 移除队列头部 count 个元素
+     */
+    private void removeFirst(int count) {
+        for (int i = 0; i < count; i++) {
+            ring[index(i)] = null;
+        }
+        if (count == size) {
+            head = 0;
+            size = 0;
+            return;
+        }
+        head = index(count);
+        size -= count;
+        headSequenceNum = sequenceNumAt(count);
     }
 }
@@ -0,0 +1,153 @@
+package com.baoyubo.iec104.manager;
+
+import io.netty.channel.Channel;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 连接管理 (服务端多连接)
+ * <pre>
+ * 1. 所有连接: 用于广播
+ * 2. 按 远程地址 (host:port) 索引: 用于向指定连接推送
+ * 3. 按 公共地址 分组: 用于向订阅同一公共地址的连接推送 (收到I帧时自动绑定, 也可手动绑定)
+ *
+ * 连接关闭后自动移除
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 11:20
+ */
+public class ConnectionManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionManager.class);
+
+    /**
+     * 名称
+     */
+    private final String name;
+
+    /**
+     * 所有连接
+     */
+    @Getter
+    private final ChannelGroup allChannels;
+
+    /**
+     * 远程地址 -> 连接
+     */
+    private final Map<String, Channel> channelsByRemoteAddress = new ConcurrentHashMap<>();
+
+    /**
+     * 公共地址 -> 连接分组
+     */
+    private final Map<Short, ChannelGroup> channelsByCommonAddress = new ConcurrentHashMap<>();
+
+
+    /**
+     * 构造函数
+     *
+     * @param name 名称
+     */
+    public ConnectionManager(String name) {
+        this.name = name;
+        this.allChannels = new DefaultChannelGroup(name, GlobalEventExecutor.INSTANCE);
+    }
+
+
+    /**
+     * 注册连接 (连接关闭后自动移除)
+     *
+     * @param channel channel
+     */
+    public void register(Channel channel) {
+        String remoteAddress = remoteAddress(channel.remoteAddress());
+        allChannels.add(channel);
+        channelsByRemoteAddress.put(remoteAddress, channel);
+        channel.closeFuture().addListener(future -> {
+            channelsByRemoteAddress.remove(remoteAddress, channel);
+            LOGGER.info("[{}-连接管理] 移除连接 {}, 当前连接数 = {}", name, remoteAddress, allChannels.size());
+        });
+        LOGGER.info("[{}-连接管理] 注册连接 {}, 当前连接数 = {}", name, remoteAddress, allChannels.size());
+    }
+
+
+    /**
+     * 绑定 公共地址 (ChannelGroup 会在连接关闭后自动移除)
+     *
+     * @param channel       channel
+     * @param commonAddress 公共地址
+     */
+    public void bindCommonAddress(Channel channel, short commonAddress) {
+        ChannelGroup group = channelsByCommonAddress.computeIfAbsent(commonAddress,
+                k -> new DefaultChannelGroup(name + "-" + k, GlobalEventExecutor.INSTANCE));
+        if (group.add(channel)) {
+            LOGGER.info("[{}-连接管理] 连接 {} 绑定公共地址 {}", name, remoteAddress(channel.remoteAddress()), commonAddress);
+        }
+    }
+
+
+    /**
+     * 根据 远程地址 获取连接
+     *
+     * @param remoteAddress 远程地址 (host:port)
+     * @return 连接, 不存在时返回 null
+     */
+    public Channel getChannel(String remoteAddress) {
+        return channelsByRemoteAddress.get(remoteAddress);
+    }
+
+
+    /**
+     * 根据 公共地址 获取连接分组
+     *
+     * @param commonAddress 公共地址
+     * @return 连接分组, 不存在时返回 null
+     */
+    public ChannelGroup getGroup(short commonAddress) {
+        return channelsByCommonAddress.get(commonAddress);
+    }
+
+
+    /**
+     * 获取所有连接的 远程地址
+     *
+     * @return 远程地址列表
+     */
+    public List<String> getRemoteAddresses() {
+        return new ArrayList<>(channelsByRemoteAddress.keySet());
+    }
+
+
+    /**
+     * 当前连接数
+     */
+    public int size() {
+        return allChannels.size();
+    }
+
+
+    /**
+     * 远程地址 转换为 host:port
+     *
+     * @param socketAddress socketAddress
+     * @return host:port
+     */
+    public static String remoteAddress(SocketAddress socketAddress) {
+        if (socketAddress instanceof InetSocketAddress) {
+            InetSocketAddress inetSocketAddress = (InetSocketAddress) socketAddress;
+            return inetSocketAddress.getHostString() + ":" + inetSocketAddress.getPort();
+        }
+        return String.valueOf(socketAddress);
+    }
+
+}
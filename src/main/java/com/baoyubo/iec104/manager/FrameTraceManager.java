@@ -0,0 +1,154 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.util.ByteUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 报文跟踪管理 (每个连接一个)
+ * <pre>
+ * 1. 采样输出: 每 N 帧输出一帧原始报文日志 (采样率为0时不输出, 不会生成任何字符串)
+ * 2. 环形缓存: 保留最近 N 帧原始报文, 用于异常时导出排查 (预分配内存, 记录时只做字节复制)
+ *
+ * 注意: 记录操作只在 channel 所属的 EventLoop 线程执行
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 09:40
+ */
+public class FrameTraceManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FrameTraceManager.class);
+
+    /**
+     * 单帧报文最大长度 (启动字符 + APDU长度 + APDU)
+     */
+    private static final int FRAME_MAX_LEN = Constants.HEADER_FIELD_LEN + Constants.APDU_LENGTH_FIELD_LEN + Constants.APDU_MAX_LEN;
+
+    /**
+     * 名称
+     */
+    private final String name;
+
+    /**
+     * 采样率 (每 N 帧输出一帧, 0 表示不输出)
+     */
+    private final int sampleRate;
+
+    /**
+     * 采样计数
+     */
+    private long sampleCount;
+
+    /**
+     * 环形缓存: 报文内容
+     */
+    private final byte[][] frames;
+
+    /**
+     * 环形缓存: 报文长度
+     */
+    private final int[] frameLengths;
+
+    /**
+     * 环形缓存: 是否为发送报文
+     */
+    private final boolean[] outbounds;
+
+    /**
+     * 环形缓存: 记录时间 (毫秒时间戳)
+     */
+    private final long[] timestamps;
+
+    /**
+     * 已记录的报文总数 (下一个写入位置 = total % 容量)
+     */
+    private long total;
+
+
+    /**
+     * 构造函数
+     *
+     * @param name       名称
+     * @param sampleRate 采样率 (每 N 帧输出一帧, 0 表示不输出)
+     * @param ringSize   环形缓存大小 (0 表示不缓存)
+     */
+    public FrameTraceManager(String name, int sampleRate, int ringSize) {
+        this.name = name;
+        this.sampleRate = Math.max(sampleRate, 0);
+        int capacity = Math.max(ringSize, 0);
+        this.frames = new byte[capacity][FRAME_MAX_LEN];
+        this.frameLengths = new int[capacity];
+        this.outbounds = new boolean[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+
+    /**
+     * 记录一帧原始报文 (不移动读指针)
+     *
+     * @param frame    原始报文
+     * @param outbound 是否为发送报文
+     */
+    public void record(ByteBuf frame, boolean outbound) {
+        if (frames.length > 0) {
+            int index = (int) (total % frames.length);
+            int length = Math.min(frame.readableBytes(), FRAME_MAX_LEN);
+            frame.getBytes(frame.readerIndex(), frames[index], 0, length);
+            frameLengths[index] = length;
+            outbounds[index] = outbound;
+            timestamps[index] = System.currentTimeMillis();
+            total++;
+        }
+
+        if (sampleRate > 0 && ++sampleCount % sampleRate == 0 && LOGGER.isInfoEnabled()) {
+            LOGGER.info("[{}-报文跟踪] {} HexString : {}", name, direction(outbound), ByteUtil.toHexString(ByteBufUtil.getBytes(frame)));
+        }
+    }
+
+
+    /**
+     * 导出环形缓存中的报文 (按时间先后排序)
+     *
+     * @return 报文列表, 格式: 时间 方向 十六进制报文
+     */
+    public List<String> dump() {
+        int size = (int) Math.min(total, frames.length);
+        List<String> res = new ArrayList<>(size);
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        for (long i = total - size; i < total; i++) {
+            int index = (int) (i % frames.length);
+            res.add(format.format(new Date(timestamps[index])) + " " + direction(outbounds[index]) + " "
+                    + ByteUtil.toHexString(Arrays.copyOf(frames[index], frameLengths[index])));
+        }
+        return res;
+    }
+
+
+    /**
+     * 将环形缓存中的报文输出到日志 (用于异常排查)
+     *
+     * @param reason 原因
+     */
+    public void dumpToLog(String reason) {
+        if (frames.length == 0 || !LOGGER.isWarnEnabled()) {
+            return;
+        }
+        List<String> lines = dump();
+        LOGGER.warn("[{}-报文跟踪] {}, 最近 {} 帧报文:\n{}", name, reason, lines.size(), String.join("\n", lines));
+    }
+
+
+    private static String direction(boolean outbound) {
+        return outbound ? "发送 >>" : "接收 <<";
+    }
+
+}
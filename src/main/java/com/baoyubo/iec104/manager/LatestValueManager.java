@@ -0,0 +1,355 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.enums.CotEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.model.TelemetryBatch;
+
+import java.util.Arrays;
+
+/**
+ * 客户端 最新值表 (每个子站一个实例, 按信息对象地址保存 遥测/遥信 的最新值, 并按死区过滤未变化的数据)
+ * <pre>
+ * 1. 开放寻址哈希表 (线性探测), 键为信息对象地址, 值按列存放在基本类型数组中, 过滤时不产生对象
+ * 2. 变化判断 (与上次通知业务的值比较, 缓慢漂移会累积到超过死区):
+ *    遥测: |新值 - 上次值| > max(绝对死区, 百分比死区 * |上次值|)
+ *    其他 (遥信、步位置、比特串、累计量 等): 值不同即为变化
+ *    品质描述符变化: 按配置视为变化, 首次收到、类型标识符变化 均视为变化
+ * 3. 死区默认取客户端配置, 可按信息对象地址单独设置
+ * 4. 事件循环线程更新, 业务线程可随时读取完整快照 (所有方法加锁), 重连后保留
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 23:30
+ */
+public class LatestValueManager {
+
+    /**
+     * 空槽位 (信息对象地址只有24位, 不会出现负数)
+     */
+    private static final int EMPTY_KEY = -1;
+
+    /**
+     * 默认初始容量
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * 默认 绝对死区
+     */
+    private final double defaultAbsoluteDeadband;
+
+    /**
+     * 默认 百分比死区 (相对上次值, 单位%)
+     */
+    private final double defaultPercentDeadband;
+
+    /**
+     * 品质描述符变化 是否视为变化
+     */
+    private final boolean reportQualityChange;
+
+    /**
+     * 键 (信息对象地址)
+     */
+    private int[] keys;
+
+    /**
+     * 类型标识符TI 原始值 (0 表示只设置了死区, 尚未收到值)
+     */
+    private byte[] typeIdentifiers;
+
+    /**
+     * 最新值
+     */
+    private double[] values;
+
+    /**
+     * 最新品质描述符
+     */
+    private byte[] qualities;
+
+    /**
+     * 最新值的时间 (有时标取时标, 否则为接收时间, 毫秒时间戳)
+     */
+    private long[] timestamps;
+
+    /**
+     * 上次通知业务的值
+     */
+    private double[] reportedValues;
+
+    /**
+     * 上次通知业务的品质描述符
+     */
+    private byte[] reportedQualities;
+
+    /**
+     * 绝对死区 (NaN 表示使用默认值)
+     */
+    private double[] absoluteDeadbands;
+
+    /**
+     * 百分比死区 (NaN 表示使用默认值)
+     */
+    private double[] percentDeadbands;
+
+    /**
+     * 信息对象个数
+     */
+    private int size;
+
+    /**
+     * 扩容阈值 (负载因子 0.5)
+     */
+    private int threshold;
+
+
+    /**
+     * 构造函数
+     *
+     * @param absoluteDeadband    默认 绝对死区
+     * @param percentDeadband     默认 百分比死区 (单位%)
+     * @param reportQualityChange 品质描述符变化 是否视为变化
+     */
+    public LatestValueManager(double absoluteDeadband, double percentDeadband, boolean reportQualityChange) {
+        this.defaultAbsoluteDeadband = absoluteDeadband;
+        this.defaultPercentDeadband = percentDeadband;
+        this.reportQualityChange = reportQualityChange;
+        allocate(DEFAULT_CAPACITY * 2);
+    }
+
+
+    /**
+     * 单独设置信息对象的死区
+     *
+     * @param infoAddress      信息对象地址
+     * @param absoluteDeadband 绝对死区 (NaN 使用默认值)
+     * @param percentDeadband  百分比死区 (单位%, NaN 使用默认值)
+     */
+    public synchronized void setDeadband(int infoAddress, double absoluteDeadband, double percentDeadband) {
+        int slot = insert(infoAddress);
+        absoluteDeadbands[slot] = absoluteDeadband;
+        percentDeadbands[slot] = percentDeadband;
+    }
+
+
+    /**
+     * 更新最新值, 并在批次中只保留发生变化的信息数据 (原地压缩)
+     *
+     * @param batch         批次数据
+     * @param receiveMillis 接收时间 (无时标时作为最新值的时间)
+     * @return 发生变化的信息数据个数
+     */
+    public synchronized int filter(TelemetryBatch batch, long receiveMillis) {
+        int kept = 0;
+        for (int i = 0; i < batch.getSize(); i++) {
+            TypeIdentifierEnum typeIdentifier = batch.getTypeIdentifier(i);
+            double value = batch.getValue(i);
+            byte quality = batch.getQuality(i);
+
+            int slot = insert(batch.getInfoAddress(i));
+            boolean changed = typeIdentifiers[slot] != typeIdentifier.getValue() || isChanged(slot, typeIdentifier, value, quality);
+            typeIdentifiers[slot] = typeIdentifier.getValue();
+            values[slot] = value;
+            qualities[slot] = quality;
+            timestamps[slot] = batch.hasTimeScale(i) ? batch.getTimeScale(i) : receiveMillis;
+            if (!changed) {
+                continue;
+            }
+            reportedValues[slot] = value;
+            reportedQualities[slot] = quality;
+            if (kept != i) {
+                batch.moveRow(i, kept);
+            }
+            kept++;
+        }
+        batch.truncate(kept);
+        return kept;
+    }
+
+
+    /**
+     * 与上次通知业务的值比较 是否发生变化
+     */
+    private boolean isChanged(int slot, TypeIdentifierEnum typeIdentifier, double value, byte quality) {
+        if (reportQualityChange && quality != reportedQualities[slot]) {
+            return true;
+        }
+        double reported = reportedValues[slot];
+        if (!TypeIdentifierEnum.isTelemetry(typeIdentifier)) {
+            return value != reported;
+        }
+        double absolute = Double.isNaN(absoluteDeadbands[slot]) ? defaultAbsoluteDeadband : absoluteDeadbands[slot];
+        double percent = Double.isNaN(percentDeadbands[slot]) ? defaultPercentDeadband : percentDeadbands[slot];
+        return Math.abs(value - reported) > Math.max(absolute, percent / 100 * Math.abs(reported));
+    }
+
+
+    /**
+     * 完整快照: 所有信息对象的最新值, 按信息对象地址排序复制到批次 (批次先重置, 每行保留各自的类型标识符, 时标为最新值的时间)
+     *
+     * @param batch 批次
+     * @return 信息对象个数
+     */
+    public synchronized int snapshot(TelemetryBatch batch) {
+        batch.reset(null, CotEnum.NO_USE.getCode(), (short) 0);
+
+        // 排序键: 信息对象地址 << 32 | 槽位
+        long[] order = new long[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY_KEY && typeIdentifiers[slot] != 0) {
+                order[count++] = (long) keys[slot] << 32 | slot;
+            }
+        }
+        Arrays.sort(order, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            int slot = (int) order[i];
+            batch.add(TypeIdentifierEnum.ofValue(typeIdentifiers[slot]), keys[slot], values[slot], qualities[slot], timestamps[slot]);
+        }
+        return count;
+    }
+
+
+    /**
+     * 读取信息对象的最新值
+     *
+     * @param infoAddress 信息对象地址
+     * @return 最新值 (不存在时返回 NaN)
+     */
+    public synchronized double getValue(int infoAddress) {
+        int slot = find(infoAddress);
+        return slot < 0 || typeIdentifiers[slot] == 0 ? Double.NaN : values[slot];
+    }
+
+
+    /**
+     * 读取信息对象的最新品质描述符
+     *
+     * @param infoAddress 信息对象地址
+     * @return 品质描述符 (不存在时返回0)
+     */
+    public synchronized byte getQuality(int infoAddress) {
+        int slot = find(infoAddress);
+        return slot < 0 ? 0 : qualities[slot];
+    }
+
+
+    /**
+     * 读取信息对象最新值的时间
+     *
+     * @param infoAddress 信息对象地址
+     * @return 毫秒时间戳 (不存在时返回 TelemetryBatch.NO_TIME_SCALE)
+     */
+    public synchronized long getTimestamp(int infoAddress) {
+        int slot = find(infoAddress);
+        return slot < 0 || typeIdentifiers[slot] == 0 ? TelemetryBatch.NO_TIME_SCALE : timestamps[slot];
+    }
+
+
+    /**
+     * 信息对象个数 (包含只设置了死区的信息对象)
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+
+    private int indexOf(int key) {
+        return (key * 0x9E3779B9 >>> 16 ^ key) & (keys.length - 1);
+    }
+
+
+    /**
+     * 查找槽位
+     *
+     * @return 槽位 (不存在返回 -1)
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for (int slot = indexOf(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            if (keys[slot] == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+
+    /**
+     * 查找槽位, 不存在时插入
+     *
+     * @return 槽位
+     */
+    private int insert(int key) {
+        if (size >= threshold) {
+            rehash(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int slot = indexOf(key);
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        absoluteDeadbands[slot] = Double.NaN;
+        percentDeadbands[slot] = Double.NaN;
+        size++;
+        return slot;
+    }
+
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        Arrays.fill(keys, EMPTY_KEY);
+        typeIdentifiers = new byte[tableSize];
+        values = new double[tableSize];
+        qualities = new byte[tableSize];
+        timestamps = new long[tableSize];
+        reportedValues = new double[tableSize];
+        reportedQualities = new byte[tableSize];
+        absoluteDeadbands = new double[tableSize];
+        percentDeadbands = new double[tableSize];
+        threshold = tableSize >> 1;
+    }
+
+
+    private void rehash(int tableSize) {
+        int[] oldKeys = keys;
+        byte[] oldTypeIdentifiers = typeIdentifiers;
+        double[] oldValues = values;
+        byte[] oldQualities = qualities;
+        long[] oldTimestamps = timestamps;
+        double[] oldReportedValues = reportedValues;
+        byte[] oldReportedQualities = reportedQualities;
+        double[] oldAbsoluteDeadbands = absoluteDeadbands;
+        double[] oldPercentDeadbands = percentDeadbands;
+
+        allocate(tableSize);
+        int mask = tableSize - 1;
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            int key = oldKeys[oldSlot];
+            if (key == EMPTY_KEY) {
+                continue;
+            }
+            int slot = indexOf(key);
+            while (keys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            typeIdentifiers[slot] = oldTypeIdentifiers[oldSlot];
+            values[slot] = oldValues[oldSlot];
+            qualities[slot] = oldQualities[oldSlot];
+            timestamps[slot] = oldTimestamps[oldSlot];
+            reportedValues[slot] = oldReportedValues[oldSlot];
+            reportedQualities[slot] = oldReportedQualities[oldSlot];
+            absoluteDeadbands[slot] = oldAbsoluteDeadbands[oldSlot];
+            percentDeadbands[slot] = oldPercentDeadbands[oldSlot];
+        }
+    }
+
+}
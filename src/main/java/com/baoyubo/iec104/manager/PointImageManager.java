@@ -0,0 +1,327 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.enums.CotEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.model.TelemetryBatch;
+
+import java.util.Arrays;
+
+/**
+ * 子站 过程映像 (按 公共地址 + 信息对象地址 保存每个信息对象的最新值)
+ * <pre>
+ * 1. 服务端推送 遥信/遥测 时更新, 主站 总召唤(含分组召唤)、读命令 直接由映像回复, 不再经过业务
+ * 2. 开放寻址哈希表 (线性探测), 键为 公共地址(16位) << 24 | 信息对象地址(24位), 值按列存放在基本类型数组中, 更新不产生对象
+ * 3. 每个信息对象可以属于多个召唤组 (第1..16组, 按位保存), 站召唤返回所有信息对象
+ * 4. 多个连接共享, 所有方法加锁; 快照复制到 TelemetryBatch 后再打包发送, 不在锁内编码
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 23:00
+ */
+public class PointImageManager {
+
+    /**
+     * 空槽位
+     */
+    private static final long EMPTY_KEY = -1L;
+
+    /**
+     * 默认初始容量
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * 召唤组 最大编号
+     */
+    public static final int MAX_GROUP = 16;
+
+    /**
+     * 键 (公共地址 << 24 | 信息对象地址)
+     */
+    private long[] keys;
+
+    /**
+     * 类型标识符TI 原始值 (0 表示只配置了召唤组, 尚未更新过值)
+     */
+    private byte[] typeIdentifiers;
+
+    /**
+     * 信息对象值
+     */
+    private double[] values;
+
+    /**
+     * 品质描述符
+     */
+    private byte[] qualities;
+
+    /**
+     * 更新时间 (毫秒时间戳)
+     */
+    private long[] timestamps;
+
+    /**
+     * 所属召唤组 (第 n 组对应第 n-1 位)
+     */
+    private short[] groups;
+
+    /**
+     * 信息对象个数
+     */
+    private int size;
+
+    /**
+     * 扩容阈值 (负载因子 0.5)
+     */
+    private int threshold;
+
+
+    public PointImageManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param expectedSize 预计的信息对象个数
+     */
+    public PointImageManager(int expectedSize) {
+        allocate(tableSizeFor(Math.max(expectedSize, 1) * 2));
+    }
+
+
+    /**
+     * 更新信息对象的最新值
+     *
+     * @param commonAddress  公共地址
+     * @param infoAddress    信息对象地址
+     * @param typeIdentifier 类型标识符TI (不带时标的监视方向类型)
+     * @param value          信息对象值
+     * @param quality        品质描述符
+     * @param timestamp      更新时间 (毫秒时间戳)
+     */
+    public synchronized void update(short commonAddress, int infoAddress, TypeIdentifierEnum typeIdentifier, double value, byte quality, long timestamp) {
+        int slot = insert(key(commonAddress, infoAddress));
+        typeIdentifiers[slot] = typeIdentifier.getValue();
+        values[slot] = value;
+        qualities[slot] = quality;
+        timestamps[slot] = timestamp;
+    }
+
+
+    /**
+     * 将信息对象加入召唤组 (信息对象不存在时先占位, 更新值后才会出现在召唤响应中)
+     *
+     * @param commonAddress 公共地址
+     * @param infoAddress   信息对象地址
+     * @param group         召唤组 (1..16)
+     */
+    public synchronized void addGroup(short commonAddress, int infoAddress, int group) {
+        if (group < 1 || group > MAX_GROUP) {
+            throw new RuntimeException("召唤组超出范围: " + group);
+        }
+        int slot = insert(key(commonAddress, infoAddress));
+        groups[slot] |= (short) (1 << (group - 1));
+    }
+
+
+    /**
+     * 站召唤/分组召唤 快照: 按 类型标识符、信息对象地址 排序后复制到批次 (批次的传输原因为 召唤限定词 QOI)
+     *
+     * @param commonAddress 公共地址
+     * @param group         召唤组 (0 为站召唤)
+     * @param batch         批次 (先重置)
+     * @return 信息对象个数
+     */
+    public synchronized int snapshot(short commonAddress, int group, TelemetryBatch batch) {
+        batch.reset(null, (short) (CotEnum.INTROGEN.getCode() + group), commonAddress);
+        short groupMask = group == 0 ? 0 : (short) (1 << (group - 1));
+        long prefix = key(commonAddress, 0);
+
+        // 排序键: TI(8位) << 56 | 信息对象地址(24位) << 32 | 槽位 (TI 原始值均小于128, 排序键非负)
+        long[] order = new long[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key == EMPTY_KEY || (key & ~0xFFFFFFL) != prefix || typeIdentifiers[slot] == 0) {
+                continue;
+            }
+            if (groupMask != 0 && (groups[slot] & groupMask) == 0) {
+                continue;
+            }
+            order[count++] = (long) typeIdentifiers[slot] << 56 | (key & 0xFFFFFFL) << 32 | slot;
+        }
+        Arrays.sort(order, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            int slot = (int) order[i];
+            batch.add(TypeIdentifierEnum.ofValue(typeIdentifiers[slot]), (int) (keys[slot] & 0xFFFFFFL), values[slot], qualities[slot], TelemetryBatch.NO_TIME_SCALE);
+        }
+        return count;
+    }
+
+
+    /**
+     * 读取单个信息对象 (读命令)
+     *
+     * @param commonAddress 公共地址
+     * @param infoAddress   信息对象地址
+     * @param batch         批次 (先重置, 传输原因为 请求或者被请求)
+     * @return 是否存在
+     */
+    public synchronized boolean read(short commonAddress, int infoAddress, TelemetryBatch batch) {
+        batch.reset(null, CotEnum.REQ.getCode(), commonAddress);
+        int slot = find(key(commonAddress, infoAddress));
+        if (slot < 0 || typeIdentifiers[slot] == 0) {
+            return false;
+        }
+        batch.add(TypeIdentifierEnum.ofValue(typeIdentifiers[slot]), infoAddress, values[slot], qualities[slot], TelemetryBatch.NO_TIME_SCALE);
+        return true;
+    }
+
+
+    /**
+     * 信息对象的更新时间
+     *
+     * @param commonAddress 公共地址
+     * @param infoAddress   信息对象地址
+     * @return 毫秒时间戳 (不存在时返回 TelemetryBatch.NO_TIME_SCALE)
+     */
+    public synchronized long getTimestamp(short commonAddress, int infoAddress) {
+        int slot = find(key(commonAddress, infoAddress));
+        return slot < 0 || typeIdentifiers[slot] == 0 ? TelemetryBatch.NO_TIME_SCALE : timestamps[slot];
+    }
+
+
+    /**
+     * 映像中出现过的公共地址 (升序, 用于响应广播地址的召唤)
+     *
+     * @return 公共地址
+     */
+    public synchronized short[] getCommonAddresses() {
+        int[] commonAddresses = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY_KEY) {
+                commonAddresses[count++] = (int) (keys[slot] >>> 24);
+            }
+        }
+        Arrays.sort(commonAddresses, 0, count);
+
+        short[] result = new short[count];
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || commonAddresses[i] != (result[distinct - 1] & 0xFFFF)) {
+                result[distinct++] = (short) commonAddresses[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+
+    /**
+     * 信息对象个数
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+
+    private static long key(short commonAddress, int infoAddress) {
+        return (long) (commonAddress & 0xFFFF) << 24 | (infoAddress & 0xFFFFFF);
+    }
+
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.max(n, 16);
+    }
+
+
+    private int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32) & (keys.length - 1);
+    }
+
+
+    /**
+     * 查找槽位
+     *
+     * @return 槽位 (不存在返回 -1)
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = indexOf(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            if (keys[slot] == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+
+    /**
+     * 查找槽位, 不存在时插入
+     *
+     * @return 槽位
+     */
+    private int insert(long key) {
+        if (size >= threshold) {
+            rehash(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int slot = indexOf(key);
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        Arrays.fill(keys, EMPTY_KEY);
+        typeIdentifiers = new byte[tableSize];
+        values = new double[tableSize];
+        qualities = new byte[tableSize];
+        timestamps = new long[tableSize];
+        groups = new short[tableSize];
+        threshold = tableSize >> 1;
+    }
+
+
+    private void rehash(int tableSize) {
+        long[] oldKeys = keys;
+        byte[] oldTypeIdentifiers = typeIdentifiers;
+        double[] oldValues = values;
+        byte[] oldQualities = qualities;
+        long[] oldTimestamps = timestamps;
+        short[] oldGroups = groups;
+
+        allocate(tableSize);
+        int mask = tableSize - 1;
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            long key = oldKeys[oldSlot];
+            if (key == EMPTY_KEY) {
+                continue;
+            }
+            int slot = indexOf(key);
+            while (keys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            typeIdentifiers[slot] = oldTypeIdentifiers[oldSlot];
+            values[slot] = oldValues[oldSlot];
+            qualities[slot] = oldQualities[oldSlot];
+            timestamps[slot] = oldTimestamps[oldSlot];
+            groups[slot] = oldGroups[oldSlot];
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.enums.ProtocolTimerEnum;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 协议定时器管理 t1/t2/t3 (每个连接一个)
+ * <pre>
+ * 1. 所有连接共享一个 HashedWheelTimer, 不为每个连接创建定时任务线程
+ * 2. 启动、重置定时器只更新截止时间: 时间轮中已有更早到期的任务时不会新建任务 (不会每收发一帧就创建对象)
+ * 3. 时间轮任务到期后切换到 channel 所属的 EventLoop 线程: 截止时间已延后则重新挂到时间轮, 否则触发超时回调
+ *
+ * 注意: 除时间轮到期回调外, 所有方法只在 channel 所属的 EventLoop 线程调用
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 17:05
+ */
+public class ProtocolTimerManager {
+
+    /**
+     * 共享时间轮 (刻度10ms, 守护线程)
+     */
+    private static final HashedWheelTimer WHEEL_TIMER = new HashedWheelTimer(
+            new DefaultThreadFactory("iec104-protocol-timer", true), 10, TimeUnit.MILLISECONDS, 512);
+
+    /**
+     * channel 所属的 EventLoop
+     */
+    private final EventExecutor executor;
+
+    /**
+     * 超时回调 (在 EventLoop 线程执行)
+     */
+    private final Consumer<ProtocolTimerEnum> expireHandler;
+
+    /**
+     * 截止时间 (System.nanoTime, 0 表示未启动), 按 ProtocolTimerEnum.ordinal() 索引
+     */
+    private final long[] deadlines;
+
+    /**
+     * 时间轮中的任务, 按 ProtocolTimerEnum.ordinal() 索引
+     */
+    private final Timeout[] timeouts;
+
+    /**
+     * 时间轮中任务的到期时间, 按 ProtocolTimerEnum.ordinal() 索引
+     */
+    private final long[] timeoutDeadlines;
+
+    /**
+     * 预先创建的 时间轮任务 及 EventLoop 任务, 按 ProtocolTimerEnum.ordinal() 索引
+     */
+    private final Slot[] slots;
+
+    /**
+     * 是否已停止
+     */
+    private boolean stopped;
+
+
+    /**
+     * 构造函数
+     *
+     * @param executor      channel 所属的 EventLoop
+     * @param expireHandler 超时回调 (在 EventLoop 线程执行)
+     */
+    public ProtocolTimerManager(EventExecutor executor, Consumer<ProtocolTimerEnum> expireHandler) {
+        this.executor = executor;
+        this.expireHandler = expireHandler;
+
+        ProtocolTimerEnum[] timers = ProtocolTimerEnum.values();
+        this.deadlines = new long[timers.length];
+        this.timeouts = new Timeout[timers.length];
+        this.timeoutDeadlines = new long[timers.length];
+        this.slots = new Slot[timers.length];
+        for (ProtocolTimerEnum timer : timers) {
+            this.slots[timer.ordinal()] = new Slot(timer);
+        }
+    }
+
+
+    /**
+     * 启动或重置定时器 (已启动时延后截止时间)
+     *
+     * @param timer       定时器
+     * @param delayMillis 超时时间 (单位毫秒, 小于等于0时不启动)
+     */
+    public void start(ProtocolTimerEnum timer, long delayMillis) {
+        if (stopped || delayMillis <= 0) {
+            return;
+        }
+        int index = timer.ordinal();
+        long deadline = nanoDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        deadlines[index] = deadline;
+
+        // 时间轮中已有不晚于截止时间的任务: 到期后再按新的截止时间重新挂到时间轮
+        if (timeouts[index] != null && timeoutDeadlines[index] - deadline <= 0) {
+            return;
+        }
+        if (timeouts[index] != null) {
+            timeouts[index].cancel();
+        }
+        schedule(index, deadline);
+    }
+
+
+    /**
+     * 启动定时器 (已启动时不改变截止时间)
+     *
+     * @param timer       定时器
+     * @param delayMillis 超时时间 (单位毫秒, 小于等于0时不启动)
+     */
+    public void startIfStopped(ProtocolTimerEnum timer, long delayMillis) {
+        if (!isStarted(timer)) {
+            start(timer, delayMillis);
+        }
+    }
+
+
+    /**
+     * 停止定时器 (不取消时间轮中的任务, 任务到期后直接忽略)
+     *
+     * @param timer 定时器
+     */
+    public void stop(ProtocolTimerEnum timer) {
+        deadlines[timer.ordinal()] = 0;
+    }
+
+
+    /**
+     * 定时器是否已启动
+     *
+     * @param timer 定时器
+     * @return 是否已启动
+     */
+    public boolean isStarted(ProtocolTimerEnum timer) {
+        return deadlines[timer.ordinal()] != 0;
+    }
+
+
+    /**
+     * 停止所有定时器, 并取消时间轮中的任务 (连接关闭时调用)
+     */
+    public void stopAll() {
+        stopped = true;
+        for (int i = 0; i < timeouts.length; i++) {
+            deadlines[i] = 0;
+            if (timeouts[i] != null) {
+                timeouts[i].cancel();
+                timeouts[i] = null;
+            }
+        }
+    }
+
+
+    private void schedule(int index, long deadline) {
+        long delayNanos = Math.max(deadline - System.nanoTime(), 0);
+        timeoutDeadlines[index] = deadline;
+        timeouts[index] = WHEEL_TIMER.newTimeout(slots[index], delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * 时间轮任务到期 (EventLoop 线程)
+     */
+    private void onTimeout(ProtocolTimerEnum timer) {
+        int index = timer.ordinal();
+
+        // 重新挂到时间轮前, 旧任务已到期: 以新任务为准
+        Timeout timeout = timeouts[index];
+        if (timeout != null && !timeout.isExpired()) {
+            return;
+        }
+        timeouts[index] = null;
+        long deadline = deadlines[index];
+        if (stopped || deadline == 0) {
+            return;
+        }
+
+        // 截止时间已延后: 重新挂到时间轮
+        if (deadline - System.nanoTime() > 0) {
+            schedule(index, deadline);
+            return;
+        }
+
+        deadlines[index] = 0;
+        expireHandler.accept(timer);
+    }
+
+
+    /**
+     * 截止时间 0 表示未启动, 避免 System.nanoTime 恰好为 0
+     */
+    private static long nanoDeadline(long deadline) {
+        return deadline == 0 ? 1 : deadline;
+    }
+
+
+    /**
+     * 定时器对应的 时间轮任务 及 EventLoop 任务
+     */
+    private final class Slot implements TimerTask, Runnable {
+
+        private final ProtocolTimerEnum timer;
+
+        private Slot(ProtocolTimerEnum timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            if (!timeout.isCancelled()) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            onTimeout(timer);
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.enums.ResumePolicyEnum;
+import com.baoyubo.iec104.model.Message;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话恢复管理 (跨连接保存未确认的I帧)
+ * <pre>
+ * 1. 连接断开时: 保存 已发送未确认 及 本地排队 的I帧 (按对端标识区分, 同一对端只保留最近一次断开时的消息)
+ * 2. 重新连接并启动链路后: 取出消息, 由 CommonDataHandler 一次性重新发送
+ * 3. 超过有效期的消息直接丢弃, 避免重连后发送过期数据
+ * 4. 对端标识: 未配置对端时 所有连接为同一对端 (客户端每个连接一个实例);
+ *    配置对端时 按对端地址 (host:port 优先, 其次 host) 查找, 未配置的对端不恢复 (同一主机/NAT 后的多个主站不会收到彼此的消息)
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 18:20
+ */
+public class ResumeManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumeManager.class);
+
+    /**
+     * 会话恢复策略
+     */
+    @Getter
+    private final ResumePolicyEnum policy;
+
+    /**
+     * 有效期 (单位纳秒)
+     */
+    private final long expireNanos;
+
+    /**
+     * 未配置对端时 所有连接的对端标识
+     */
+    public static final String SINGLE_PEER = "peer";
+
+    /**
+     * 对端地址 (host:port 或 host) -> 对端标识 (为 null 时 所有连接为同一对端)
+     */
+    private final Map<String, String> peers;
+
+    /**
+     * 对端标识 -> 待恢复的消息
+     */
+    private final Map<String, Backlog> backlogs = new ConcurrentHashMap<>();
+
+
+    /**
+     * 构造函数 (所有连接为同一对端, 用于客户端: 每个连接一个实例)
+     *
+     * @param policy        会话恢复策略
+     * @param expireSeconds 有效期 (单位秒)
+     */
+    public ResumeManager(ResumePolicyEnum policy, int expireSeconds) {
+        this(policy, expireSeconds, null);
+    }
+
+
+    /**
+     * 构造函数
+     *
+     * @param policy        会话恢复策略
+     * @param expireSeconds 有效期 (单位秒)
+     * @param peers         对端地址 (host:port 或 host) -> 对端标识 (为 null 时 所有连接为同一对端; 未配置的对端不恢复)
+     */
+    public ResumeManager(ResumePolicyEnum policy, int expireSeconds, Map<String, String> peers) {
+        this.policy = policy;
+        this.expireNanos = TimeUnit.SECONDS.toNanos(expireSeconds);
+        this.peers = peers;
+    }
+
+
+    /**
+     * 查找连接的对端标识
+     *
+     * @param remoteAddress 对端地址
+     * @return 对端标识, 不恢复时返回 null
+     */
+    public String identify(SocketAddress remoteAddress) {
+        if (policy == ResumePolicyEnum.NONE) {
+            return null;
+        }
+        if (peers == null) {
+            return SINGLE_PEER;
+        }
+        if (!(remoteAddress instanceof InetSocketAddress)) {
+            return peers.get(String.valueOf(remoteAddress));
+        }
+        InetSocketAddress address = (InetSocketAddress) remoteAddress;
+        String peerId = peers.get(address.getHostString() + ":" + address.getPort());
+        return peerId != null ? peerId : peers.get(address.getHostString());
+    }
+
+
+    /**
+     * 保存待恢复的消息 (覆盖同一对端之前保存的消息)
+     *
+     * @param peerId   对端标识 (为 null 时不保存)
+     * @param messages 待恢复的消息 (按发送顺序)
+     */
+    public void save(String peerId, List<Message> messages) {
+        if (peerId == null) {
+            return;
+        }
+        if (policy == ResumePolicyEnum.NONE || messages.isEmpty()) {
+            backlogs.remove(peerId);
+            return;
+        }
+        backlogs.put(peerId, new Backlog(messages, System.nanoTime()));
+        LOGGER.info("[会话恢复] 连接断开, 保存 {} 的未确认消息数量 = {}", peerId, messages.size());
+    }
+
+
+    /**
+     * 取出待恢复的消息 (取出后删除, 过期返回空列表)
+     *
+     * @param peerId 对端标识 (为 null 时返回空列表)
+     * @return 待恢复的消息 (按发送顺序)
+     */
+    public List<Message> take(String peerId) {
+        Backlog backlog = peerId == null ? null : backlogs.remove(peerId);
+        if (backlog == null) {
+            return Collections.emptyList();
+        }
+        if (System.nanoTime() - backlog.savedNanos > expireNanos) {
+            LOGGER.warn("[会话恢复] {} 的未确认消息已过期, 丢弃数量 = {}", peerId, backlog.messages.size());
+            return Collections.emptyList();
+        }
+        return backlog.messages;
+    }
+
+
+    /**
+     * 待恢复的消息数量
+     *
+     * @param peerId 对端标识
+     * @return 消息数量
+     */
+    public int size(String peerId) {
+        Backlog backlog = backlogs.get(peerId);
+        return backlog == null ? 0 : backlog.messages.size();
+    }
+
+
+    /**
+     * 待恢复的消息
+     */
+    private static final class Backlog {
+
+        private final List<Message> messages;
+
+        private final long savedNanos;
+
+        private Backlog(List<Message> messages, long savedNanos) {
+            this.messages = messages;
+            this.savedNanos = savedNanos;
+        }
+    }
+
+}
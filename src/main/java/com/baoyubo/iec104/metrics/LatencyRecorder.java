@@ -0,0 +1,89 @@
+package com.baoyubo.iec104.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 时延统计 (无锁, 记录一次只有几次原子加法)
+ * <pre>
+ * 1. 次数、总时长 使用 LongAdder, 最大值 使用 LongAccumulator
+ * 2. 分位数按2的幂分桶估算 (第 i 个桶为 [2^i, 2^(i+1)) 纳秒), 结果为桶的上界, 误差不超过2倍
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:30
+ */
+public class LatencyRecorder {
+
+    private static final int BUCKETS = 64;
+
+    private static final double NANOS_PER_MILLI = 1_000_000D;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+
+    /**
+     * 记录一次时延
+     *
+     * @param nanos 时延 (纳秒, 小于0时忽略)
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+    }
+
+
+    /**
+     * 统计快照
+     *
+     * @return LatencySnapshot
+     */
+    public LatencySnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long max = maxNanos.get();
+
+        LatencySnapshot snapshot = new LatencySnapshot();
+        snapshot.setCount(count.sum());
+        snapshot.setMeanMillis(total == 0 ? 0 : totalNanos.sum() / (double) snapshot.getCount() / NANOS_PER_MILLI);
+        snapshot.setMaxMillis(max / NANOS_PER_MILLI);
+        snapshot.setP50Millis(percentile(counts, total, 0.5, max) / NANOS_PER_MILLI);
+        snapshot.setP99Millis(percentile(counts, total, 0.99, max) / NANOS_PER_MILLI);
+        return snapshot;
+    }
+
+
+    /**
+     * 分位数 (所在桶的上界, 不超过最大值)
+     */
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i >= 62 ? max : Math.min((1L << (i + 1)) - 1, max);
+            }
+        }
+        return max;
+    }
+
+}
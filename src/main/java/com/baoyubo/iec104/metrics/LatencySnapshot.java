@@ -0,0 +1,39 @@
+package com.baoyubo.iec104.metrics;
+
+import lombok.Data;
+
+/**
+ * 时延统计 快照
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:30
+ */
+@Data
+public class LatencySnapshot {
+
+    /**
+     * 次数
+     */
+    private long count;
+
+    /**
+     * 平均值 (毫秒)
+     */
+    private double meanMillis;
+
+    /**
+     * 最大值 (毫秒)
+     */
+    private double maxMillis;
+
+    /**
+     * 50分位 (毫秒, 按2的幂分桶估算)
+     */
+    private double p50Millis;
+
+    /**
+     * 99分位 (毫秒, 按2的幂分桶估算)
+     */
+    private double p99Millis;
+
+}
@@ -0,0 +1,110 @@
+package com.baoyubo.iec104.metrics;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 协议统计 注册表 (按标签区分, 标签数量有上限)
+ * <pre>
+ * 1. 标签通常为子站 (对端主机), 同一标签的多个连接 (含重新连接) 共享一个统计实例
+ * 2. 标签数量达到上限后, 新的标签统一计入 "other", 避免大量子站 / 异常地址 导致内存无限增长
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:30
+ */
+public class MetricsRegistry {
+
+    /**
+     * 超出上限的标签
+     */
+    public static final String OVERFLOW_TAG = "other";
+
+    /**
+     * 名称
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * 标签数量上限
+     */
+    @Getter
+    private final int maxTags;
+
+    private final Map<String, ProtocolMetrics> metricsMap = new ConcurrentHashMap<>();
+
+    private final ProtocolMetrics overflow = new ProtocolMetrics(OVERFLOW_TAG);
+
+
+    public MetricsRegistry(String name, int maxTags) {
+        if (maxTags < 1) {
+            throw new RuntimeException("统计标签数量上限必须大于0, maxTags = " + maxTags);
+        }
+        this.name = name;
+        this.maxTags = maxTags;
+    }
+
+
+    /**
+     * 获取标签的统计 (不存在时创建, 达到上限时返回 "other")
+     *
+     * @param tag 标签
+     * @return ProtocolMetrics
+     */
+    public ProtocolMetrics get(String tag) {
+        ProtocolMetrics metrics = metricsMap.get(tag);
+        if (metrics != null) {
+            return metrics;
+        }
+        // 上限为近似值: 并发创建时可能略微超出
+        if (metricsMap.size() >= maxTags) {
+            return overflow;
+        }
+        return metricsMap.computeIfAbsent(tag, ProtocolMetrics::new);
+    }
+
+
+    /**
+     * 移除标签的统计
+     *
+     * @param tag 标签
+     */
+    public void remove(String tag) {
+        metricsMap.remove(tag);
+    }
+
+
+    /**
+     * 标签数量 (不含 "other")
+     *
+     * @return 标签数量
+     */
+    public int size() {
+        return metricsMap.size();
+    }
+
+
+    /**
+     * 所有标签的统计快照 (按标签排序, "other" 有数据时排在最后)
+     *
+     * @return 快照列表
+     */
+    public List<ProtocolMetricsSnapshot> snapshot() {
+        List<ProtocolMetricsSnapshot> snapshots = new ArrayList<>(metricsMap.size() + 1);
+        for (ProtocolMetrics metrics : metricsMap.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        snapshots.sort(Comparator.comparing(ProtocolMetricsSnapshot::getTag));
+        ProtocolMetricsSnapshot overflowSnapshot = overflow.snapshot();
+        if (overflowSnapshot.getBytesIn() > 0 || overflowSnapshot.getConnections() > 0) {
+            snapshots.add(overflowSnapshot);
+        }
+        return snapshots;
+    }
+
+}
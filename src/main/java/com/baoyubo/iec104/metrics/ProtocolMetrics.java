@@ -0,0 +1,199 @@
+package com.baoyubo.iec104.metrics;
+
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.enums.UControlEnum;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 协议统计 (一个标签一个实例, 同一标签的多个连接共享)
+ * <pre>
+ * 1. 计数器均为 LongAdder, IO 线程写入只有一次无竞争的加法, 读取 (快照) 时求和
+ * 2. I帧按类型标识符计数, 计数器在第一次出现该类型时创建 (最多256个)
+ * 3. 消息缓存深度、连接数 为增减计数 (连接关闭时归还)
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:30
+ */
+public class ProtocolMetrics {
+
+    private static final int TYPE_IDENTIFIER_SIZE = 256;
+
+    /**
+     * 标签
+     */
+    @Getter
+    private final String tag;
+
+    private final AtomicReferenceArray<LongAdder> iFramesIn = new AtomicReferenceArray<>(TYPE_IDENTIFIER_SIZE);
+
+    private final AtomicReferenceArray<LongAdder> iFramesOut = new AtomicReferenceArray<>(TYPE_IDENTIFIER_SIZE);
+
+    private final LongAdder sFramesIn = new LongAdder();
+
+    private final LongAdder sFramesOut = new LongAdder();
+
+    private final LongAdder[] uFramesIn = newAdders(UControlEnum.values().length);
+
+    private final LongAdder[] uFramesOut = newAdders(UControlEnum.values().length);
+
+    private final LongAdder bytesIn = new LongAdder();
+
+    private final LongAdder bytesOut = new LongAdder();
+
+    private final LongAdder sequenceErrors = new LongAdder();
+
+    private final LongAdder cacheDepth = new LongAdder();
+
+    private final LongAdder connections = new LongAdder();
+
+    /**
+     * 测试帧 往返时延
+     */
+    @Getter
+    private final LatencyRecorder testRoundTrip = new LatencyRecorder();
+
+    /**
+     * I帧 发送到被确认的时延
+     */
+    @Getter
+    private final LatencyRecorder ackLatency = new LatencyRecorder();
+
+
+    public ProtocolMetrics(String tag) {
+        this.tag = tag;
+    }
+
+
+    public void onIFrameIn(byte typeIdentifier) {
+        adder(iFramesIn, typeIdentifier).increment();
+    }
+
+    public void onIFrameOut(byte typeIdentifier) {
+        adder(iFramesOut, typeIdentifier).increment();
+    }
+
+    public void onSFrameIn() {
+        sFramesIn.increment();
+    }
+
+    public void onSFrameOut() {
+        sFramesOut.increment();
+    }
+
+    public void onUFrameIn(UControlEnum uControl) {
+        if (uControl != null) {
+            uFramesIn[uControl.ordinal()].increment();
+        }
+    }
+
+    public void onUFrameOut(UControlEnum uControl) {
+        if (uControl != null) {
+            uFramesOut[uControl.ordinal()].increment();
+        }
+    }
+
+    public void onBytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    public void onBytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public void onSequenceError() {
+        sequenceErrors.increment();
+    }
+
+    /**
+     * 消息缓存深度 变化
+     *
+     * @param delta 增加为正数, 减少为负数
+     */
+    public void onCacheDepth(long delta) {
+        cacheDepth.add(delta);
+    }
+
+    public void onConnected() {
+        connections.increment();
+    }
+
+    public void onDisconnected() {
+        connections.decrement();
+    }
+
+
+    /**
+     * 统计快照
+     *
+     * @return ProtocolMetricsSnapshot
+     */
+    public ProtocolMetricsSnapshot snapshot() {
+        ProtocolMetricsSnapshot snapshot = new ProtocolMetricsSnapshot();
+        snapshot.setTag(tag);
+        snapshot.setConnections(connections.sum());
+        snapshot.setIframesIn(typeIdentifierCounts(iFramesIn));
+        snapshot.setIframesOut(typeIdentifierCounts(iFramesOut));
+        snapshot.setSframesIn(sFramesIn.sum());
+        snapshot.setSframesOut(sFramesOut.sum());
+        snapshot.setUframesIn(uControlCounts(uFramesIn));
+        snapshot.setUframesOut(uControlCounts(uFramesOut));
+        snapshot.setBytesIn(bytesIn.sum());
+        snapshot.setBytesOut(bytesOut.sum());
+        snapshot.setSequenceErrors(sequenceErrors.sum());
+        snapshot.setCacheDepth(cacheDepth.sum());
+        snapshot.setTestRoundTrip(testRoundTrip.snapshot());
+        snapshot.setAckLatency(ackLatency.snapshot());
+        return snapshot;
+    }
+
+
+    private static LongAdder adder(AtomicReferenceArray<LongAdder> adders, byte typeIdentifier) {
+        int index = typeIdentifier & 0xFF;
+        LongAdder adder = adders.get(index);
+        if (adder == null) {
+            adders.compareAndSet(index, null, new LongAdder());
+            adder = adders.get(index);
+        }
+        return adder;
+    }
+
+
+    private static Map<String, Long> typeIdentifierCounts(AtomicReferenceArray<LongAdder> adders) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < TYPE_IDENTIFIER_SIZE; i++) {
+            LongAdder adder = adders.get(i);
+            if (adder != null) {
+                TypeIdentifierEnum typeIdentifier = TypeIdentifierEnum.ofValue((byte) i);
+                counts.put(typeIdentifier == null ? "TI_" + i : typeIdentifier.name(), adder.sum());
+            }
+        }
+        return counts;
+    }
+
+
+    private static Map<String, Long> uControlCounts(LongAdder[] adders) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (UControlEnum uControl : UControlEnum.values()) {
+            long count = adders[uControl.ordinal()].sum();
+            if (count > 0) {
+                counts.put(uControl.name(), count);
+            }
+        }
+        return counts;
+    }
+
+
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+}
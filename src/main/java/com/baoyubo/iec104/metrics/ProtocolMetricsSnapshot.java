@@ -0,0 +1,74 @@
+package com.baoyubo.iec104.metrics;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 协议统计 快照
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 01:30
+ */
+@Data
+public class ProtocolMetricsSnapshot {
+
+    /**
+     * 标签 (服务端为对端主机, 客户端为子站标识)
+     */
+    private String tag;
+
+    /**
+     * 当前连接数
+     */
+    private long connections;
+
+    /**
+     * 收到的I帧数 (类型标识符 -> 数量)
+     */
+    private Map<String, Long> iframesIn;
+
+    /**
+     * 发送的I帧数 (类型标识符 -> 数量)
+     */
+    private Map<String, Long> iframesOut;
+
+    private long sframesIn;
+
+    private long sframesOut;
+
+    /**
+     * 收到的U帧数 (U帧类型 -> 数量)
+     */
+    private Map<String, Long> uframesIn;
+
+    /**
+     * 发送的U帧数 (U帧类型 -> 数量)
+     */
+    private Map<String, Long> uframesOut;
+
+    private long bytesIn;
+
+    private long bytesOut;
+
+    /**
+     * I帧序列号校验失败次数
+     */
+    private long sequenceErrors;
+
+    /**
+     * 已发送未确认的I帧数 (消息缓存深度)
+     */
+    private long cacheDepth;
+
+    /**
+     * 测试帧 往返时延
+     */
+    private LatencySnapshot testRoundTrip;
+
+    /**
+     * I帧 发送到被确认 (S帧 或 I帧的接收序列号) 的时延
+     */
+    private LatencySnapshot ackLatency;
+
+}
@@ -0,0 +1,102 @@
+package com.baoyubo.iec104.model;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * 已编码的 IEC104协议I帧消息 (ASDU 只编码一次, 用于向多个连接推送)
+ * <pre>
+ * 1. content 为已编码的 ASDU 字节报文 (不包含 启动字符、APDU长度、控制域)
+ * 2. 控制域由每个连接的 CommonDataHandler 自动填充, 编码器只写入 启动字符、APDU长度、控制域, 再直接复制 ASDU
+ * 3. retainedDuplicate() 共享同一份 ASDU 内容, 每个副本拥有独立的控制域 (ChannelGroup 广播时每个连接一个副本)
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 11:20
+ */
+public final class EncodedMessage extends DefaultByteBufHolder {
+
+    /**
+     * 原始消息 (用于缓存重发)
+     */
+    private final Message message;
+
+    /**
+     * 控制域 (CommonDataHandler自动填充)
+     */
+    private MessageControl control;
+
+
+    /**
+     * 构造函数
+     *
+     * @param asduContent 已编码的 ASDU 字节报文
+     * @param message     原始消息
+     */
+    public EncodedMessage(ByteBuf asduContent, Message message) {
+        super(asduContent);
+        this.message = message;
+    }
+
+
+    public Message getMessage() {
+        return message;
+    }
+
+    public MessageControl getControl() {
+        return control;
+    }
+
+    public void setControl(MessageControl control) {
+        this.control = control;
+    }
+
+
+    @Override
+    public EncodedMessage replace(ByteBuf content) {
+        return new EncodedMessage(content, message);
+    }
+
+    @Override
+    public EncodedMessage copy() {
+        return (EncodedMessage) super.copy();
+    }
+
+    @Override
+    public EncodedMessage duplicate() {
+        return (EncodedMessage) super.duplicate();
+    }
+
+    @Override
+    public EncodedMessage retainedDuplicate() {
+        return (EncodedMessage) super.retainedDuplicate();
+    }
+
+    @Override
+    public EncodedMessage retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public EncodedMessage retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public EncodedMessage touch() {
+        super.touch();
+        return this;
+    }
+
+    @Override
+    public EncodedMessage touch(Object hint) {
+        super.touch(hint);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "EncodedMessage(control=" + control + ", readableBytes=" + content().readableBytes() + ")";
+    }
+}
@@ -20,7 +20,7 @@ public class MessageInfo {
     private Integer infoAddress;
 
     /**
-     * 信息对象值 (所占字节个数不固定 1、2、4)
+     * 信息对象值 (所占字节个数不固定 1、2、4、5)
      */
     private byte[] infoValue;
 
@@ -30,7 +30,17 @@ public class MessageInfo {
     private QualifiersEnum qualifier;
 
     /**
-     * 时标 (占7个字节)
+     * 限定词/描述符 原始值 (取值未定义为枚举时 qualifier 为空, 保留原始值, 如 品质描述词 QDS/QDP 置位)
+     */
+    private Byte qualifierValue;
+
+    /**
+     * 相对时间 CP16Time2a (毫秒, 占2个字节, 继电保护事件)
+     */
+    private Integer elapsedTime;
+
+    /**
+     * 时标 (占7个字节, CP24Time2a 占3个字节)
      */
     private Date timeScale;
 
@@ -0,0 +1,444 @@
+package com.baoyubo.iec104.model;
+
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.enums.QualifiersEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.enums.UControlEnum;
+import com.baoyubo.iec104.util.Cp56Time2aCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * IEC104协议消息 只读视图 (flyweight)
+ * <pre>
+ * 直接基于 ByteBuf 切片（控制域 + ASDU）按需读取字段, 不做任何预解析:
+ * 1. 控制域、ASDU头部字段 通过 getUnsignedShortLE/getShortLE 等方法即时读取
+ * 2. 信息数据按下标访问, 信息对象地址通过 getUnsignedMediumLE 即时读取
+ * 3. 只有调用 toMessage() 时才会构建完整的 Message 模型
+ *
+ * 注意: 视图持有 ByteBuf 的引用计数, 使用完毕后需要调用 release()
+ *
+ * @author yubo.bao
+ * @date 2026/10/17 10:12
+ */
+public final class MessageView extends DefaultByteBufHolder {
+
+    // 控制域 偏移量
+    private static final int CONTROL_OFFSET = 0;
+    // 类型标识符TI 偏移量
+    private static final int TYPE_IDENTIFIER_OFFSET = 4;
+    // 可变结构限定词VSQ 偏移量
+    private static final int VSQ_OFFSET = 5;
+    // 传输原因COT 偏移量
+    private static final int TRANSFER_REASON_OFFSET = 6;
+    // 公共地址 偏移量
+    private static final int COMMON_ADDRESS_OFFSET = 8;
+    // 信息数据列表 偏移量
+    private static final int MESSAGE_INFO_OFFSET = 10;
+
+    /**
+     * 帧类型（I帧、U帧、S帧）
+     */
+    private final FrameTypeEnum frameType;
+
+    /**
+     * 单个信息数据所占字节长度 (不包含信息对象地址)
+     */
+    private int elementLength = -1;
+
+    /**
+     * 时标 CP56Time2a 编解码
+     */
+    private final Cp56Time2aCodec timeCodec;
+
+
+    /**
+     * 构造函数
+     *
+     * @param content 控制域 + ASDU 字节报文 (不包含 启动字符、APDU长度)
+     */
+    public MessageView(ByteBuf content) {
+        this(content, Cp56Time2aCodec.DEFAULT);
+    }
+
+
+    /**
+     * 构造函数
+     *
+     * @param content   控制域 + ASDU 字节报文 (不包含 启动字符、APDU长度)
+     * @param timeCodec 时标编解码
+     */
+    public MessageView(ByteBuf content, Cp56Time2aCodec timeCodec) {
+        super(content);
+        this.frameType = parseFrameType(content);
+        this.timeCodec = timeCodec;
+    }
+
+
+    /**
+     * 解析帧类型 (与 FrameTypeEnum.ofBytes 规则一致)
+     */
+    private static FrameTypeEnum parseFrameType(ByteBuf content) {
+        int base = content.readerIndex();
+        byte b0 = content.getByte(base + CONTROL_OFFSET);
+        byte b2 = content.getByte(base + CONTROL_OFFSET + 2);
+        if ((b2 & 0b00000001) != 0) {
+            return null;
+        }
+        if ((b0 & 0b00000001) == 0) {
+            return FrameTypeEnum.I_FRAME;
+        }
+        return (b0 & 0b00000010) != 0 ? FrameTypeEnum.U_FRAME : FrameTypeEnum.S_FRAME;
+    }
+
+
+    private int base() {
+        return content().readerIndex();
+    }
+
+
+    /**
+     * 帧类型（I帧、U帧、S帧）
+     */
+    public FrameTypeEnum getFrameType() {
+        return frameType;
+    }
+
+
+    /**
+     * U帧 控制类型
+     */
+    public UControlEnum getUControl() {
+        return UControlEnum.ofByte(content().getByte(base() + CONTROL_OFFSET));
+    }
+
+
+    /**
+     * I帧 发送序列号
+     */
+    public short getSendSequenceNum() {
+        return (short) (content().getUnsignedShortLE(base() + CONTROL_OFFSET) >> 1);
+    }
+
+
+    /**
+     * I帧\S帧 接收序列号
+     */
+    public short getReceiveSequenceNum() {
+        return (short) (content().getUnsignedShortLE(base() + CONTROL_OFFSET + 2) >> 1);
+    }
+
+
+    /**
+     * 类型标识符TI 原始值
+     */
+    public byte getTypeIdentifierValue() {
+        return content().getByte(base() + TYPE_IDENTIFIER_OFFSET);
+    }
+
+
+    /**
+     * 类型标识符TI
+     */
+    public TypeIdentifierEnum getTypeIdentifier() {
+        return TypeIdentifierEnum.ofValue(getTypeIdentifierValue());
+    }
+
+
+    /**
+     * 信息数据列表中地址是否为连续的
+     */
+    public boolean isContinuous() {
+        return (content().getByte(base() + VSQ_OFFSET) & 0x80) != 0;
+    }
+
+
+    /**
+     * 信息数据列表个数
+     */
+    public int getMessageInfoListSize() {
+        return content().getByte(base() + VSQ_OFFSET) & 0x7F;
+    }
+
+
+    /**
+     * 传输原因COT
+     */
+    public short getTransferReason() {
+        return content().getShortLE(base() + TRANSFER_REASON_OFFSET);
+    }
+
+
+    /**
+     * 应用服务数据单元公共地址
+     */
+    public short getCommonAddress() {
+        return content().getShortLE(base() + COMMON_ADDRESS_OFFSET);
+    }
+
+
+    /**
+     * 第 index 个信息数据的 信息对象地址
+     *
+     * @param index 下标
+     * @return 信息对象地址
+     */
+    public int getInfoAddress(int index) {
+        if (isContinuous()) {
+            return content().getUnsignedMediumLE(base() + MESSAGE_INFO_OFFSET) + index;
+        }
+        return content().getUnsignedMediumLE(base() + MESSAGE_INFO_OFFSET + index * (Constants.INFO_ADDRESS_FIELD_LEN + elementLength()));
+    }
+
+
+    /**
+     * 第 index 个信息数据的 信息对象值 首字节
+     */
+    public byte getInfoValueByte(int index) {
+        return content().getByte(infoValueIndex(index));
+    }
+
+
+    /**
+     * 第 index 个信息数据的 信息对象值 (2字节整数, 低位在前)
+     */
+    public short getInfoValueShort(int index) {
+        return content().getShortLE(infoValueIndex(index));
+    }
+
+
+    /**
+     * 第 index 个信息数据的 信息对象值 (4字节短浮点数, 低位在前)
+     */
+    public float getInfoValueFloat(int index) {
+        return content().getFloatLE(infoValueIndex(index));
+    }
+
+
+    /**
+     * 第 index 个信息数据的 信息对象值 (按信息元素类型解析, 不创建对象)
+     */
+    public double getValue(int index) {
+        return getTypeIdentifier().getElementType().getValue(content(), infoValueIndex(index));
+    }
+
+
+    /**
+     * 第 index 个信息数据的 品质 (信息元素自带的品质位 | 品质描述词 QDS/QDP), 不创建对象
+     */
+    public byte getQuality(int index) {
+        TypeIdentifierEnum typeIdentifier = getTypeIdentifier();
+        int valueIndex = infoValueIndex(index);
+        byte quality = typeIdentifier.getElementType().getQuality(content(), valueIndex);
+        if (TypeIdentifierEnum.hasMessageInfoQualifier(typeIdentifier)) {
+            quality |= content().getByte(valueIndex + typeIdentifier.getMessageInfoValueLength());
+        }
+        return quality;
+    }
+
+
+    /**
+     * 第 index 个信息数据的 信息对象值 (复制为字节数组)
+     */
+    public byte[] getInfoValue(int index) {
+        byte[] infoValue = new byte[getTypeIdentifier().getMessageInfoValueLength()];
+        content().getBytes(infoValueIndex(index), infoValue);
+        return infoValue;
+    }
+
+
+    /**
+     * 第 index 个信息数据的 限定词/描述符 原始值
+     */
+    public byte getQualifierValue(int index) {
+        return content().getByte(infoValueIndex(index) + getTypeIdentifier().getMessageInfoValueLength());
+    }
+
+
+    /**
+     * 第 index 个信息数据的 限定词/描述符
+     */
+    public QualifiersEnum getQualifier(int index) {
+        return QualifiersEnum.ofValue(getQualifierValue(index));
+    }
+
+
+    /**
+     * 第 index 个信息数据的 相对时间 CP16Time2a (毫秒)
+     */
+    public int getElapsedTime(int index) {
+        TypeIdentifierEnum typeIdentifier = getTypeIdentifier();
+        int qualifierLength = TypeIdentifierEnum.hasMessageInfoQualifier(typeIdentifier) ? 1 : 0;
+        return content().getUnsignedShortLE(infoValueIndex(index) + typeIdentifier.getMessageInfoValueLength() + qualifierLength);
+    }
+
+
+    /**
+     * 第 index 个信息数据的 时标 (丢弃的无效时标为空)
+     */
+    public Date getTimeScale(int index) {
+        long timeScale = getTimeScaleMillis(index);
+        return timeScale == Cp56Time2aCodec.INVALID_TIME ? null : new Date(timeScale);
+    }
+
+
+    /**
+     * 第 index 个信息数据的 时标 (毫秒时间戳, 丢弃的无效时标为 Cp56Time2aCodec.INVALID_TIME), 不创建对象
+     * <p>
+     * CP24Time2a 时标以当前时间作为参考时间补全
+     */
+    public long getTimeScaleMillis(int index) {
+        int timeScaleLength = getTypeIdentifier().getMessageInfoTimeScaleLength();
+        int timeScaleIndex = infoValueIndex(index) + elementLength() - timeScaleLength;
+        if (timeScaleLength == Constants.MESSAGE_INFO_CP24_TIME_SCALE_FIELD_LEN) {
+            return timeCodec.getCp24(content(), timeScaleIndex, System.currentTimeMillis());
+        }
+        return timeCodec.get(content(), timeScaleIndex);
+    }
+
+
+    /**
+     * 第 index 个信息数据的 信息对象值 所在的绝对下标
+     */
+    private int infoValueIndex(int index) {
+        if (isContinuous()) {
+            return base() + MESSAGE_INFO_OFFSET + Constants.INFO_ADDRESS_FIELD_LEN + index * elementLength();
+        }
+        return base() + MESSAGE_INFO_OFFSET + index * (Constants.INFO_ADDRESS_FIELD_LEN + elementLength()) + Constants.INFO_ADDRESS_FIELD_LEN;
+    }
+
+
+    /**
+     * 单个信息数据所占字节长度 (信息对象值 + 限定词/描述符 + 相对时间 + 时标)
+     */
+    private int elementLength() {
+        if (elementLength < 0) {
+            TypeIdentifierEnum typeIdentifier = getTypeIdentifier();
+            if (typeIdentifier == null) {
+                throw new RuntimeException("不支持的类型标识符: " + getTypeIdentifierValue());
+            }
+            elementLength = typeIdentifier.getMessageInfoElementLength();
+        }
+        return elementLength;
+    }
+
+
+    /**
+     * 构建完整的 IEC104协议消息 (按需调用)
+     *
+     * @return Message
+     */
+    public Message toMessage() {
+
+        Message message = new Message();
+        message.setFrameType(frameType);
+
+        MessageControl control = new MessageControl();
+        message.setControl(control);
+
+        if (FrameTypeEnum.U_FRAME == frameType) {
+            control.setUControl(getUControl());
+            return message;
+        }
+
+        if (FrameTypeEnum.S_FRAME == frameType) {
+            control.setReceiveSequenceNum(getReceiveSequenceNum());
+            return message;
+        }
+
+        if (FrameTypeEnum.I_FRAME == frameType) {
+            control.setSendSequenceNum(getSendSequenceNum());
+            control.setReceiveSequenceNum(getReceiveSequenceNum());
+            message.setAsdu(toASDU());
+            return message;
+        }
+
+        throw new RuntimeException("异常数据");
+    }
+
+
+    /**
+     * 构建 ASDU
+     */
+    private MessageASDU toASDU() {
+
+        TypeIdentifierEnum typeIdentifier = getTypeIdentifier();
+        int messageInfoListSize = getMessageInfoListSize();
+
+        MessageASDU asdu = new MessageASDU();
+        asdu.setTypeIdentifier(typeIdentifier);
+        asdu.setVsq(new MessageVSQ(isContinuous(), messageInfoListSize));
+        asdu.setTransferReason(getTransferReason());
+        asdu.setCommonAddress(getCommonAddress());
+
+        // 不支持的类型标识符: 无法确定信息数据长度, 信息数据列表为空
+        if (typeIdentifier == null) {
+            asdu.setMessageInfoList(new ArrayList<>(0));
+            return asdu;
+        }
+
+        List<MessageInfo> messageInfos = new ArrayList<>(messageInfoListSize);
+        for (int i = 0; i < messageInfoListSize; i++) {
+            MessageInfo messageInfo = new MessageInfo();
+            messageInfo.setInfoAddress(getInfoAddress(i));
+            if (TypeIdentifierEnum.hasMessageInfoValue(typeIdentifier)) {
+                messageInfo.setInfoValue(getInfoValue(i));
+            }
+            if (TypeIdentifierEnum.hasMessageInfoQualifier(typeIdentifier)) {
+                QualifiersEnum qualifier = getQualifier(i);
+                messageInfo.setQualifier(qualifier);
+                messageInfo.setQualifierValue(qualifier == null ? getQualifierValue(i) : null);
+            }
+            if (TypeIdentifierEnum.hasMessageInfoElapsedTime(typeIdentifier)) {
+                messageInfo.setElapsedTime(getElapsedTime(i));
+            }
+            if (TypeIdentifierEnum.hasMessageInfoTimeScale(typeIdentifier)) {
+                messageInfo.setTimeScale(getTimeScale(i));
+            }
+            messageInfos.add(messageInfo);
+        }
+        asdu.setMessageInfoList(messageInfos);
+
+        return asdu;
+    }
+
+
+    @Override
+    public MessageView replace(ByteBuf content) {
+        return new MessageView(content, timeCodec);
+    }
+
+    @Override
+    public MessageView retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public MessageView retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public MessageView touch() {
+        super.touch();
+        return this;
+    }
+
+    @Override
+    public MessageView touch(Object hint) {
+        super.touch(hint);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageView(frameType=" + frameType + ", readableBytes=" + content().readableBytes() + ")";
+    }
+}
@@ -0,0 +1,355 @@
+package com.baoyubo.iec104.model;
+
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.enums.InfoElementTypeEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 遥测/遥信 列式批量数据 (一个ASDU对应一个批次, 也可通过 append 将多个ASDU合并为一个批次)
+ * <pre>
+ * 1. 所有列均为基本类型数组, 批次对象可重复使用, 不会产生装箱
+ * 2. 信息对象值统一使用 double 存储 (可无损表示 短浮点数 及 32位整数), 按信息元素类型查表解析
+ * 3. 品质统一为1个字节: 信息元素自带的品质位 (SIQ/DIQ/BCR/SEP) | 品质描述词 (QDS/QDP)
+ * 4. 每行记录类型标识符, 总召唤响应中不同类型的ASDU可以一次遍历合并 (批次的类型标识符为空表示混合类型)
+ * 5. 批次数据只在回调期间有效, 如需保留请自行复制
+ *
+ * @author yubo.bao
+ * @date 2026/10/17 15:05
+ */
+public class TelemetryBatch {
+
+    /**
+     * 无时标
+     */
+    public static final long NO_TIME_SCALE = Long.MIN_VALUE;
+
+    /**
+     * 类型标识符TI (合并了不同类型的ASDU时为空, 按行读取 getTypeIdentifier(index))
+     */
+    @Getter
+    private TypeIdentifierEnum typeIdentifier;
+
+    /**
+     * 传输原因COT
+     */
+    @Getter
+    private short transferReason;
+
+    /**
+     * 公共地址
+     */
+    @Getter
+    private short commonAddress;
+
+    /**
+     * 信息数据个数
+     */
+    @Getter
+    private int size;
+
+    /**
+     * 类型标识符TI 原始值
+     */
+    private byte[] typeIdentifiers;
+
+    /**
+     * 信息对象地址
+     */
+    private int[] infoAddresses;
+
+    /**
+     * 信息对象值
+     */
+    private double[] values;
+
+    /**
+     * 品质描述符
+     */
+    private byte[] qualities;
+
+    /**
+     * 时标 (毫秒时间戳, 无时标为 NO_TIME_SCALE)
+     */
+    private long[] timeScales;
+
+
+    public TelemetryBatch() {
+        this(Constants.MESSAGE_INFO_LIST_MAX_SIZE);
+    }
+
+    public TelemetryBatch(int capacity) {
+        this.typeIdentifiers = new byte[capacity];
+        this.infoAddresses = new int[capacity];
+        this.values = new double[capacity];
+        this.qualities = new byte[capacity];
+        this.timeScales = new long[capacity];
+    }
+
+
+    /**
+     * 重置批次
+     *
+     * @param typeIdentifier 类型标识符TI
+     * @param transferReason 传输原因COT
+     * @param commonAddress  公共地址
+     */
+    public void reset(TypeIdentifierEnum typeIdentifier, short transferReason, short commonAddress) {
+        this.typeIdentifier = typeIdentifier;
+        this.transferReason = transferReason;
+        this.commonAddress = commonAddress;
+        this.size = 0;
+    }
+
+
+    /**
+     * 添加一个信息数据
+     *
+     * @param infoAddress 信息对象地址
+     * @param value       信息对象值
+     * @param quality     品质描述符
+     * @param timeScale   时标 (毫秒时间戳, 无时标为 NO_TIME_SCALE)
+     */
+    public void add(int infoAddress, double value, byte quality, long timeScale) {
+        add(typeIdentifier, infoAddress, value, quality, timeScale);
+    }
+
+
+    /**
+     * 添加一个信息数据 (指定该行的类型标识符, 不改变批次的类型标识符)
+     *
+     * @param rowTypeIdentifier 该行的类型标识符TI
+     * @param infoAddress       信息对象地址
+     * @param value             信息对象值
+     * @param quality           品质描述符
+     * @param timeScale         时标 (毫秒时间戳, 无时标为 NO_TIME_SCALE)
+     */
+    public void add(TypeIdentifierEnum rowTypeIdentifier, int infoAddress, double value, byte quality, long timeScale) {
+        if (size == infoAddresses.length) {
+            grow();
+        }
+        typeIdentifiers[size] = rowTypeIdentifier == null ? 0 : rowTypeIdentifier.getValue();
+        infoAddresses[size] = infoAddress;
+        values[size] = value;
+        qualities[size] = quality;
+        timeScales[size] = timeScale;
+        size++;
+    }
+
+
+    /**
+     * 将第 from 行复制到第 to 行 (用于原地压缩批次)
+     *
+     * @param from 源行
+     * @param to   目标行
+     */
+    public void moveRow(int from, int to) {
+        typeIdentifiers[to] = typeIdentifiers[from];
+        infoAddresses[to] = infoAddresses[from];
+        values[to] = values[from];
+        qualities[to] = qualities[from];
+        timeScales[to] = timeScales[from];
+    }
+
+
+    /**
+     * 只保留前 size 行
+     *
+     * @param size 信息数据个数
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new RuntimeException("信息数据个数超出范围: " + size);
+        }
+        this.size = size;
+    }
+
+
+    /**
+     * 按 类型标识符、信息对象地址 排序 (稳定排序, 已有序时不做任何处理)
+     */
+    public void sort() {
+        long[] order = new long[size];
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            order[i] = (typeIdentifiers[i] & 0xFFL) << 56 | (infoAddresses[i] & 0xFFFFFFL) << 32 | i;
+            sorted &= i == 0 || order[i - 1] < order[i];
+        }
+        if (sorted) {
+            return;
+        }
+        Arrays.sort(order);
+
+        byte[] sortedTypeIdentifiers = new byte[typeIdentifiers.length];
+        int[] sortedInfoAddresses = new int[infoAddresses.length];
+        double[] sortedValues = new double[values.length];
+        byte[] sortedQualities = new byte[qualities.length];
+        long[] sortedTimeScales = new long[timeScales.length];
+        for (int i = 0; i < size; i++) {
+            int row = (int) order[i];
+            sortedTypeIdentifiers[i] = typeIdentifiers[row];
+            sortedInfoAddresses[i] = infoAddresses[row];
+            sortedValues[i] = values[row];
+            sortedQualities[i] = qualities[row];
+            sortedTimeScales[i] = timeScales[row];
+        }
+        typeIdentifiers = sortedTypeIdentifiers;
+        infoAddresses = sortedInfoAddresses;
+        values = sortedValues;
+        qualities = sortedQualities;
+        timeScales = sortedTimeScales;
+    }
+
+
+    /**
+     * 复制批次 (批次只在回调期间有效, 需要转交给其他线程时使用)
+     *
+     * @return 新的批次
+     */
+    public TelemetryBatch copy() {
+        TelemetryBatch copy = new TelemetryBatch(Math.max(size, 1));
+        copy.reset(typeIdentifier, transferReason, commonAddress);
+        System.arraycopy(typeIdentifiers, 0, copy.typeIdentifiers, 0, size);
+        System.arraycopy(infoAddresses, 0, copy.infoAddresses, 0, size);
+        System.arraycopy(values, 0, copy.values, 0, size);
+        System.arraycopy(qualities, 0, copy.qualities, 0, size);
+        System.arraycopy(timeScales, 0, copy.timeScales, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+
+    private void grow() {
+        int capacity = Math.max(infoAddresses.length << 1, 8);
+        typeIdentifiers = Arrays.copyOf(typeIdentifiers, capacity);
+        infoAddresses = Arrays.copyOf(infoAddresses, capacity);
+        values = Arrays.copyOf(values, capacity);
+        qualities = Arrays.copyOf(qualities, capacity);
+        timeScales = Arrays.copyOf(timeScales, capacity);
+    }
+
+
+    public TypeIdentifierEnum getTypeIdentifier(int index) {
+        return TypeIdentifierEnum.ofValue(typeIdentifiers[index]);
+    }
+
+    public int getInfoAddress(int index) {
+        return infoAddresses[index];
+    }
+
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    public float getFloatValue(int index) {
+        return (float) values[index];
+    }
+
+    public int getIntValue(int index) {
+        return (int) values[index];
+    }
+
+    public byte getQuality(int index) {
+        return qualities[index];
+    }
+
+    public long getTimeScale(int index) {
+        return timeScales[index];
+    }
+
+    public boolean hasTimeScale(int index) {
+        return timeScales[index] != NO_TIME_SCALE;
+    }
+
+
+    /**
+     * 是否支持转换为批次数据 (监视方向过程信息: 遥信、遥测、步位置、比特串、累计量、继电保护事件)
+     *
+     * @param typeIdentifier 类型标识符TI
+     * @return boolean
+     */
+    public static boolean isSupported(TypeIdentifierEnum typeIdentifier) {
+        return TypeIdentifierEnum.isMonitor(typeIdentifier);
+    }
+
+
+    /**
+     * 从 只读视图 填充批次 (不构建 Message)
+     *
+     * @param view 只读视图
+     */
+    public void fill(MessageView view) {
+        reset(view.getTypeIdentifier(), view.getTransferReason(), view.getCommonAddress());
+        append(view);
+    }
+
+
+    /**
+     * 从 只读视图 追加到批次末尾 (不重置批次, 类型标识符与已有数据不同时 批次的类型标识符置为空)
+     *
+     * @param view 只读视图
+     */
+    public void append(MessageView view) {
+        TypeIdentifierEnum ti = view.getTypeIdentifier();
+        mergeTypeIdentifier(ti);
+
+        boolean hasTimeScale = TypeIdentifierEnum.hasMessageInfoTimeScale(ti);
+        int listSize = view.getMessageInfoListSize();
+        for (int i = 0; i < listSize; i++) {
+            // 丢弃的无效时标 Cp56Time2aCodec.INVALID_TIME 与 NO_TIME_SCALE 相同
+            long timeScale = hasTimeScale ? view.getTimeScaleMillis(i) : NO_TIME_SCALE;
+            add(ti, view.getInfoAddress(i), view.getValue(i), view.getQuality(i), timeScale);
+        }
+    }
+
+
+    /**
+     * 从 ASDU 填充批次
+     *
+     * @param asdu ASDU
+     */
+    public void fill(MessageASDU asdu) {
+        reset(asdu.getTypeIdentifier(), asdu.getTransferReason(), asdu.getCommonAddress());
+        append(asdu);
+    }
+
+
+    /**
+     * 从 ASDU 追加到批次末尾 (不重置批次, 类型标识符与已有数据不同时 批次的类型标识符置为空)
+     *
+     * @param asdu ASDU
+     */
+    public void append(MessageASDU asdu) {
+        TypeIdentifierEnum ti = asdu.getTypeIdentifier();
+        mergeTypeIdentifier(ti);
+
+        InfoElementTypeEnum elementType = ti.getElementType();
+        for (MessageInfo info : asdu.getMessageInfoList()) {
+            byte[] infoValue = info.getInfoValue();
+            byte quality = elementType.getQuality(infoValue);
+            if (info.getQualifier() != null) {
+                quality |= info.getQualifier().getValue();
+            } else if (info.getQualifierValue() != null) {
+                quality |= info.getQualifierValue();
+            }
+            long timeScale = info.getTimeScale() == null ? NO_TIME_SCALE : info.getTimeScale().getTime();
+            add(ti, info.getInfoAddress(), elementType.getValue(infoValue), quality, timeScale);
+        }
+    }
+
+
+    /**
+     * 追加数据时合并批次的类型标识符 (空批次取追加的类型, 类型不同时置为空)
+     */
+    private void mergeTypeIdentifier(TypeIdentifierEnum ti) {
+        if (size == 0) {
+            typeIdentifier = ti;
+        } else if (typeIdentifier != ti) {
+            typeIdentifier = null;
+        }
+    }
+
+}
@@ -2,27 +2,56 @@ package com.baoyubo.iec104.server;
 
 import com.baoyubo.business.model.RemoteOperation;
 import com.baoyubo.iec104.config.ServerConfig;
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.dispatch.OrderedDispatcher;
+import com.baoyubo.iec104.enums.CotEnum;
+import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.enums.ResumePolicyEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
 import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.factory.TransportFactory;
 import com.baoyubo.iec104.handler.CommonDataHandler;
 import com.baoyubo.iec104.handler.DataDecoder;
 import com.baoyubo.iec104.handler.DataEncoder;
-import com.baoyubo.iec104.handler.LengthAndHeaderPrepender;
+import com.baoyubo.iec104.handler.FrameTraceHandler;
+import com.baoyubo.iec104.handler.MetricsHandler;
 import com.baoyubo.iec104.handler.ServerDataHandler;
+import com.baoyubo.iec104.journal.EventJournal;
+import com.baoyubo.iec104.manager.ConnectionManager;
+import com.baoyubo.iec104.manager.PointImageManager;
+import com.baoyubo.iec104.manager.ResumeManager;
+import com.baoyubo.iec104.metrics.MetricsRegistry;
+import com.baoyubo.iec104.metrics.ProtocolMetrics;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+import com.baoyubo.iec104.model.EncodedMessage;
 import com.baoyubo.iec104.model.Message;
+import com.baoyubo.iec104.model.MessageView;
+import com.baoyubo.iec104.model.TelemetryBatch;
+import com.baoyubo.iec104.util.Cp56Time2aCodec;
 import com.baoyubo.iec104.util.JsonUtil;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
-import io.netty.handler.timeout.IdleStateHandler;
+import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.springframework.lang.NonNull;
 
@@ -37,9 +66,58 @@ public class Iec104ServerChannel implements ServerChannel {
     private static final Logger LOGGER = LoggerFactory.getLogger(Iec104ServerChannel.class);
 
     /**
-     * 服务端数据处理
+     * 关闭时 等待业务分发处理完已接收数据的最长时间 (毫秒)
      */
-    private final ServerDataHandler serverDataHandler;
+    private static final long DISPATCH_CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * 连接管理
+     */
+    @Getter
+    private final ConnectionManager connectionManager = new ConnectionManager("服务端");
+
+    /**
+     * 会话恢复管理 (所有连接共享, 按对端主机区分)
+     */
+    private final ResumeManager resumeManager;
+
+    /**
+     * 事件日志 (未配置目录时为 null)
+     */
+    @Getter
+    private final EventJournal eventJournal;
+
+    /**
+     * 过程映像 (所有连接共享, 未开启时为 null)
+     */
+    @Getter
+    private final PointImageManager pointImageManager;
+
+    /**
+     * 业务分发 (所有连接共享工作线程池, 未开启时为 null)
+     */
+    @Getter
+    private final OrderedDispatcher dispatcher;
+
+    /**
+     * 协议统计 (按对端主机, 未开启时为 null)
+     */
+    @Getter
+    private final MetricsRegistry metricsRegistry;
+
+    /**
+     * 时标 CP56Time2a 编解码 (所有连接共享)
+     */
+    private final Cp56Time2aCodec timeCodec;
+
+    private final EventLoopGroup bossGroup;
+
+    private final EventLoopGroup workerGroup;
+
+    /**
+     * 服务端监听 Channel
+     */
+    private final Channel serverChannel;
 
 
     /**
@@ -49,7 +127,21 @@ public class Iec104ServerChannel implements ServerChannel {
      * @param dataConsumer 服务端数据消费者
      */
     public Iec104ServerChannel(ServerConfig config, Consumer<RemoteOperation> dataConsumer) {
-        this.serverDataHandler = initIEC104Server(config, dataConsumer);
+        this.resumeManager = new ResumeManager(config.getResumePolicy(), config.getResumeExpireSeconds(),
+                config.getResumePeers() == null ? Collections.emptyMap() : config.getResumePeers());
+        if (config.getResumePolicy() != ResumePolicyEnum.NONE && (config.getResumePeers() == null || config.getResumePeers().isEmpty())) {
+            LOGGER.warn("[服务端-会话恢复] 未配置会话恢复对端 resumePeers, 所有连接都不会恢复");
+        }
+        this.eventJournal = config.getJournalDir() == null ? null
+                : new EventJournal(new File(config.getJournalDir()), config.getJournalSegmentSize(), TimeUnit.HOURS.toMillis(config.getJournalRetentionHours()));
+        this.pointImageManager = config.isPointImage() ? new PointImageManager() : null;
+        this.dispatcher = config.getDispatchWorkers() > 0
+                ? new OrderedDispatcher("服务端", "iec104-server-dispatch", config.getDispatchWorkers(), config.getDispatchQueueSize(), config.getDispatchOverflowPolicy()) : null;
+        this.metricsRegistry = config.isMetrics() ? new MetricsRegistry("服务端", config.getMetricsMaxTags()) : null;
+        this.timeCodec = Cp56Time2aCodec.of(config.getTimeZone(), config.isSummerTimeBit(), config.isDiscardInvalidTime());
+        this.bossGroup = TransportFactory.newEventLoopGroup(config.getTransport(), 1);
+        this.workerGroup = TransportFactory.newEventLoopGroup(config.getTransport(), config.getIoThreads());
+        this.serverChannel = initIEC104Server(config, dataConsumer);
     }
 
 
@@ -58,50 +150,310 @@ public class Iec104ServerChannel implements ServerChannel {
      *
      * @param config          服务端配置
      * @param bizDataConsumer 服务端业务数据消费者
-     * @return 服务端连接句柄
+     * @return 服务端监听 Channel
      */
-    private ServerDataHandler initIEC104Server(ServerConfig config, Consumer<RemoteOperation> bizDataConsumer) {
-
-        // 服务端数据处理
-        ServerDataHandler serverDataHandler = new ServerDataHandler(bizDataConsumer);
+    private Channel initIEC104Server(ServerConfig config, Consumer<RemoteOperation> bizDataConsumer) {
 
-        EventLoopGroup bossGroup = new NioEventLoopGroup();
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
         ServerBootstrap serverBootstrap = new ServerBootstrap()
                 .group(bossGroup, workerGroup)
-                .channel(NioServerSocketChannel.class)
+                .channel(TransportFactory.serverSocketChannelClass(bossGroup))
+                .option(ChannelOption.SO_BACKLOG, config.getSoBacklog())
+                .childOption(ChannelOption.TCP_NODELAY, config.isTcpNoDelay())
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()))
                 .childHandler(new ChannelInitializer<SocketChannel>() {
                     @Override
                     protected void initChannel(@NonNull SocketChannel ch) {
+                        // 协议统计 (同一对端主机的连接共享)
+                        ProtocolMetrics metrics = metricsRegistry == null ? null : metricsRegistry.get(ch.remoteAddress().getHostString());
                         ch.pipeline().addLast(new LoggingHandler(LogLevel.DEBUG));
+                        if (metrics != null) {
+                            ch.pipeline().addLast(new MetricsHandler(metrics));
+                        }
                         ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(255, 1, 1, 0, 0));
-                        ch.pipeline().addLast(new LengthAndHeaderPrepender());
-                        ch.pipeline().addLast(new IdleStateHandler(config.getChannelTestDuration(), 0, 0));
-                        ch.pipeline().addLast(new DataEncoder("服务端"));
-                        ch.pipeline().addLast(new DataDecoder("服务端"));
-                        ch.pipeline().addLast(new CommonDataHandler("服务端"));
-                        ch.pipeline().addLast(serverDataHandler);
+                        if (config.getFrameTraceSampleRate() > 0 || config.getFrameTraceRingSize() > 0) {
+                            ch.pipeline().addLast(new FrameTraceHandler("服务端", config.getFrameTraceSampleRate(), config.getFrameTraceRingSize()));
+                        }
+                        ch.pipeline().addLast(new DataEncoder("服务端", timeCodec));
+                        ch.pipeline().addLast(new DataDecoder("服务端", config.isFlyweightDecode(), timeCodec));
+                        ch.pipeline().addLast(new CommonDataHandler("服务端", config.getK(), config.getW(), config.getAckDelayMillis(), config.getAckTimeout(), config.getChannelTestDuration(), resumeManager, metrics));
+                        // 服务端数据处理 (每个连接一个实例, 连接状态互不影响)
+                        ch.pipeline().addLast(new ServerDataHandler(bizDataConsumer, connectionManager, pointImageManager, dispatcher));
                     }
                 });
-        serverBootstrap.bind(config.getPort());
+        if (config.getSoRcvBuf() > 0) {
+            serverBootstrap.childOption(ChannelOption.SO_RCVBUF, config.getSoRcvBuf());
+        }
+        if (config.getSoSndBuf() > 0) {
+            serverBootstrap.childOption(ChannelOption.SO_SNDBUF, config.getSoSndBuf());
+        }
 
-        return serverDataHandler;
+        return serverBootstrap.bind(config.getPort()).channel();
     }
 
 
     @Override
     public void push(RemoteOperation remoteOperation) {
-        LOGGER.info("[服务端-推送远程操控] {} , RemoteOperation : {}", remoteOperation.getOperateType().getDescription(), JsonUtil.toJsonString(remoteOperation));
+        LOGGER.info("[服务端-推送远程操控-广播] {} , 连接数 = {}, RemoteOperation : {}", remoteOperation.getOperateType().getDescription(), connectionManager.size(), JsonUtil.lazyJson(remoteOperation));
+
+        updatePointImage(Constants.DEFAULT_COMMON_ADDRESS, remoteOperation);
+        List<Message> messages = MessageFactory.buildServerMessagesByRemoteOperation(remoteOperation);
+        LOGGER.debug("[服务端-推送远程操控-广播] {} , 消息数 = {}, Messages : {}", remoteOperation.getOperateType().getDescription(), messages.size(), JsonUtil.lazyJson(messages));
+
+        writeAndFlush(connectionManager.getAllChannels(), messages);
+    }
+
+
+    @Override
+    public void push(String remoteAddress, RemoteOperation remoteOperation) {
+        LOGGER.info("[服务端-推送远程操控] {} , 远程地址 = {}, RemoteOperation : {}", remoteOperation.getOperateType().getDescription(), remoteAddress, JsonUtil.lazyJson(remoteOperation));
+
+        Channel channel = connectionManager.getChannel(remoteAddress);
+        if (channel == null) {
+            throw new RuntimeException("连接不存在: " + remoteAddress);
+        }
+
+        updatePointImage(Constants.DEFAULT_COMMON_ADDRESS, remoteOperation);
+        List<Message> messages = MessageFactory.buildServerMessagesByRemoteOperation(remoteOperation);
+        LOGGER.debug("[服务端-推送远程操控] {} , 消息数 = {}, Messages : {}", remoteOperation.getOperateType().getDescription(), messages.size(), JsonUtil.lazyJson(messages));
+
+        // 多条消息只 flush 一次 (合并为一次系统调用)
+        for (Message message : messages) {
+            channel.write(message);
+        }
+        channel.flush();
+    }
+
+
+    @Override
+    public void pushGroup(short commonAddress, RemoteOperation remoteOperation) {
+        updatePointImage(commonAddress, remoteOperation);
+        ChannelGroup group = connectionManager.getGroup(commonAddress);
+        LOGGER.info("[服务端-推送远程操控-分组] {} , 公共地址 = {}, 连接数 = {}, RemoteOperation : {}", remoteOperation.getOperateType().getDescription(), commonAddress, group == null ? 0 : group.size(), JsonUtil.lazyJson(remoteOperation));
+        if (group == null || group.isEmpty()) {
+            return;
+        }
+
+        List<Message> messages = MessageFactory.buildServerMessagesByRemoteOperation(remoteOperation);
+        for (Message message : messages) {
+            if (message.getAsdu() != null) {
+                message.getAsdu().setCommonAddress(commonAddress);
+            }
+        }
+        LOGGER.debug("[服务端-推送远程操控-分组] {} , 消息数 = {}, Messages : {}", remoteOperation.getOperateType().getDescription(), messages.size(), JsonUtil.lazyJson(messages));
+
+        writeAndFlush(group, messages);
+    }
+
+
+    @Override
+    public void pushBatch(List<TelemetryBatch> batches) {
+        List<Message> messages = buildBatchMessages(Constants.DEFAULT_COMMON_ADDRESS, batches);
+        LOGGER.info("[服务端-批量推送-广播] 连接数 = {}, 信息对象数 = {}, 消息数 = {}", connectionManager.size(), countRows(batches), messages.size());
+
+        writeAndFlush(connectionManager.getAllChannels(), messages);
+    }
+
+
+    @Override
+    public void pushBatch(String remoteAddress, List<TelemetryBatch> batches) {
+        Channel channel = connectionManager.getChannel(remoteAddress);
+        if (channel == null) {
+            throw new RuntimeException("连接不存在: " + remoteAddress);
+        }
+
+        List<Message> messages = buildBatchMessages(Constants.DEFAULT_COMMON_ADDRESS, batches);
+        LOGGER.info("[服务端-批量推送] 远程地址 = {}, 信息对象数 = {}, 消息数 = {}", remoteAddress, countRows(batches), messages.size());
+
+        for (Message message : messages) {
+            channel.write(message);
+        }
+        channel.flush();
+    }
 
-        Message message = MessageFactory.buildServerMessageByRemoteOperation(remoteOperation);
-        LOGGER.debug("[服务端-推送远程操控] {} , Message : {}", remoteOperation.getOperateType().getDescription(), JsonUtil.toJsonString(message));
 
-        this.serverDataHandler.getCtx().writeAndFlush(message);
+    @Override
+    public void pushGroupBatch(short commonAddress, List<TelemetryBatch> batches) {
+        List<Message> messages = buildBatchMessages(commonAddress, batches);
+        ChannelGroup group = connectionManager.getGroup(commonAddress);
+        LOGGER.info("[服务端-批量推送-分组] 公共地址 = {}, 连接数 = {}, 信息对象数 = {}, 消息数 = {}", commonAddress, group == null ? 0 : group.size(), countRows(batches), messages.size());
+        if (group == null || group.isEmpty()) {
+            return;
+        }
+
+        writeAndFlush(group, messages);
+    }
+
+
+    /**
+     * 批次 -> IEC104协议消息 (排序后按APDU长度限制打包, 同时更新过程映像)
+     *
+     * @param commonAddress 公共地址
+     * @param batches       批次列表
+     * @return IEC104协议消息列表
+     */
+    private List<Message> buildBatchMessages(short commonAddress, List<TelemetryBatch> batches) {
+        List<Message> messages = new ArrayList<>();
+        for (TelemetryBatch batch : batches) {
+            batch.sort();
+            updatePointImage(commonAddress, batch);
+            for (Message message : MessageFactory.buildServerPointMessages(batch)) {
+                message.getAsdu().setCommonAddress(commonAddress);
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+
+    private static int countRows(List<TelemetryBatch> batches) {
+        int rows = 0;
+        for (TelemetryBatch batch : batches) {
+            rows += batch.getSize();
+        }
+        return rows;
+    }
+
+
+    /**
+     * 批量推送的 遥信/遥测 更新到过程映像 (未开启过程映像时忽略)
+     *
+     * @param commonAddress 公共地址
+     * @param batch         批次
+     */
+    private void updatePointImage(short commonAddress, TelemetryBatch batch) {
+        if (pointImageManager == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < batch.getSize(); i++) {
+            pointImageManager.update(commonAddress, batch.getInfoAddress(i), batch.getTypeIdentifier(i), batch.getValue(i), batch.getQuality(i), now);
+        }
+    }
+
+
+    /**
+     * 推送的 遥信/遥测 更新到过程映像 (未开启过程映像时忽略)
+     *
+     * @param commonAddress   公共地址
+     * @param remoteOperation 远程操控
+     */
+    private void updatePointImage(short commonAddress, RemoteOperation remoteOperation) {
+        if (pointImageManager == null || remoteOperation.getParams() == null) {
+            return;
+        }
+        TypeIdentifierEnum typeIdentifier;
+        switch (remoteOperation.getOperateType()) {
+            case HARUNOBU:
+            case GENERAL_CALL_HARUNOBU:
+                typeIdentifier = TypeIdentifierEnum.ONE_POINT_HARUNOBU;
+                break;
+            case TELEMETRY:
+            case GENERAL_CALL_TELEMETRY:
+                typeIdentifier = TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY;
+                break;
+            default:
+                return;
+        }
+        long now = System.currentTimeMillis();
+        remoteOperation.getParams().forEach((infoAddress, value) ->
+                pointImageManager.update(commonAddress, infoAddress, typeIdentifier, ((Number) value).doubleValue(), (byte) 0, now));
+    }
+
+
+    /**
+     * 向一组连接发送消息 (全部写入后只 flush 一次)
+     * <p>
+     * I帧: ASDU 只编码一次, ChannelGroup 为每个连接生成 retainedDuplicate() 副本, 控制域由各连接独立填充
+     * 突发(自发)数据: 已编码的 ASDU 同时写入事件日志
+     *
+     * @param group    连接分组
+     * @param messages messages
+     */
+    private void writeAndFlush(ChannelGroup group, List<Message> messages) {
+        for (Message message : messages) {
+            if (FrameTypeEnum.I_FRAME != message.getFrameType()) {
+                group.write(message);
+                continue;
+            }
+            EncodedMessage encodedMessage = new EncodedMessage(DataEncoder.encodeASDU(message.getAsdu(), ByteBufAllocator.DEFAULT, timeCodec), message);
+            if (eventJournal != null && isSpontaneous(message)) {
+                eventJournal.append(encodedMessage.content(), System.currentTimeMillis());
+            }
+            group.write(encodedMessage);
+        }
+        group.flush();
+    }
+
+
+    /**
+     * 是否为 突发(自发) 数据
+     */
+    private static boolean isSpontaneous(Message message) {
+        Short transferReason = message.getAsdu().getTransferReason();
+        return transferReason != null && CotEnum.SPONT.getCode() == transferReason;
+    }
+
+
+    @Override
+    public int replayJournal(String remoteAddress, long fromSequence) {
+        if (eventJournal == null) {
+            throw new RuntimeException("未开启事件日志");
+        }
+        Channel channel = connectionManager.getChannel(remoteAddress);
+        if (channel == null) {
+            throw new RuntimeException("连接不存在: " + remoteAddress);
+        }
+
+        int replayed = eventJournal.replay(fromSequence, (sequence, timestamp, asdu) -> channel.write(toEncodedMessage(asdu)));
+        channel.flush();
+        LOGGER.info("[服务端-事件日志重放] 远程地址 = {}, 起始序列号 = {}, 重放数量 = {}", remoteAddress, fromSequence, replayed);
+        return replayed;
+    }
+
+
+    /**
+     * 事件日志中的 ASDU 转换为 已编码的I帧消息 (复制 ASDU, 同时解析出 Message 用于缓存重发)
+     *
+     * @param asdu ASDU字节报文
+     * @return EncodedMessage
+     */
+    private EncodedMessage toEncodedMessage(ByteBuf asdu) {
+        ByteBuf content = Unpooled.buffer(4 + asdu.readableBytes());
+        content.writeZero(4);
+        content.writeBytes(asdu, asdu.readerIndex(), asdu.readableBytes());
+        MessageView messageView = new MessageView(content, timeCodec);
+        try {
+            return new EncodedMessage(content.retainedSlice(4, asdu.readableBytes()), messageView.toMessage());
+        } finally {
+            messageView.release();
+        }
+    }
+
+
+    @Override
+    public List<String> getRemoteAddresses() {
+        return connectionManager.getRemoteAddresses();
+    }
+
+
+    @Override
+    public List<ProtocolMetricsSnapshot> getMetrics() {
+        return metricsRegistry == null ? Collections.emptyList() : metricsRegistry.snapshot();
     }
 
 
     @Override
     public void closeServer() {
-        this.serverDataHandler.getCtx().close();
+        LOGGER.info("[服务端-关闭服务端] 关闭所有连接, 连接数 = {}", connectionManager.size());
+        connectionManager.getAllChannels().close().awaitUninterruptibly();
+        serverChannel.close().awaitUninterruptibly();
+        bossGroup.shutdownGracefully();
+        workerGroup.shutdownGracefully();
+        if (dispatcher != null) {
+            dispatcher.close(DISPATCH_CLOSE_TIMEOUT_MILLIS);
+        }
+        if (eventJournal != null) {
+            eventJournal.close();
+        }
     }
 }
@@ -1,6 +1,10 @@
 package com.baoyubo.iec104.server;
 
 import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+import com.baoyubo.iec104.model.TelemetryBatch;
+
+import java.util.List;
 
 /**
  * 服务端 Channel
@@ -11,7 +15,7 @@ import com.baoyubo.business.model.RemoteOperation;
 public interface ServerChannel {
 
     /**
-     * 推送远程操控
+     * 推送远程操控 (广播到所有连接, ASDU 只编码一次)
      * <p>
      * * 遥信
      * * 总召唤遥信
@@ -23,6 +27,70 @@ public interface ServerChannel {
      */
     void push(RemoteOperation remoteOperation);
 
+    /**
+     * 推送远程操控 到指定连接
+     *
+     * @param remoteAddress   远程地址 (host:port)
+     * @param remoteOperation 远程操控
+     */
+    void push(String remoteAddress, RemoteOperation remoteOperation);
+
+    /**
+     * 推送远程操控 到绑定了指定公共地址的所有连接 (ASDU 只编码一次)
+     *
+     * @param commonAddress   公共地址
+     * @param remoteOperation 远程操控
+     */
+    void pushGroup(short commonAddress, RemoteOperation remoteOperation);
+
+    /**
+     * 批量推送 遥信/遥测 (广播到所有连接, 所有批次打包后只 flush 一次)
+     * <p>
+     * 每个批次按 类型标识符、信息对象地址 排序后打包, 传输原因取批次的值, 公共地址为默认公共地址
+     *
+     * @param batches 批次列表
+     */
+    void pushBatch(List<TelemetryBatch> batches);
+
+    /**
+     * 批量推送 遥信/遥测 到指定连接
+     *
+     * @param remoteAddress 远程地址 (host:port)
+     * @param batches       批次列表
+     */
+    void pushBatch(String remoteAddress, List<TelemetryBatch> batches);
+
+    /**
+     * 批量推送 遥信/遥测 到绑定了指定公共地址的所有连接
+     *
+     * @param commonAddress 公共地址
+     * @param batches       批次列表
+     */
+    void pushGroupBatch(short commonAddress, List<TelemetryBatch> batches);
+
+    /**
+     * 从事件日志重放 突发(自发)数据 到指定连接
+     *
+     * @param remoteAddress 远程地址 (host:port)
+     * @param fromSequence  起始日志序列号
+     * @return 重放数量
+     */
+    int replayJournal(String remoteAddress, long fromSequence);
+
+    /**
+     * 获取所有连接的 远程地址
+     *
+     * @return 远程地址列表 (host:port)
+     */
+    List<String> getRemoteAddresses();
+
+    /**
+     * 获取协议统计 (按对端主机)
+     *
+     * @return 统计快照列表 (未开启时为空)
+     */
+    List<ProtocolMetricsSnapshot> getMetrics();
+
     /**
      * 主动关闭服务端
      */
@@ -0,0 +1,72 @@
+package com.baoyubo.iec104.sink;
+
+import static com.baoyubo.iec104.enums.CotEnum.INTROGEN;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.model.TelemetryBatch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 遥测/遥信 数据接收器 适配器 (批次数据 -> 远程操控)
+ * <p>
+ * 用于兼容基于 Map 的业务模型
+ *
+ * @author yubo.bao
+ * @date 2026/10/17 15:05
+ */
+public class RemoteOperationTelemetrySink implements TelemetrySink {
+
+    /**
+     * 业务数据消费者
+     */
+    private final Consumer<RemoteOperation> bizDataConsumer;
+
+
+    public RemoteOperationTelemetrySink(Consumer<RemoteOperation> bizDataConsumer) {
+        this.bizDataConsumer = bizDataConsumer;
+    }
+
+
+    @Override
+    public void accept(TelemetryBatch batch) {
+        bizDataConsumer.accept(toRemoteOperation(batch));
+    }
+
+
+    /**
+     * 批次数据 转换为 远程操控
+     *
+     * @param batch 批次数据
+     * @return RemoteOperation
+     */
+    public static RemoteOperation toRemoteOperation(TelemetryBatch batch) {
+        boolean isGeneralCall = INTROGEN.getCode() == batch.getTransferReason();
+        boolean isHarunobu = TypeIdentifierEnum.isHarunobu(batch.getTypeIdentifier());
+
+        // 遥信：Object 为整型; 遥测 及 其他监视信息：Object 为短浮点型 (合并批次按行判断)
+        Map<Integer, Object> params = new HashMap<>();
+        for (int i = 0; i < batch.getSize(); i++) {
+            if (TypeIdentifierEnum.isHarunobu(batch.getTypeIdentifier(i))) {
+                params.put(batch.getInfoAddress(i), (int) (byte) (batch.getIntValue(i) | batch.getQuality(i)));
+            } else {
+                params.put(batch.getInfoAddress(i), batch.getFloatValue(i));
+            }
+        }
+
+        RemoteOperation remoteOperation = new RemoteOperation();
+        if (isHarunobu) {
+            remoteOperation.setOperateType(isGeneralCall ? RemoteOperateTypeEnum.GENERAL_CALL_HARUNOBU : RemoteOperateTypeEnum.HARUNOBU);
+        } else {
+            remoteOperation.setOperateType(isGeneralCall ? RemoteOperateTypeEnum.GENERAL_CALL_TELEMETRY : RemoteOperateTypeEnum.TELEMETRY);
+        }
+        remoteOperation.setParams(params);
+        remoteOperation.setCommonAddress(batch.getCommonAddress());
+        return remoteOperation;
+    }
+
+}
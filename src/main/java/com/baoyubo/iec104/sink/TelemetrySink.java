@@ -0,0 +1,23 @@
+package com.baoyubo.iec104.sink;
+
+import com.baoyubo.iec104.model.TelemetryBatch;
+
+/**
+ * 遥测/遥信 数据接收器 (低分配, 无装箱)
+ * <p>
+ * 每收到一个 遥信/遥测 ASDU 回调一次, 批次对象由调用方重复使用, 只在回调期间有效
+ *
+ * @author yubo.bao
+ * @date 2026/10/17 15:05
+ */
+@FunctionalInterface
+public interface TelemetrySink {
+
+    /**
+     * 处理 遥测/遥信 批次数据
+     *
+     * @param batch 列式批量数据 (公共地址、信息对象地址、值、品质描述符、时标)
+     */
+    void accept(TelemetryBatch batch);
+
+}
@@ -1,7 +1,7 @@
 package com.baoyubo.iec104.util;
 
-import java.io.ByteArrayOutputStream;
-import java.util.Calendar;
+import io.netty.buffer.Unpooled;
+
 import java.util.Date;
 
 /**
@@ -101,84 +101,28 @@ public final class ByteUtil {
 
 
     /**
-     * 将 日期 转换为 CP56Time2a 格式字节数组 (占7个字节)
+     * 将 日期 转换为 CP56Time2a 格式字节数组 (占7个字节, 系统默认时区)
      *
      * @param date 日期
      * @return 字节数组
+     * @see Cp56Time2aCodec
      */
     public static byte[] dateToCP56TimeByteArray(Date date) {
-        ByteArrayOutputStream bOutput = new ByteArrayOutputStream();
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-
-        // 毫秒需要转换成两个字节其中 低位在前高位在后
-        // 先转换成short
-        int millisecond = calendar.get(Calendar.SECOND) * 1000 + calendar.get(Calendar.MILLISECOND);
-
-        // 默认的高位在前
-        byte[] millisecondByte = new byte[]{
-            (byte) (0),
-            (byte) (0),
-            (byte) ((millisecond >> 8) & 0xFF),
-            (byte) (millisecond & 0xFF)
-        };
-
-        bOutput.write(millisecondByte[3]);
-        bOutput.write(millisecondByte[2]);
-
-        // 分钟 只占6个比特位 需要把前两位置为零
-        bOutput.write((byte) calendar.get(Calendar.MINUTE));
-
-        // 小时需要把前三位置零
-        bOutput.write((byte) calendar.get(Calendar.HOUR_OF_DAY));
-
-        // 星期日的时候 week 是0
-        int week = calendar.get(Calendar.DAY_OF_WEEK);
-        if (week == Calendar.SUNDAY) {
-            week = 7;
-        } else {
-            week--;
-        }
-
-        // 前三个字节是 星期 因此需要将星期向左移5位  后五个字节是日期  需要将两个数字相加 相加之前需要先将前三位置零
-        bOutput.write((byte) (week << 5) + (calendar.get(Calendar.DAY_OF_MONTH)));
-
-        // 前四字节置零
-        bOutput.write((byte) ((byte) calendar.get(Calendar.MONTH) + 1)); // 注意 Calendar.MONTH 的范围是 0~11 来表示 1~12 月份
-        bOutput.write((byte) (calendar.get(Calendar.YEAR) - 2000));
-
-        return bOutput.toByteArray();
+        byte[] byteArray = new byte[Cp56Time2aCodec.LENGTH];
+        Cp56Time2aCodec.DEFAULT.write(Unpooled.wrappedBuffer(byteArray).writerIndex(0), date.getTime());
+        return byteArray;
     }
 
 
     /**
-     * 将 CP56Time2a 格式字节数组 转换为 日期 (占7个字节)
+     * 将 CP56Time2a 格式字节数组 转换为 日期 (占7个字节, 系统默认时区)
      *
      * @param byteArray 字节数组
      * @return 日期
+     * @see Cp56Time2aCodec
      */
     public static Date cp56TimeByteArrayToDate(byte[] byteArray) {
-        int year = (byteArray[6] & 0x7F) + 2000;
-        int month = byteArray[5] & 0x0F;
-        int day = byteArray[4] & 0x1F;
-        int hour = byteArray[3] & 0x1F;
-        int minute = byteArray[2] & 0x3F;
-        int second = byteArray[1] > 0 ? byteArray[1] : (byteArray[1] & 0xff);
-        int millisecond = byteArray[0] > 0 ? byteArray[0] : (byteArray[0] & 0xff);
-
-        millisecond = (second << 8) + millisecond;
-        second = millisecond / 1000;
-        millisecond = millisecond % 1000;
-
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.YEAR, year);
-        calendar.set(Calendar.MONTH, month - 1); // 注意 Calendar.MONTH 的范围是 0~11 来表示 1~12 月份
-        calendar.set(Calendar.DAY_OF_MONTH, day);
-        calendar.set(Calendar.HOUR_OF_DAY, hour);
-        calendar.set(Calendar.MINUTE, minute);
-        calendar.set(Calendar.SECOND, second);
-        calendar.set(Calendar.MILLISECOND, millisecond);
-        return calendar.getTime();
+        return new Date(Cp56Time2aCodec.DEFAULT.get(Unpooled.wrappedBuffer(byteArray), 0));
     }
 
 
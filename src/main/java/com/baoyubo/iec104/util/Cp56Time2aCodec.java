@@ -0,0 +1,409 @@
+package com.baoyubo.iec104.util;
+
+import io.netty.buffer.ByteBuf;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * CP56Time2a 时标编解码 (ByteBuf <-> 毫秒时间戳)
+ * <pre>
+ * 字节格式 (7字节, 低位在前):
+ * 0-1 毫秒 (0-59999)
+ * 2   分钟 (低6位) + IV无效标志 (最高位)
+ * 3   小时 (低5位) + SU夏令时标志 (最高位)
+ * 4   日 (低5位) + 星期 (高3位, 1-7 表示 周一-周日)
+ * 5   月 (低4位)
+ * 6   年 (低7位, 2000年起)
+ *
+ * 1. 直接读写 ByteBuf, 不创建 Calendar、byte[]
+ * 2. 编码缓存当前时段 (同一天且时区偏移不变) 的日期字段, 缓存命中时只做整数运算
+ * 3. 解码缓存当前日期的 当天零点 及 时区偏移, 当天没有夏令时切换时只做整数运算 (SOE 批量时标通常在同一天)
+ * 4. 缓存为不可变对象 (volatile 替换), 多个连接共享同一个实例是线程安全的
+ * 5. 同时支持 CP24Time2a (CP56Time2a 的前3字节), 解码时按参考时间 (通常为接收时间) 补全为距离最近的时刻
+ *
+ * @author yubo.bao
+ * @date 2026/10/18 21:30
+ */
+public final class Cp56Time2aCodec {
+
+    /**
+     * 默认实例 (系统默认时区, 不设置夏令时标志, 不丢弃无效时标)
+     */
+    public static final Cp56Time2aCodec DEFAULT = new Cp56Time2aCodec(ZoneId.systemDefault(), false, false);
+
+    /**
+     * 无效时标 (开启 discardInvalid 时, 解码无效时标返回该值)
+     */
+    public static final long INVALID_TIME = Long.MIN_VALUE;
+
+    /**
+     * 时标字节长度
+     */
+    public static final int LENGTH = 7;
+
+    /**
+     * CP24Time2a 时标字节长度 (毫秒 + 分钟)
+     */
+    public static final int CP24_LENGTH = 3;
+
+    // IV 无效标志 (分钟字节最高位)
+    private static final int INVALID_BIT = 0x80;
+    // SU 夏令时标志 (小时字节最高位)
+    private static final int SUMMER_TIME_BIT = 0x80;
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MILLIS_PER_HALF_HOUR = MILLIS_PER_HOUR / 2;
+
+    /**
+     * 时区
+     */
+    private final ZoneId zone;
+
+    private final ZoneRules rules;
+
+    /**
+     * 编码时是否设置夏令时标志 SU
+     */
+    private final boolean summerTimeBit;
+
+    /**
+     * 解码时是否丢弃无效时标 (IV标志 或 字段越界)
+     */
+    private final boolean discardInvalid;
+
+    /**
+     * 编码缓存: 当前时段
+     */
+    private volatile EncodeSegment encodeSegment;
+
+    /**
+     * 解码缓存: 当前日期
+     */
+    private volatile DecodeDay decodeDay;
+
+
+    /**
+     * 构造函数
+     *
+     * @param zone           时区
+     * @param summerTimeBit  编码时是否设置夏令时标志 SU
+     * @param discardInvalid 解码时是否丢弃无效时标 (IV标志 或 字段越界, 丢弃时返回 INVALID_TIME; 否则忽略IV标志, 越界字段顺延)
+     */
+    public Cp56Time2aCodec(ZoneId zone, boolean summerTimeBit, boolean discardInvalid) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.summerTimeBit = summerTimeBit;
+        this.discardInvalid = discardInvalid;
+    }
+
+
+    /**
+     * 根据配置创建
+     *
+     * @param zoneId         时区 (为空时使用系统默认时区)
+     * @param summerTimeBit  编码时是否设置夏令时标志 SU
+     * @param discardInvalid 解码时是否丢弃无效时标
+     * @return Cp56Time2aCodec
+     */
+    public static Cp56Time2aCodec of(String zoneId, boolean summerTimeBit, boolean discardInvalid) {
+        ZoneId zone = zoneId == null || zoneId.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(zoneId);
+        if (zone.equals(DEFAULT.zone) && summerTimeBit == DEFAULT.summerTimeBit && discardInvalid == DEFAULT.discardInvalid) {
+            return DEFAULT;
+        }
+        return new Cp56Time2aCodec(zone, summerTimeBit, discardInvalid);
+    }
+
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+
+    /**
+     * 写入时标 (7字节)
+     *
+     * @param byteBuf     byteBuf
+     * @param epochMillis 毫秒时间戳
+     */
+    public void write(ByteBuf byteBuf, long epochMillis) {
+        EncodeSegment segment = encodeSegment;
+        if (segment == null || epochMillis < segment.start || epochMillis >= segment.end) {
+            segment = encodeSegment(epochMillis);
+            encodeSegment = segment;
+        }
+        long millisOfDay = segment.millisOfDayAtStart + (epochMillis - segment.start);
+        byteBuf.writeShortLE((int) (millisOfDay % MILLIS_PER_MINUTE));
+        byteBuf.writeByte((int) (millisOfDay / MILLIS_PER_MINUTE % 60));
+        byteBuf.writeByte((int) (millisOfDay / MILLIS_PER_HOUR) | segment.summerTime);
+        byteBuf.writeByte(segment.dayOfWeekAndMonth);
+        byteBuf.writeByte(segment.month);
+        byteBuf.writeByte(segment.year);
+    }
+
+
+    /**
+     * 写入无效时标 (IV标志置位, 其余字段为0)
+     *
+     * @param byteBuf byteBuf
+     */
+    public void writeInvalid(ByteBuf byteBuf) {
+        byteBuf.writeShortLE(0);
+        byteBuf.writeByte(INVALID_BIT);
+        byteBuf.writeInt(0);
+    }
+
+
+    /**
+     * 读取时标 (移动读指针7字节)
+     *
+     * @param byteBuf byteBuf
+     * @return 毫秒时间戳 (开启 discardInvalid 且时标无效时返回 INVALID_TIME)
+     */
+    public long read(ByteBuf byteBuf) {
+        long epochMillis = get(byteBuf, byteBuf.readerIndex());
+        byteBuf.skipBytes(LENGTH);
+        return epochMillis;
+    }
+
+
+    /**
+     * 读取指定位置的时标 (不移动读指针)
+     *
+     * @param byteBuf byteBuf
+     * @param index   时标起始下标
+     * @return 毫秒时间戳 (开启 discardInvalid 且时标无效时返回 INVALID_TIME)
+     */
+    public long get(ByteBuf byteBuf, int index) {
+        int millisOfMinute = byteBuf.getUnsignedShortLE(index);
+        int minuteByte = byteBuf.getUnsignedByte(index + 2);
+        int hourByte = byteBuf.getUnsignedByte(index + 3);
+        int day = byteBuf.getUnsignedByte(index + 4) & 0x1F;
+        int month = byteBuf.getUnsignedByte(index + 5) & 0x0F;
+        int year = (byteBuf.getUnsignedByte(index + 6) & 0x7F) + 2000;
+        int minute = minuteByte & 0x3F;
+        int hour = hourByte & 0x1F;
+
+        boolean valid = (minuteByte & INVALID_BIT) == 0 && millisOfMinute < MILLIS_PER_MINUTE && minute < 60 && hour < 24
+                && day >= 1 && month >= 1 && month <= 12;
+        if (!valid) {
+            if (discardInvalid) {
+                return INVALID_TIME;
+            }
+            // 宽松模式: 与 Calendar 一致, 越界字段顺延
+            LocalDate date = LocalDate.of(year, 1, 1).plusMonths(month - 1L).plusDays(day - 1L);
+            long localMillis = date.toEpochDay() * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + millisOfMinute;
+            return toEpochMillis(localMillis, (hourByte & SUMMER_TIME_BIT) != 0);
+        }
+
+        int dateKey = (year << 9) | (month << 5) | day;
+        DecodeDay cached = decodeDay;
+        if (cached == null || cached.dateKey != dateKey) {
+            if (day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+                if (discardInvalid) {
+                    return INVALID_TIME;
+                }
+                LocalDate date = LocalDate.of(year, month, 1).plusDays(day - 1L);
+                long localMillis = date.toEpochDay() * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + millisOfMinute;
+                return toEpochMillis(localMillis, (hourByte & SUMMER_TIME_BIT) != 0);
+            }
+            cached = decodeDay(dateKey, LocalDate.of(year, month, day));
+            decodeDay = cached;
+        }
+
+        long localMillis = cached.localDayStart + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + millisOfMinute;
+        if (cached.fixedOffset) {
+            return localMillis - cached.offsetMillis;
+        }
+        return toEpochMillis(localMillis, (hourByte & SUMMER_TIME_BIT) != 0);
+    }
+
+
+    /**
+     * 写入 CP24Time2a 时标 (3字节: 毫秒 + 分钟)
+     *
+     * @param byteBuf     byteBuf
+     * @param epochMillis 毫秒时间戳
+     */
+    public void writeCp24(ByteBuf byteBuf, long epochMillis) {
+        long offsetMillis = rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+        long millisOfHour = Math.floorMod(epochMillis + offsetMillis, MILLIS_PER_HOUR);
+        byteBuf.writeShortLE((int) (millisOfHour % MILLIS_PER_MINUTE));
+        byteBuf.writeByte((int) (millisOfHour / MILLIS_PER_MINUTE));
+    }
+
+
+    /**
+     * 写入无效 CP24Time2a 时标 (IV标志置位, 其余字段为0)
+     *
+     * @param byteBuf byteBuf
+     */
+    public void writeInvalidCp24(ByteBuf byteBuf) {
+        byteBuf.writeShortLE(0);
+        byteBuf.writeByte(INVALID_BIT);
+    }
+
+
+    /**
+     * 读取指定位置的 CP24Time2a 时标 (不移动读指针)
+     * <p>
+     * 时标只包含 分钟内毫秒数 及 分钟, 小时及日期取自参考时间: 在参考时间前后半小时内取距离最近的时刻
+     *
+     * @param byteBuf         byteBuf
+     * @param index           时标起始下标
+     * @param referenceMillis 参考时间 (毫秒时间戳)
+     * @return 毫秒时间戳 (开启 discardInvalid 且时标无效时返回 INVALID_TIME)
+     */
+    public long getCp24(ByteBuf byteBuf, int index, long referenceMillis) {
+        int millisOfMinute = byteBuf.getUnsignedShortLE(index);
+        int minuteByte = byteBuf.getUnsignedByte(index + 2);
+        int minute = minuteByte & 0x3F;
+        boolean valid = (minuteByte & INVALID_BIT) == 0 && millisOfMinute < MILLIS_PER_MINUTE && minute < 60;
+        if (!valid && discardInvalid) {
+            return INVALID_TIME;
+        }
+
+        long offsetMillis = rules.getOffset(Instant.ofEpochMilli(referenceMillis)).getTotalSeconds() * 1000L;
+        long localReference = referenceMillis + offsetMillis;
+        long localMillis = Math.floorDiv(localReference, MILLIS_PER_HOUR) * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + millisOfMinute;
+        if (localMillis - localReference > MILLIS_PER_HALF_HOUR) {
+            localMillis -= MILLIS_PER_HOUR;
+        } else if (localReference - localMillis > MILLIS_PER_HALF_HOUR) {
+            localMillis += MILLIS_PER_HOUR;
+        }
+        return localMillis - offsetMillis;
+    }
+
+
+    /**
+     * 本地时间 转换为 毫秒时间戳 (夏令时切换日)
+     * <pre>
+     * 1. 重叠时段 (回拨): SU标志置位时取夏令时偏移 (较早的时刻), 否则取标准时偏移
+     * 2. 间隙时段 (拨快): 与 ZonedDateTime 一致, 按切换前的偏移计算 (顺延到切换后)
+     *
+     * @param localMillis 本地时间 (以 UTC 表示的毫秒数)
+     * @param summerTime  SU标志
+     * @return 毫秒时间戳
+     */
+    private long toEpochMillis(long localMillis, boolean summerTime) {
+        LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(Math.floorDiv(localMillis, 1000L),
+                (int) Math.floorMod(localMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+        List<ZoneOffset> offsets = rules.getValidOffsets(localDateTime);
+        ZoneOffset offset;
+        if (offsets.size() == 1) {
+            offset = offsets.get(0);
+        } else if (offsets.size() == 2) {
+            ZoneOffset earlier = offsets.get(0);
+            ZoneOffset later = offsets.get(1);
+            ZoneOffset summer = earlier.getTotalSeconds() > later.getTotalSeconds() ? earlier : later;
+            ZoneOffset standard = summer == earlier ? later : earlier;
+            offset = summerTime ? summer : standard;
+        } else {
+            offset = rules.getTransition(localDateTime).getOffsetBefore();
+        }
+        return localMillis - offset.getTotalSeconds() * 1000L;
+    }
+
+
+    /**
+     * 计算编码时段: 同一天 且 时区偏移不变 的时间范围
+     */
+    private EncodeSegment encodeSegment(long epochMillis) {
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        long offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+        long epochDay = Math.floorDiv(epochMillis + offsetMillis, MILLIS_PER_DAY);
+        long start = epochDay * MILLIS_PER_DAY - offsetMillis;
+        long end = start + MILLIS_PER_DAY;
+
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+        if (previous != null && previous.toEpochSecond() * 1000L > start) {
+            start = previous.toEpochSecond() * 1000L;
+        }
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        if (next != null && next.toEpochSecond() * 1000L < end) {
+            end = next.toEpochSecond() * 1000L;
+        }
+
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int summerTime = summerTimeBit && rules.isDaylightSavings(instant) ? SUMMER_TIME_BIT : 0;
+        return new EncodeSegment(start, end, start + offsetMillis - epochDay * MILLIS_PER_DAY, summerTime,
+                (date.getDayOfWeek().getValue() << 5) | date.getDayOfMonth(), date.getMonthValue(), (date.getYear() - 2000) & 0x7F);
+    }
+
+
+    /**
+     * 计算解码日期: 当天零点, 及当天是否只有一个时区偏移
+     */
+    private DecodeDay decodeDay(int dateKey, LocalDate date) {
+        LocalDateTime startOfDay = date.atStartOfDay();
+        List<ZoneOffset> offsets = rules.getValidOffsets(startOfDay);
+        if (offsets.size() != 1) {
+            return new DecodeDay(dateKey, date.toEpochDay() * MILLIS_PER_DAY, false, 0);
+        }
+        long offsetMillis = offsets.get(0).getTotalSeconds() * 1000L;
+        long localDayStart = date.toEpochDay() * MILLIS_PER_DAY;
+        ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochMilli(localDayStart - offsetMillis));
+        boolean fixedOffset = next == null || next.toEpochSecond() * 1000L >= localDayStart - offsetMillis + MILLIS_PER_DAY;
+        return new DecodeDay(dateKey, localDayStart, fixedOffset, offsetMillis);
+    }
+
+
+    /**
+     * 编码时段 (不可变)
+     */
+    private static final class EncodeSegment {
+
+        // 时段 [start, end) 毫秒时间戳
+        private final long start;
+        private final long end;
+        // start 对应的 当天毫秒数
+        private final long millisOfDayAtStart;
+        // SU标志
+        private final int summerTime;
+        // 星期(高3位) + 日(低5位)
+        private final int dayOfWeekAndMonth;
+        private final int month;
+        private final int year;
+
+        private EncodeSegment(long start, long end, long millisOfDayAtStart, int summerTime, int dayOfWeekAndMonth, int month, int year) {
+            this.start = start;
+            this.end = end;
+            this.millisOfDayAtStart = millisOfDayAtStart;
+            this.summerTime = summerTime;
+            this.dayOfWeekAndMonth = dayOfWeekAndMonth;
+            this.month = month;
+            this.year = year;
+        }
+    }
+
+
+    /**
+     * 解码日期 (不可变)
+     */
+    private static final class DecodeDay {
+
+        // (年 << 9) | (月 << 5) | 日
+        private final int dateKey;
+        // 当天零点 (本地时间, 以 UTC 表示的毫秒数)
+        private final long localDayStart;
+        // 当天是否只有一个时区偏移
+        private final boolean fixedOffset;
+        private final long offsetMillis;
+
+        private DecodeDay(int dateKey, long localDayStart, boolean fixedOffset, long offsetMillis) {
+            this.dateKey = dateKey;
+            this.localDayStart = localDayStart;
+            this.fixedOffset = fixedOffset;
+            this.offsetMillis = offsetMillis;
+        }
+    }
+
+}
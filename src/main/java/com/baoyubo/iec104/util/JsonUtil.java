@@ -42,6 +42,22 @@ public final class JsonUtil {
     }
 
 
+    /**
+     * 延迟转换为 JSON字符串 (用于日志参数, 只有日志真正输出时才会执行序列化)
+     *
+     * @param obj obj
+     * @return 调用 toString() 时才转换为 JSON字符串 的对象
+     */
+    public static Object lazyJson(Object obj) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return toJsonString(obj);
+            }
+        };
+    }
+
+
     /**
      * 将 JSON字符串 转换为 对象
      *
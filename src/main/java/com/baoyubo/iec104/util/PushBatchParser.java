@@ -0,0 +1,279 @@
+package com.baoyubo.iec104.util;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.enums.CotEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.model.TelemetryBatch;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 批量推送 请求体解析 (Jackson 流式解析, 直接写入 TelemetryBatch 基本类型列, 不构建 Map 及装箱对象)
+ * <pre>
+ * 请求体为远程操控数组 (也可以是单个对象), 每个远程操控支持两种写法, 可混合使用:
+ * [
+ *   {"operateType": "TELEMETRY", "params": {"16385": 1.5, "16386": 2.5}},
+ *   {"operateType": "GENERAL_CALL_HARUNOBU", "ioa": [1, 2, 3], "value": [0, 1, 1], "quality": [0, 0, 128]}
+ * ]
+ * 1. 远程操控类型: 遥信、遥测、总召唤遥信、总召唤遥测 (operateType / operate_type, 不区分大小写)
+ * 2. 列式写法: ioa 与 value 长度必须一致, quality 可选
+ * 3. 突发(自发) 与 总召唤 分别写入一个批次, 遥信为单点遥信, 遥测为短浮点数
+ *
+ * @author yubo.bao
+ * @date 2026/10/19 00:30
+ */
+public final class PushBatchParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * 信息对象地址 最大值 (3字节)
+     */
+    private static final int MAX_INFO_ADDRESS = 0xFFFFFF;
+
+
+    /**
+     * 解析批量推送请求体
+     *
+     * @param inputStream 请求体
+     * @return 批次列表 (突发(自发) 批次在前, 总召唤 批次在后, 没有数据的批次不返回)
+     */
+    public static List<TelemetryBatch> parse(InputStream inputStream) {
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            TelemetryBatch spontaneous = newBatch(CotEnum.SPONT);
+            TelemetryBatch generalCall = newBatch(CotEnum.INTROGEN);
+            Columns columns = new Columns();
+
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    parseOperation(parser, columns, spontaneous, generalCall);
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    throw new RuntimeException("批量推送 数组元素必须为对象");
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                parseOperation(parser, columns, spontaneous, generalCall);
+            } else {
+                throw new RuntimeException("批量推送 请求体必须为数组或对象");
+            }
+
+            List<TelemetryBatch> batches = new ArrayList<>(2);
+            if (spontaneous.getSize() > 0) {
+                batches.add(spontaneous);
+            }
+            if (generalCall.getSize() > 0) {
+                batches.add(generalCall);
+            }
+            return batches;
+        } catch (IOException e) {
+            throw new RuntimeException("批量推送 请求体解析失败: " + e.getMessage(), e);
+        }
+    }
+
+
+    private static TelemetryBatch newBatch(CotEnum cot) {
+        TelemetryBatch batch = new TelemetryBatch();
+        batch.reset(null, cot.getCode(), Constants.DEFAULT_COMMON_ADDRESS);
+        return batch;
+    }
+
+
+    /**
+     * 解析一个远程操控 (字段顺序任意, 先写入临时列, 对象结束后再按远程操控类型写入批次)
+     */
+    private static void parseOperation(JsonParser parser, Columns columns, TelemetryBatch spontaneous, TelemetryBatch generalCall) throws IOException {
+        columns.clear();
+        RemoteOperateTypeEnum operateType = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (fieldName) {
+                case "operateType":
+                case "operate_type":
+                    operateType = parseOperateType(parser.getValueAsString());
+                    break;
+                case "params":
+                    expect(token, JsonToken.START_OBJECT, fieldName);
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        int infoAddress = parseInfoAddress(parser.getCurrentName());
+                        parser.nextToken();
+                        columns.addParam(infoAddress, parseValue(parser));
+                    }
+                    break;
+                case "ioa":
+                    expect(token, JsonToken.START_ARRAY, fieldName);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        columns.addInfoAddress(parseInfoAddress(parser.getText()));
+                    }
+                    break;
+                case "value":
+                    expect(token, JsonToken.START_ARRAY, fieldName);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        columns.addValue(parseValue(parser));
+                    }
+                    break;
+                case "quality":
+                    expect(token, JsonToken.START_ARRAY, fieldName);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        columns.addQuality((byte) parser.getValueAsInt());
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        if (operateType == null) {
+            throw new RuntimeException("批量推送 缺少远程操控类型 operateType");
+        }
+        if (columns.infoAddressCount != columns.valueCount) {
+            throw new RuntimeException("批量推送 ioa 与 value 个数不一致: " + columns.infoAddressCount + " != " + columns.valueCount);
+        }
+        if (columns.qualityCount != 0 && columns.qualityCount != columns.valueCount) {
+            throw new RuntimeException("批量推送 quality 与 value 个数不一致: " + columns.qualityCount + " != " + columns.valueCount);
+        }
+
+        TypeIdentifierEnum typeIdentifier;
+        TelemetryBatch batch;
+        switch (operateType) {
+            case HARUNOBU:
+                typeIdentifier = TypeIdentifierEnum.ONE_POINT_HARUNOBU;
+                batch = spontaneous;
+                break;
+            case GENERAL_CALL_HARUNOBU:
+                typeIdentifier = TypeIdentifierEnum.ONE_POINT_HARUNOBU;
+                batch = generalCall;
+                break;
+            case TELEMETRY:
+                typeIdentifier = TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY;
+                batch = spontaneous;
+                break;
+            case GENERAL_CALL_TELEMETRY:
+                typeIdentifier = TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY;
+                batch = generalCall;
+                break;
+            default:
+                throw new RuntimeException("批量推送 不支持的远程操控类型: " + operateType);
+        }
+        for (int i = 0; i < columns.valueCount; i++) {
+            byte quality = columns.qualityCount == 0 ? 0 : columns.qualities[i];
+            batch.add(typeIdentifier, columns.infoAddresses[i], columns.values[i], quality, TelemetryBatch.NO_TIME_SCALE);
+        }
+    }
+
+
+    private static RemoteOperateTypeEnum parseOperateType(String text) {
+        if (text == null) {
+            throw new RuntimeException("批量推送 远程操控类型不能为空");
+        }
+        try {
+            return RemoteOperateTypeEnum.valueOf(text.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("批量推送 未知的远程操控类型: " + text);
+        }
+    }
+
+
+    private static int parseInfoAddress(String text) {
+        int infoAddress;
+        try {
+            infoAddress = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("批量推送 信息对象地址格式错误: " + text);
+        }
+        if (infoAddress < 0 || infoAddress > MAX_INFO_ADDRESS) {
+            throw new RuntimeException("批量推送 信息对象地址超出范围: " + infoAddress);
+        }
+        return infoAddress;
+    }
+
+
+    private static double parseValue(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return 1;
+            case VALUE_FALSE:
+                return 0;
+            default:
+                throw new RuntimeException("批量推送 信息对象值必须为数字: " + parser.getText());
+        }
+    }
+
+
+    private static void expect(JsonToken actual, JsonToken expected, String fieldName) {
+        if (actual != expected) {
+            throw new RuntimeException("批量推送 字段格式错误: " + fieldName);
+        }
+    }
+
+
+    /**
+     * 单个远程操控的临时列 (在同一次解析中复用)
+     */
+    private static final class Columns {
+
+        private int[] infoAddresses = new int[Constants.MESSAGE_INFO_LIST_MAX_SIZE];
+
+        private double[] values = new double[Constants.MESSAGE_INFO_LIST_MAX_SIZE];
+
+        private byte[] qualities = new byte[Constants.MESSAGE_INFO_LIST_MAX_SIZE];
+
+        private int infoAddressCount;
+
+        private int valueCount;
+
+        private int qualityCount;
+
+        private void clear() {
+            infoAddressCount = 0;
+            valueCount = 0;
+            qualityCount = 0;
+        }
+
+        private void addParam(int infoAddress, double value) {
+            if (infoAddressCount != valueCount) {
+                throw new RuntimeException("批量推送 params 不能与 ioa/value 混合使用");
+            }
+            addInfoAddress(infoAddress);
+            addValue(value);
+        }
+
+        private void addInfoAddress(int infoAddress) {
+            if (infoAddressCount == infoAddresses.length) {
+                infoAddresses = Arrays.copyOf(infoAddresses, infoAddressCount << 1);
+            }
+            infoAddresses[infoAddressCount++] = infoAddress;
+        }
+
+        private void addValue(double value) {
+            if (valueCount == values.length) {
+                values = Arrays.copyOf(values, valueCount << 1);
+            }
+            values[valueCount++] = value;
+        }
+
+        private void addQuality(byte quality) {
+            if (qualityCount == qualities.length) {
+                qualities = Arrays.copyOf(qualities, qualityCount << 1);
+            }
+            qualities[qualityCount++] = quality;
+        }
+    }
+
+
+    private PushBatchParser() {
+    }
+}
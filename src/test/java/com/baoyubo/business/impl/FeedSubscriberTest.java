@@ -0,0 +1,102 @@
+package com.baoyubo.business.impl;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.FeedFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/19 01:00
+ */
+class FeedSubscriberTest {
+
+    /**
+     * 记录发送内容的 ResponseBodyEmitter
+     */
+    private static class RecordingEmitter extends ResponseBodyEmitter {
+
+        private final List<String> sent = new ArrayList<>();
+
+        private boolean fail;
+
+        @Override
+        public void send(Object object, MediaType mediaType) throws IOException {
+            if (fail) {
+                throw new IOException("mock");
+            }
+            Assertions.assertTrue(MediaType.TEXT_PLAIN.includes(mediaType));
+            sent.add((String) object);
+        }
+    }
+
+    @Test
+    void conflate() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        FeedSubscriber subscriber = new FeedSubscriber(emitter, new FeedFilter());
+
+        // 第一次写入需要调度, 未发送前不重复调度
+        Assertions.assertTrue(subscriber.offer(1, "a1;"));
+        Assertions.assertFalse(subscriber.offer(2, "b1;"));
+        // 同一个键 合并为最新值, 位置不变
+        Assertions.assertFalse(subscriber.offer(1, "a2;"));
+        Assertions.assertFalse(subscriber.offer(-1, "c;"));
+        subscriber.run();
+
+        Assertions.assertEquals(1, emitter.sent.size());
+        Assertions.assertEquals("a2;b1;c;", emitter.sent.get(0));
+        Assertions.assertEquals(1, subscriber.getConflatedCount());
+
+        // 发送完毕后 重新调度
+        Assertions.assertTrue(subscriber.offer(1, "a3;"));
+    }
+
+    @Test
+    void dropOldest() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        FeedSubscriber subscriber = new FeedSubscriber(emitter, new FeedFilter());
+        for (int i = 0; i <= FeedSubscriber.MAX_PENDING_EVENTS; i++) {
+            subscriber.offer(i, i + ";");
+        }
+        Assertions.assertEquals(1, subscriber.getDroppedCount());
+        subscriber.run();
+        Assertions.assertTrue(emitter.sent.get(0).startsWith("1;2;"));
+
+        // 发送失败: 关闭订阅者, 不再接收事件
+        emitter.fail = true;
+        Assertions.assertTrue(subscriber.offer(1, "x;"));
+        subscriber.run();
+        Assertions.assertTrue(subscriber.isClosed());
+        Assertions.assertFalse(subscriber.offer(2, "y;"));
+    }
+
+    @Test
+    void filter() {
+        FeedFilter filter = new FeedFilter();
+        filter.setSource("client");
+        filter.setCommonAddress((short) 1);
+        filter.setInfoAddressFrom(100);
+        filter.setInfoAddressTo(200);
+        filter.setOperateTypes(EnumSet.of(RemoteOperateTypeEnum.TELEMETRY, RemoteOperateTypeEnum.CLOSE));
+
+        Assertions.assertTrue(filter.matchesOperation("client", RemoteOperateTypeEnum.TELEMETRY));
+        Assertions.assertFalse(filter.matchesOperation("server", RemoteOperateTypeEnum.TELEMETRY));
+        Assertions.assertFalse(filter.matchesOperation("client", RemoteOperateTypeEnum.HARUNOBU));
+
+        Assertions.assertTrue(filter.matchesAddress((short) 1, 100));
+        Assertions.assertTrue(filter.matchesAddress((short) 1, 200));
+        Assertions.assertFalse(filter.matchesAddress((short) 1, 201));
+        Assertions.assertFalse(filter.matchesAddress((short) 2, 150));
+        // 连接关闭: 无公共地址、信息对象地址
+        Assertions.assertTrue(filter.matchesAddress(null, null));
+        Assertions.assertTrue(new FeedFilter().matchesOperation("server", RemoteOperateTypeEnum.REMOTE_CONTROL));
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.baoyubo.iec104.client;
+
+import com.baoyubo.iec104.config.ClientConfig;
+import com.baoyubo.iec104.config.ClientPoolConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 15:40
+ */
+class Iec104ClientPoolTest {
+
+    private ClientConfig config(int port) {
+        ClientConfig config = new ClientConfig();
+        config.setRemoteHost("127.0.0.1");
+        config.setRemotePort(port);
+        return config;
+    }
+
+    @Test
+    public void staggerConnect() {
+        ClientPoolConfig poolConfig = new ClientPoolConfig();
+        poolConfig.setEventLoopThreads(1);
+        poolConfig.setConnectIntervalMillis(60_000);
+        Iec104ClientPool clientPool = new Iec104ClientPool(poolConfig);
+        try {
+            ClientChannel station1 = clientPool.add("s1", config(1), r -> { });
+            clientPool.add("s2", config(2), r -> { });
+            clientPool.add("s3", config(3), r -> { });
+
+            Assertions.assertSame(station1, clientPool.get("s1"));
+            Assertions.assertEquals(3, clientPool.getStats().getStationCount());
+            // 后两个子站需要等待错峰连接
+            Assertions.assertTrue(clientPool.getStats().getPendingCount() >= 2);
+            Assertions.assertFalse(station1.isActive());
+
+            // 子站标识已存在时替换原有连接
+            Assertions.assertNotSame(station1, clientPool.add("s1", config(1), r -> { }));
+            Assertions.assertEquals(3, clientPool.getStats().getStationCount());
+
+            clientPool.remove("s2");
+            Assertions.assertNull(clientPool.get("s2"));
+            Assertions.assertEquals(2, clientPool.getStationIds().size());
+        } finally {
+            clientPool.close();
+        }
+    }
+
+    @Test
+    public void sharedDispatcher() {
+        ClientPoolConfig poolConfig = new ClientPoolConfig();
+        poolConfig.setEventLoopThreads(1);
+        poolConfig.setConnectIntervalMillis(60_000);
+        Iec104ClientPool clientPool = new Iec104ClientPool(poolConfig);
+        Assertions.assertNull(clientPool.getDispatcher());
+        clientPool.close();
+
+        // 所有子站共享连接池的业务分发 (子站配置不生效)
+        poolConfig.setDispatchWorkers(2);
+        clientPool = new Iec104ClientPool(poolConfig);
+        try {
+            ClientConfig config = config(1);
+            config.setDispatchWorkers(4);
+            clientPool.add("s1", config, r -> { });
+            clientPool.add("s2", config(2), r -> { });
+            Assertions.assertNotNull(clientPool.getDispatcher());
+            Assertions.assertEquals(0, clientPool.getDispatcher().getLaneCount());
+
+            clientPool.remove("s1");
+            Assertions.assertFalse(clientPool.getDispatcher().isClosed());
+        } finally {
+            clientPool.close();
+        }
+    }
+
+}
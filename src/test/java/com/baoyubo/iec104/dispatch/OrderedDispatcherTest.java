@@ -0,0 +1,276 @@
+package com.baoyubo.iec104.dispatch;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.enums.OverflowPolicyEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/19 00:00
+ */
+class OrderedDispatcherTest {
+
+    private RemoteOperation telemetry(int infoAddress, float value) {
+        Map<Integer, Object> params = new HashMap<>();
+        params.put(infoAddress, value);
+        RemoteOperation remoteOperation = new RemoteOperation();
+        remoteOperation.setOperateType(RemoteOperateTypeEnum.TELEMETRY);
+        remoteOperation.setParams(params);
+        return remoteOperation;
+    }
+
+    private RemoteOperation close() {
+        RemoteOperation remoteOperation = new RemoteOperation();
+        remoteOperation.setOperateType(RemoteOperateTypeEnum.CLOSE);
+        return remoteOperation;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    void ringBuffer() throws InterruptedException {
+        RingBuffer<Long> ringBuffer = new RingBuffer<>(100);
+        Assertions.assertEquals(128, ringBuffer.capacity());
+
+        // 4个生产者 并发写入, 1个消费者读出: 不丢失、不重复, 每个生产者内部有序
+        int producers = 4;
+        int count = 100_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p << 32;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    while (!ringBuffer.offer(base | i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        long[] next = new long[producers];
+        long received = 0;
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (received < (long) producers * count && System.currentTimeMillis() < deadline) {
+            Long value = ringBuffer.poll();
+            if (value == null) {
+                continue;
+            }
+            int producer = (int) (value >>> 32);
+            Assertions.assertEquals(next[producer]++, value & 0xFFFFFFFFL);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals((long) producers * count, received);
+        Assertions.assertTrue(ringBuffer.isEmpty());
+        Assertions.assertNull(ringBuffer.poll());
+    }
+
+    @Test
+    void orderedLanes() {
+        OrderedDispatcher dispatcher = new OrderedDispatcher("Mock", "mock-dispatch", 4, 64, OverflowPolicyEnum.BLOCK);
+        int lanes = 8;
+        int count = 5000;
+        List<List<Float>> received = new ArrayList<>();
+        List<DispatchLane> dispatchLanes = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(lanes);
+        for (int l = 0; l < lanes; l++) {
+            List<Float> values = Collections.synchronizedList(new ArrayList<>());
+            received.add(values);
+            dispatchLanes.add(dispatcher.newLane(operation -> {
+                if (operation.getOperateType() == RemoteOperateTypeEnum.CLOSE) {
+                    done.countDown();
+                    return;
+                }
+                values.add((Float) operation.getParams().get(1));
+            }));
+        }
+        for (int i = 0; i < count; i++) {
+            for (DispatchLane lane : dispatchLanes) {
+                lane.offer(telemetry(1, i));
+            }
+        }
+        dispatchLanes.forEach(lane -> lane.offer(close()));
+        await(done);
+
+        // 每个通道内 按写入顺序处理
+        for (List<Float> values : received) {
+            Assertions.assertEquals(count, values.size());
+            for (int i = 0; i < count; i++) {
+                Assertions.assertEquals(i, values.get(i));
+            }
+        }
+        Assertions.assertEquals(0, dispatcher.getQueueDepth());
+        Assertions.assertEquals((long) lanes * (count + 1), dispatcher.getDeliveredCount());
+        Assertions.assertEquals(0, dispatcher.getDroppedCount());
+        Assertions.assertEquals(lanes, dispatcher.getLaneCount());
+        dispatchLanes.forEach(DispatchLane::close);
+        Assertions.assertEquals(0, dispatcher.getLaneCount());
+        dispatcher.close(1000);
+        Assertions.assertTrue(dispatcher.isClosed());
+    }
+
+    @Test
+    void dropOldest() {
+        OrderedDispatcher dispatcher = new OrderedDispatcher("Mock", "mock-dispatch", 1, 4, OverflowPolicyEnum.DROP_OLDEST);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<RemoteOperation> received = Collections.synchronizedList(new ArrayList<>());
+        DispatchLane lane = dispatcher.newLane(operation -> {
+            if (received.isEmpty()) {
+                started.countDown();
+                await(release);
+            }
+            received.add(operation);
+            if (operation.getOperateType() == RemoteOperateTypeEnum.CLOSE) {
+                done.countDown();
+            }
+        });
+
+        // 第1条被工作线程取走并阻塞
+        lane.offer(telemetry(1, 0));
+        await(started);
+        // 环形缓冲区 4 + 溢出队列 4, 之后丢弃溢出队列中最旧的遥测, 连接关闭 不会被丢弃
+        // 溢出队列: 5,6,7,8 -> 6,7,8,close -> 7,8,close,9 -> 8,close,9,10
+        for (int i = 1; i <= 8; i++) {
+            lane.offer(telemetry(1, i));
+        }
+        lane.offer(close());
+        for (int i = 9; i <= 10; i++) {
+            lane.offer(telemetry(1, i));
+        }
+        Assertions.assertEquals(8, lane.getQueueDepth());
+        Assertions.assertEquals(3, dispatcher.getDroppedCount());
+        release.countDown();
+        await(done);
+
+        List<Object> values = new ArrayList<>();
+        for (RemoteOperation operation : received) {
+            values.add(operation.getParams() == null ? "close" : operation.getParams().get(1));
+        }
+        Assertions.assertEquals("[0.0, 1.0, 2.0, 3.0, 4.0, 8.0, close]", values.subList(0, 7).toString());
+        dispatcher.close(1000);
+    }
+
+    @Test
+    void coalesce() {
+        OrderedDispatcher dispatcher = new OrderedDispatcher("Mock", "mock-dispatch", 1, 2, OverflowPolicyEnum.COALESCE);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<RemoteOperation> received = Collections.synchronizedList(new ArrayList<>());
+        DispatchLane lane = dispatcher.newLane(operation -> {
+            if (received.isEmpty()) {
+                started.countDown();
+                await(release);
+            }
+            received.add(operation);
+            if (operation.getOperateType() == RemoteOperateTypeEnum.CLOSE) {
+                done.countDown();
+            }
+        });
+
+        lane.offer(telemetry(1, 0));
+        await(started);
+        lane.offer(telemetry(1, 1));
+        lane.offer(telemetry(1, 2));
+        // 溢出: 同类型合并, 同一信息对象地址保留最新值
+        RemoteOperation first = telemetry(1, 3);
+        Map<Integer, Object> sharedParams = first.getParams();
+        lane.offer(first);
+        lane.offer(telemetry(2, 4));
+        lane.offer(telemetry(1, 5));
+        lane.offer(close());
+        Assertions.assertEquals(2, dispatcher.getCoalescedCount());
+        Assertions.assertEquals(4, lane.getQueueDepth());
+        release.countDown();
+        await(done);
+
+        Assertions.assertEquals(5, received.size());
+        Map<Integer, Object> merged = received.get(3).getParams();
+        Assertions.assertEquals(5.0f, merged.get(1));
+        Assertions.assertEquals(4.0f, merged.get(2));
+        // 合并前复制参数, 不修改原对象
+        Assertions.assertEquals(1, sharedParams.size());
+        Assertions.assertEquals(RemoteOperateTypeEnum.CLOSE, received.get(4).getOperateType());
+        dispatcher.close(1000);
+    }
+
+    @Test
+    void blockAndCallback() {
+        OrderedDispatcher dispatcher = new OrderedDispatcher("Mock", "mock-dispatch", 2, 2, OverflowPolicyEnum.BLOCK);
+        AtomicLong sum = new AtomicLong();
+        DispatchLane lane = dispatcher.newLane(operation -> {
+            sum.addAndGet(((Float) operation.getParams().get(1)).longValue());
+            if (sum.get() == 1) {
+                throw new RuntimeException("业务异常");
+            }
+        });
+        CountDownLatch callback = new CountDownLatch(1);
+        for (int i = 1; i <= 100; i++) {
+            lane.offer(telemetry(1, i));
+        }
+        // 业务异常不影响后续数据, 回调在业务处理完毕后执行
+        lane.offer(telemetry(1, 0), callback::countDown);
+        await(callback);
+        Assertions.assertEquals(5050, sum.get());
+        Assertions.assertTrue(dispatcher.getBlockedCount() > 0);
+        dispatcher.close(1000);
+    }
+
+    @Test
+    void executeTask() {
+        OrderedDispatcher dispatcher = new OrderedDispatcher("Mock", "mock-dispatch", 2, 2, OverflowPolicyEnum.DROP_OLDEST);
+        List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        DispatchLane lane = dispatcher.newLane(operation -> {
+            await(start);
+            received.add(operation.getParams().get(1));
+        });
+        Assertions.assertEquals(1, dispatcher.getLaneCount());
+
+        lane.offer(telemetry(1, 1));
+        lane.execute(() -> received.add("task-1"));
+        lane.execute(() -> {
+            throw new RuntimeException("任务异常");
+        });
+        for (int i = 2; i <= 10; i++) {
+            lane.offer(telemetry(1, i));
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        lane.execute(done::countDown);
+        start.countDown();
+        await(done);
+
+        // 任务与业务数据按写入顺序执行, 溢出时不会被丢弃; 任务异常不影响后续处理
+        Assertions.assertEquals(1f, received.get(0));
+        Assertions.assertEquals("task-1", received.get(1));
+        Assertions.assertTrue(dispatcher.getDroppedCount() > 0);
+
+        lane.close();
+        lane.close();
+        Assertions.assertEquals(0, dispatcher.getLaneCount());
+        dispatcher.close(1000);
+    }
+
+}
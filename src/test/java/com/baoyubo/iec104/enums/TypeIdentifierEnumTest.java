@@ -0,0 +1,76 @@
+package com.baoyubo.iec104.enums;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 22:00
+ */
+class TypeIdentifierEnumTest {
+
+    @Test
+    void ofValue() {
+        for (TypeIdentifierEnum typeIdentifier : TypeIdentifierEnum.values()) {
+            Assertions.assertEquals(typeIdentifier, TypeIdentifierEnum.ofValue(typeIdentifier.getValue()));
+        }
+        Assertions.assertNull(TypeIdentifierEnum.ofValue((byte) 0));
+        Assertions.assertNull(TypeIdentifierEnum.ofValue((byte) 0xFF));
+    }
+
+    @Test
+    void descriptor() {
+        Assertions.assertTrue(TypeIdentifierEnum.isTelemetry(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY));
+        Assertions.assertTrue(TypeIdentifierEnum.isHarunobu(TypeIdentifierEnum.TWO_POINT_TIME_HARUNOBU));
+        Assertions.assertTrue(TypeIdentifierEnum.isRemoteControl(TypeIdentifierEnum.ONE_POINT_REMOTE_CONTROL));
+        Assertions.assertFalse(TypeIdentifierEnum.isTelemetry(null));
+        Assertions.assertFalse(TypeIdentifierEnum.isHarunobu(TypeIdentifierEnum.SCALED_TELEMETRY));
+
+        Assertions.assertTrue(TypeIdentifierEnum.hasMessageInfoQualifier(TypeIdentifierEnum.GENERAL_CALL));
+        Assertions.assertTrue(TypeIdentifierEnum.hasMessageInfoQualifier(TypeIdentifierEnum.NORMALIZED_TELEMETRY));
+        Assertions.assertFalse(TypeIdentifierEnum.hasMessageInfoQualifier(TypeIdentifierEnum.ONE_POINT_HARUNOBU));
+        Assertions.assertTrue(TypeIdentifierEnum.hasMessageInfoTimeScale(TypeIdentifierEnum.TIME_SYNCHRONIZATION));
+        Assertions.assertFalse(TypeIdentifierEnum.hasMessageInfoTimeScale(TypeIdentifierEnum.ONE_POINT_HARUNOBU));
+        // 未知的类型标识符 (解码为空)
+        Assertions.assertFalse(TypeIdentifierEnum.hasMessageInfoValue(null));
+        Assertions.assertFalse(TypeIdentifierEnum.hasMessageInfoQualifier(null));
+        Assertions.assertFalse(TypeIdentifierEnum.hasMessageInfoTimeScale(null));
+
+        // 信息对象值 + 品质描述符 + 时标
+        Assertions.assertEquals(5, TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY.getMessageInfoElementLength());
+        Assertions.assertEquals(8, TypeIdentifierEnum.ONE_POINT_TIME_HARUNOBU.getMessageInfoElementLength());
+        Assertions.assertEquals(7, TypeIdentifierEnum.TIME_SYNCHRONIZATION.getMessageInfoElementLength());
+        Assertions.assertEquals(1, TypeIdentifierEnum.GENERAL_CALL.getMessageInfoElementLength());
+    }
+
+    @Test
+    void monitorCoverage() {
+        // 监视方向过程信息 1-21、30-40 均已定义
+        for (int value = 1; value <= 40; value++) {
+            if (value > 21 && value < 30) {
+                continue;
+            }
+            TypeIdentifierEnum typeIdentifier = TypeIdentifierEnum.ofValue((byte) value);
+            Assertions.assertNotNull(typeIdentifier, "TI " + value);
+            Assertions.assertTrue(TypeIdentifierEnum.isMonitor(typeIdentifier), "TI " + value);
+        }
+        Assertions.assertFalse(TypeIdentifierEnum.isMonitor(TypeIdentifierEnum.GENERAL_CALL));
+
+        // 品质描述词 QDS
+        Assertions.assertTrue(TypeIdentifierEnum.hasMessageInfoQualifier(TypeIdentifierEnum.BITSTRING));
+        Assertions.assertFalse(TypeIdentifierEnum.hasMessageInfoQualifier(TypeIdentifierEnum.NORMALIZED_NO_QUALITY_TELEMETRY));
+        Assertions.assertFalse(TypeIdentifierEnum.hasMessageInfoQualifier(TypeIdentifierEnum.INTEGRATED_TOTALS));
+
+        // 信息对象值 + 品质描述符 + 相对时间 + 时标
+        Assertions.assertEquals(3, TypeIdentifierEnum.NORMALIZED_CP24_TIME_TELEMETRY.getMessageInfoTimeScaleLength());
+        Assertions.assertEquals(6, TypeIdentifierEnum.NORMALIZED_CP24_TIME_TELEMETRY.getMessageInfoElementLength());
+        Assertions.assertEquals(12, TypeIdentifierEnum.SHORT_FLOAT_POINT_TIME_TELEMETRY.getMessageInfoElementLength());
+        Assertions.assertEquals(12, TypeIdentifierEnum.INTEGRATED_TOTALS_TIME.getMessageInfoElementLength());
+        Assertions.assertEquals(6, TypeIdentifierEnum.PROTECTION_EVENT_CP24_TIME.getMessageInfoElementLength());
+        Assertions.assertEquals(11, TypeIdentifierEnum.PROTECTION_OUTPUT_CIRCUIT_TIME.getMessageInfoElementLength());
+        Assertions.assertEquals(2, TypeIdentifierEnum.NORMALIZED_NO_QUALITY_TELEMETRY.getMessageInfoElementLength());
+        Assertions.assertTrue(TypeIdentifierEnum.isCounter(TypeIdentifierEnum.INTEGRATED_TOTALS));
+        Assertions.assertTrue(TypeIdentifierEnum.isProtection(TypeIdentifierEnum.PROTECTION_START_EVENTS_TIME));
+    }
+
+}
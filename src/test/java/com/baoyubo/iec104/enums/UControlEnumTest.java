@@ -19,4 +19,10 @@ class UControlEnumTest {
         Assertions.assertEquals(UControlEnum.TEST_REPLY, UControlEnum.ofBytes(UControlEnum.TEST_REPLY.getControlBytes()));
     }
 
+    @Test
+    void ofByte() {
+        Assertions.assertEquals(UControlEnum.TEST_REPLY, UControlEnum.ofByte((byte) 0x83));
+        Assertions.assertNull(UControlEnum.ofByte((byte) 0x01));
+    }
+
 }
\ No newline at end of file
@@ -1,13 +1,18 @@
 package com.baoyubo.iec104.factory;
 
+import com.baoyubo.iec104.constant.Constants;
 import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
 import com.baoyubo.iec104.handler.DataDecoder;
 import com.baoyubo.iec104.handler.DataEncoder;
 import com.baoyubo.iec104.manager.ControlManager;
 import com.baoyubo.iec104.model.Message;
 import com.baoyubo.iec104.model.MessageControl;
+import com.baoyubo.iec104.model.TelemetryBatch;
 import com.baoyubo.iec104.util.ByteUtil;
 import com.baoyubo.iec104.util.JsonUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -15,6 +20,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,8 +42,14 @@ class MessageFactoryTest {
             message.setControl(iControl);
         }
 
-        // 编码
-        return ReflectionTestUtils.invokeMethod(mockDataEncoder, "encode", message);
+        // 编码 (启动字符 + APDU长度 + 控制域 + ASDU)
+        ByteBuf byteBuf = Unpooled.buffer();
+        ReflectionTestUtils.invokeMethod(mockDataEncoder, "encode", message, byteBuf);
+        Assertions.assertEquals(Constants.HEADER, byteBuf.readByte());
+        Assertions.assertEquals(byteBuf.readableBytes() - 1, byteBuf.readUnsignedByte());
+
+        // 返回 控制域 + ASDU
+        return ByteBufUtil.getBytes(byteBuf);
     }
 
 
@@ -125,6 +137,65 @@ class MessageFactoryTest {
         Assertions.assertEquals(JsonUtil.toJsonString(message), JsonUtil.toJsonString(decodeMessage));
     }
 
+    @Test
+    void buildServerTelemetryMessages() {
+        // 连续 1..50 + 不连续 1000,1002..1018
+        Map<Integer, Object> params = new HashMap<>();
+        for (int i = 1; i <= 50; i++) {
+            params.put(i, i * 0.5f);
+        }
+        for (int i = 0; i < 10; i++) {
+            params.put(1000 + i * 2, (float) i);
+        }
+
+        // SQ=1: 48个 (APDU长度上限), 剩余2个与不连续的10个 合并为 SQ=0
+        List<Message> messages = MessageFactory.buildServerTelemetryMessages(false, params);
+        Assertions.assertEquals(2, messages.size());
+        Assertions.assertTrue(messages.get(0).getAsdu().getVsq().getIsContinuous());
+        Assertions.assertEquals(48, messages.get(0).getAsdu().getMessageInfoList().size());
+        Assertions.assertFalse(messages.get(1).getAsdu().getVsq().getIsContinuous());
+        Assertions.assertEquals(12, messages.get(1).getAsdu().getMessageInfoList().size());
+
+        Map<Integer, Object> decoded = new HashMap<>();
+        for (Message message : messages) {
+            byte[] bytes = encode(message);
+            Assertions.assertTrue(bytes.length <= Constants.APDU_MAX_LEN);
+            Message decodeMessage = decode(bytes);
+            Assertions.assertEquals(JsonUtil.toJsonString(message), JsonUtil.toJsonString(decodeMessage));
+            decodeMessage.getAsdu().getMessageInfoList().forEach(info -> decoded.put(info.getInfoAddress(), ByteUtil.byteArrayToFloat(info.getInfoValue())));
+        }
+        Assertions.assertEquals(params, decoded);
+    }
+
+    @Test
+    void buildServerHarunobuMessages() {
+        // 总召唤 5万个连续遥信: 每条消息 127 个 (VSQ上限)
+        Map<Integer, Object> params = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            params.put(0x0001 + i, i & 1);
+        }
+        List<Message> messages = MessageFactory.buildServerHarunobuMessages(true, params);
+        Assertions.assertEquals((50000 + 126) / 127, messages.size());
+
+        int total = 0;
+        for (Message message : messages) {
+            Assertions.assertTrue(message.getAsdu().getVsq().getIsContinuous());
+            Assertions.assertTrue(encode(message).length <= Constants.APDU_MAX_LEN);
+            total += message.getAsdu().getMessageInfoList().size();
+        }
+        Assertions.assertEquals(50000, total);
+
+        // 不连续: 每条消息 60 个 (APDU长度上限)
+        params.clear();
+        for (int i = 0; i < 100; i++) {
+            params.put(i * 10, 1);
+        }
+        messages = MessageFactory.buildServerHarunobuMessages(false, params);
+        Assertions.assertEquals(2, messages.size());
+        Assertions.assertEquals(60, messages.get(0).getAsdu().getMessageInfoList().size());
+        Assertions.assertEquals(Constants.CONTROL_FIELD_LEN + Constants.ASDU_HEADER_FIELD_LEN + 60 * 4, encode(messages.get(0)).length);
+    }
+
     @Test
     void buildServerGeneralCallEndMessage() {
         Message message = MessageFactory.buildServerGeneralCallEndMessage();
@@ -277,4 +348,18 @@ class MessageFactoryTest {
         Message decodeMessage = decode(bytes);
         Assertions.assertEquals(JsonUtil.toJsonString(message), JsonUtil.toJsonString(decodeMessage));
     }
+
+    @Test
+    void buildServerPointMessagesMaskValue() {
+        // 越界的 遥信值 不能覆盖品质描述位: SIQ 只取1位, DIQ 只取2位
+        TelemetryBatch batch = new TelemetryBatch();
+        batch.reset(null, (short) 20, (short) 1);
+        batch.add(TypeIdentifierEnum.ONE_POINT_HARUNOBU, 1, 3, (byte) 0x10, TelemetryBatch.NO_TIME_SCALE);
+        batch.add(TypeIdentifierEnum.TWO_POINT_HARUNOBU, 2, 0xFE, (byte) 0x00, TelemetryBatch.NO_TIME_SCALE);
+        List<Message> messages = MessageFactory.buildServerPointMessages(batch);
+
+        Assertions.assertEquals(2, messages.size());
+        Assertions.assertEquals((byte) 0x11, messages.get(0).getAsdu().getMessageInfoList().get(0).getInfoValue()[0]);
+        Assertions.assertEquals((byte) 0x02, messages.get(1).getAsdu().getMessageInfoList().get(0).getInfoValue()[0]);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.baoyubo.iec104.factory;
+
+import com.baoyubo.iec104.enums.TransportEnum;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 16:40
+ */
+class TransportFactoryTest {
+
+    @Test
+    public void resolve() {
+        Assertions.assertEquals(TransportEnum.NIO, TransportFactory.resolve(TransportEnum.NIO));
+        Assertions.assertEquals(Epoll.isAvailable() ? TransportEnum.EPOLL : TransportEnum.NIO, TransportFactory.resolve(TransportEnum.EPOLL));
+        // 未引入 io_uring 依赖时降级
+        Assertions.assertEquals(TransportFactory.resolve(TransportEnum.AUTO), TransportFactory.resolve(TransportEnum.IO_URING));
+        Assertions.assertNotEquals(TransportEnum.AUTO, TransportFactory.resolve(null));
+    }
+
+    @Test
+    public void channelClass() {
+        EventLoopGroup nioGroup = TransportFactory.newEventLoopGroup(TransportEnum.NIO, 1);
+        try {
+            Assertions.assertEquals(NioSocketChannel.class, TransportFactory.socketChannelClass(nioGroup));
+            Assertions.assertEquals(NioServerSocketChannel.class, TransportFactory.serverSocketChannelClass(nioGroup));
+        } finally {
+            nioGroup.shutdownGracefully();
+        }
+
+        if (Epoll.isAvailable()) {
+            EventLoopGroup epollGroup = TransportFactory.newEventLoopGroup(TransportEnum.EPOLL, 1);
+            try {
+                Assertions.assertEquals(EpollSocketChannel.class, TransportFactory.socketChannelClass(epollGroup));
+                Assertions.assertEquals(EpollServerSocketChannel.class, TransportFactory.serverSocketChannelClass(epollGroup));
+            } finally {
+                epollGroup.shutdownGracefully();
+            }
+        }
+    }
+
+}
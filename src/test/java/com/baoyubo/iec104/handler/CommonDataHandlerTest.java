@@ -0,0 +1,383 @@
+package com.baoyubo.iec104.handler;
+
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.enums.ResumePolicyEnum;
+import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.manager.ResumeManager;
+import com.baoyubo.iec104.metrics.ProtocolMetrics;
+import com.baoyubo.iec104.metrics.ProtocolMetricsSnapshot;
+import com.baoyubo.iec104.model.EncodedMessage;
+import com.baoyubo.iec104.model.Message;
+import com.baoyubo.iec104.model.MessageControl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.DefaultChannelId;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 16:30
+ */
+class CommonDataHandlerTest {
+
+    private Message telemetry() {
+        Map<Integer, Object> params = new HashMap<>();
+        params.put(100, 3.14f);
+        return MessageFactory.buildServerTelemetryMessage(false, params);
+    }
+
+    private Message receivedIFrame(int sendSequenceNum, int receiveSequenceNum) {
+        MessageControl control = new MessageControl();
+        control.setSendSequenceNum((short) sendSequenceNum);
+        control.setReceiveSequenceNum((short) receiveSequenceNum);
+        Message message = telemetry();
+        message.setControl(control);
+        return message;
+    }
+
+    private Message receivedSFrame(int receiveSequenceNum) {
+        MessageControl control = new MessageControl();
+        control.setReceiveSequenceNum((short) receiveSequenceNum);
+        Message message = new Message();
+        message.setFrameType(FrameTypeEnum.S_FRAME);
+        message.setControl(control);
+        return message;
+    }
+
+    private byte[] readFrame(EmbeddedChannel channel) {
+        ByteBuf byteBuf = channel.readOutbound();
+        if (byteBuf == null) {
+            return null;
+        }
+        byte[] bytes = ByteBufUtil.getBytes(byteBuf);
+        byteBuf.release();
+        return bytes;
+    }
+
+    /**
+     * 等待定时器到期后输出的报文 (时间轮任务切换到 EmbeddedChannel 的 EventLoop 执行)
+     */
+    private byte[] awaitFrame(EmbeddedChannel channel) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            channel.runPendingTasks();
+            byte[] frame = readFrame(channel);
+            if (frame != null) {
+                return frame;
+            }
+            Thread.sleep(10);
+        }
+        return null;
+    }
+
+    private int sFrameReceiveSequenceNum(byte[] frame) {
+        Assertions.assertEquals(0x01, frame[2]);
+        return ((frame[4] & 0xFF) | (frame[5] & 0xFF) << 8) >> 1;
+    }
+
+    @Test
+    void sendWindow() {
+        EmbeddedChannel channel = new EmbeddedChannel(new DataEncoder("Mock"), new CommonDataHandler("Mock", 2, 1, 0, 15, 30, null));
+
+        channel.writeAndFlush(telemetry());
+        channel.writeAndFlush(telemetry());
+        ChannelFuture future = channel.writeAndFlush(telemetry());
+
+        // 达到k: 第3帧本地排队, 不可写
+        Assertions.assertNotNull(readFrame(channel));
+        Assertions.assertNotNull(readFrame(channel));
+        Assertions.assertNull(readFrame(channel));
+        Assertions.assertFalse(future.isDone());
+        Assertions.assertFalse(channel.isWritable());
+
+        // 收到S帧确认第1帧: 排队的I帧继续发送, 恢复可写
+        channel.writeInbound(receivedSFrame(1));
+        byte[] frame = readFrame(channel);
+        Assertions.assertNotNull(frame);
+        Assertions.assertEquals(4, frame[2]);
+        Assertions.assertTrue(future.isSuccess());
+        Assertions.assertTrue(channel.isWritable());
+        Assertions.assertEquals(2, channel.attr(Constants.CACHE_MANAGER).get().size());
+
+        // I帧的接收序列号同样是确认
+        channel.writeInbound(receivedIFrame(0, 3));
+        Assertions.assertEquals(0, channel.attr(Constants.CACHE_MANAGER).get().size());
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void sendWindowClose() {
+        EmbeddedChannel channel = new EmbeddedChannel(new DataEncoder("Mock"), new CommonDataHandler("Mock", 1, 1, 0, 15, 30, null));
+
+        channel.writeAndFlush(telemetry());
+        ChannelFuture future = channel.writeAndFlush(telemetry());
+        Assertions.assertFalse(future.isDone());
+
+        // 连接关闭: 排队的I帧发送失败
+        channel.close();
+        Assertions.assertFalse(future.isSuccess());
+        Assertions.assertNotNull(future.cause());
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void receiveAck() throws InterruptedException {
+        EmbeddedChannel channel = new EmbeddedChannel(new DataEncoder("Mock"), new CommonDataHandler("Mock", 12, 3, 20, 15, 30, null));
+
+        // 未达到w: 不回复S帧
+        channel.writeInbound(receivedIFrame(0, 0));
+        channel.writeInbound(receivedIFrame(1, 0));
+        Assertions.assertNull(readFrame(channel));
+
+        // 达到w: 回复一个S帧
+        channel.writeInbound(receivedIFrame(2, 0));
+        Assertions.assertEquals(3, sFrameReceiveSequenceNum(readFrame(channel)));
+        Assertions.assertNull(readFrame(channel));
+
+        // 未达到w: 延时到期后回复S帧
+        channel.writeInbound(receivedIFrame(3, 0));
+        Assertions.assertNull(readFrame(channel));
+        Assertions.assertEquals(4, sFrameReceiveSequenceNum(awaitFrame(channel)));
+
+        // 发送I帧携带确认: 不再回复S帧
+        channel.writeInbound(receivedIFrame(4, 0));
+        channel.writeAndFlush(telemetry());
+        Assertions.assertEquals(0x00, readFrame(channel)[2] & 0x01);
+        Thread.sleep(100);
+        channel.runPendingTasks();
+        Assertions.assertNull(readFrame(channel));
+
+        // 校验序列号失败: 立即回复S帧
+        channel.writeInbound(receivedIFrame(9, 0));
+        Assertions.assertEquals(5, sFrameReceiveSequenceNum(readFrame(channel)));
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void testFrameTimeout() throws InterruptedException {
+        // t1 = 1s, t3 = 1s
+        EmbeddedChannel channel = new EmbeddedChannel(new DataEncoder("Mock"), new CommonDataHandler("Mock", 12, 8, 200, 1, 1, null));
+
+        // t3 超时: 自动发送测试帧
+        byte[] frame = null;
+        for (int i = 0; i < 300 && frame == null; i++) {
+            channel.runPendingTasks();
+            frame = readFrame(channel);
+            Thread.sleep(10);
+        }
+        Assertions.assertNotNull(frame);
+        Assertions.assertEquals(0x43, frame[2]);
+        Assertions.assertTrue(channel.isOpen());
+
+        // 未收到测试确认: t1 超时后关闭连接
+        for (int i = 0; i < 300 && channel.isOpen(); i++) {
+            channel.runPendingTasks();
+            channel.releaseOutbound();
+            Thread.sleep(10);
+        }
+        Assertions.assertFalse(channel.isOpen());
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void resume() {
+        ResumeManager resumeMgr = new ResumeManager(ResumePolicyEnum.RESEND, 60);
+        EmbeddedChannel channel1 = new EmbeddedChannel(new DataEncoder("Mock"), new CommonDataHandler("Mock", 2, 1, 0, 15, 30, resumeMgr));
+
+        // 发送3帧, 确认第1帧, 第3帧本地排队
+        channel1.writeAndFlush(telemetry());
+        channel1.writeAndFlush(telemetry());
+        channel1.writeAndFlush(telemetry());
+        channel1.releaseOutbound();
+        channel1.writeInbound(receivedSFrame(1));
+        channel1.writeAndFlush(telemetry());
+        channel1.releaseOutbound();
+
+        // 连接断开: 保存未确认的第2、3帧 及 排队的第4帧
+        channel1.close();
+        Assertions.assertEquals(3, resumeMgr.size(ResumeManager.SINGLE_PEER));
+
+        // 重新连接: 启动链路前不发送
+        EmbeddedChannel channel2 = new EmbeddedChannel(new DataEncoder("Mock"), new CommonDataHandler("Mock", 2, 1, 0, 15, 30, resumeMgr));
+        Assertions.assertNull(readFrame(channel2));
+
+        // 收到启动确认: 按新连接的序列号重新发送, 超过k的部分本地排队
+        channel2.writeInbound(MessageFactory.buildServerInitStartReplyMessage());
+        Assertions.assertEquals(0, readFrame(channel2)[2]);
+        Assertions.assertEquals(2, readFrame(channel2)[2]);
+        Assertions.assertNull(readFrame(channel2));
+        Assertions.assertEquals(0, resumeMgr.size(ResumeManager.SINGLE_PEER));
+
+        channel2.writeInbound(receivedSFrame(2));
+        Assertions.assertEquals(4, readFrame(channel2)[2]);
+
+        channel2.finishAndReleaseAll();
+    }
+
+    /**
+     * 指定对端地址的连接 (注册前设置地址, 建立连接时 CommonDataHandler 读取对端地址)
+     */
+    private EmbeddedChannel channel(String host, int port, ResumeManager resumeMgr) throws Exception {
+        InetSocketAddress remoteAddress = new InetSocketAddress(host, port);
+        EmbeddedChannel channel = new EmbeddedChannel(DefaultChannelId.newInstance(), false, false,
+                new DataEncoder("Mock"), new CommonDataHandler("Mock", 2, 1, 0, 15, 30, resumeMgr)) {
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return remoteAddress;
+            }
+        };
+        channel.register();
+        return channel;
+    }
+
+    @Test
+    void resumeSameHost() throws Exception {
+        // 同一主机的两个主站 按 host:port 配置为不同对端
+        Map<String, String> peers = new HashMap<>();
+        peers.put("10.0.0.1:2404", "master-a");
+        peers.put("10.0.0.1:2405", "master-b");
+        ResumeManager resumeMgr = new ResumeManager(ResumePolicyEnum.RESEND, 60, peers);
+
+        EmbeddedChannel masterA = channel("10.0.0.1", 2404, resumeMgr);
+        EmbeddedChannel masterB = channel("10.0.0.1", 2405, resumeMgr);
+        masterA.writeAndFlush(telemetry());
+        masterA.releaseOutbound();
+        masterA.close();
+        Assertions.assertEquals(1, resumeMgr.size("master-a"));
+
+        // 另一个主站启动链路: 不会收到主站A的消息
+        masterB.writeInbound(MessageFactory.buildServerInitStartReplyMessage());
+        Assertions.assertNull(readFrame(masterB));
+        Assertions.assertEquals(1, resumeMgr.size("master-a"));
+
+        // 未配置的对端 (同一主机的其他端口): 不恢复
+        EmbeddedChannel unknown = channel("10.0.0.1", 50000, resumeMgr);
+        unknown.writeInbound(MessageFactory.buildServerInitStartReplyMessage());
+        Assertions.assertNull(readFrame(unknown));
+        unknown.writeAndFlush(telemetry());
+        unknown.releaseOutbound();
+        unknown.close();
+
+        // 主站A 重新连接: 重新发送
+        EmbeddedChannel masterA2 = channel("10.0.0.1", 2404, resumeMgr);
+        masterA2.writeInbound(MessageFactory.buildServerInitStartReplyMessage());
+        Assertions.assertEquals(0, readFrame(masterA2)[2]);
+        Assertions.assertEquals(0, resumeMgr.size("master-a"));
+
+        masterB.finishAndReleaseAll();
+        masterA2.finishAndReleaseAll();
+    }
+
+    @Test
+    void resumeEncodedMessage() {
+        ResumeManager resumeMgr = new ResumeManager(ResumePolicyEnum.RESEND, 60);
+        EmbeddedChannel channel = new EmbeddedChannel(new DataEncoder("Mock"), new CommonDataHandler("Mock", 1, 1, 0, 15, 30, resumeMgr));
+
+        // 第1帧发送, 已编码的第2帧 (广播时所有连接共享原始消息) 本地排队
+        channel.writeAndFlush(telemetry());
+        Message shared = telemetry();
+        channel.writeAndFlush(new EncodedMessage(DataEncoder.encodeASDU(shared.getAsdu(), UnpooledByteBufAllocator.DEFAULT), shared));
+        channel.releaseOutbound();
+        channel.close();
+
+        // 保存当前连接独立的副本: ASDU 共享, 共享的原始消息不会被修改
+        List<Message> messages = resumeMgr.take(ResumeManager.SINGLE_PEER);
+        Assertions.assertEquals(2, messages.size());
+        Assertions.assertNotSame(shared, messages.get(1));
+        Assertions.assertSame(shared.getAsdu(), messages.get(1).getAsdu());
+        Assertions.assertEquals(FrameTypeEnum.I_FRAME, messages.get(1).getFrameType());
+        Assertions.assertNull(shared.getControl());
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void unknownTypeIdentifierMetrics() {
+        ProtocolMetrics metrics = new ProtocolMetrics("embedded");
+        EmbeddedChannel channel = new EmbeddedChannel(new DataEncoder("Mock"), new DataDecoder("Mock"),
+                new CommonDataHandler("Mock", 12, 1, 0, 15, 30, null, metrics));
+
+        // 设定值命令 (监视方向不支持, 类型标识符解码为空): 仍计入接收序列号并确认
+        channel.writeInbound(Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump("681000000000300106000100014000001000")));
+        Message message = channel.readInbound();
+        Assertions.assertNull(message.getAsdu().getTypeIdentifier());
+        Assertions.assertEquals(1, sFrameReceiveSequenceNum(readFrame(channel)));
+        Assertions.assertEquals(1L, metrics.snapshot().getIframesIn().get("TI_0"));
+
+        // 下一帧 发送序列号1 校验通过
+        channel.writeInbound(receivedIFrame(1, 0));
+        Assertions.assertNotNull(channel.readInbound());
+        Assertions.assertEquals(2, sFrameReceiveSequenceNum(readFrame(channel)));
+        Assertions.assertEquals(0, metrics.snapshot().getSequenceErrors());
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void metrics() {
+        ProtocolMetrics metrics = new ProtocolMetrics("embedded");
+        EmbeddedChannel channel = new EmbeddedChannel(new MetricsHandler(metrics), new DataEncoder("Mock"),
+                new CommonDataHandler("Mock", 4, 1, 0, 15, 30, null, metrics));
+        Assertions.assertEquals(1, metrics.snapshot().getConnections());
+
+        // 发送3帧I帧: 缓存深度3
+        channel.writeAndFlush(telemetry());
+        channel.writeAndFlush(telemetry());
+        channel.writeAndFlush(telemetry());
+        channel.releaseOutbound();
+        ProtocolMetricsSnapshot snapshot = metrics.snapshot();
+        Assertions.assertEquals(3, snapshot.getIframesOut().values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(3, snapshot.getCacheDepth());
+        Assertions.assertTrue(snapshot.getBytesOut() > 0);
+
+        // S帧确认前2帧, I帧确认第3帧 (并自动回复S帧)
+        channel.writeInbound(receivedSFrame(2));
+        Assertions.assertEquals(2, metrics.snapshot().getAckLatency().getCount());
+        Assertions.assertEquals(1, metrics.snapshot().getCacheDepth());
+        channel.writeInbound(receivedIFrame(0, 3));
+        channel.releaseOutbound();
+        snapshot = metrics.snapshot();
+        Assertions.assertEquals(1, snapshot.getSframesIn());
+        Assertions.assertEquals(1, snapshot.getIframesIn().values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(3, snapshot.getAckLatency().getCount());
+        Assertions.assertEquals(0, snapshot.getCacheDepth());
+        Assertions.assertEquals(1, snapshot.getSframesOut());
+
+        // 校验序列号失败
+        channel.writeInbound(receivedIFrame(5, 3));
+        channel.releaseOutbound();
+        Assertions.assertEquals(1, metrics.snapshot().getSequenceErrors());
+        Assertions.assertEquals(2, metrics.snapshot().getSframesOut());
+
+        // 测试帧往返
+        channel.writeAndFlush(MessageFactory.buildTestMessage());
+        channel.writeInbound(MessageFactory.buildTestReplyMessage());
+        channel.releaseInbound();
+        snapshot = metrics.snapshot();
+        Assertions.assertEquals(1L, snapshot.getUframesOut().get("TEST"));
+        Assertions.assertEquals(1L, snapshot.getUframesIn().get("TEST_REPLY"));
+        Assertions.assertEquals(1, snapshot.getTestRoundTrip().getCount());
+
+        // 连接关闭: 归还连接数 及 缓存深度
+        channel.writeAndFlush(telemetry());
+        channel.finishAndReleaseAll();
+        Assertions.assertEquals(0, metrics.snapshot().getConnections());
+        Assertions.assertEquals(0, metrics.snapshot().getCacheDepth());
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.baoyubo.iec104.handler;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.manager.PointImageManager;
+import com.baoyubo.iec104.model.Message;
+import com.baoyubo.iec104.model.MessageASDU;
+import com.baoyubo.iec104.model.MessageControl;
+import com.baoyubo.iec104.model.MessageInfo;
+import com.baoyubo.iec104.model.MessageVSQ;
+import com.baoyubo.iec104.util.ByteUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 23:00
+ */
+class ServerDataHandlerTest {
+
+    private static final short COMMON_ADDRESS = 1;
+
+    private PointImageManager pointImage() {
+        PointImageManager pointImageMgr = new PointImageManager();
+        for (int i = 0; i < 300; i++) {
+            pointImageMgr.update(COMMON_ADDRESS, 0x0001 + i, TypeIdentifierEnum.ONE_POINT_HARUNOBU, i & 1, (byte) 0, 0L);
+        }
+        for (int i = 0; i < 10; i++) {
+            pointImageMgr.update(COMMON_ADDRESS, 0x4001 + i, TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, i * 0.5, (byte) 0, 0L);
+            pointImageMgr.addGroup(COMMON_ADDRESS, 0x4001 + i, 9);
+        }
+        return pointImageMgr;
+    }
+
+    private Message received(Message message, int sendSequenceNum) {
+        MessageControl control = new MessageControl();
+        control.setSendSequenceNum((short) sendSequenceNum);
+        control.setReceiveSequenceNum((short) 0);
+        message.setControl(control);
+        message.getAsdu().setCommonAddress(COMMON_ADDRESS);
+        return message;
+    }
+
+    private Message generalCall(int qoi, int sendSequenceNum) {
+        Message message = MessageFactory.buildClientGeneralCallMessage();
+        MessageInfo messageInfo = message.getAsdu().getMessageInfoList().get(0);
+        messageInfo.setQualifier(null);
+        messageInfo.setQualifierValue((byte) qoi);
+        return received(message, sendSequenceNum);
+    }
+
+    private Message read(int infoAddress, int sendSequenceNum) {
+        MessageInfo messageInfo = new MessageInfo();
+        messageInfo.setInfoAddress(infoAddress);
+
+        MessageASDU asdu = new MessageASDU();
+        asdu.setTypeIdentifier(TypeIdentifierEnum.READ);
+        asdu.setVsq(new MessageVSQ(false, 1));
+        asdu.setTransferReason((short) 5);
+        asdu.setMessageInfoList(Collections.singletonList(messageInfo));
+
+        Message message = new Message();
+        message.setFrameType(FrameTypeEnum.I_FRAME);
+        message.setAsdu(asdu);
+        return received(message, sendSequenceNum);
+    }
+
+    private Message sFrame(int receiveSequenceNum) {
+        MessageControl control = new MessageControl();
+        control.setReceiveSequenceNum((short) receiveSequenceNum);
+        Message message = new Message();
+        message.setFrameType(FrameTypeEnum.S_FRAME);
+        message.setControl(control);
+        return message;
+    }
+
+    /**
+     * 读出所有I帧 (忽略S帧)
+     */
+    private List<byte[]> readIFrames(EmbeddedChannel channel) {
+        List<byte[]> frames = new ArrayList<>();
+        ByteBuf byteBuf;
+        while ((byteBuf = channel.readOutbound()) != null) {
+            byte[] frame = ByteBufUtil.getBytes(byteBuf);
+            byteBuf.release();
+            if ((frame[2] & 0x01) == 0) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+
+    private EmbeddedChannel channel(PointImageManager pointImageMgr) {
+        return new EmbeddedChannel(new DataEncoder("Mock"), new CommonDataHandler("Mock", 2, 1, 0, 15, 30, null),
+                new ServerDataHandler(operation -> Assertions.assertEquals(RemoteOperateTypeEnum.CLOSE, operation.getOperateType(), "过程映像响应不应通知业务"),
+                        null, pointImageMgr));
+    }
+
+    @Test
+    void generalCall() {
+        EmbeddedChannel channel = channel(pointImage());
+        channel.writeInbound(generalCall(20, 0));
+
+        // 发送窗口 k=2: 总召唤-确认 + 第1条响应, 其余在收到确认后继续
+        List<byte[]> frames = new ArrayList<>(readIFrames(channel));
+        Assertions.assertEquals(2, frames.size());
+        while (frames.size() < 6) {
+            channel.writeInbound(sFrame(frames.size()));
+            channel.runPendingTasks();
+            List<byte[]> sent = readIFrames(channel);
+            Assertions.assertFalse(sent.isEmpty());
+            Assertions.assertTrue(sent.size() <= 2);
+            frames.addAll(sent);
+        }
+        channel.writeInbound(sFrame(frames.size()));
+        channel.runPendingTasks();
+        Assertions.assertTrue(readIFrames(channel).isEmpty());
+
+        // 总召唤-确认, 遥信 127 + 127 + 46 (SQ=1), 遥测 10 (SQ=1), 总召唤-结束
+        int[] typeIdentifiers = {100, 1, 1, 1, 13, 100};
+        int[] sizes = {1, 0x80 | 127, 0x80 | 127, 0x80 | 46, 0x80 | 10, 1};
+        int[] transferReasons = {7, 20, 20, 20, 20, 10};
+        for (int i = 0; i < frames.size(); i++) {
+            byte[] frame = frames.get(i);
+            Assertions.assertEquals(typeIdentifiers[i], frame[6] & 0xFF);
+            Assertions.assertEquals(sizes[i], frame[7] & 0xFF);
+            Assertions.assertEquals(transferReasons[i], frame[8]);
+            Assertions.assertEquals(COMMON_ADDRESS, frame[10]);
+        }
+        Assertions.assertEquals(20, frames.get(5)[15]);
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void groupCall() {
+        EmbeddedChannel channel = channel(pointImage());
+        channel.writeInbound(generalCall(20 + 9, 0));
+
+        List<byte[]> frames = readIFrames(channel);
+        channel.writeInbound(sFrame(2));
+        channel.runPendingTasks();
+        frames.addAll(readIFrames(channel));
+
+        // 第9组: 只有遥测, 传输原因为 响应第9组召唤
+        Assertions.assertEquals(3, frames.size());
+        Assertions.assertEquals(7, frames.get(0)[8]);
+        Assertions.assertEquals(29, frames.get(0)[15]);
+        Assertions.assertEquals(13, frames.get(1)[6]);
+        Assertions.assertEquals(29, frames.get(1)[8]);
+        Assertions.assertEquals(10, frames.get(2)[8]);
+        Assertions.assertEquals(29, frames.get(2)[15]);
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void broadcastGeneralCall() {
+        PointImageManager pointImageMgr = pointImage();
+        for (int i = 0; i < 3; i++) {
+            pointImageMgr.update((short) 2, 0x4001 + i, TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, i, (byte) 0, 0L);
+        }
+        EmbeddedChannel channel = channel(pointImageMgr);
+        Message message = generalCall(20, 0);
+        message.getAsdu().setCommonAddress(Constants.BROADCAST_COMMON_ADDRESS);
+        channel.writeInbound(message);
+
+        // 按公共地址依次响应, 每次收到确认后继续
+        List<byte[]> frames = new ArrayList<>(readIFrames(channel));
+        for (int i = 0; i < 10 && frames.size() < 7; i++) {
+            channel.writeInbound(sFrame(frames.size()));
+            channel.runPendingTasks();
+            frames.addAll(readIFrames(channel));
+        }
+
+        // 总召唤-确认, 公共地址1: 遥信 3 条 + 遥测 1 条, 公共地址2: 遥测 1 条, 总召唤-结束
+        int[] commonAddresses = {0xFF, 1, 1, 1, 1, 2, 0xFF};
+        int[] transferReasons = {7, 20, 20, 20, 20, 20, 10};
+        Assertions.assertEquals(7, frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            Assertions.assertEquals(transferReasons[i], frames.get(i)[8]);
+            Assertions.assertEquals(commonAddresses[i], frames.get(i)[10] & 0xFF);
+        }
+        Assertions.assertEquals(3, frames.get(5)[7]);
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void readCommand() {
+        EmbeddedChannel channel = channel(pointImage());
+
+        channel.writeInbound(read(0x4002, 0));
+        byte[] frame = readIFrames(channel).get(0);
+        Assertions.assertEquals("68 12 00 00 02 00 0D 01 05 00 01 00 02 40 00 00 00 00 3F 00",
+                ByteUtil.toHexString(frame));
+
+        // 未知的信息对象地址: 镜像读命令, P/N=1
+        channel.writeInbound(sFrame(1));
+        channel.writeInbound(read(0x5000, 1));
+        frame = readIFrames(channel).get(0);
+        Assertions.assertEquals(102, frame[6]);
+        Assertions.assertEquals(0x40 | 47, frame[8]);
+
+        channel.finishAndReleaseAll();
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.baoyubo.iec104.journal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 20:05
+ */
+class EventJournalTest {
+
+    @TempDir
+    File dir;
+
+    private ByteBuf asdu(int i) {
+        return Unpooled.wrappedBuffer(new byte[]{0x0d, 0x01, 0x03, 0x00, 0x01, 0x00, (byte) i, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00});
+    }
+
+    private List<Long> replay(EventJournal journal, long fromSequence) {
+        List<Long> sequences = new ArrayList<>();
+        journal.replay(fromSequence, (sequence, timestamp, asdu) -> {
+            Assertions.assertEquals((byte) sequence, asdu.getByte(6));
+            sequences.add(sequence);
+        });
+        return sequences;
+    }
+
+    @Test
+    void appendAndReplay() {
+        // 每个分段最多3条记录 (20 + 13 = 33字节)
+        EventJournal journal = new EventJournal(dir, 100, 3600_000);
+        for (int i = 1; i <= 10; i++) {
+            Assertions.assertEquals(i, journal.append(asdu(i), System.currentTimeMillis()));
+        }
+        Assertions.assertEquals(4, dir.listFiles().length);
+
+        Assertions.assertEquals(10, replay(journal, 0).size());
+        Assertions.assertEquals(5, replay(journal, 6).size());
+        Assertions.assertEquals(Long.valueOf(6), replay(journal, 6).get(0));
+        Assertions.assertTrue(replay(journal, 11).isEmpty());
+
+        ByteBuf[] replayed = new ByteBuf[1];
+        journal.replay(10, (sequence, timestamp, asdu) -> replayed[0] = Unpooled.copiedBuffer(asdu));
+        Assertions.assertTrue(ByteBufUtil.equals(asdu(10), replayed[0]));
+    }
+
+    @Test
+    void reopen() {
+        EventJournal journal = new EventJournal(dir, 100, 3600_000);
+        for (int i = 1; i <= 5; i++) {
+            journal.append(asdu(i), System.currentTimeMillis());
+        }
+        journal.close();
+
+        // 重启后继续递增
+        EventJournal reopened = new EventJournal(dir, 100, 3600_000);
+        Assertions.assertEquals(1, reopened.getFirstSequence());
+        Assertions.assertEquals(6, reopened.getNextSequence());
+        Assertions.assertEquals(6, reopened.append(asdu(6), System.currentTimeMillis()));
+        Assertions.assertEquals(6, replay(reopened, 1).size());
+    }
+
+    @Test
+    void expireAndRecycle() {
+        EventJournal journal = new EventJournal(dir, 100, 0);
+        long past = System.currentTimeMillis() - 1000;
+        for (int i = 1; i <= 9; i++) {
+            journal.append(asdu(i), past);
+        }
+
+        // 切换分段时清理过期分段 (当前写入的分段除外), 回收后立即复用, 文件数量不增长
+        journal.append(asdu(10), System.currentTimeMillis());
+        Assertions.assertEquals(7, journal.getFirstSequence());
+        Assertions.assertEquals(2, dir.listFiles().length);
+        Assertions.assertEquals(4, replay(journal, 1).size());
+
+        for (int i = 11; i <= 13; i++) {
+            journal.append(asdu(i), System.currentTimeMillis());
+        }
+        Assertions.assertEquals(10, journal.getFirstSequence());
+        Assertions.assertEquals(2, dir.listFiles().length);
+        journal.close();
+
+        // 复用的分段中残留的旧记录不会被读取
+        EventJournal reopened = new EventJournal(dir, 100, 0);
+        Assertions.assertEquals(14, reopened.getNextSequence());
+    }
+
+}
@@ -188,4 +188,89 @@ class CacheManagerTest {
 
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void wraparound() {
+
+        // 默认: 缓存大小256, 序列号 0 ~ 32767
+        CacheManager cacheMgr = new CacheManager();
+
+        // [32760 ... 32767, 0 ... 9]
+        for (int i = 32760; i <= 32767; i++) {
+            cacheMgr.add(mockMessage(i));
+        }
+        for (int i = 0; i < 10; i++) {
+            cacheMgr.add(mockMessage(i));
+        }
+        Assertions.assertEquals(18, cacheMgr.size());
+        Assertions.assertEquals((short) 32767, cacheMgr.get((short) 32767).getControl().getSendSequenceNum());
+        Assertions.assertEquals((short) 0, cacheMgr.get((short) 0).getControl().getSendSequenceNum());
+        Assertions.assertNull(cacheMgr.get((short) 10));
+        Assertions.assertNull(cacheMgr.get((short) 32759));
+
+        Assertions.assertEquals("[7, 8, 9]", getStr(cacheMgr.getGreaterEqual((short) 7)));
+        Assertions.assertEquals(12, cacheMgr.getGreaterEqual((short) 32766).size());
+        Assertions.assertEquals("[]", getStr(cacheMgr.getGreaterEqual((short) 10)));
+        Assertions.assertEquals("[]", getStr(cacheMgr.getGreaterEqual((short) 32759)));
+
+        // [32764, 32765, 32766, 32767, 0 ... 9]   <-- 32764
+        cacheMgr.removeLess((short) 32764);
+        Assertions.assertEquals("[32764, 32765, 32766, 32767, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", getQueueAllStr(cacheMgr));
+
+        // 越过回绕点
+        cacheMgr.removeLess((short) 2);
+        Assertions.assertEquals("[2, 3, 4, 5, 6, 7, 8, 9]", getQueueAllStr(cacheMgr));
+
+        // 不在范围内, 不做处理
+        cacheMgr.removeLess((short) 32767);
+        Assertions.assertEquals("[2, 3, 4, 5, 6, 7, 8, 9]", getQueueAllStr(cacheMgr));
+
+        // 尾部值+1, 全部清除
+        cacheMgr.removeLess((short) 10);
+        Assertions.assertEquals("[]", getQueueAllStr(cacheMgr));
+        Assertions.assertNull(cacheMgr.get((short) 9));
+    }
+
+
+    @Test
+    public void wraparoundAtTail() {
+
+        CacheManager cacheMgr = new CacheManager();
+
+        // [32764, 32765, 32766, 32767]   <-- 0
+        for (int i = 32764; i <= 32767; i++) {
+            cacheMgr.add(mockMessage(i));
+        }
+        Assertions.assertEquals("[]", getStr(cacheMgr.getGreaterEqual((short) 0)));
+        cacheMgr.removeLess((short) 0);
+        Assertions.assertEquals("[]", getQueueAllStr(cacheMgr));
+
+        // 清空后重新添加
+        cacheMgr.add(mockMessage(0));
+        cacheMgr.add(mockMessage(1));
+        Assertions.assertEquals("[0, 1]", getQueueAllStr(cacheMgr));
+    }
+
+
+    @Test
+    public void capacity() {
+
+        // 超过缓存大小后丢弃最早的消息, 回绕后仍然连续
+        CacheManager cacheMgr = new CacheManager(4, (short) 8, (short) 0);
+        for (int i = 0; i < 20; i++) {
+            cacheMgr.add(mockMessage(i % 9));
+        }
+        // 16..19 -> 7, 8, 0, 1
+        Assertions.assertEquals("[7, 8, 0, 1]", getQueueAllStr(cacheMgr));
+        Assertions.assertEquals("[8, 0, 1]", getStr(cacheMgr.getGreaterEqual((short) 8)));
+
+        int[] count = new int[1];
+        Assertions.assertEquals(2, cacheMgr.forEachGreaterEqual((short) 0, m -> count[0]++));
+        Assertions.assertEquals(2, count[0]);
+
+        // 序列号不连续 (例如重新建立连接), 清空后重新开始
+        cacheMgr.add(mockMessage(5));
+        Assertions.assertEquals("[5]", getQueueAllStr(cacheMgr));
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.baoyubo.iec104.manager;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 10:05
+ */
+class FrameTraceManagerTest {
+
+    private ByteBuf frame(int b) {
+        return Unpooled.wrappedBuffer(new byte[]{0x68, 0x04, (byte) b, 0x00, 0x00, 0x00});
+    }
+
+    @Test
+    public void dump() {
+        FrameTraceManager frameTraceMgr = new FrameTraceManager("Mock", 0, 3);
+        Assertions.assertTrue(frameTraceMgr.dump().isEmpty());
+
+        frameTraceMgr.record(frame(0x01), false);
+        frameTraceMgr.record(frame(0x43), true);
+        List<String> lines = frameTraceMgr.dump();
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertTrue(lines.get(0).endsWith("接收 << 68 04 01 00 00 00"));
+        Assertions.assertTrue(lines.get(1).endsWith("发送 >> 68 04 43 00 00 00"));
+
+        // 超过容量后覆盖最早的报文
+        frameTraceMgr.record(frame(0x07), false);
+        frameTraceMgr.record(frame(0x0B), true);
+        lines = frameTraceMgr.dump();
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertTrue(lines.get(0).endsWith("68 04 43 00 00 00"));
+        Assertions.assertTrue(lines.get(2).endsWith("68 04 0B 00 00 00"));
+    }
+
+    @Test
+    public void recordNotMoveReaderIndex() {
+        FrameTraceManager frameTraceMgr = new FrameTraceManager("Mock", 1, 0);
+        ByteBuf frame = frame(0x01);
+        frameTraceMgr.record(frame, false);
+        Assertions.assertEquals(0, frame.readerIndex());
+        Assertions.assertTrue(frameTraceMgr.dump().isEmpty());
+    }
+
+}
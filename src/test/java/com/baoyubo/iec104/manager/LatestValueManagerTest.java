@@ -0,0 +1,116 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.model.TelemetryBatch;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 23:30
+ */
+class LatestValueManagerTest {
+
+    private TelemetryBatch telemetry(double... values) {
+        TelemetryBatch batch = new TelemetryBatch();
+        batch.reset(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, (short) 3, (short) 1);
+        for (int i = 0; i < values.length; i++) {
+            batch.add(0x4001 + i, values[i], (byte) 0, TelemetryBatch.NO_TIME_SCALE);
+        }
+        return batch;
+    }
+
+    @Test
+    void absoluteDeadband() {
+        LatestValueManager latestValueMgr = new LatestValueManager(0.5, 0, true);
+
+        // 首次收到: 全部变化
+        Assertions.assertEquals(3, latestValueMgr.filter(telemetry(10, 20, 30), 1000L));
+
+        // 只有超过死区的数据保留, 原地压缩
+        TelemetryBatch batch = telemetry(10.4, 21, 30);
+        Assertions.assertEquals(1, latestValueMgr.filter(batch, 2000L));
+        Assertions.assertEquals(1, batch.getSize());
+        Assertions.assertEquals(0x4002, batch.getInfoAddress(0));
+        Assertions.assertEquals(21, batch.getValue(0));
+
+        // 与上次通知的值比较: 10 -> 10.4 -> 10.8 累积超过死区
+        Assertions.assertEquals(1, latestValueMgr.filter(telemetry(10.8, 21, 30), 3000L));
+
+        // 最新值 始终更新
+        Assertions.assertEquals(10.8, latestValueMgr.getValue(0x4001));
+        Assertions.assertEquals(3000L, latestValueMgr.getTimestamp(0x4003));
+        Assertions.assertTrue(Double.isNaN(latestValueMgr.getValue(0x5000)));
+    }
+
+    @Test
+    void percentDeadband() {
+        LatestValueManager latestValueMgr = new LatestValueManager(0, 1, true);
+        latestValueMgr.setDeadband(0x4002, 5, Double.NaN);
+        latestValueMgr.filter(telemetry(1000, 1000), 0L);
+
+        // 1%: 1000 -> 1009 不变化, 1011 变化; 第2个点单独设置 绝对死区5 (取较大者 10)
+        Assertions.assertEquals(0, latestValueMgr.filter(telemetry(1009, 1009), 0L));
+        TelemetryBatch batch = telemetry(1011, 1011);
+        Assertions.assertEquals(2, latestValueMgr.filter(batch, 0L));
+    }
+
+    @Test
+    void qualityAndHarunobu() {
+        LatestValueManager latestValueMgr = new LatestValueManager(100, 0, true);
+        latestValueMgr.filter(telemetry(1), 0L);
+
+        // 品质描述符变化 (无效)
+        TelemetryBatch batch = telemetry(1);
+        batch.reset(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, (short) 3, (short) 1);
+        batch.add(0x4001, 1, (byte) 0x80, TelemetryBatch.NO_TIME_SCALE);
+        Assertions.assertEquals(1, latestValueMgr.filter(batch, 0L));
+        Assertions.assertEquals((byte) 0x80, latestValueMgr.getQuality(0x4001));
+
+        // 不按品质变化通知
+        LatestValueManager ignoreQuality = new LatestValueManager(100, 0, false);
+        ignoreQuality.filter(telemetry(1), 0L);
+        batch.reset(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, (short) 3, (short) 1);
+        batch.add(0x4001, 1, (byte) 0x80, TelemetryBatch.NO_TIME_SCALE);
+        Assertions.assertEquals(0, ignoreQuality.filter(batch, 0L));
+
+        // 遥信不使用死区, 值不同即为变化; 有时标时 最新值的时间取时标
+        TelemetryBatch harunobu = new TelemetryBatch();
+        harunobu.reset(TypeIdentifierEnum.ONE_POINT_TIME_HARUNOBU, (short) 3, (short) 1);
+        harunobu.add(1, 0, (byte) 0, 5000L);
+        Assertions.assertEquals(1, latestValueMgr.filter(harunobu, 0L));
+        Assertions.assertEquals(0, latestValueMgr.filter(harunobu, 0L));
+        harunobu.reset(TypeIdentifierEnum.ONE_POINT_TIME_HARUNOBU, (short) 3, (short) 1);
+        harunobu.add(1, 1, (byte) 0, 6000L);
+        Assertions.assertEquals(1, latestValueMgr.filter(harunobu, 0L));
+        Assertions.assertEquals(6000L, latestValueMgr.getTimestamp(1));
+    }
+
+    @Test
+    void snapshot() {
+        LatestValueManager latestValueMgr = new LatestValueManager(0, 0, true);
+        latestValueMgr.setDeadband(0x6000, 1, Double.NaN);
+        double[] values = new double[3000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values.length - i;
+        }
+        latestValueMgr.filter(telemetry(values), 100L);
+
+        TelemetryBatch harunobu = new TelemetryBatch();
+        harunobu.reset(TypeIdentifierEnum.ONE_POINT_HARUNOBU, (short) 20, (short) 1);
+        harunobu.add(1, 1, (byte) 0, TelemetryBatch.NO_TIME_SCALE);
+        latestValueMgr.filter(harunobu, 200L);
+
+        // 只设置了死区的信息对象不在快照中, 按信息对象地址排序
+        TelemetryBatch batch = new TelemetryBatch();
+        Assertions.assertEquals(3001, latestValueMgr.snapshot(batch));
+        Assertions.assertEquals(3002, latestValueMgr.size());
+        Assertions.assertEquals(TypeIdentifierEnum.ONE_POINT_HARUNOBU, batch.getTypeIdentifier(0));
+        Assertions.assertEquals(200L, batch.getTimeScale(0));
+        for (int i = 0; i < values.length; i++) {
+            Assertions.assertEquals(0x4001 + i, batch.getInfoAddress(1 + i));
+            Assertions.assertEquals(values[i], batch.getValue(1 + i));
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.model.TelemetryBatch;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 23:00
+ */
+class PointImageManagerTest {
+
+    @Test
+    void updateAndSnapshot() {
+        // 初始容量很小, 验证扩容后数据不丢失
+        PointImageManager pointImageMgr = new PointImageManager(4);
+        for (int i = 999; i >= 0; i--) {
+            pointImageMgr.update((short) 1, 0x4001 + i, TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, i, (byte) 0, 1000L + i);
+            pointImageMgr.update((short) 1, 0x0001 + i, TypeIdentifierEnum.ONE_POINT_HARUNOBU, i & 1, (byte) 0, 1000L + i);
+        }
+        pointImageMgr.update((short) 2, 0x0001, TypeIdentifierEnum.ONE_POINT_HARUNOBU, 1, (byte) 0x80, 5000L);
+        // 覆盖更新
+        pointImageMgr.update((short) 1, 0x4001, TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, 3.5, (byte) 0x10, 2000L);
+        Assertions.assertEquals(2001, pointImageMgr.size());
+        Assertions.assertEquals(2000L, pointImageMgr.getTimestamp((short) 1, 0x4001));
+        Assertions.assertEquals(TelemetryBatch.NO_TIME_SCALE, pointImageMgr.getTimestamp((short) 3, 0x4001));
+
+        // 按 类型标识符、信息对象地址 排序, 只包含指定公共地址
+        TelemetryBatch batch = new TelemetryBatch();
+        Assertions.assertEquals(2000, pointImageMgr.snapshot((short) 1, 0, batch));
+        Assertions.assertEquals(2000, batch.getSize());
+        Assertions.assertEquals(20, batch.getTransferReason());
+        Assertions.assertEquals(1, batch.getCommonAddress());
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(TypeIdentifierEnum.ONE_POINT_HARUNOBU, batch.getTypeIdentifier(i));
+            Assertions.assertEquals(0x0001 + i, batch.getInfoAddress(i));
+            Assertions.assertEquals(i & 1, batch.getIntValue(i));
+            Assertions.assertEquals(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, batch.getTypeIdentifier(1000 + i));
+            Assertions.assertEquals(0x4001 + i, batch.getInfoAddress(1000 + i));
+        }
+        Assertions.assertEquals(3.5, batch.getValue(1000));
+        Assertions.assertEquals(0x10, batch.getQuality(1000));
+        Assertions.assertFalse(batch.hasTimeScale(1000));
+
+        Assertions.assertArrayEquals(new short[]{1, 2}, pointImageMgr.getCommonAddresses());
+    }
+
+    @Test
+    void group() {
+        PointImageManager pointImageMgr = new PointImageManager();
+        pointImageMgr.update((short) 1, 100, TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, 1, (byte) 0, 0L);
+        pointImageMgr.update((short) 1, 101, TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, 2, (byte) 0, 0L);
+        pointImageMgr.addGroup((short) 1, 101, 1);
+        pointImageMgr.addGroup((short) 1, 101, 16);
+        // 先配置召唤组, 更新值之前不出现在响应中
+        pointImageMgr.addGroup((short) 1, 102, 1);
+
+        TelemetryBatch batch = new TelemetryBatch();
+        Assertions.assertEquals(1, pointImageMgr.snapshot((short) 1, 1, batch));
+        Assertions.assertEquals(101, batch.getInfoAddress(0));
+        Assertions.assertEquals(21, batch.getTransferReason());
+        Assertions.assertEquals(1, pointImageMgr.snapshot((short) 1, 16, batch));
+        Assertions.assertEquals(36, batch.getTransferReason());
+        Assertions.assertEquals(0, pointImageMgr.snapshot((short) 1, 2, batch));
+        Assertions.assertEquals(2, pointImageMgr.snapshot((short) 1, 0, batch));
+
+        pointImageMgr.update((short) 1, 102, TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, 3, (byte) 0, 0L);
+        Assertions.assertEquals(2, pointImageMgr.snapshot((short) 1, 1, batch));
+
+        Assertions.assertThrows(RuntimeException.class, () -> pointImageMgr.addGroup((short) 1, 100, 17));
+    }
+
+    @Test
+    void read() {
+        PointImageManager pointImageMgr = new PointImageManager();
+        pointImageMgr.update((short) 1, 0xFFFFFF, TypeIdentifierEnum.ONE_POINT_HARUNOBU, 1, (byte) 0, 0L);
+
+        TelemetryBatch batch = new TelemetryBatch(1);
+        Assertions.assertTrue(pointImageMgr.read((short) 1, 0xFFFFFF, batch));
+        Assertions.assertEquals(1, batch.getSize());
+        Assertions.assertEquals(5, batch.getTransferReason());
+        Assertions.assertEquals(1, batch.getIntValue(0));
+
+        Assertions.assertFalse(pointImageMgr.read((short) 1, 0xFFFFFE, batch));
+        Assertions.assertFalse(pointImageMgr.read((short) 0, 0xFFFFFF, batch));
+        Assertions.assertEquals(0, batch.getSize());
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.enums.ProtocolTimerEnum;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 17:40
+ */
+class ProtocolTimerManagerTest {
+
+    private final EventLoop eventLoop = new DefaultEventLoop();
+
+    private final BlockingQueue<ProtocolTimerEnum> expired = new LinkedBlockingQueue<>();
+
+    private final ProtocolTimerManager timerMgr = new ProtocolTimerManager(eventLoop, expired::add);
+
+    @AfterEach
+    void close() {
+        eventLoop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private <T> T inEventLoop(Callable<T> callable) throws Exception {
+        return eventLoop.submit(callable).get();
+    }
+
+    @Test
+    void expire() throws Exception {
+        inEventLoop(() -> {
+            timerMgr.start(ProtocolTimerEnum.T1_I_FRAME, 30);
+            return null;
+        });
+        Assertions.assertTrue(inEventLoop(() -> timerMgr.isStarted(ProtocolTimerEnum.T1_I_FRAME)));
+
+        Assertions.assertEquals(ProtocolTimerEnum.T1_I_FRAME, expired.poll(2, TimeUnit.SECONDS));
+        Assertions.assertFalse(inEventLoop(() -> timerMgr.isStarted(ProtocolTimerEnum.T1_I_FRAME)));
+    }
+
+    @Test
+    void restart() throws Exception {
+        long begin = System.nanoTime();
+        inEventLoop(() -> {
+            timerMgr.start(ProtocolTimerEnum.T3, 50);
+            return null;
+        });
+
+        // 持续重置: 截止时间不断延后, 不会到期
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(20);
+            inEventLoop(() -> {
+                timerMgr.start(ProtocolTimerEnum.T3, 50);
+                return null;
+            });
+        }
+        Assertions.assertTrue(expired.isEmpty());
+
+        Assertions.assertEquals(ProtocolTimerEnum.T3, expired.poll(2, TimeUnit.SECONDS));
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) >= 250);
+    }
+
+    @Test
+    void stop() throws Exception {
+        inEventLoop(() -> {
+            timerMgr.start(ProtocolTimerEnum.T2, 30);
+            timerMgr.startIfStopped(ProtocolTimerEnum.T1_U_FRAME, 30);
+            timerMgr.stop(ProtocolTimerEnum.T2);
+            return null;
+        });
+
+        Assertions.assertEquals(ProtocolTimerEnum.T1_U_FRAME, expired.poll(2, TimeUnit.SECONDS));
+        Assertions.assertNull(expired.poll(100, TimeUnit.MILLISECONDS));
+
+        // 全部停止后不再启动
+        inEventLoop(() -> {
+            timerMgr.stopAll();
+            timerMgr.start(ProtocolTimerEnum.T3, 10);
+            return null;
+        });
+        Assertions.assertNull(expired.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+}
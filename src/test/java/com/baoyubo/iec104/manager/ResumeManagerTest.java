@@ -0,0 +1,64 @@
+package com.baoyubo.iec104.manager;
+
+import com.baoyubo.iec104.enums.ResumePolicyEnum;
+import com.baoyubo.iec104.model.Message;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 18:50
+ */
+class ResumeManagerTest {
+
+    @Test
+    void saveAndTake() {
+        ResumeManager resumeMgr = new ResumeManager(ResumePolicyEnum.RESEND, 60);
+        resumeMgr.save("127.0.0.1", Arrays.asList(new Message(), new Message()));
+        Assertions.assertEquals(2, resumeMgr.size("127.0.0.1"));
+        Assertions.assertEquals(0, resumeMgr.size("127.0.0.2"));
+
+        Assertions.assertEquals(2, resumeMgr.take("127.0.0.1").size());
+        Assertions.assertTrue(resumeMgr.take("127.0.0.1").isEmpty());
+    }
+
+    @Test
+    void identify() {
+        // 未配置对端: 所有连接为同一对端
+        Assertions.assertEquals(ResumeManager.SINGLE_PEER, new ResumeManager(ResumePolicyEnum.RESEND, 60).identify(new InetSocketAddress("127.0.0.1", 2404)));
+        Assertions.assertNull(new ResumeManager(ResumePolicyEnum.NONE, 60).identify(new InetSocketAddress("127.0.0.1", 2404)));
+
+        // 配置对端: host:port 优先, 其次 host, 未配置的对端不恢复
+        Map<String, String> peers = new HashMap<>();
+        peers.put("10.0.0.1:2404", "master-a");
+        peers.put("10.0.0.2", "master-c");
+        ResumeManager resumeMgr = new ResumeManager(ResumePolicyEnum.RESEND, 60, peers);
+        Assertions.assertEquals("master-a", resumeMgr.identify(new InetSocketAddress("10.0.0.1", 2404)));
+        Assertions.assertNull(resumeMgr.identify(new InetSocketAddress("10.0.0.1", 2405)));
+        Assertions.assertEquals("master-c", resumeMgr.identify(new InetSocketAddress("10.0.0.2", 50000)));
+
+        resumeMgr.save(null, Arrays.asList(new Message(), new Message()));
+        Assertions.assertTrue(resumeMgr.take(null).isEmpty());
+    }
+
+    @Test
+    void none() {
+        ResumeManager resumeMgr = new ResumeManager(ResumePolicyEnum.NONE, 60);
+        resumeMgr.save("127.0.0.1", Arrays.asList(new Message(), new Message()));
+        Assertions.assertTrue(resumeMgr.take("127.0.0.1").isEmpty());
+    }
+
+    @Test
+    void expire() throws InterruptedException {
+        ResumeManager resumeMgr = new ResumeManager(ResumePolicyEnum.RESEND, 0);
+        resumeMgr.save("127.0.0.1", Arrays.asList(new Message(), new Message()));
+        Thread.sleep(5);
+        Assertions.assertTrue(resumeMgr.take("127.0.0.1").isEmpty());
+    }
+
+}
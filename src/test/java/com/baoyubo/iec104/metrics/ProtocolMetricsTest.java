@@ -0,0 +1,86 @@
+package com.baoyubo.iec104.metrics;
+
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.enums.UControlEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/19 01:30
+ */
+class ProtocolMetricsTest {
+
+    @Test
+    void counters() {
+        ProtocolMetrics metrics = new ProtocolMetrics("127.0.0.1");
+        metrics.onIFrameIn(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY.getValue());
+        metrics.onIFrameIn(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY.getValue());
+        metrics.onIFrameIn(TypeIdentifierEnum.ONE_POINT_HARUNOBU.getValue());
+        metrics.onIFrameOut((byte) 0xFE);
+        metrics.onUFrameIn(UControlEnum.TEST);
+        metrics.onUFrameIn(null);
+        metrics.onBytesIn(16);
+        metrics.onCacheDepth(3);
+        metrics.onCacheDepth(-2);
+
+        ProtocolMetricsSnapshot snapshot = metrics.snapshot();
+        Assertions.assertEquals("127.0.0.1", snapshot.getTag());
+        Assertions.assertEquals(2L, snapshot.getIframesIn().get(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY.name()));
+        Assertions.assertEquals(1L, snapshot.getIframesIn().get(TypeIdentifierEnum.ONE_POINT_HARUNOBU.name()));
+        // 未定义的类型标识符 按数值命名
+        Assertions.assertEquals(1L, snapshot.getIframesOut().get("TI_254"));
+        Assertions.assertEquals(1, snapshot.getUframesIn().size());
+        Assertions.assertEquals(16, snapshot.getBytesIn());
+        Assertions.assertEquals(1, snapshot.getCacheDepth());
+    }
+
+    @Test
+    void latency() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        Assertions.assertEquals(0, recorder.snapshot().getP99Millis());
+
+        // 99个 1ms, 1个 100ms
+        for (int i = 0; i < 99; i++) {
+            recorder.record(1_000_000);
+        }
+        recorder.record(100_000_000);
+        recorder.record(-1);
+
+        LatencySnapshot snapshot = recorder.snapshot();
+        Assertions.assertEquals(100, snapshot.getCount());
+        Assertions.assertEquals(100, snapshot.getMaxMillis());
+        Assertions.assertEquals(1.99, snapshot.getMeanMillis(), 0.001);
+        // 分桶估算: 不小于真实值, 不超过2倍
+        Assertions.assertTrue(snapshot.getP50Millis() >= 1 && snapshot.getP50Millis() < 2);
+        Assertions.assertTrue(snapshot.getP99Millis() >= 1 && snapshot.getP99Millis() < 2);
+    }
+
+    @Test
+    void registry() {
+        MetricsRegistry registry = new MetricsRegistry("Mock", 2);
+        ProtocolMetrics a = registry.get("10.0.0.1");
+        Assertions.assertSame(a, registry.get("10.0.0.1"));
+        registry.get("10.0.0.2");
+
+        // 达到上限: 新的标签统一计入 other
+        ProtocolMetrics other = registry.get("10.0.0.3");
+        Assertions.assertEquals(MetricsRegistry.OVERFLOW_TAG, other.getTag());
+        Assertions.assertSame(other, registry.get("10.0.0.4"));
+        Assertions.assertEquals(2, registry.size());
+        Assertions.assertEquals(2, registry.snapshot().size());
+
+        other.onConnected();
+        List<ProtocolMetricsSnapshot> snapshots = registry.snapshot();
+        Assertions.assertEquals(3, snapshots.size());
+        Assertions.assertEquals("10.0.0.1", snapshots.get(0).getTag());
+        Assertions.assertEquals(MetricsRegistry.OVERFLOW_TAG, snapshots.get(2).getTag());
+
+        registry.remove("10.0.0.2");
+        Assertions.assertNotSame(other, registry.get("10.0.0.5"));
+        Assertions.assertThrows(RuntimeException.class, () -> new MetricsRegistry("Mock", 0));
+    }
+
+}
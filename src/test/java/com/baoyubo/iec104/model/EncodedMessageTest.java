@@ -0,0 +1,80 @@
+package com.baoyubo.iec104.model;
+
+import com.baoyubo.iec104.constant.Constants;
+import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.handler.CommonDataHandler;
+import com.baoyubo.iec104.handler.DataEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.DefaultChannelId;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 14:10
+ */
+class EncodedMessageTest {
+
+    private EmbeddedChannel channel() {
+        // EmbeddedChannel 默认 ChannelId 相同, ChannelGroup 需要不同的 ChannelId
+        return new EmbeddedChannel(DefaultChannelId.newInstance(), new DataEncoder("Mock"), new CommonDataHandler("Mock"));
+    }
+
+    private Message telemetry() {
+        Map<Integer, Object> params = new HashMap<>();
+        params.put(100, 3.14f);
+        params.put(200, -3.14f);
+        return MessageFactory.buildServerTelemetryMessage(false, params);
+    }
+
+    private byte[] readFrame(EmbeddedChannel channel) {
+        ByteBuf byteBuf = channel.readOutbound();
+        byte[] bytes = ByteBufUtil.getBytes(byteBuf);
+        byteBuf.release();
+        return bytes;
+    }
+
+    @Test
+    void broadcast() {
+        EmbeddedChannel channel1 = channel();
+        EmbeddedChannel channel2 = channel();
+
+        // channel1 先发送一帧, 两个连接的发送序列号不同
+        channel1.writeAndFlush(telemetry());
+        readFrame(channel1);
+
+        ChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        group.add(channel1);
+        group.add(channel2);
+
+        Message message = telemetry();
+        ByteBuf asduContent = DataEncoder.encodeASDU(message.getAsdu(), UnpooledByteBufAllocator.DEFAULT);
+        Assertions.assertTrue(group.writeAndFlush(new EncodedMessage(asduContent, message)).awaitUninterruptibly().isSuccess());
+        Assertions.assertEquals(0, asduContent.refCnt());
+
+        byte[] frame1 = readFrame(channel1);
+        byte[] frame2 = readFrame(channel2);
+
+        // 控制域独立: 发送序列号分别为 1、0
+        Assertions.assertEquals(2, frame1[2]);
+        Assertions.assertEquals(0, frame2[2]);
+
+        // 与直接编码 Message 的结果一致
+        EmbeddedChannel channel3 = channel();
+        channel3.writeAndFlush(telemetry());
+        Assertions.assertArrayEquals(readFrame(channel3), frame2);
+
+        // 缓存原始消息, 用于重发
+        Assertions.assertEquals(2, channel1.attr(Constants.CACHE_MANAGER).get().getAllSendSequenceNum().size());
+    }
+
+}
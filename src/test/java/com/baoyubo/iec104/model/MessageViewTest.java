@@ -0,0 +1,153 @@
+package com.baoyubo.iec104.model;
+
+import com.baoyubo.iec104.enums.FrameTypeEnum;
+import com.baoyubo.iec104.enums.QualifiersEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.enums.UControlEnum;
+import com.baoyubo.iec104.handler.DataDecoder;
+import com.baoyubo.iec104.handler.DataEncoder;
+import com.baoyubo.iec104.util.ByteUtil;
+import com.baoyubo.iec104.util.Cp56Time2aCodec;
+import com.baoyubo.iec104.util.JsonUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.ZoneId;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/17 11:02
+ */
+class MessageViewTest {
+
+    private static final Cp56Time2aCodec SHANGHAI = new Cp56Time2aCodec(ZoneId.of("Asia/Shanghai"), false, false);
+
+    private final DataDecoder mockDataDecoder = new DataDecoder("Mock");
+
+    private MessageView view(String hex) {
+        return view(hex, Cp56Time2aCodec.DEFAULT);
+    }
+
+    private MessageView view(String hex, Cp56Time2aCodec timeCodec) {
+        return new MessageView(Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump(hex.replace(" ", ""))), timeCodec);
+    }
+
+    private Message decode(String hex) {
+        return ReflectionTestUtils.invokeMethod(mockDataDecoder, "decode", Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump(hex.replace(" ", ""))));
+    }
+
+    @Test
+    void uFrame() {
+        String hex = "43 00 00 00";
+        MessageView view = view(hex);
+        Assertions.assertEquals(FrameTypeEnum.U_FRAME, view.getFrameType());
+        Assertions.assertEquals(UControlEnum.TEST, view.getUControl());
+        Assertions.assertEquals(JsonUtil.toJsonString(decode(hex)), JsonUtil.toJsonString(view.toMessage()));
+        Assertions.assertTrue(view.release());
+    }
+
+    @Test
+    void sFrame() {
+        String hex = "01 00 00 01";
+        MessageView view = view(hex);
+        Assertions.assertEquals(FrameTypeEnum.S_FRAME, view.getFrameType());
+        Assertions.assertEquals(128, view.getReceiveSequenceNum());
+        Assertions.assertEquals(JsonUtil.toJsonString(decode(hex)), JsonUtil.toJsonString(view.toMessage()));
+    }
+
+    @Test
+    void telemetry() {
+        String hex = "00 01 06 00 0D 02 14 00 01 00 64 00 00 C3 F5 48 40 00 C8 00 00 C3 F5 48 C0 00";
+        MessageView view = view(hex);
+        Assertions.assertEquals(FrameTypeEnum.I_FRAME, view.getFrameType());
+        Assertions.assertEquals(128, view.getSendSequenceNum());
+        Assertions.assertEquals(3, view.getReceiveSequenceNum());
+        Assertions.assertEquals(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, view.getTypeIdentifier());
+        Assertions.assertFalse(view.isContinuous());
+        Assertions.assertEquals(2, view.getMessageInfoListSize());
+        Assertions.assertEquals(20, view.getTransferReason());
+        Assertions.assertEquals(1, view.getCommonAddress());
+        Assertions.assertEquals(100, view.getInfoAddress(0));
+        Assertions.assertEquals(200, view.getInfoAddress(1));
+        Assertions.assertEquals(3.14f, view.getInfoValueFloat(0));
+        Assertions.assertEquals(-3.14f, view.getInfoValueFloat(1));
+        Assertions.assertEquals(QualifiersEnum.TELEMETRY_QUALIFIER, view.getQualifier(1));
+        Assertions.assertEquals(JsonUtil.toJsonString(decode(hex)), JsonUtil.toJsonString(view.toMessage()));
+    }
+
+    @Test
+    void continuousHarunobu() {
+        String hex = "00 00 00 00 01 83 14 00 00 00 64 00 00 01 00 01";
+        MessageView view = view(hex);
+        Assertions.assertTrue(view.isContinuous());
+        Assertions.assertEquals(3, view.getMessageInfoListSize());
+        Assertions.assertEquals(100, view.getInfoAddress(0));
+        Assertions.assertEquals(102, view.getInfoAddress(2));
+        Assertions.assertEquals(1, view.getInfoValueByte(0));
+        Assertions.assertEquals(0, view.getInfoValueByte(1));
+        Assertions.assertEquals(1, view.getInfoValueByte(2));
+        Assertions.assertEquals(JsonUtil.toJsonString(decode(hex)), JsonUtil.toJsonString(view.toMessage()));
+    }
+
+    @Test
+    void timeScale() {
+        String hex = "00 00 00 00 67 01 06 00 00 00 00 00 00 E0 2E 0C 0C 81 06 17";
+        MessageView view = view(hex);
+        Assertions.assertEquals(TypeIdentifierEnum.TIME_SYNCHRONIZATION, view.getTypeIdentifier());
+        Assertions.assertEquals(decode(hex).getAsdu().getMessageInfoList().get(0).getTimeScale(), view.getTimeScale(0));
+    }
+
+    @Test
+    void protectionEvent() {
+        // 继电保护设备事件带时标: SEP(事件状态=2, EI) + 相对时间 500ms + CP56Time2a
+        String hex = "00 00 00 00 26 01 03 00 01 00 01 50 00 0A F4 01 E0 2E 0C 0C 81 06 17";
+        MessageView view = view(hex);
+        Assertions.assertEquals(TypeIdentifierEnum.PROTECTION_EVENT_TIME, view.getTypeIdentifier());
+        Assertions.assertEquals(2, view.getValue(0));
+        Assertions.assertEquals(0x08, view.getQuality(0));
+        Assertions.assertEquals(500, view.getElapsedTime(0));
+        // 时标按 UTC+08:00 解码, 与运行环境的默认时区无关
+        Assertions.assertEquals(1685592732000L, view(hex, SHANGHAI).getTimeScaleMillis(0));
+
+        Message message = decode(hex);
+        Assertions.assertEquals(500, message.getAsdu().getMessageInfoList().get(0).getElapsedTime());
+        Assertions.assertEquals(JsonUtil.toJsonString(message), JsonUtil.toJsonString(view.toMessage()));
+    }
+
+    @Test
+    void qualityDescriptor() {
+        // 品质描述词 QDS 置位 (IV): 未定义为枚举, 保留原始值并原样编码
+        String hex = "00 00 00 00 24 01 03 00 01 00 01 40 00 C3 F5 48 40 80 E0 2E 0C 0C 81 06 17";
+        Message message = decode(hex);
+        MessageInfo messageInfo = message.getAsdu().getMessageInfoList().get(0);
+        Assertions.assertNull(messageInfo.getQualifier());
+        Assertions.assertEquals((byte) 0x80, messageInfo.getQualifierValue());
+        Assertions.assertEquals(JsonUtil.toJsonString(message), JsonUtil.toJsonString(view(hex).toMessage()));
+
+        EmbeddedChannel channel = new EmbeddedChannel(new DataEncoder("Mock"));
+        channel.writeOutbound(message);
+        ByteBuf byteBuf = channel.readOutbound();
+        Assertions.assertEquals("68 19 " + hex, ByteUtil.toHexString(ByteBufUtil.getBytes(byteBuf)));
+        byteBuf.release();
+    }
+
+    @Test
+    void unknownTypeIdentifier() {
+        // 设定值命令 (监视方向不支持): 跳过信息数据, 不抛出异常
+        String hex = "00 00 00 00 30 01 06 00 01 00 01 40 00 00 10 00";
+        Message message = decode(hex);
+        Assertions.assertNull(message.getAsdu().getTypeIdentifier());
+        Assertions.assertTrue(message.getAsdu().getMessageInfoList().isEmpty());
+        Assertions.assertEquals((short) 6, message.getAsdu().getTransferReason());
+
+        MessageView view = view(hex);
+        Assertions.assertEquals((byte) 0x30, view.getTypeIdentifierValue());
+        Assertions.assertEquals(JsonUtil.toJsonString(message), JsonUtil.toJsonString(view.toMessage()));
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.baoyubo.iec104.model;
+
+import com.baoyubo.business.enums.RemoteOperateTypeEnum;
+import com.baoyubo.business.model.RemoteOperation;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.sink.RemoteOperationTelemetrySink;
+import com.baoyubo.iec104.util.Cp56Time2aCodec;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/17 15:40
+ */
+class TelemetryBatchTest {
+
+    private MessageView view(String hex) {
+        return view(hex, Cp56Time2aCodec.DEFAULT);
+    }
+
+    private MessageView view(String hex, Cp56Time2aCodec timeCodec) {
+        return new MessageView(Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump(hex.replace(" ", ""))), timeCodec);
+    }
+
+    @Test
+    void telemetry() {
+        MessageView view = view("00 01 06 00 0D 02 14 00 01 00 64 00 00 C3 F5 48 40 00 C8 00 00 C3 F5 48 C0 00");
+        TelemetryBatch batch = new TelemetryBatch();
+        batch.fill(view);
+        Assertions.assertEquals(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, batch.getTypeIdentifier());
+        Assertions.assertEquals(20, batch.getTransferReason());
+        Assertions.assertEquals(1, batch.getCommonAddress());
+        Assertions.assertEquals(2, batch.getSize());
+        Assertions.assertEquals(100, batch.getInfoAddress(0));
+        Assertions.assertEquals(3.14f, batch.getFloatValue(0));
+        Assertions.assertEquals(200, batch.getInfoAddress(1));
+        Assertions.assertEquals(-3.14f, batch.getFloatValue(1));
+        Assertions.assertFalse(batch.hasTimeScale(0));
+
+        // 视图与 Message 填充结果一致
+        TelemetryBatch asduBatch = new TelemetryBatch(1);
+        asduBatch.fill(view.toMessage().getAsdu());
+        Assertions.assertEquals(batch.getSize(), asduBatch.getSize());
+        Assertions.assertEquals(batch.getValue(1), asduBatch.getValue(1));
+
+        RemoteOperation remoteOperation = RemoteOperationTelemetrySink.toRemoteOperation(batch);
+        Assertions.assertEquals(RemoteOperateTypeEnum.GENERAL_CALL_TELEMETRY, remoteOperation.getOperateType());
+        Assertions.assertEquals(3.14f, remoteOperation.getParams().get(100));
+    }
+
+    @Test
+    void continuousHarunobu() {
+        MessageView view = view("00 00 00 00 01 83 03 00 01 00 64 00 00 01 00 81");
+        TelemetryBatch batch = new TelemetryBatch();
+        batch.fill(view);
+        Assertions.assertEquals(3, batch.getSize());
+        Assertions.assertEquals(102, batch.getInfoAddress(2));
+        Assertions.assertEquals(1, batch.getIntValue(0));
+        Assertions.assertEquals(0, batch.getIntValue(1));
+        Assertions.assertEquals(1, batch.getIntValue(2));
+        Assertions.assertEquals((byte) 0x80, batch.getQuality(2));
+
+        RemoteOperation remoteOperation = RemoteOperationTelemetrySink.toRemoteOperation(batch);
+        Assertions.assertEquals(RemoteOperateTypeEnum.HARUNOBU, remoteOperation.getOperateType());
+        Assertions.assertEquals((int) (byte) 0x81, remoteOperation.getParams().get(102));
+    }
+
+    @Test
+    void shortFloatTime() {
+        // 短浮点数带时标 CP56Time2a, 品质描述词 IV
+        // 时标按 UTC+08:00 解码, 与运行环境的默认时区无关
+        Cp56Time2aCodec timeCodec = new Cp56Time2aCodec(ZoneId.of("Asia/Shanghai"), false, false);
+        MessageView view = view("00 00 00 00 24 01 03 00 01 00 01 40 00 C3 F5 48 40 80 E0 2E 0C 0C 81 06 17", timeCodec);
+        TelemetryBatch batch = new TelemetryBatch();
+        batch.fill(view);
+        Assertions.assertEquals(TypeIdentifierEnum.SHORT_FLOAT_POINT_TIME_TELEMETRY, batch.getTypeIdentifier());
+        Assertions.assertEquals(0x4001, batch.getInfoAddress(0));
+        Assertions.assertEquals(3.14f, batch.getFloatValue(0));
+        Assertions.assertEquals((byte) 0x80, batch.getQuality(0));
+        Assertions.assertEquals(1685592732000L, batch.getTimeScale(0));
+
+        TelemetryBatch asduBatch = new TelemetryBatch();
+        asduBatch.fill(view.toMessage().getAsdu());
+        Assertions.assertEquals((byte) 0x80, asduBatch.getQuality(0));
+        Assertions.assertEquals(1685592732000L, asduBatch.getTimeScale(0));
+    }
+
+    @Test
+    void integratedTotals() {
+        // 累计量 (连续): 计数值 + 顺序号/CY/CA/IV
+        MessageView view = view("00 00 00 00 0F 82 25 00 01 00 01 64 00 10 27 00 00 01 FF FF FF FF C2");
+        Assertions.assertTrue(TelemetryBatch.isSupported(view.getTypeIdentifier()));
+        TelemetryBatch batch = new TelemetryBatch();
+        batch.fill(view);
+        Assertions.assertEquals(2, batch.getSize());
+        Assertions.assertEquals(0x6402, batch.getInfoAddress(1));
+        Assertions.assertEquals(10000, batch.getIntValue(0));
+        Assertions.assertEquals(0, batch.getQuality(0));
+        Assertions.assertEquals(-1, batch.getIntValue(1));
+        Assertions.assertEquals((byte) 0xC0, batch.getQuality(1));
+        Assertions.assertFalse(batch.hasTimeScale(1));
+    }
+
+    @Test
+    void copy() {
+        TelemetryBatch batch = new TelemetryBatch();
+        batch.fill(view("00 01 06 00 0D 02 14 00 01 00 64 00 00 C3 F5 48 40 00 C8 00 00 C3 F5 48 C0 00"));
+        TelemetryBatch copy = batch.copy();
+
+        // 复制后与原批次互不影响 (原批次在 IO 线程复用)
+        batch.reset(TypeIdentifierEnum.ONE_POINT_HARUNOBU, (short) 3, (short) 2);
+        batch.add(1, 1, (byte) 0, TelemetryBatch.NO_TIME_SCALE);
+        Assertions.assertEquals(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, copy.getTypeIdentifier());
+        Assertions.assertEquals(20, copy.getTransferReason());
+        Assertions.assertEquals(1, copy.getCommonAddress());
+        Assertions.assertEquals(2, copy.getSize());
+        Assertions.assertEquals(100, copy.getInfoAddress(0));
+        Assertions.assertEquals(3.14f, copy.getFloatValue(0));
+        Assertions.assertEquals(-3.14f, copy.getFloatValue(1));
+    }
+
+    @Test
+    void mixedAppend() {
+        // 总召唤响应: 单点遥信 + 标度化值 合并为一个批次
+        TelemetryBatch batch = new TelemetryBatch(1);
+        batch.reset(null, (short) 20, (short) 1);
+        batch.append(view("00 00 00 00 01 01 14 00 01 00 01 00 00 81"));
+        Assertions.assertEquals(TypeIdentifierEnum.ONE_POINT_HARUNOBU, batch.getTypeIdentifier());
+        batch.append(view("00 00 00 00 0B 01 14 00 01 00 01 40 00 E8 03 00"));
+        Assertions.assertNull(batch.getTypeIdentifier());
+        Assertions.assertEquals(2, batch.getSize());
+        Assertions.assertEquals(TypeIdentifierEnum.ONE_POINT_HARUNOBU, batch.getTypeIdentifier(0));
+        Assertions.assertEquals(TypeIdentifierEnum.SCALED_TELEMETRY, batch.getTypeIdentifier(1));
+        Assertions.assertEquals(1000, batch.getIntValue(1));
+
+        RemoteOperation remoteOperation = RemoteOperationTelemetrySink.toRemoteOperation(batch);
+        Assertions.assertEquals(RemoteOperateTypeEnum.GENERAL_CALL_TELEMETRY, remoteOperation.getOperateType());
+        Assertions.assertEquals((int) (byte) 0x81, remoteOperation.getParams().get(1));
+        Assertions.assertEquals(1000f, remoteOperation.getParams().get(0x4001));
+    }
+
+}
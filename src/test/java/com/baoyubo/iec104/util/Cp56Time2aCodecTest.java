@@ -0,0 +1,121 @@
+package com.baoyubo.iec104.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/18 21:30
+ */
+class Cp56Time2aCodecTest {
+
+    private static final ZoneId SHANGHAI = ZoneId.of("Asia/Shanghai");
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private String encode(Cp56Time2aCodec codec, long epochMillis) {
+        ByteBuf byteBuf = Unpooled.buffer(Cp56Time2aCodec.LENGTH);
+        codec.write(byteBuf, epochMillis);
+        return ByteUtil.toHexString(ByteBufUtil.getBytes(byteBuf));
+    }
+
+    private long decode(Cp56Time2aCodec codec, String hex) {
+        ByteBuf byteBuf = Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump(hex.replace(" ", "")));
+        long epochMillis = codec.read(byteBuf);
+        Assertions.assertEquals(0, byteBuf.readableBytes());
+        return epochMillis;
+    }
+
+    @Test
+    void encodeAndDecode() {
+        Cp56Time2aCodec codec = new Cp56Time2aCodec(SHANGHAI, false, false);
+
+        // 2023-06-01 12:12:12 星期四
+        Assertions.assertEquals("E0 2E 0C 0C 81 06 17", encode(codec, 1685592732000L));
+        Assertions.assertEquals(1685592732000L, decode(codec, "E0 2E 0C 0C 81 06 17"));
+
+        // 跨天、跨月、跨年 (缓存失效后重新计算)
+        long start = ZonedDateTime.of(2023, 12, 31, 22, 0, 0, 0, SHANGHAI).toInstant().toEpochMilli();
+        for (long millis = start; millis < start + 4 * 3_600_000L; millis += 7_777) {
+            ByteBuf byteBuf = Unpooled.buffer(Cp56Time2aCodec.LENGTH);
+            codec.write(byteBuf, millis);
+            Assertions.assertEquals(millis, codec.read(byteBuf));
+        }
+
+        // 2024-01-01 00:00:00.001 星期一
+        Assertions.assertEquals("01 00 00 00 21 01 18", encode(codec, start + 2 * 3_600_000L + 1));
+    }
+
+    @Test
+    void summerTime() {
+        Cp56Time2aCodec codec = new Cp56Time2aCodec(BERLIN, true, false);
+
+        // 2023-10-29 02:30 出现两次: 夏令时 (UTC+2) 设置SU标志, 标准时 (UTC+1) 不设置
+        long summer = ZonedDateTime.of(2023, 10, 29, 2, 30, 0, 0, BERLIN).withEarlierOffsetAtOverlap().toInstant().toEpochMilli();
+        long standard = summer + 3_600_000L;
+        Assertions.assertEquals("00 00 1E 82 FD 0A 17", encode(codec, summer));
+        Assertions.assertEquals("00 00 1E 02 FD 0A 17", encode(codec, standard));
+        Assertions.assertEquals(summer, decode(codec, "00 00 1E 82 FD 0A 17"));
+        Assertions.assertEquals(standard, decode(codec, "00 00 1E 02 FD 0A 17"));
+
+        // 切换日前后 整点往返
+        for (long millis = summer - 6 * 3_600_000L; millis < summer + 6 * 3_600_000L; millis += 60_000L) {
+            ByteBuf byteBuf = Unpooled.buffer(Cp56Time2aCodec.LENGTH);
+            codec.write(byteBuf, millis);
+            Assertions.assertEquals(millis, codec.read(byteBuf));
+        }
+
+        // 不设置SU标志
+        Assertions.assertEquals("00 00 1E 02 FD 0A 17", encode(new Cp56Time2aCodec(BERLIN, false, false), summer));
+    }
+
+    @Test
+    void invalid() {
+        // IV标志置位
+        String hex = "E0 2E 8C 0C 81 06 17";
+        Assertions.assertEquals(1685592732000L, decode(new Cp56Time2aCodec(SHANGHAI, false, false), hex));
+        Assertions.assertEquals(Cp56Time2aCodec.INVALID_TIME, decode(new Cp56Time2aCodec(SHANGHAI, false, true), hex));
+
+        // 字段越界: 2023-02-30 顺延为 2023-03-02
+        String overflow = "00 00 00 00 1E 02 17";
+        long expected = ZonedDateTime.of(2023, 3, 2, 0, 0, 0, 0, SHANGHAI).toInstant().toEpochMilli();
+        Assertions.assertEquals(expected, decode(new Cp56Time2aCodec(SHANGHAI, false, false), overflow));
+        Assertions.assertEquals(Cp56Time2aCodec.INVALID_TIME, decode(new Cp56Time2aCodec(SHANGHAI, false, true), overflow));
+
+        // 写入无效时标
+        ByteBuf byteBuf = Unpooled.buffer(Cp56Time2aCodec.LENGTH);
+        Cp56Time2aCodec.DEFAULT.writeInvalid(byteBuf);
+        Assertions.assertEquals("00 00 80 00 00 00 00", ByteUtil.toHexString(ByteBufUtil.getBytes(byteBuf)));
+    }
+
+    @Test
+    void cp24() {
+        Cp56Time2aCodec codec = new Cp56Time2aCodec(SHANGHAI, false, false);
+        long reference = ZonedDateTime.of(2023, 6, 1, 12, 59, 50, 0, SHANGHAI).toInstant().toEpochMilli();
+
+        // 写入: 分钟内毫秒数 + 分钟
+        ByteBuf byteBuf = Unpooled.buffer(Cp56Time2aCodec.CP24_LENGTH);
+        codec.writeCp24(byteBuf, reference);
+        Assertions.assertEquals("50 C3 3B", ByteUtil.toHexString(ByteBufUtil.getBytes(byteBuf)));
+        Assertions.assertEquals(reference, codec.getCp24(byteBuf, 0, reference + 1000));
+
+        // 跨整点: 13:00:05 按参考时间补全为下一个小时
+        ByteBuf next = Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump("881300"));
+        Assertions.assertEquals(reference + 15_000L, codec.getCp24(next, 0, reference));
+        // 12:58:00 早于参考时间
+        ByteBuf previous = Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump("00003A"));
+        Assertions.assertEquals(reference - 110_000L, codec.getCp24(previous, 0, reference));
+
+        // 无效时标
+        ByteBuf invalid = Unpooled.buffer(Cp56Time2aCodec.CP24_LENGTH);
+        codec.writeInvalidCp24(invalid);
+        Assertions.assertEquals(Cp56Time2aCodec.INVALID_TIME, new Cp56Time2aCodec(SHANGHAI, false, true).getCp24(invalid, 0, reference));
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.baoyubo.iec104.util;
+
+import com.baoyubo.iec104.enums.CotEnum;
+import com.baoyubo.iec104.enums.TypeIdentifierEnum;
+import com.baoyubo.iec104.factory.MessageFactory;
+import com.baoyubo.iec104.model.Message;
+import com.baoyubo.iec104.model.TelemetryBatch;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * @author yubo.bao
+ * @date 2026/10/19 00:30
+ */
+class PushBatchParserTest {
+
+    private List<TelemetryBatch> parse(String json) {
+        return PushBatchParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void paramsAndColumns() {
+        List<TelemetryBatch> batches = parse("["
+                + "{\"operateType\": \"TELEMETRY\", \"params\": {\"16386\": 2.5, \"16385\": 1}},"
+                + "{\"ioa\": [3, 1], \"value\": [true, 0], \"quality\": [128, 0], \"operate_type\": \"general_call_harunobu\"},"
+                + "{\"operateType\": \"HARUNOBU\", \"ioa\": [2], \"value\": [1], \"unknown\": {\"a\": [1]}}"
+                + "]");
+
+        // 突发(自发) 批次在前, 总召唤 批次在后
+        Assertions.assertEquals(2, batches.size());
+        TelemetryBatch spontaneous = batches.get(0);
+        Assertions.assertEquals(CotEnum.SPONT.getCode(), spontaneous.getTransferReason());
+        Assertions.assertEquals(3, spontaneous.getSize());
+        Assertions.assertEquals(TypeIdentifierEnum.SHORT_FLOAT_POINT_TELEMETRY, spontaneous.getTypeIdentifier(0));
+        Assertions.assertEquals(16386, spontaneous.getInfoAddress(0));
+        Assertions.assertEquals(2.5, spontaneous.getValue(0));
+        Assertions.assertEquals(TypeIdentifierEnum.ONE_POINT_HARUNOBU, spontaneous.getTypeIdentifier(2));
+
+        TelemetryBatch generalCall = batches.get(1);
+        Assertions.assertEquals(CotEnum.INTROGEN.getCode(), generalCall.getTransferReason());
+        Assertions.assertEquals(2, generalCall.getSize());
+        Assertions.assertEquals(3, generalCall.getInfoAddress(0));
+        Assertions.assertEquals(1, generalCall.getValue(0));
+        Assertions.assertEquals((byte) 0x80, generalCall.getQuality(0));
+
+        // 排序后 遥信在前 (TI 1 < 13), 同类型按信息对象地址升序
+        spontaneous.sort();
+        Assertions.assertEquals(2, spontaneous.getInfoAddress(0));
+        Assertions.assertEquals(16385, spontaneous.getInfoAddress(1));
+        Assertions.assertEquals(1, spontaneous.getValue(1));
+        Assertions.assertEquals(16386, spontaneous.getInfoAddress(2));
+
+        List<Message> messages = MessageFactory.buildServerPointMessages(spontaneous);
+        Assertions.assertEquals(2, messages.size());
+        Assertions.assertEquals(TypeIdentifierEnum.ONE_POINT_HARUNOBU, messages.get(0).getAsdu().getTypeIdentifier());
+        Assertions.assertEquals(2, messages.get(1).getAsdu().getMessageInfoList().size());
+        Assertions.assertEquals(CotEnum.SPONT.getCode(), messages.get(1).getAsdu().getTransferReason());
+    }
+
+    @Test
+    void largeColumns() {
+        StringBuilder ioa = new StringBuilder();
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            ioa.append(i == 0 ? "" : ",").append(0x4001 + i);
+            value.append(i == 0 ? "" : ",").append(i * 0.5);
+        }
+        List<TelemetryBatch> batches = parse("{\"operateType\": \"TELEMETRY\", \"ioa\": [" + ioa + "], \"value\": [" + value + "]}");
+        Assertions.assertEquals(1, batches.size());
+        TelemetryBatch batch = batches.get(0);
+        Assertions.assertEquals(20000, batch.getSize());
+        Assertions.assertEquals(0x4001 + 19999, batch.getInfoAddress(19999));
+        Assertions.assertEquals(19999 * 0.5, batch.getValue(19999));
+
+        // 连续地址按 SQ=1 打包
+        List<Message> messages = MessageFactory.buildServerPointMessages(batch);
+        int count = 0;
+        for (Message message : messages) {
+            Assertions.assertTrue(message.getAsdu().getVsq().getIsContinuous());
+            count += message.getAsdu().getMessageInfoList().size();
+        }
+        Assertions.assertEquals(20000, count);
+    }
+
+    @Test
+    void invalid() {
+        Assertions.assertTrue(parse("[]").isEmpty());
+        Assertions.assertThrows(RuntimeException.class, () -> parse("{\"ioa\": [1], \"value\": [1]}"));
+        Assertions.assertThrows(RuntimeException.class, () -> parse("{\"operateType\": \"REMOTE_CONTROL\", \"params\": {\"1\": 1}}"));
+        Assertions.assertThrows(RuntimeException.class, () -> parse("{\"operateType\": \"TELEMETRY\", \"ioa\": [1, 2], \"value\": [1]}"));
+        Assertions.assertThrows(RuntimeException.class, () -> parse("{\"operateType\": \"TELEMETRY\", \"params\": {\"16777216\": 1}}"));
+        Assertions.assertThrows(RuntimeException.class, () -> parse("{\"operateType\": \"TELEMETRY\", \"params\": {\"1\": \"a\"}}"));
+        Assertions.assertThrows(RuntimeException.class, () -> parse("{\"operateType\": \"TELEMETRY\", \"ioa\": [1, 2"));
+        Assertions.assertThrows(RuntimeException.class, () -> parse("[1]"));
+    }
+
+}